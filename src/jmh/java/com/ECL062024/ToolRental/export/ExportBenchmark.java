@@ -0,0 +1,76 @@
+package com.ECL062024.ToolRental.export;
+
+import com.ECL062024.ToolRental.controller.RentalAgreementResponse;
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of exporting one agreement: Jackson serialization of the REST response against
+ * {@link AgreementEncoder} JSON and binary encoding into a direct buffer.
+ * Run with {@code -prof gc} (the profile default) to report allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExportBenchmark {
+
+    private ObjectMapper objectMapper;
+    private RentalAgreement agreement;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        buffer = ByteBuffer.allocateDirect(1024);
+        agreement = new RentalAgreement.Builder("JAKR", "Jackhammer", "Ridgid")
+                .rentalDays(9)
+                .checkoutDate(LocalDate.of(2015, 7, 2))
+                .dueDate(LocalDate.of(2015, 7, 11))
+                .dailyChargeCents(299)
+                .chargeDays(5)
+                .preDiscountChargeCents(1495)
+                .discountPercent(0)
+                .discountAmountCents(0)
+                .finalChargeCents(1495)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] jackson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(RentalAgreementResponse.from(agreement));
+    }
+
+    @Benchmark
+    public int encodeJson() {
+        buffer.clear();
+        return AgreementEncoder.encodeJson(agreement, buffer);
+    }
+
+    @Benchmark
+    public int encodeBinary() {
+        buffer.clear();
+        return AgreementEncoder.encodeBinary(agreement, buffer);
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.ECL062024.ToolRental.inventory;
+
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import com.ECL062024.ToolRental.model.ReturnRequest;
+import com.ECL062024.ToolRental.service.ToolRentalService;
+import com.ECL062024.ToolRental.service.ToolUnavailableException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of checking one hot tool out and back in from many threads, over random weeks of a year.
+ * Compare scaling by running with increasing thread counts, e.g.
+ * {@code -Djmh.args="InventoryBenchmark -t 1"}, then {@code -t 2}, {@code -t 4} and so on.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InventoryBenchmark {
+
+    private static final int HORIZON_DAYS = 365;
+
+    @Param({"1", "64", "100000"})
+    private int units;
+
+    private ToolRentalService toolRentalService;
+
+    private String[] checkoutDates;
+
+    @Setup
+    public void setUp() {
+        toolRentalService = new ToolRentalService.Builder()
+                .toolInventory(new ToolInventory("JAKR:" + units))
+                .returnsEnabled(true)
+                .build();
+        checkoutDates = new String[HORIZON_DAYS];
+        LocalDate first = LocalDate.of(2020, 1, 1);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("MM/dd/yy");
+        for (int day = 0; day < HORIZON_DAYS; day++) {
+            checkoutDates[day] = first.plusDays(day).format(format);
+        }
+    }
+
+    @Benchmark
+    public boolean checkOutAndIn() throws ParseException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        RentalAgreement agreement;
+        try {
+            agreement = toolRentalService.checkOutTool("JAKR", 1 + random.nextInt(7), 0,
+                    checkoutDates[random.nextInt(HORIZON_DAYS)]);
+        } catch (ToolUnavailableException e) {
+            return false;
+        }
+        toolRentalService.checkInTool(ReturnRequest.of(agreement, agreement.getDueLocalDate()));
+        return true;
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.ECL062024.ToolRental.journal;
+
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of journaling one agreement durably.
+ * Run with increasing thread counts, e.g. {@code -Djmh.args="JournalBenchmark -t 16"}, to see concurrent
+ * appends share syncs; the journal is written to the temporary directory, so results depend on its device.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JournalBenchmark {
+
+    @Param({"0", "200"})
+    private int maxDelayMicros;
+
+    @Param({"true", "false"})
+    private boolean fsync;
+
+    private Path directory;
+    private AgreementJournal journal;
+    private RentalAgreement agreement;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = new AgreementJournal(true, directory.resolve("agreements.journal"), 256,
+                Duration.ofNanos(maxDelayMicros * 1000L), fsync);
+        journal.afterPropertiesSet();
+        agreement = new RentalAgreement.Builder("LADW", "Ladder", "Werner")
+                .rentalDays(3)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .dueDate(LocalDate.of(2020, 7, 5))
+                .dailyChargeCents(199)
+                .chargeDays(2)
+                .preDiscountChargeCents(398)
+                .discountPercent(10)
+                .discountAmountCents(40)
+                .finalChargeCents(358)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.destroy();
+        Files.deleteIfExists(directory.resolve("agreements.journal"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void append() {
+        journal.append("", agreement);
+    }
+
+}
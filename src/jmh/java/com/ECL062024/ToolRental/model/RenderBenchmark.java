@@ -0,0 +1,90 @@
+package com.ECL062024.ToolRental.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rendering one agreement: the formatter-per-call output printRentalAgreement used to build,
+ * against {@link RentalAgreementRenderer} into a string and into a byte buffer.
+ * Run with {@code -prof gc} (the profile default) to report allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+
+    @Param({"en_US", "de_DE"})
+    private String locale;
+
+    private Locale formatLocale;
+    private RentalAgreement agreement;
+    private RentalAgreementRenderer renderer;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        formatLocale = Locale.forLanguageTag(locale.replace('_', '-'));
+        renderer = RentalAgreementRenderer.forLocale(formatLocale);
+        buffer = ByteBuffer.allocateDirect(1024);
+        agreement = new RentalAgreement.Builder("JAKR", "Jackhammer", "Ridgid")
+                .rentalDays(9)
+                .checkoutDate(LocalDate.of(2015, 7, 2))
+                .dueDate(LocalDate.of(2015, 7, 11))
+                .dailyChargeCents(299)
+                .chargeDays(5)
+                .preDiscountChargeCents(1495)
+                .discountPercent(0)
+                .discountAmountCents(0)
+                .finalChargeCents(1495)
+                .build();
+    }
+
+    @Benchmark
+    public String formatters() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yy");
+        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(formatLocale);
+        return "Tool code: " + agreement.getToolCode() + "\n"
+                + "Tool type: " + agreement.getToolType() + "\n"
+                + "Tool brand: " + agreement.getToolBrand() + "\n"
+                + "Rental days: " + agreement.getRentalDays() + "\n"
+                + "Checkout date: " + dateFormat.format(agreement.getCheckoutDate()) + "\n"
+                + "Due date: " + dateFormat.format(agreement.getDueDate()) + "\n"
+                + "Daily rental charge: " + currencyFormat.format(agreement.getDailyCharge()) + "\n"
+                + "Charge days: " + agreement.getChargeDays() + "\n"
+                + "Pre-discount charge: " + currencyFormat.format(agreement.getPreDiscountCharge()) + "\n"
+                + "Discount percent: " + agreement.getDiscountPercent() + "%\n"
+                + "Discount amount: " + currencyFormat.format(agreement.getDiscountAmount()) + "\n"
+                + "Final charge: " + currencyFormat.format(agreement.getFinalCharge()) + "\n";
+    }
+
+    @Benchmark
+    public String renderString() {
+        return renderer.render(agreement);
+    }
+
+    @Benchmark
+    public int renderByteBuffer() {
+        buffer.clear();
+        return renderer.render(agreement, buffer);
+    }
+
+}
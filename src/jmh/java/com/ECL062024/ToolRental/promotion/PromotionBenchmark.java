@@ -0,0 +1,72 @@
+package com.ECL062024.ToolRental.promotion;
+
+import com.ECL062024.ToolRental.model.Tool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of matching one rental against a growing number of campaigns, each targeting one of many tool types and
+ * brands, optionally behind a coupon code, and running for a few weeks within a five-year span.
+ * Run with {@code -prof gc} (the profile default) to report allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromotionBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int campaigns;
+
+    private PromotionEngine promotionEngine;
+    private Tool tool;
+    private long checkoutDay;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(22);
+        LocalDate first = LocalDate.of(2022, 1, 1);
+        List<Promotion> promotions = new ArrayList<>(campaigns);
+        for (int i = 0; i < campaigns; i++) {
+            LocalDate start = first.plusDays(random.nextInt(5 * 365));
+            Promotion.Builder builder = new Promotion.Builder("campaign-" + i, 1 + random.nextInt(30))
+                    .stackable(random.nextInt(4) == 0)
+                    .toolType("Type" + random.nextInt(50))
+                    .from(start)
+                    .until(start.plusDays(7 + random.nextInt(28)));
+            if (random.nextBoolean()) {
+                builder.toolBrand("Brand" + random.nextInt(20));
+            }
+            if (random.nextInt(10) == 0) {
+                builder.couponCode("CODE" + i);
+            }
+            promotions.add(builder.build());
+        }
+        promotionEngine = new PromotionEngine(promotions);
+        tool = new Tool("T7", "Type7", "Brand3", 1.99, true, true, false);
+        checkoutDay = LocalDate.of(2024, 7, 2).toEpochDay();
+    }
+
+    @Benchmark
+    public int discountPercent() {
+        return promotionEngine.discountPercent(tool, checkoutDay, null, 10);
+    }
+
+}
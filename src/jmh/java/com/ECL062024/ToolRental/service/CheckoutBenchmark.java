@@ -0,0 +1,53 @@
+package com.ECL062024.ToolRental.service;
+
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of {@link ToolRentalService#checkOutTool}.
+ * Run with {@code -prof gc} (the profile default) to report allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckoutBenchmark {
+
+    @Param({"1", "30", "365", "3650"})
+    private int rentalDays;
+
+    @Param({"0", "10", "50"})
+    private int discountPercent;
+
+    @Param({"CHNS", "LADW", "JAKR"})
+    private String toolCode;
+
+    private ToolRentalService toolRentalService;
+
+    @Setup
+    public void setUp() {
+        // ToolRepository lookups are static, so the service needs no repository instance
+        toolRentalService = new ToolRentalService.Builder().build();
+    }
+
+    @Benchmark
+    public RentalAgreement checkOutTool() throws ParseException {
+        return toolRentalService.checkOutTool(toolCode, rentalDays, discountPercent, "07/02/20");
+    }
+
+}
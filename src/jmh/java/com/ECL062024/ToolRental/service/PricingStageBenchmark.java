@@ -0,0 +1,117 @@
+package com.ECL062024.ToolRental.service;
+
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import com.ECL062024.ToolRental.model.Tool;
+import com.ECL062024.ToolRental.pricing.PricingEngine;
+import com.ECL062024.ToolRental.repository.ToolRepository;
+import com.ECL062024.ToolRental.store.StoreShard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the individual stages of a checkout: chargeable-day counting, date parsing,
+ * charge math, with and without tiered, capped and seasonal pricing rules, and agreement construction.
+ * Run with {@code -prof gc} (the profile default) to report allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingStageBenchmark {
+
+    @Param({"1", "30", "365", "3650"})
+    private int rentalDays;
+
+    @Param({"0", "10", "50"})
+    private int discountPercent;
+
+    @Param({"CHNS", "LADW", "JAKR"})
+    private String toolCode;
+
+    private ToolRentalService toolRentalService;
+    private PricingEngine pricingEngine;
+    private Tool tool;
+    private long checkoutDay;
+    private long dailyCharge;
+    private long preDiscountCharge;
+    private long discountAmount;
+    private long finalCharge;
+    private int chargeableDays;
+
+    @Setup
+    public void setUp() throws ParseException {
+        // ToolRepository lookups are static, so the service needs no repository instance
+        toolRentalService = new ToolRentalService.Builder().build();
+        tool = ToolRepository.findByCode(toolCode);
+        checkoutDay = toolRentalService.parseDate("07/02/20");
+        chargeableDays = toolRentalService.calculateChargeableDays(tool, checkoutDay, rentalDays);
+        dailyCharge = tool.getDailyChargeCents();
+        preDiscountCharge = toolRentalService.calculatePreDiscountCharge(dailyCharge, chargeableDays);
+        discountAmount = toolRentalService.calculateDiscountAmount(preDiscountCharge, discountPercent);
+        finalCharge = toolRentalService.calculateFinalCharge(preDiscountCharge, discountAmount);
+        pricingEngine = new PricingEngine("*: day 4+ at 80%, *: weekly cap 9.99, *: monthly cap 29.99,"
+                + " *: 06-01 to 08-31 surcharge 15%");
+        pricingEngine.preDiscountCharge(StoreShard.DEFAULT_STORE, tool, checkoutDay, chargeableDays);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pricingEngine.destroy();
+    }
+
+    @Benchmark
+    public int chargeableDays() {
+        return toolRentalService.calculateChargeableDays(tool, checkoutDay, rentalDays);
+    }
+
+    @Benchmark
+    public long parseDate() throws ParseException {
+        return toolRentalService.parseDate("07/02/20");
+    }
+
+    @Benchmark
+    public long chargeMath() {
+        long preDiscount = toolRentalService.calculatePreDiscountCharge(tool.getDailyChargeCents(), chargeableDays);
+        long discount = toolRentalService.calculateDiscountAmount(preDiscount, discountPercent);
+        return toolRentalService.calculateFinalCharge(preDiscount, discount);
+    }
+
+    @Benchmark
+    public long chargeMathWithRules() {
+        long preDiscount = pricingEngine.preDiscountCharge(StoreShard.DEFAULT_STORE, tool, checkoutDay, chargeableDays);
+        long discount = toolRentalService.calculateDiscountAmount(preDiscount, discountPercent);
+        return toolRentalService.calculateFinalCharge(preDiscount, discount);
+    }
+
+    @Benchmark
+    public RentalAgreement buildAgreement() {
+        return new RentalAgreement.Builder(toolCode, tool.getToolType(), tool.getToolBrand())
+                .rentalDays(rentalDays)
+                .checkoutDate(LocalDate.ofEpochDay(checkoutDay))
+                .dueDate(LocalDate.ofEpochDay(checkoutDay + rentalDays))
+                .dailyChargeCents(dailyCharge)
+                .preDiscountChargeCents(preDiscountCharge)
+                .discountPercent(discountPercent)
+                .discountAmountCents(discountAmount)
+                .finalChargeCents(finalCharge)
+                .chargeDays(chargeableDays)
+                .build();
+    }
+
+}
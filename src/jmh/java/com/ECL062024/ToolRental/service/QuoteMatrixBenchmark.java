@@ -0,0 +1,55 @@
+package com.ECL062024.ToolRental.service;
+
+import com.ECL062024.ToolRental.model.QuoteMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of pricing a tool for every rental length up to a maximum, as one quote matrix and as one quote per
+ * length. Run with {@code -prof gc} (the profile default) to report allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuoteMatrixBenchmark {
+
+    @Param({"7", "60", "366"})
+    private int maxRentalDays;
+
+    private ToolRentalService toolRentalService;
+
+    @Setup
+    public void setUp() {
+        // ToolRepository lookups are static, so the service needs no repository instance
+        toolRentalService = new ToolRentalService.Builder().build();
+    }
+
+    @Benchmark
+    public QuoteMatrix matrix() throws ParseException {
+        return toolRentalService.quoteRentalLengths(null, "LADW", maxRentalDays, 10, "07/02/20", null);
+    }
+
+    @Benchmark
+    public void quotePerLength(Blackhole blackhole) throws ParseException {
+        for (int rentalDays = 1; rentalDays <= maxRentalDays; rentalDays++) {
+            blackhole.consume(toolRentalService.quoteTool("LADW", rentalDays, 10, "07/02/20"));
+        }
+    }
+
+}
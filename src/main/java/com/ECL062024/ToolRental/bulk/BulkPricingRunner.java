@@ -0,0 +1,44 @@
+package com.ECL062024.ToolRental.bulk;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Runs a bulk pricing job at startup when {@code toolrental.bulk.input} is set, e.g.
+ * {@code --toolrental.bulk.input=rentals.csv --toolrental.bulk.output=quotes.csv}.
+ */
+@Component
+@ConditionalOnProperty(name = "toolrental.bulk.input")
+public class BulkPricingRunner implements ApplicationRunner {
+    private final BulkQuotePricer bulkQuotePricer;
+    private final Path input;
+    private final Path output;
+
+    /**
+     * Constructor to initialize BulkPricingRunner with the files to price.
+     *
+     * @param bulkQuotePricer the bulk pricer
+     * @param input           the input CSV file
+     * @param output          the output CSV file
+     */
+    @Autowired
+    public BulkPricingRunner(BulkQuotePricer bulkQuotePricer, @Value("${toolrental.bulk.input}") Path input,
+                             @Value("${toolrental.bulk.output:quotes.csv}") Path output) {
+        this.bulkQuotePricer = bulkQuotePricer;
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        bulkQuotePricer.price(input, output);
+    }
+
+}
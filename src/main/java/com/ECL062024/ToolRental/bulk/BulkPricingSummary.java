@@ -0,0 +1,50 @@
+package com.ECL062024.ToolRental.bulk;
+
+/**
+ * Row counts of a bulk pricing run.
+ */
+public class BulkPricingSummary {
+    private final long rows;
+    private final long priced;
+    private final long failed;
+
+    /**
+     * Constructs a new BulkPricingSummary.
+     *
+     * @param rows   the number of input rows
+     * @param priced the number of rows priced
+     * @param failed the number of rows written as error records
+     */
+    public BulkPricingSummary(long rows, long priced, long failed) {
+        this.rows = rows;
+        this.priced = priced;
+        this.failed = failed;
+    }
+
+    /**
+     * @return the number of input rows.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the number of rows priced.
+     */
+    public long getPriced() {
+        return priced;
+    }
+
+    /**
+     * @return the number of rows written as error records.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    @Override
+    public String toString() {
+        return rows + " rows, " + priced + " priced, " + failed + " failed";
+    }
+
+}
@@ -0,0 +1,341 @@
+package com.ECL062024.ToolRental.bulk;
+
+import com.ECL062024.ToolRental.model.CheckoutRequest;
+import com.ECL062024.ToolRental.model.CheckoutResult;
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import com.ECL062024.ToolRental.service.ToolRentalService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Re-prices large rental logs from CSV, streaming rows through the same batch pricing as
+ * {@link ToolRentalService#quoteTools}.
+ * <p>
+ * Input rows are {@code toolCode,checkoutDate,rentalDays,discountPercent}, with an optional header line. The
+ * calling thread reads {@code chunk-size} lines at a time and hands each chunk to a fork-join pool, which parses,
+ * prices and formats it into output bytes. Completed chunks are written in input order through a
+ * {@link FileChannel}; at most two chunks per pool thread are in flight, so memory stays bounded by the chunk size
+ * however long the input is. Rows that cannot be parsed or priced produce an error record in place instead of
+ * stopping the run.
+ * <p>
+ * Output rows echo the input fields after the input line number, followed by the tool type and brand, due date,
+ * daily charge, charge days, pre-discount charge, discount amount and final charge, and finally the error message,
+ * which is empty for priced rows.
+ */
+@Component
+public class BulkQuotePricer {
+    private static final Logger logger = LoggerFactory.getLogger(BulkQuotePricer.class);
+
+    static final String OUTPUT_HEADER = "line,toolCode,checkoutDate,rentalDays,discountPercent,toolType,toolBrand,"
+            + "dueDate,dailyCharge,chargeDays,preDiscountCharge,discountAmount,finalCharge,error\n";
+
+    private static final int INPUT_FIELDS = 4;
+
+    private final ToolRentalService toolRentalService;
+    private final int chunkSize;
+    private final int parallelism;
+
+    /**
+     * Constructor to initialize BulkQuotePricer from the application properties.
+     *
+     * @param toolRentalService the service whose pricing rules are applied
+     * @param chunkSize         the number of rows priced per chunk
+     * @param parallelism       the number of pricing threads, or 0 for one per processor
+     */
+    @Autowired
+    public BulkQuotePricer(ToolRentalService toolRentalService,
+                           @Value("${toolrental.bulk.chunk-size:4096}") int chunkSize,
+                           @Value("${toolrental.bulk.parallelism:0}") int parallelism) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Bulk pricing chunk size must be 1 or greater.");
+        }
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("Bulk pricing parallelism must be 0 or greater.");
+        }
+        this.toolRentalService = toolRentalService;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism;
+    }
+
+    /**
+     * Prices every row of an input CSV file and writes the results to an output CSV file, replacing it.
+     *
+     * @param input  the input file
+     * @param output the output file
+     * @return the number of rows read, priced and rejected
+     * @throws IOException if a file cannot be read or written
+     */
+    public BulkPricingSummary price(Path input, Path output) throws IOException {
+        logger.info("Bulk pricing {} into {} in chunks of {} rows on {} threads", input, output, chunkSize,
+                parallelism);
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        ArrayDeque<CompletableFuture<Chunk>> inFlight = new ArrayDeque<>();
+        long rows = 0;
+        long failed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, OUTPUT_HEADER.getBytes(StandardCharsets.UTF_8));
+
+            long lineNumber = 0;
+            List<String> lines = new ArrayList<>(chunkSize);
+            long firstLine = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && isHeader(line)) {
+                    firstLine = 2;
+                    continue;
+                }
+                lines.add(line);
+                if (lines.size() == chunkSize) {
+                    submit(pool, inFlight, lines, firstLine);
+                    lines = new ArrayList<>(chunkSize);
+                    firstLine = lineNumber + 1;
+                    while (inFlight.size() >= 2 * parallelism) {
+                        Chunk chunk = await(inFlight.poll());
+                        writeFully(channel, chunk.output);
+                        rows += chunk.rows;
+                        failed += chunk.failed;
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                submit(pool, inFlight, lines, firstLine);
+            }
+            while (!inFlight.isEmpty()) {
+                Chunk chunk = await(inFlight.poll());
+                writeFully(channel, chunk.output);
+                rows += chunk.rows;
+                failed += chunk.failed;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        BulkPricingSummary summary = new BulkPricingSummary(rows, rows - failed, failed);
+        logger.info("Bulk priced {} in {} ms: {}", input, (System.nanoTime() - start) / 1_000_000, summary);
+        return summary;
+    }
+
+    private void submit(ForkJoinPool pool, ArrayDeque<CompletableFuture<Chunk>> inFlight, List<String> lines,
+                        long firstLine) {
+        inFlight.add(CompletableFuture.supplyAsync(() -> priceChunk(pool, lines, firstLine), pool));
+    }
+
+    private static Chunk await(CompletableFuture<Chunk> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Parses, prices and formats one chunk of input lines.
+     *
+     * @param pool      the pool used to price the chunk
+     * @param lines     the input lines
+     * @param firstLine the line number of the first line
+     * @return the formatted output of the chunk
+     */
+    private Chunk priceChunk(ForkJoinPool pool, List<String> lines, long firstLine) {
+        String[][] fields = new String[lines.size()][];
+        String[] errors = new String[lines.size()];
+        List<CheckoutRequest> requests = new ArrayList<>(lines.size());
+        int[] requestRows = new int[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            fields[i] = split(lines.get(i));
+            if (fields[i].length != INPUT_FIELDS) {
+                errors[i] = "Expected " + INPUT_FIELDS
+                        + " fields: toolCode, checkoutDate, rentalDays, discountPercent.";
+                continue;
+            }
+            int rentalDays;
+            int discountPercent;
+            try {
+                rentalDays = Integer.parseInt(fields[i][2]);
+            } catch (NumberFormatException e) {
+                errors[i] = "Invalid rental days: " + fields[i][2];
+                continue;
+            }
+            try {
+                discountPercent = Integer.parseInt(fields[i][3]);
+            } catch (NumberFormatException e) {
+                errors[i] = "Invalid discount percent: " + fields[i][3];
+                continue;
+            }
+            requestRows[requests.size()] = i;
+            requests.add(new CheckoutRequest(fields[i][0], rentalDays, discountPercent, fields[i][1]));
+        }
+
+        RentalAgreement[] agreements = new RentalAgreement[lines.size()];
+        List<CheckoutResult> results = toolRentalService.quoteTools(requests, pool);
+        for (int r = 0; r < results.size(); r++) {
+            CheckoutResult result = results.get(r);
+            if (result.isSuccess()) {
+                agreements[requestRows[r]] = result.getAgreement();
+            } else {
+                errors[requestRows[r]] = result.getError();
+            }
+        }
+
+        StringBuilder out = new StringBuilder(lines.size() * 128);
+        int failed = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            out.append(firstLine + i);
+            for (int f = 0; f < INPUT_FIELDS; f++) {
+                out.append(',');
+                appendField(out, f < fields[i].length ? fields[i][f] : "");
+            }
+            RentalAgreement agreement = agreements[i];
+            if (agreement != null) {
+                out.append(',');
+                appendField(out, agreement.getToolType());
+                out.append(',');
+                appendField(out, agreement.getToolBrand());
+                out.append(',').append(agreement.getDueLocalDate());
+                out.append(',');
+                appendCents(out, agreement.getDailyChargeCents());
+                out.append(',').append(agreement.getChargeDays());
+                out.append(',');
+                appendCents(out, agreement.getPreDiscountChargeCents());
+                out.append(',');
+                appendCents(out, agreement.getDiscountAmountCents());
+                out.append(',');
+                appendCents(out, agreement.getFinalChargeCents());
+                out.append(",\n");
+            } else {
+                failed++;
+                out.append(",,,,,,,,,");
+                appendField(out, errors[i]);
+                out.append('\n');
+            }
+        }
+        return new Chunk(out.toString().getBytes(StandardCharsets.UTF_8), lines.size(), failed);
+    }
+
+    /**
+     * A line is a header if its rental days field is not a number.
+     */
+    private static boolean isHeader(String line) {
+        String[] fields = split(line);
+        if (fields.length != INPUT_FIELDS) {
+            return false;
+        }
+        try {
+            Integer.parseInt(fields[2]);
+            return false;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Splits a CSV line into trimmed fields, honouring double-quoted fields with doubled quotes inside.
+     */
+    static String[] split(String line) {
+        List<String> fields = new ArrayList<>(INPUT_FIELDS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields.toArray(new String[0]);
+    }
+
+    private static void appendField(StringBuilder out, String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    /**
+     * Appends an amount in cents as a decimal with two fraction digits.
+     */
+    static void appendCents(StringBuilder out, long cents) {
+        if (cents < 0) {
+            out.append('-');
+        }
+        long magnitude = Math.abs(cents);
+        long fraction = magnitude % 100;
+        out.append(magnitude / 100).append('.');
+        if (fraction < 10) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+
+    private static void writeFully(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * The formatted output of one chunk.
+     */
+    private static final class Chunk {
+        private final byte[] output;
+        private final int rows;
+        private final int failed;
+
+        private Chunk(byte[] output, int rows, int failed) {
+            this.output = output;
+            this.rows = rows;
+            this.failed = failed;
+        }
+    }
+
+}
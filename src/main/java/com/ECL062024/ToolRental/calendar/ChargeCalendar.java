@@ -0,0 +1,246 @@
+package com.ECL062024.ToolRental.calendar;
+
+import com.ECL062024.ToolRental.model.Tool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Day-classification calendar.
+ * Counts the weekdays, weekend days and holidays of a period arithmetically: whole weeks are counted in one
+ * step and only the partial-week remainder and the holidays of each year touched by the period are examined,
+ * so the cost does not grow with the number of rental days.
+ * The holidays of a year are looked up on first use and cached; the cached arrays are immutable once
+ * published, so they can be shared freely across request threads.
+ */
+@Component
+public class ChargeCalendar {
+    private static final Logger logger = LoggerFactory.getLogger(ChargeCalendar.class);
+
+    /**
+     * Day class of a weekday that is not a holiday.
+     */
+    public static final int WEEKDAY = 0;
+
+    /**
+     * Day class of a weekend day that is not a holiday.
+     */
+    public static final int WEEKEND = 1;
+
+    /**
+     * Day class of a holiday falling on a weekday.
+     */
+    public static final int WEEKDAY_HOLIDAY = 2;
+
+    /**
+     * Day class of a holiday falling on a weekend day.
+     */
+    public static final int WEEKEND_HOLIDAY = 3;
+
+    /**
+     * The first year the calendar can answer for.
+     */
+    public static final int MIN_YEAR = 1;
+
+    /**
+     * The last year the calendar can answer for.
+     */
+    public static final int MAX_YEAR = 9999;
+
+    private final HolidaySchedule holidaySchedule;
+    private final AtomicReferenceArray<long[]> years = new AtomicReferenceArray<>(MAX_YEAR - MIN_YEAR + 1);
+
+    /**
+     * Constructs a calendar using the default holiday schedule.
+     */
+    public ChargeCalendar() {
+        this(new DefaultHolidaySchedule());
+    }
+
+    /**
+     * Constructs a calendar using the given holiday schedule.
+     *
+     * @param holidaySchedule the holidays to apply
+     */
+    @Autowired
+    public ChargeCalendar(HolidaySchedule holidaySchedule) {
+        this.holidaySchedule = holidaySchedule;
+    }
+
+    /**
+     * Returns the class mask of the days a tool is charged for.
+     *
+     * @param tool the tool
+     * @return a bit mask with bit {@code 1 << dayClass} set for every chargeable day class
+     */
+    public static int chargeMask(Tool tool) {
+        return chargeMask(tool.isWeekdayCharge(), tool.isWeekendCharge(), tool.isHolidayCharge());
+    }
+
+    /**
+     * Returns the class mask of the days charged under the given flags.
+     * A day is charged only when every class it belongs to is charged, so a holiday on a weekday
+     * needs both the weekday and the holiday charge.
+     *
+     * @param weekdayCharge whether weekdays are charged
+     * @param weekendCharge whether weekend days are charged
+     * @param holidayCharge whether holidays are charged
+     * @return a bit mask with bit {@code 1 << dayClass} set for every chargeable day class
+     */
+    public static int chargeMask(boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
+        int mask = 0;
+        if (weekdayCharge) {
+            mask |= 1 << WEEKDAY;
+            if (holidayCharge) {
+                mask |= 1 << WEEKDAY_HOLIDAY;
+            }
+        }
+        if (weekendCharge) {
+            mask |= 1 << WEEKEND;
+            if (holidayCharge) {
+                mask |= 1 << WEEKEND_HOLIDAY;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Calculates the number of chargeable days for a tool rented over the given period.
+     *
+     * @param tool          the tool being rented
+     * @param startEpochDay the first day of the period as an epoch day
+     * @param rentalDays    the number of days in the period
+     * @return the number of chargeable days
+     */
+    public int chargeableDays(Tool tool, long startEpochDay, int rentalDays) {
+        return countDays(startEpochDay, rentalDays, chargeMask(tool));
+    }
+
+    /**
+     * Counts the days of a period whose class is selected by the given mask.
+     *
+     * @param startEpochDay the first day of the period as an epoch day
+     * @param rentalDays    the number of days in the period
+     * @param classMask     the day classes to count, as built by {@link #chargeMask}
+     * @return the number of matching days
+     */
+    public int countDays(long startEpochDay, int rentalDays, int classMask) {
+        if (rentalDays <= 0 || classMask == 0) {
+            return 0;
+        }
+        return countDays(startEpochDay, rentalDays).chargeableDays(classMask);
+    }
+
+    /**
+     * Counts the days of a period, classified by day type.
+     *
+     * @param startEpochDay the first day of the period as an epoch day
+     * @param rentalDays    the number of days in the period
+     * @return the day counts for the period
+     */
+    public DayCounts countDays(long startEpochDay, int rentalDays) {
+        if (rentalDays <= 0) {
+            return new DayCounts(0, 0, 0, 0);
+        }
+        long endEpochDay = startEpochDay + rentalDays;
+        int weekendDays = countWeekendDays(startEpochDay, rentalDays);
+
+        int weekdayHolidays = 0;
+        int weekendHolidays = 0;
+        int firstYear = EpochDays.yearOf(startEpochDay);
+        int lastYear = EpochDays.yearOf(endEpochDay - 1);
+        for (int year = firstYear; year <= lastYear; year++) {
+            for (long holiday : holidays(year)) {
+                if (holiday >= startEpochDay && holiday < endEpochDay) {
+                    if (EpochDays.isWeekend(holiday)) {
+                        weekendHolidays++;
+                    } else {
+                        weekdayHolidays++;
+                    }
+                }
+            }
+        }
+        return new DayCounts(rentalDays - weekendDays - weekdayHolidays, weekendDays - weekendHolidays,
+                weekdayHolidays, weekendHolidays);
+    }
+
+    /**
+     * Returns the class of a single day.
+     *
+     * @param epochDay the epoch day
+     * @return one of {@link #WEEKDAY}, {@link #WEEKEND}, {@link #WEEKDAY_HOLIDAY} or {@link #WEEKEND_HOLIDAY}
+     */
+    public int dayClass(long epochDay) {
+        boolean holiday = Arrays.binarySearch(holidays(EpochDays.yearOf(epochDay)), epochDay) >= 0;
+        if (EpochDays.isWeekend(epochDay)) {
+            return holiday ? WEEKEND_HOLIDAY : WEEKEND;
+        }
+        return holiday ? WEEKDAY_HOLIDAY : WEEKDAY;
+    }
+
+    /**
+     * Checks if a day is a holiday.
+     *
+     * @param epochDay the epoch day
+     * @return true if the day is a holiday, false otherwise
+     */
+    public boolean isHoliday(long epochDay) {
+        return dayClass(epochDay) >= WEEKDAY_HOLIDAY;
+    }
+
+    /**
+     * Counts the weekend days in a period without visiting each day.
+     *
+     * @param startEpochDay the first day of the period as an epoch day
+     * @param days          the number of days in the period
+     * @return the number of Saturdays and Sundays in the period
+     */
+    static int countWeekendDays(long startEpochDay, int days) {
+        int fullWeeks = days / 7;
+        int remainder = days % 7;
+        int startDayOfWeek = EpochDays.dayOfWeekIndex(startEpochDay);
+        return fullWeeks * 2 + weekendDaysBefore(startDayOfWeek + remainder) - weekendDaysBefore(startDayOfWeek);
+    }
+
+    /**
+     * Counts the weekend days among the first {@code dayIndex} days of a fortnight starting on a Monday.
+     *
+     * @param dayIndex the number of days, between 0 and 13
+     * @return the number of weekend days
+     */
+    private static int weekendDaysBefore(int dayIndex) {
+        return Math.max(0, Math.min(dayIndex, 7) - 5) + Math.max(0, dayIndex - 12);
+    }
+
+    /**
+     * Returns the holidays of a year, looking them up and publishing them on first use.
+     *
+     * @param year the year
+     * @return the distinct holidays within the year as epoch days, in ascending order
+     */
+    private long[] holidays(int year) {
+        if (year < MIN_YEAR || year > MAX_YEAR) {
+            throw new IllegalArgumentException("Year " + year + " is outside the supported calendar range.");
+        }
+        int index = year - MIN_YEAR;
+        long[] holidays = years.get(index);
+        if (holidays == null) {
+            long firstEpochDay = EpochDays.startOfYear(year);
+            long endEpochDay = firstEpochDay + EpochDays.lengthOfYear(year);
+            long[] found = Arrays.stream(holidaySchedule.holidays(year))
+                    .filter(day -> day >= firstEpochDay && day < endEpochDay)
+                    .sorted()
+                    .distinct()
+                    .toArray();
+            logger.debug("Loaded {} holidays for year {}", found.length, year);
+            // Another thread may have won the race; every thread then uses the same published array
+            holidays = years.compareAndSet(index, null, found) ? found : years.get(index);
+        }
+        return holidays;
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.ECL062024.ToolRental.calendar;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+
+/**
+ * Allocation-free parser for checkout dates in {@code MM/dd/yy} form.
+ * Month and day may have one or two digits. A two-digit year is placed in the century window
+ * starting 80 years before today, like {@link java.text.SimpleDateFormat} does; a year with any
+ * other number of digits is taken literally, so {@code 07/02/2020} is also accepted.
+ * Unlike a lenient {@code SimpleDateFormat}, out-of-range fields and trailing text are rejected
+ * instead of being rolled over or ignored.
+ */
+public final class CheckoutDateParser {
+
+    /**
+     * First day of the window two-digit years are placed in.
+     */
+    private static final LocalDate DEFAULT_CENTURY_START = LocalDate.now().minusYears(80);
+    private static final int DEFAULT_CENTURY_START_YEAR = DEFAULT_CENTURY_START.getYear();
+    private static final long DEFAULT_CENTURY_START_DAY = DEFAULT_CENTURY_START.toEpochDay();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private CheckoutDateParser() {}
+
+    /**
+     * Parses a checkout date into an epoch day.
+     *
+     * @param dateStr the date string
+     * @return the epoch day of the date
+     * @throws ParseException if the date string is invalid
+     */
+    public static long parseEpochDay(String dateStr) throws ParseException {
+        if (dateStr == null) {
+            throw new ParseException("Unparseable date: null", 0);
+        }
+        int length = dateStr.length();
+
+        int position = 0;
+        int month = 0;
+        int monthDigits = 0;
+        while (position < length && isDigit(dateStr.charAt(position)) && monthDigits < 2) {
+            month = month * 10 + (dateStr.charAt(position++) - '0');
+            monthDigits++;
+        }
+        if (monthDigits == 0 || position >= length || dateStr.charAt(position) != '/') {
+            throw unparseable(dateStr, position);
+        }
+        position++;
+
+        int dayOfMonth = 0;
+        int dayDigits = 0;
+        while (position < length && isDigit(dateStr.charAt(position)) && dayDigits < 2) {
+            dayOfMonth = dayOfMonth * 10 + (dateStr.charAt(position++) - '0');
+            dayDigits++;
+        }
+        if (dayDigits == 0 || position >= length || dateStr.charAt(position) != '/') {
+            throw unparseable(dateStr, position);
+        }
+        position++;
+
+        int year = 0;
+        int yearDigits = 0;
+        while (position < length && isDigit(dateStr.charAt(position)) && yearDigits < 4) {
+            year = year * 10 + (dateStr.charAt(position++) - '0');
+            yearDigits++;
+        }
+        if (yearDigits == 0 || position != length) {
+            throw unparseable(dateStr, position);
+        }
+        if (yearDigits == 2) {
+            year += (DEFAULT_CENTURY_START_YEAR / 100) * 100;
+            if (year < DEFAULT_CENTURY_START_YEAR) {
+                year += 100;
+            }
+        }
+
+        long epochDay = toEpochDay(dateStr, year, month, dayOfMonth);
+        if (yearDigits == 2 && epochDay < DEFAULT_CENTURY_START_DAY) {
+            // Earlier in the start year than the window itself, so the date belongs to the next century
+            epochDay = toEpochDay(dateStr, year + 100, month, dayOfMonth);
+        }
+        return epochDay;
+    }
+
+    private static long toEpochDay(String dateStr, int year, int month, int dayOfMonth) throws ParseException {
+        if (month < 1 || month > 12 || dayOfMonth < 1 || dayOfMonth > lengthOfMonth(year, month)
+                || year < ChargeCalendar.MIN_YEAR) {
+            throw new ParseException("Invalid date: \"" + dateStr + "\"", 0);
+        }
+        return EpochDays.of(year, month, dayOfMonth);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return EpochDays.isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static ParseException unparseable(String dateStr, int errorOffset) {
+        return new ParseException("Unparseable date: \"" + dateStr + "\"", errorOffset);
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.ECL062024.ToolRental.calendar;
+
+import com.ECL062024.ToolRental.model.Tool;
+
+/**
+ * Classification of the days in a rental period.
+ * Every day falls into exactly one of four classes: a plain weekday, a plain weekend day,
+ * a holiday on a weekday or a holiday on a weekend day.
+ */
+public final class DayCounts {
+    private final int weekdays;
+    private final int weekendDays;
+    private final int weekdayHolidays;
+    private final int weekendHolidays;
+
+    /**
+     * Constructs a new DayCounts with the specified class totals.
+     *
+     * @param weekdays        the number of weekdays that are not holidays
+     * @param weekendDays     the number of weekend days that are not holidays
+     * @param weekdayHolidays the number of holidays falling on a weekday
+     * @param weekendHolidays the number of holidays falling on a weekend day
+     */
+    public DayCounts(int weekdays, int weekendDays, int weekdayHolidays, int weekendHolidays) {
+        this.weekdays = weekdays;
+        this.weekendDays = weekendDays;
+        this.weekdayHolidays = weekdayHolidays;
+        this.weekendHolidays = weekendHolidays;
+    }
+
+    /**
+     * @return the number of weekdays that are not holidays.
+     */
+    public int getWeekdays() {
+        return weekdays;
+    }
+
+    /**
+     * @return the number of weekend days that are not holidays.
+     */
+    public int getWeekendDays() {
+        return weekendDays;
+    }
+
+    /**
+     * @return the number of holidays falling on a weekday.
+     */
+    public int getWeekdayHolidays() {
+        return weekdayHolidays;
+    }
+
+    /**
+     * @return the number of holidays falling on a weekend day.
+     */
+    public int getWeekendHolidays() {
+        return weekendHolidays;
+    }
+
+    /**
+     * @return the total number of days in the period.
+     */
+    public int getTotalDays() {
+        return weekdays + weekendDays + weekdayHolidays + weekendHolidays;
+    }
+
+    /**
+     * Calculates the number of chargeable days for a tool.
+     *
+     * @param tool the tool being rented
+     * @return the number of chargeable days
+     */
+    public int chargeableDays(Tool tool) {
+        return chargeableDays(ChargeCalendar.chargeMask(tool));
+    }
+
+    /**
+     * Calculates the number of days whose class is selected by the given mask.
+     *
+     * @param classMask the day classes to count, as built by {@link ChargeCalendar#chargeMask}
+     * @return the number of matching days
+     */
+    public int chargeableDays(int classMask) {
+        int chargeableDays = 0;
+        if ((classMask & (1 << ChargeCalendar.WEEKDAY)) != 0) {
+            chargeableDays += weekdays;
+        }
+        if ((classMask & (1 << ChargeCalendar.WEEKEND)) != 0) {
+            chargeableDays += weekendDays;
+        }
+        if ((classMask & (1 << ChargeCalendar.WEEKDAY_HOLIDAY)) != 0) {
+            chargeableDays += weekdayHolidays;
+        }
+        if ((classMask & (1 << ChargeCalendar.WEEKEND_HOLIDAY)) != 0) {
+            chargeableDays += weekendHolidays;
+        }
+        return chargeableDays;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DayCounts)) {
+            return false;
+        }
+        DayCounts other = (DayCounts) o;
+        return weekdays == other.weekdays
+                && weekendDays == other.weekendDays
+                && weekdayHolidays == other.weekdayHolidays
+                && weekendHolidays == other.weekendHolidays;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = weekdays;
+        result = 31 * result + weekendDays;
+        result = 31 * result + weekdayHolidays;
+        result = 31 * result + weekendHolidays;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "DayCounts{weekdays=" + weekdays + ", weekendDays=" + weekendDays + ", weekdayHolidays="
+                + weekdayHolidays + ", weekendHolidays=" + weekendHolidays + '}';
+    }
+
+}
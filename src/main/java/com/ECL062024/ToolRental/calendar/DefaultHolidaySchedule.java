@@ -0,0 +1,79 @@
+package com.ECL062024.ToolRental.calendar;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * The holidays the rental service applies, as a list of {@link HolidayRule}s.
+ * By default these are Independence Day, observed on the nearest weekday when July 4th falls on a weekend, and
+ * Labor Day, the first Monday in September.
+ * <p>
+ * The rules only decide which days are holidays; {@link ChargeCalendar} folds the holidays of each year into its
+ * precomputed day tables, so the number of rules has no effect on the cost of counting chargeable days.
+ */
+@Component
+public class DefaultHolidaySchedule implements HolidaySchedule {
+
+    /**
+     * The holiday rules applied when none are configured.
+     */
+    public static final String DEFAULT_RULES = "07-04 observed, first monday of 09";
+
+    private final HolidayRule[] rules;
+
+    /**
+     * Constructs a schedule with the default holiday rules.
+     */
+    public DefaultHolidaySchedule() {
+        this(DEFAULT_RULES);
+    }
+
+    /**
+     * Constructor to initialize DefaultHolidaySchedule from the application properties.
+     *
+     * @param rules the holiday rules, comma-separated in the format of {@link HolidayRule#parse}
+     */
+    @Autowired
+    public DefaultHolidaySchedule(@Value("${toolrental.holidays:07-04 observed, first monday of 09}") String rules) {
+        this.rules = Arrays.stream(rules.split(","))
+                .filter(rule -> !rule.isBlank())
+                .map(HolidayRule::parse)
+                .toArray(HolidayRule[]::new);
+    }
+
+    /**
+     * Returns the holidays observed in the given year, in ascending order.
+     * A fixed-date holiday observed across a year boundary, such as a Saturday January 1st observed on
+     * December 31st, belongs to the year it is observed in.
+     *
+     * @param year the year
+     * @return the holidays of the year as epoch days
+     */
+    @Override
+    public long[] holidays(int year) {
+        long firstDay = EpochDays.startOfYear(year);
+        long endDay = firstDay + EpochDays.lengthOfYear(year);
+        long[] holidays = new long[rules.length * 3];
+        int count = 0;
+        for (HolidayRule rule : rules) {
+            for (int ruleYear = year - 1; ruleYear <= year + 1; ruleYear++) {
+                long day = rule.observedDay(ruleYear);
+                if (day >= firstDay && day < endDay) {
+                    holidays[count++] = day;
+                }
+            }
+        }
+        Arrays.sort(holidays, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || holidays[distinct - 1] != holidays[i]) {
+                holidays[distinct++] = holidays[i];
+            }
+        }
+        return Arrays.copyOf(holidays, distinct);
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.ECL062024.ToolRental.calendar;
+
+/**
+ * Allocation-free civil calendar arithmetic on epoch days (days since 1970-01-01).
+ * Uses the proleptic Gregorian calendar, like {@link java.time.LocalDate}.
+ */
+public final class EpochDays {
+
+    /**
+     * Offset that maps an epoch day onto a Monday-based day-of-week index (1970-01-01 was a Thursday).
+     */
+    private static final int EPOCH_DAY_OF_WEEK_OFFSET = 3;
+
+    /**
+     * Days between 0000-03-01 and 1970-01-01, the origin of the era-based conversion.
+     */
+    private static final long DAYS_0000_TO_1970 = 719468L;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private EpochDays() {}
+
+    /**
+     * Returns the Monday-based day-of-week index (Monday = 0, Sunday = 6) of an epoch day.
+     *
+     * @param epochDay the epoch day
+     * @return the day-of-week index
+     */
+    public static int dayOfWeekIndex(long epochDay) {
+        return (int) Math.floorMod(epochDay + EPOCH_DAY_OF_WEEK_OFFSET, 7L);
+    }
+
+    /**
+     * Checks if an epoch day falls on a Saturday or Sunday.
+     *
+     * @param epochDay the epoch day
+     * @return true if the day is a weekend day, false otherwise
+     */
+    public static boolean isWeekend(long epochDay) {
+        return dayOfWeekIndex(epochDay) >= 5;
+    }
+
+    /**
+     * Returns the epoch day of a calendar date.
+     *
+     * @param year       the year
+     * @param month      the month, from 1 to 12
+     * @param dayOfMonth the day of the month, from 1 to 31
+     * @return the epoch day
+     */
+    public static long of(int year, int month, int dayOfMonth) {
+        long y = month <= 2 ? year - 1L : year;
+        long era = Math.floorDiv(y, 400L);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + dayOfMonth - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Returns the year an epoch day falls in.
+     *
+     * @param epochDay the epoch day
+     * @return the year
+     */
+    public static int yearOf(long epochDay) {
+        long z = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(z, 146097L);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        return (int) (yearOfEra + era * 400 + (shiftedMonth >= 10 ? 1 : 0));
+    }
+
+    /**
+     * Returns the epoch day of January 1st of a year.
+     *
+     * @param year the year
+     * @return the epoch day of the first day of the year
+     */
+    public static long startOfYear(int year) {
+        return of(year, 1, 1);
+    }
+
+    /**
+     * Checks if a year is a leap year.
+     *
+     * @param year the year
+     * @return true if the year is a leap year, false otherwise
+     */
+    public static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * Returns the number of days in a year.
+     *
+     * @param year the year
+     * @return 366 for leap years, 365 otherwise
+     */
+    public static int lengthOfYear(int year) {
+        return isLeapYear(year) ? 366 : 365;
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.ECL062024.ToolRental.calendar;
+
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.util.Locale;
+
+/**
+ * A yearly holiday, either on a fixed date or on the nth weekday of a month.
+ * <p>
+ * Rules are written as one of:
+ * <pre>
+ * MM-dd                       a fixed date, e.g. 12-25
+ * MM-dd observed              a fixed date, observed on the Friday before when it falls on a Saturday
+ *                             and on the Monday after when it falls on a Sunday, e.g. 07-04 observed
+ * ORDINAL DAY of MM           the first, second, third, fourth or last weekday of a month,
+ *                             e.g. first monday of 09
+ * </pre>
+ * Words are case-insensitive.
+ */
+public final class HolidayRule {
+
+    private static final String[] ORDINALS = {"first", "second", "third", "fourth"};
+
+    /**
+     * Ordinal of the last matching weekday of the month.
+     */
+    public static final int LAST = -1;
+
+    private final int month;
+    private final int dayOfMonth;
+    private final boolean observed;
+    private final int ordinal;
+    private final int dayOfWeekIndex;
+
+    private HolidayRule(int month, int dayOfMonth, boolean observed, int ordinal, int dayOfWeekIndex) {
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("Holiday month must be between 1 and 12.");
+        }
+        this.month = month;
+        this.dayOfMonth = dayOfMonth;
+        this.observed = observed;
+        this.ordinal = ordinal;
+        this.dayOfWeekIndex = dayOfWeekIndex;
+    }
+
+    /**
+     * Creates a holiday on a fixed date.
+     *
+     * @param month      the month, from 1 to 12
+     * @param dayOfMonth the day of the month
+     * @param observed   whether a weekend date is observed on the nearest weekday
+     * @return the rule
+     */
+    public static HolidayRule fixed(int month, int dayOfMonth, boolean observed) {
+        if (month >= 1 && month <= 12 && (dayOfMonth < 1 || dayOfMonth > Month.of(month).maxLength())) {
+            throw new IllegalArgumentException("Holiday day of month is outside month " + month + ".");
+        }
+        return new HolidayRule(month, dayOfMonth, observed, 0, 0);
+    }
+
+    /**
+     * Creates a holiday on the nth weekday of a month.
+     *
+     * @param month     the month, from 1 to 12
+     * @param ordinal   1 to 4 for the first to fourth matching weekday, or {@link #LAST}
+     * @param dayOfWeek the weekday
+     * @return the rule
+     */
+    public static HolidayRule nthWeekday(int month, int ordinal, DayOfWeek dayOfWeek) {
+        if (ordinal != LAST && (ordinal < 1 || ordinal > ORDINALS.length)) {
+            throw new IllegalArgumentException("Holiday weekday ordinal must be between 1 and 4, or last.");
+        }
+        return new HolidayRule(month, 0, false, ordinal, dayOfWeek.getValue() - 1);
+    }
+
+    /**
+     * Parses a rule in the format described above.
+     *
+     * @param rule the rule
+     * @return the parsed rule
+     * @throws IllegalArgumentException if the rule cannot be parsed
+     */
+    public static HolidayRule parse(String rule) {
+        String[] words = rule.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        try {
+            if (words.length == 4 && words[2].equals("of")) {
+                return nthWeekday(Integer.parseInt(words[3]), parseOrdinal(words[0]),
+                        DayOfWeek.valueOf(words[1].toUpperCase(Locale.ROOT)));
+            }
+            boolean observed = words.length == 2 && words[1].equals("observed");
+            if ((words.length == 1 || observed) && words[0].length() == 5 && words[0].charAt(2) == '-') {
+                return fixed(Integer.parseInt(words[0].substring(0, 2)), Integer.parseInt(words[0].substring(3)),
+                        observed);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid holiday rule: " + rule.trim(), e);
+        }
+        throw new IllegalArgumentException("Invalid holiday rule: " + rule.trim());
+    }
+
+    private static int parseOrdinal(String word) {
+        if (word.equals("last")) {
+            return LAST;
+        }
+        for (int i = 0; i < ORDINALS.length; i++) {
+            if (ORDINALS[i].equals(word)) {
+                return i + 1;
+            }
+        }
+        throw new IllegalArgumentException("Invalid holiday weekday ordinal: " + word);
+    }
+
+    /**
+     * Returns the day the holiday is observed in a year.
+     *
+     * @param year the year
+     * @return the observed day as an epoch day, or {@link Long#MIN_VALUE} if the fixed date does not exist in the
+     * year, such as 02-29 outside leap years
+     */
+    public long observedDay(int year) {
+        if (dayOfMonth == 0) {
+            if (ordinal == LAST) {
+                long lastDay = EpochDays.of(month == 12 ? year + 1 : year, month == 12 ? 1 : month + 1, 1) - 1;
+                return lastDay - Math.floorMod(EpochDays.dayOfWeekIndex(lastDay) - dayOfWeekIndex, 7);
+            }
+            long firstDay = EpochDays.of(year, month, 1);
+            return firstDay + Math.floorMod(dayOfWeekIndex - EpochDays.dayOfWeekIndex(firstDay), 7)
+                    + 7L * (ordinal - 1);
+        }
+        if (month == 2 && dayOfMonth == 29 && !EpochDays.isLeapYear(year)) {
+            return Long.MIN_VALUE;
+        }
+        long day = EpochDays.of(year, month, dayOfMonth);
+        if (observed) {
+            int dayOfWeek = EpochDays.dayOfWeekIndex(day);
+            if (dayOfWeek == 5) {
+                return day - 1;
+            }
+            if (dayOfWeek == 6) {
+                return day + 1;
+            }
+        }
+        return day;
+    }
+
+    @Override
+    public String toString() {
+        if (dayOfMonth == 0) {
+            return (ordinal == LAST ? "last" : ORDINALS[ordinal - 1]) + " "
+                    + DayOfWeek.of(dayOfWeekIndex + 1).name().toLowerCase(Locale.ROOT) + " of "
+                    + (month < 10 ? "0" : "") + month;
+        }
+        return (month < 10 ? "0" : "") + month + "-" + (dayOfMonth < 10 ? "0" : "") + dayOfMonth
+                + (observed ? " observed" : "");
+    }
+
+}
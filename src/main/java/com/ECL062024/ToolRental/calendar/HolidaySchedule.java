@@ -0,0 +1,16 @@
+package com.ECL062024.ToolRental.calendar;
+
+/**
+ * Source of the holidays observed in a given year.
+ */
+public interface HolidaySchedule {
+
+    /**
+     * Returns the holidays observed in the given year.
+     *
+     * @param year the year
+     * @return the holidays of the year as epoch days
+     */
+    long[] holidays(int year);
+
+}
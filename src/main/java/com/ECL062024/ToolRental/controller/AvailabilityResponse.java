@@ -0,0 +1,60 @@
+package com.ECL062024.ToolRental.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+
+/**
+ * JSON view of whether a tool can be booked for a rental period and when it is next free.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilityResponse {
+    private final String toolCode;
+    private final int rentalDays;
+    private final boolean available;
+    private final LocalDate nextAvailableDate;
+
+    /**
+     * Constructs a new AvailabilityResponse.
+     *
+     * @param toolCode          the tool code
+     * @param rentalDays        the number of rental days
+     * @param available         whether the requested period is free
+     * @param nextAvailableDate the earliest free checkout date on or after the requested one, or null if none
+     */
+    public AvailabilityResponse(String toolCode, int rentalDays, boolean available, LocalDate nextAvailableDate) {
+        this.toolCode = toolCode;
+        this.rentalDays = rentalDays;
+        this.available = available;
+        this.nextAvailableDate = nextAvailableDate;
+    }
+
+    /**
+     * @return the tool code.
+     */
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    /**
+     * @return the number of rental days.
+     */
+    public int getRentalDays() {
+        return rentalDays;
+    }
+
+    /**
+     * @return true if the requested period is free, false otherwise.
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * @return the earliest free checkout date on or after the requested one, or null if none.
+     */
+    public LocalDate getNextAvailableDate() {
+        return nextAvailableDate;
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.ECL062024.ToolRental.controller;
+
+import com.ECL062024.ToolRental.model.CartAgreement;
+import com.ECL062024.ToolRental.model.RentalAgreement;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON view of a cart agreement.
+ */
+public class CartAgreementResponse {
+    private final int rentalDays;
+    private final LocalDate checkoutDate;
+    private final LocalDate dueDate;
+    private final List<RentalAgreementResponse> lines;
+    private final BigDecimal preDiscountCharge;
+    private final BigDecimal discountAmount;
+    private final BigDecimal finalCharge;
+
+    private CartAgreementResponse(CartAgreement cart) {
+        this.rentalDays = cart.getRentalDays();
+        this.checkoutDate = cart.getCheckoutLocalDate();
+        this.dueDate = cart.getDueLocalDate();
+        this.lines = new ArrayList<>(cart.getLines().size());
+        for (RentalAgreement line : cart.getLines()) {
+            lines.add(RentalAgreementResponse.from(line));
+        }
+        this.preDiscountCharge = cart.getPreDiscountCharge();
+        this.discountAmount = cart.getDiscountAmount();
+        this.finalCharge = cart.getFinalCharge();
+    }
+
+    /**
+     * Creates the JSON view of a cart agreement.
+     *
+     * @param cart the cart agreement
+     * @return the response body
+     */
+    public static CartAgreementResponse from(CartAgreement cart) {
+        return new CartAgreementResponse(cart);
+    }
+
+    /**
+     * @return the number of rental days.
+     */
+    public int getRentalDays() {
+        return rentalDays;
+    }
+
+    /**
+     * @return the checkout date.
+     */
+    public LocalDate getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    /**
+     * @return the due date.
+     */
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    /**
+     * @return the line items, in cart order.
+     */
+    public List<RentalAgreementResponse> getLines() {
+        return lines;
+    }
+
+    /**
+     * @return the total pre-discount charge.
+     */
+    public BigDecimal getPreDiscountCharge() {
+        return preDiscountCharge;
+    }
+
+    /**
+     * @return the total discount amount.
+     */
+    public BigDecimal getDiscountAmount() {
+        return discountAmount;
+    }
+
+    /**
+     * @return the total final charge.
+     */
+    public BigDecimal getFinalCharge() {
+        return finalCharge;
+    }
+
+}
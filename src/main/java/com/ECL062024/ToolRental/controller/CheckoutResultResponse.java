@@ -0,0 +1,52 @@
+package com.ECL062024.ToolRental.controller;
+
+import com.ECL062024.ToolRental.model.CheckoutResult;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * JSON view of one item of a batch checkout.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CheckoutResultResponse {
+    private final boolean success;
+    private final RentalAgreementResponse agreement;
+    private final String error;
+
+    private CheckoutResultResponse(CheckoutResult result) {
+        this.success = result.isSuccess();
+        this.agreement = result.isSuccess() ? RentalAgreementResponse.from(result.getAgreement()) : null;
+        this.error = result.getError();
+    }
+
+    /**
+     * Creates the JSON view of a batch checkout result.
+     *
+     * @param result the checkout result
+     * @return the response body
+     */
+    public static CheckoutResultResponse from(CheckoutResult result) {
+        return new CheckoutResultResponse(result);
+    }
+
+    /**
+     * @return true if the checkout succeeded, false otherwise.
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * @return the rental agreement, or null if the checkout failed.
+     */
+    public RentalAgreementResponse getAgreement() {
+        return agreement;
+    }
+
+    /**
+     * @return the error message, or null if the checkout succeeded.
+     */
+    public String getError() {
+        return error;
+    }
+
+}
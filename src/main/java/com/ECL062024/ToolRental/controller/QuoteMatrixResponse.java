@@ -0,0 +1,158 @@
+package com.ECL062024.ToolRental.controller;
+
+import com.ECL062024.ToolRental.model.Money;
+import com.ECL062024.ToolRental.model.QuoteMatrix;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON view of a quote matrix.
+ */
+public class QuoteMatrixResponse {
+    private final String toolCode;
+    private final String toolType;
+    private final String toolBrand;
+    private final BigDecimal dailyCharge;
+    private final List<Cell> cells;
+
+    private QuoteMatrixResponse(QuoteMatrix matrix) {
+        this.toolCode = matrix.getToolCode();
+        this.toolType = matrix.getToolType();
+        this.toolBrand = matrix.getToolBrand();
+        this.dailyCharge = matrix.getDailyCharge();
+        this.cells = new ArrayList<>(matrix.size());
+        for (int i = 0; i < matrix.size(); i++) {
+            cells.add(new Cell(matrix, i));
+        }
+    }
+
+    /**
+     * Creates the JSON view of a quote matrix.
+     *
+     * @param matrix the quote matrix
+     * @return the response body
+     */
+    public static QuoteMatrixResponse from(QuoteMatrix matrix) {
+        return new QuoteMatrixResponse(matrix);
+    }
+
+    /**
+     * @return the tool code.
+     */
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    /**
+     * @return the tool type.
+     */
+    public String getToolType() {
+        return toolType;
+    }
+
+    /**
+     * @return the tool brand.
+     */
+    public String getToolBrand() {
+        return toolBrand;
+    }
+
+    /**
+     * @return the daily charge.
+     */
+    public BigDecimal getDailyCharge() {
+        return dailyCharge;
+    }
+
+    /**
+     * @return the quoted rental periods.
+     */
+    public List<Cell> getCells() {
+        return cells;
+    }
+
+    /**
+     * JSON view of one quoted rental period.
+     */
+    public static class Cell {
+        private final LocalDate checkoutDate;
+        private final LocalDate dueDate;
+        private final int rentalDays;
+        private final int chargeDays;
+        private final BigDecimal preDiscountCharge;
+        private final int discountPercent;
+        private final BigDecimal discountAmount;
+        private final BigDecimal finalCharge;
+
+        private Cell(QuoteMatrix matrix, int cell) {
+            this.checkoutDate = matrix.getCheckoutDate(cell);
+            this.dueDate = matrix.getDueDate(cell);
+            this.rentalDays = matrix.getRentalDays(cell);
+            this.chargeDays = matrix.getChargeDays(cell);
+            this.preDiscountCharge = Money.toBigDecimal(matrix.getPreDiscountChargeCents(cell));
+            this.discountPercent = matrix.getDiscountPercent(cell);
+            this.discountAmount = Money.toBigDecimal(matrix.getDiscountAmountCents(cell));
+            this.finalCharge = Money.toBigDecimal(matrix.getFinalChargeCents(cell));
+        }
+
+        /**
+         * @return the checkout date.
+         */
+        public LocalDate getCheckoutDate() {
+            return checkoutDate;
+        }
+
+        /**
+         * @return the due date.
+         */
+        public LocalDate getDueDate() {
+            return dueDate;
+        }
+
+        /**
+         * @return the number of rental days.
+         */
+        public int getRentalDays() {
+            return rentalDays;
+        }
+
+        /**
+         * @return the number of chargeable days.
+         */
+        public int getChargeDays() {
+            return chargeDays;
+        }
+
+        /**
+         * @return the pre-discount charge.
+         */
+        public BigDecimal getPreDiscountCharge() {
+            return preDiscountCharge;
+        }
+
+        /**
+         * @return the applied discount percent.
+         */
+        public int getDiscountPercent() {
+            return discountPercent;
+        }
+
+        /**
+         * @return the discount amount.
+         */
+        public BigDecimal getDiscountAmount() {
+            return discountAmount;
+        }
+
+        /**
+         * @return the final charge.
+         */
+        public BigDecimal getFinalCharge() {
+            return finalCharge;
+        }
+    }
+
+}
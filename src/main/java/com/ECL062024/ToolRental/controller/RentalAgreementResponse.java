@@ -0,0 +1,143 @@
+package com.ECL062024.ToolRental.controller;
+
+import com.ECL062024.ToolRental.model.RentalAgreement;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * JSON view of a rental agreement.
+ */
+public class RentalAgreementResponse {
+    private final String toolCode;
+    private final String toolType;
+    private final String toolBrand;
+    private final int rentalDays;
+    private final LocalDate checkoutDate;
+    private final LocalDate dueDate;
+    private final BigDecimal dailyCharge;
+    private final int chargeDays;
+    private final BigDecimal preDiscountCharge;
+    private final int discountPercent;
+    private final BigDecimal discountAmount;
+    private final BigDecimal finalCharge;
+    private final long agreementId;
+
+    private RentalAgreementResponse(RentalAgreement agreement) {
+        this.toolCode = agreement.getToolCode();
+        this.toolType = agreement.getToolType();
+        this.toolBrand = agreement.getToolBrand();
+        this.rentalDays = agreement.getRentalDays();
+        this.checkoutDate = agreement.getCheckoutLocalDate();
+        this.dueDate = agreement.getDueLocalDate();
+        this.dailyCharge = agreement.getDailyCharge();
+        this.chargeDays = agreement.getChargeDays();
+        this.preDiscountCharge = agreement.getPreDiscountCharge();
+        this.discountPercent = agreement.getDiscountPercent();
+        this.discountAmount = agreement.getDiscountAmount();
+        this.finalCharge = agreement.getFinalCharge();
+        this.agreementId = agreement.getId();
+    }
+
+    /**
+     * Creates the JSON view of a rental agreement.
+     *
+     * @param agreement the rental agreement
+     * @return the response body
+     */
+    public static RentalAgreementResponse from(RentalAgreement agreement) {
+        return new RentalAgreementResponse(agreement);
+    }
+
+    /**
+     * @return the tool code.
+     */
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    /**
+     * @return the tool type.
+     */
+    public String getToolType() {
+        return toolType;
+    }
+
+    /**
+     * @return the tool brand.
+     */
+    public String getToolBrand() {
+        return toolBrand;
+    }
+
+    /**
+     * @return the number of rental days.
+     */
+    public int getRentalDays() {
+        return rentalDays;
+    }
+
+    /**
+     * @return the checkout date.
+     */
+    public LocalDate getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    /**
+     * @return the due date.
+     */
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    /**
+     * @return the daily charge.
+     */
+    public BigDecimal getDailyCharge() {
+        return dailyCharge;
+    }
+
+    /**
+     * @return the number of chargeable days.
+     */
+    public int getChargeDays() {
+        return chargeDays;
+    }
+
+    /**
+     * @return the pre-discount charge.
+     */
+    public BigDecimal getPreDiscountCharge() {
+        return preDiscountCharge;
+    }
+
+    /**
+     * @return the discount percent.
+     */
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+
+    /**
+     * @return the discount amount.
+     */
+    public BigDecimal getDiscountAmount() {
+        return discountAmount;
+    }
+
+    /**
+     * @return the final charge.
+     */
+    public BigDecimal getFinalCharge() {
+        return finalCharge;
+    }
+
+    /**
+     * @return the id to check the tool in by, or 0 for a quote.
+     */
+    public long getAgreementId() {
+        return agreementId;
+    }
+
+}
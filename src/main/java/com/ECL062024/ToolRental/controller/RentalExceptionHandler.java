@@ -0,0 +1,107 @@
+package com.ECL062024.ToolRental.controller;
+
+import com.ECL062024.ToolRental.service.ToolNotFoundException;
+import com.ECL062024.ToolRental.service.ToolUnavailableException;
+import com.ECL062024.ToolRental.store.StoreNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.text.ParseException;
+
+/**
+ * Maps rental validation and availability failures to 4xx problem responses.
+ */
+@RestControllerAdvice
+public class RentalExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(RentalExceptionHandler.class);
+
+    /**
+     * Maps an unknown tool code to 404 Not Found.
+     *
+     * @param e the exception
+     * @return the problem detail
+     */
+    @ExceptionHandler(ToolNotFoundException.class)
+    public ProblemDetail handleToolNotFound(ToolNotFoundException e) {
+        logger.debug("Tool not found: {}", e.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    /**
+     * Maps an unknown store to 404 Not Found.
+     *
+     * @param e the exception
+     * @return the problem detail
+     */
+    @ExceptionHandler(StoreNotFoundException.class)
+    public ProblemDetail handleStoreNotFound(StoreNotFoundException e) {
+        logger.debug("Store not found: {}", e.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    /**
+     * Maps a tool with no units left to 409 Conflict.
+     *
+     * @param e the exception
+     * @return the problem detail
+     */
+    @ExceptionHandler(ToolUnavailableException.class)
+    public ProblemDetail handleToolUnavailable(ToolUnavailableException e) {
+        logger.debug("Tool unavailable: {}", e.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+    }
+
+    /**
+     * Maps a check-in while returns are not enabled to 404 Not Found.
+     *
+     * @param e the exception
+     * @return the problem detail
+     */
+    @ExceptionHandler(UnsupportedOperationException.class)
+    public ProblemDetail handleUnsupportedOperation(UnsupportedOperationException e) {
+        logger.debug("Unsupported operation: {}", e.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    /**
+     * Maps invalid rental days, discount percents and other rejected arguments to 400 Bad Request.
+     *
+     * @param e the exception
+     * @return the problem detail
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ProblemDetail handleIllegalArgument(IllegalArgumentException e) {
+        logger.debug("Invalid rental request: {}", e.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    /**
+     * Maps a rental whose charge overflows, such as one of too many days at too high a rate, to 400 Bad Request.
+     *
+     * @param e the exception
+     * @return the problem detail
+     */
+    @ExceptionHandler(ArithmeticException.class)
+    public ProblemDetail handleArithmetic(ArithmeticException e) {
+        logger.debug("Rental charge out of range: {}", e.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Rental charge out of range: "
+                + e.getMessage());
+    }
+
+    /**
+     * Maps an unparseable checkout date to 400 Bad Request.
+     *
+     * @param e the exception
+     * @return the problem detail
+     */
+    @ExceptionHandler(ParseException.class)
+    public ProblemDetail handleParseException(ParseException e) {
+        logger.debug("Invalid checkout date: {}", e.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Invalid checkout date: " + e.getMessage());
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.ECL062024.ToolRental.controller;
+
+import com.ECL062024.ToolRental.model.ReturnResult;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * JSON view of one item of a bulk check-in.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReturnResultResponse {
+    private final boolean success;
+    private final ReturnSettlementResponse settlement;
+    private final String error;
+
+    private ReturnResultResponse(ReturnResult result) {
+        this.success = result.isSuccess();
+        this.settlement = result.isSuccess() ? ReturnSettlementResponse.from(result.getSettlement()) : null;
+        this.error = result.getError();
+    }
+
+    /**
+     * Creates the JSON view of a bulk check-in result.
+     *
+     * @param result the return result
+     * @return the response body
+     */
+    public static ReturnResultResponse from(ReturnResult result) {
+        return new ReturnResultResponse(result);
+    }
+
+    /**
+     * @return true if the check-in succeeded, false otherwise.
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * @return the settlement, or null if the check-in failed.
+     */
+    public ReturnSettlementResponse getSettlement() {
+        return settlement;
+    }
+
+    /**
+     * @return the error message, or null if the check-in succeeded.
+     */
+    public String getError() {
+        return error;
+    }
+
+}
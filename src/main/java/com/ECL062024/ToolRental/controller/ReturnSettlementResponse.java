@@ -0,0 +1,161 @@
+package com.ECL062024.ToolRental.controller;
+
+import com.ECL062024.ToolRental.model.ReturnSettlement;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * JSON view of a return settlement.
+ */
+public class ReturnSettlementResponse {
+    private final long agreementId;
+    private final String toolCode;
+    private final String toolType;
+    private final String toolBrand;
+    private final LocalDate checkoutDate;
+    private final LocalDate dueDate;
+    private final LocalDate returnDate;
+    private final int rentalDays;
+    private final int actualDays;
+    private final int lateDays;
+    private final int lateChargeDays;
+    private final BigDecimal dailyCharge;
+    private final BigDecimal rentalCharge;
+    private final BigDecimal lateFee;
+    private final BigDecimal totalCharge;
+
+    private ReturnSettlementResponse(ReturnSettlement settlement) {
+        this.agreementId = settlement.getAgreementId();
+        this.toolCode = settlement.getToolCode();
+        this.toolType = settlement.getToolType();
+        this.toolBrand = settlement.getToolBrand();
+        this.checkoutDate = settlement.getCheckoutDate();
+        this.dueDate = settlement.getDueDate();
+        this.returnDate = settlement.getReturnDate();
+        this.rentalDays = settlement.getRentalDays();
+        this.actualDays = settlement.getActualDays();
+        this.lateDays = settlement.getLateDays();
+        this.lateChargeDays = settlement.getLateChargeDays();
+        this.dailyCharge = settlement.getDailyCharge();
+        this.rentalCharge = settlement.getRentalCharge();
+        this.lateFee = settlement.getLateFee();
+        this.totalCharge = settlement.getTotalCharge();
+    }
+
+    /**
+     * Creates the JSON view of a return settlement.
+     *
+     * @param settlement the return settlement
+     * @return the response body
+     */
+    public static ReturnSettlementResponse from(ReturnSettlement settlement) {
+        return new ReturnSettlementResponse(settlement);
+    }
+
+    /**
+     * @return the id of the rental agreement.
+     */
+    public long getAgreementId() {
+        return agreementId;
+    }
+
+    /**
+     * @return the tool code.
+     */
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    /**
+     * @return the tool type.
+     */
+    public String getToolType() {
+        return toolType;
+    }
+
+    /**
+     * @return the tool brand.
+     */
+    public String getToolBrand() {
+        return toolBrand;
+    }
+
+    /**
+     * @return the checkout date.
+     */
+    public LocalDate getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    /**
+     * @return the due date.
+     */
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    /**
+     * @return the return date.
+     */
+    public LocalDate getReturnDate() {
+        return returnDate;
+    }
+
+    /**
+     * @return the number of rental days of the agreement.
+     */
+    public int getRentalDays() {
+        return rentalDays;
+    }
+
+    /**
+     * @return the number of days from checkout to return.
+     */
+    public int getActualDays() {
+        return actualDays;
+    }
+
+    /**
+     * @return the number of days the tool was kept past its due date.
+     */
+    public int getLateDays() {
+        return lateDays;
+    }
+
+    /**
+     * @return the number of chargeable late days.
+     */
+    public int getLateChargeDays() {
+        return lateChargeDays;
+    }
+
+    /**
+     * @return the daily charge.
+     */
+    public BigDecimal getDailyCharge() {
+        return dailyCharge;
+    }
+
+    /**
+     * @return the agreed charge of the rental.
+     */
+    public BigDecimal getRentalCharge() {
+        return rentalCharge;
+    }
+
+    /**
+     * @return the late fee.
+     */
+    public BigDecimal getLateFee() {
+        return lateFee;
+    }
+
+    /**
+     * @return the total charge of the rental and the late fee.
+     */
+    public BigDecimal getTotalCharge() {
+        return totalCharge;
+    }
+
+}
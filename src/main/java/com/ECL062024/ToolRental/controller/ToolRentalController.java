@@ -0,0 +1,248 @@
+package com.ECL062024.ToolRental.controller;
+
+import com.ECL062024.ToolRental.model.CartRequest;
+import com.ECL062024.ToolRental.model.CheckoutRequest;
+import com.ECL062024.ToolRental.model.CheckoutResult;
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import com.ECL062024.ToolRental.model.ReturnRequest;
+import com.ECL062024.ToolRental.model.ReturnResult;
+import com.ECL062024.ToolRental.server.RequestExecutorCustomizer;
+import com.ECL062024.ToolRental.service.ToolRentalService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * REST API for rental quotes and checkouts.
+ * Every endpoint takes an optional {@code store} parameter; without it, requests go to the default store.
+ * Requests run on the executor installed by {@link RequestExecutorCustomizer}: a virtual thread per request on
+ * Java 21 or later, otherwise a bounded pool of platform threads.
+ */
+@RestController
+@RequestMapping("/api/rentals")
+public class ToolRentalController {
+    private static final Logger logger = LoggerFactory.getLogger(ToolRentalController.class);
+    private final ToolRentalService toolRentalService;
+
+    /**
+     * Constructor to initialize ToolRentalController with the given ToolRentalService.
+     *
+     * @param toolRentalService the tool rental service
+     */
+    @Autowired
+    public ToolRentalController(ToolRentalService toolRentalService) {
+        this.toolRentalService = toolRentalService;
+    }
+
+    /**
+     * Prices a rental without checking the tool out.
+     *
+     * @param request the checkout request to price
+     * @param store   the store, or null for the default store
+     * @return the quoted rental agreement
+     * @throws ParseException if the checkout date string is invalid
+     */
+    @PostMapping("/quotes")
+    public RentalAgreementResponse quote(@RequestBody CheckoutRequest request,
+                                         @RequestParam(required = false) String store) throws ParseException {
+        logger.debug("Quote requested: {}", request);
+        RentalAgreement agreement = toolRentalService.quoteTool(store, request.getToolCode(),
+                request.getRentalDays(), request.getDiscountPercent(), request.getCheckoutDate(),
+                request.getCouponCode());
+        return RentalAgreementResponse.from(agreement);
+    }
+
+    /**
+     * Checks out a tool.
+     *
+     * @param request the checkout request
+     * @param store   the store, or null for the default store
+     * @return the rental agreement
+     * @throws ParseException if the checkout date string is invalid
+     */
+    @PostMapping("/checkouts")
+    @ResponseStatus(HttpStatus.CREATED)
+    public RentalAgreementResponse checkOut(@RequestBody CheckoutRequest request,
+                                            @RequestParam(required = false) String store) throws ParseException {
+        logger.debug("Checkout requested: {}", request);
+        RentalAgreement agreement = toolRentalService.checkOutTool(store, request.getToolCode(),
+                request.getRentalDays(), request.getDiscountPercent(), request.getCheckoutDate(),
+                request.getCouponCode());
+        return RentalAgreementResponse.from(agreement);
+    }
+
+    /**
+     * Checks out a batch of tools.
+     * Items that fail validation are reported in place and do not fail the batch.
+     *
+     * @param requests the checkout requests
+     * @param store    the store, or null for the default store
+     * @return one result per request, in input order
+     */
+    @PostMapping("/checkouts/batch")
+    public List<CheckoutResultResponse> checkOutBatch(@RequestBody List<CheckoutRequest> requests,
+                                                      @RequestParam(required = false) String store) {
+        logger.debug("Batch checkout requested for {} items", requests.size());
+        List<CheckoutResult> results = toolRentalService.checkOutTools(store, requests);
+        List<CheckoutResultResponse> response = new ArrayList<>(results.size());
+        for (CheckoutResult result : results) {
+            response.add(CheckoutResultResponse.from(result));
+        }
+        return response;
+    }
+
+    /**
+     * Prices a cart of tools without checking them out.
+     *
+     * @param request the cart to price
+     * @param store   the store, or null for the default store
+     * @return the quoted cart agreement
+     * @throws ParseException if the checkout date string is invalid
+     */
+    @PostMapping("/quotes/cart")
+    public CartAgreementResponse quoteCart(@RequestBody CartRequest request,
+                                           @RequestParam(required = false) String store) throws ParseException {
+        logger.debug("Cart quote requested: {}", request);
+        return CartAgreementResponse.from(toolRentalService.quoteCart(store, request));
+    }
+
+    /**
+     * Checks out a cart of tools as one agreement.
+     * The cart is checked out as a whole or not at all.
+     *
+     * @param request the cart
+     * @param store   the store, or null for the default store
+     * @return the cart agreement
+     * @throws ParseException if the checkout date string is invalid
+     */
+    @PostMapping("/checkouts/cart")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CartAgreementResponse checkOutCart(@RequestBody CartRequest request,
+                                              @RequestParam(required = false) String store)
+            throws ParseException {
+        logger.debug("Cart checkout requested: {}", request);
+        return CartAgreementResponse.from(toolRentalService.checkOutCart(store, request));
+    }
+
+    /**
+     * Checks in a returned tool by the agreement id of its checkout and settles the rental against that agreement,
+     * with late fees for days kept past the due date.
+     *
+     * @param request the return
+     * @param store   the store, or null for the default store
+     * @return the settlement
+     */
+    @PostMapping("/returns")
+    public ReturnSettlementResponse checkIn(@RequestBody ReturnRequest request,
+                                            @RequestParam(required = false) String store) {
+        logger.debug("Check-in requested: {}", request);
+        return ReturnSettlementResponse.from(toolRentalService.checkInTool(store, request));
+    }
+
+    /**
+     * Checks in a bulk of returned tools, such as a day's returns.
+     * Returns that fail validation are reported in place and do not fail the bulk.
+     *
+     * @param requests the returns
+     * @param store    the store, or null for the default store
+     * @return one result per return, in input order
+     */
+    @PostMapping("/returns/batch")
+    public List<ReturnResultResponse> checkInBatch(@RequestBody List<ReturnRequest> requests,
+                                                   @RequestParam(required = false) String store) {
+        logger.debug("Bulk check-in requested for {} returns", requests.size());
+        List<ReturnResult> results = toolRentalService.checkInTools(store, requests);
+        List<ReturnResultResponse> response = new ArrayList<>(results.size());
+        for (ReturnResult result : results) {
+            response.add(ReturnResultResponse.from(result));
+        }
+        return response;
+    }
+
+    /**
+     * Prices a tool for every rental length from one day up to a maximum, from one checkout date.
+     *
+     * @param toolCode        the tool code
+     * @param maxRentalDays   the longest rental length
+     * @param checkoutDate    the checkout date
+     * @param discountPercent the discount percent
+     * @param couponCode      the presented coupon code, or null
+     * @param store           the store, or null for the default store
+     * @return one quote per rental length
+     * @throws ParseException if the checkout date string is invalid
+     */
+    @GetMapping("/tools/{toolCode}/quotes/lengths")
+    public QuoteMatrixResponse quoteRentalLengths(@PathVariable String toolCode, @RequestParam int maxRentalDays,
+                                                  @RequestParam String checkoutDate,
+                                                  @RequestParam(defaultValue = "0") int discountPercent,
+                                                  @RequestParam(required = false) String couponCode,
+                                                  @RequestParam(required = false) String store)
+            throws ParseException {
+        logger.debug("Rental length quotes requested for {} for up to {} days from {}", toolCode, maxRentalDays,
+                checkoutDate);
+        return QuoteMatrixResponse.from(toolRentalService.quoteRentalLengths(store, toolCode, maxRentalDays,
+                discountPercent, checkoutDate, couponCode));
+    }
+
+    /**
+     * Prices a tool for one rental length from each of a range of consecutive checkout dates.
+     *
+     * @param toolCode        the tool code
+     * @param rentalDays      the number of rental days
+     * @param fromDate        the first checkout date
+     * @param dates           the number of checkout dates
+     * @param discountPercent the discount percent
+     * @param couponCode      the presented coupon code, or null
+     * @param store           the store, or null for the default store
+     * @return one quote per checkout date
+     * @throws ParseException if the date string is invalid
+     */
+    @GetMapping("/tools/{toolCode}/quotes/dates")
+    public QuoteMatrixResponse quoteCheckoutDates(@PathVariable String toolCode, @RequestParam int rentalDays,
+                                                  @RequestParam String fromDate, @RequestParam int dates,
+                                                  @RequestParam(defaultValue = "0") int discountPercent,
+                                                  @RequestParam(required = false) String couponCode,
+                                                  @RequestParam(required = false) String store)
+            throws ParseException {
+        logger.debug("Checkout date quotes requested for {} for {} days from {} dates from {}", toolCode,
+                rentalDays, dates, fromDate);
+        return QuoteMatrixResponse.from(toolRentalService.quoteCheckoutDates(store, toolCode, rentalDays,
+                discountPercent, fromDate, dates, couponCode));
+    }
+
+    /**
+     * Checks if a tool can be booked for a rental period and finds the earliest free checkout date.
+     *
+     * @param toolCode     the tool code
+     * @param rentalDays   the number of rental days
+     * @param checkoutDate the requested checkout date
+     * @param store        the store, or null for the default store
+     * @return the availability of the tool
+     * @throws ParseException if the checkout date string is invalid
+     */
+    @GetMapping("/tools/{toolCode}/availability")
+    public AvailabilityResponse availability(@PathVariable String toolCode, @RequestParam int rentalDays,
+                                             @RequestParam String checkoutDate,
+                                             @RequestParam(required = false) String store) throws ParseException {
+        logger.debug("Availability requested for {} for {} days from {}", toolCode, rentalDays, checkoutDate);
+        boolean available = toolRentalService.isAvailable(store, toolCode, rentalDays, checkoutDate);
+        LocalDate nextAvailableDate = toolRentalService.nextAvailableDate(store, toolCode, rentalDays,
+                checkoutDate);
+        return new AvailabilityResponse(toolCode, rentalDays, available, nextAvailableDate);
+    }
+
+}
@@ -0,0 +1,402 @@
+package com.ECL062024.ToolRental.export;
+
+import com.ECL062024.ToolRental.model.RentalAgreement;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Encodes rental agreements straight into byte buffers, as JSON or as a compact binary record, for exports that
+ * stream large numbers of agreements.
+ * <p>
+ * The JSON object has the same fields, in the same order and format, as the {@code RentalAgreementResponse} body of
+ * the REST API: dates as ISO {@code yyyy-MM-dd} strings and amounts as decimal numbers with two fraction digits.
+ * Field names and punctuation are encoded once up front; amounts are written digit by digit from cents and dates
+ * from their fields, so no intermediate {@code BigDecimal}, {@code Date} or string is created.
+ * <p>
+ * The binary record is the layout of an agreement in a journal record, little-endian:
+ * <pre>
+ * checkout epoch day  8 bytes
+ * rental days         4 bytes
+ * charge days         4 bytes
+ * daily charge        8 bytes, cents
+ * pre-discount charge 8 bytes, cents
+ * discount amount     8 bytes, cents
+ * final charge        8 bytes, cents
+ * discount percent    1 byte
+ * tool code, type and brand, each as a 2-byte length and its UTF-8 bytes
+ * </pre>
+ * The due date is not stored; it is always the checkout date plus the rental days. The agreement id is not stored
+ * either; the journal keeps it next to the record.
+ * <p>
+ * The encoder holds no state and is safe to use from any number of threads. If an agreement does not fit in the
+ * remaining space of a buffer, a {@link BufferOverflowException} is thrown and the buffer's position is unchanged.
+ */
+public final class AgreementEncoder {
+
+    /**
+     * Size of a binary record whose strings are all empty.
+     */
+    public static final int MIN_BINARY_SIZE = 8 + 4 + 4 + 8 + 8 + 8 + 8 + 1 + 3 * 2;
+
+    /**
+     * Longest encodable string in a binary record, in UTF-8 bytes.
+     */
+    public static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private static final byte[] TOOL_CODE = ascii("{\"toolCode\":\"");
+    private static final byte[] TOOL_TYPE = ascii("\",\"toolType\":\"");
+    private static final byte[] TOOL_BRAND = ascii("\",\"toolBrand\":\"");
+    private static final byte[] RENTAL_DAYS = ascii("\",\"rentalDays\":");
+    private static final byte[] CHECKOUT_DATE = ascii(",\"checkoutDate\":\"");
+    private static final byte[] DUE_DATE = ascii("\",\"dueDate\":\"");
+    private static final byte[] DAILY_CHARGE = ascii("\",\"dailyCharge\":");
+    private static final byte[] CHARGE_DAYS = ascii(",\"chargeDays\":");
+    private static final byte[] PRE_DISCOUNT_CHARGE = ascii(",\"preDiscountCharge\":");
+    private static final byte[] DISCOUNT_PERCENT = ascii(",\"discountPercent\":");
+    private static final byte[] DISCOUNT_AMOUNT = ascii(",\"discountAmount\":");
+    private static final byte[] FINAL_CHARGE = ascii(",\"finalCharge\":");
+    private static final byte[] AGREEMENT_ID = ascii(",\"agreementId\":");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private AgreementEncoder() {}
+
+    /**
+     * Writes an agreement as a JSON object.
+     *
+     * @param agreement the agreement
+     * @param out       the buffer to write to
+     * @return the number of bytes written
+     * @throws BufferOverflowException if the agreement does not fit
+     */
+    public static int encodeJson(RentalAgreement agreement, ByteBuffer out) {
+        int start = out.position();
+        try {
+            out.put(TOOL_CODE);
+            putJsonString(out, agreement.getToolCode());
+            out.put(TOOL_TYPE);
+            putJsonString(out, agreement.getToolType());
+            out.put(TOOL_BRAND);
+            putJsonString(out, agreement.getToolBrand());
+            out.put(RENTAL_DAYS);
+            putLong(out, agreement.getRentalDays());
+            out.put(CHECKOUT_DATE);
+            putDate(out, agreement.getCheckoutLocalDate());
+            out.put(DUE_DATE);
+            putDate(out, agreement.getDueLocalDate());
+            out.put(DAILY_CHARGE);
+            putCents(out, agreement.getDailyChargeCents());
+            out.put(CHARGE_DAYS);
+            putLong(out, agreement.getChargeDays());
+            out.put(PRE_DISCOUNT_CHARGE);
+            putCents(out, agreement.getPreDiscountChargeCents());
+            out.put(DISCOUNT_PERCENT);
+            putLong(out, agreement.getDiscountPercent());
+            out.put(DISCOUNT_AMOUNT);
+            putCents(out, agreement.getDiscountAmountCents());
+            out.put(FINAL_CHARGE);
+            putCents(out, agreement.getFinalChargeCents());
+            out.put(AGREEMENT_ID);
+            putLong(out, agreement.getId());
+            out.put((byte) '}');
+        } catch (BufferOverflowException e) {
+            out.position(start);
+            throw e;
+        }
+        return out.position() - start;
+    }
+
+    /**
+     * Writes an agreement as a binary record. The buffer's byte order is left as it was.
+     *
+     * @param agreement the agreement
+     * @param out       the buffer to write to
+     * @return the number of bytes written
+     * @throws BufferOverflowException  if the agreement does not fit
+     * @throws IllegalArgumentException if a string of the agreement is longer than {@link #MAX_STRING_BYTES}
+     */
+    public static int encodeBinary(RentalAgreement agreement, ByteBuffer out) {
+        int start = out.position();
+        ByteOrder order = out.order();
+        out.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            out.putLong(agreement.getCheckoutLocalDate().toEpochDay())
+                    .putInt(agreement.getRentalDays())
+                    .putInt(agreement.getChargeDays())
+                    .putLong(agreement.getDailyChargeCents())
+                    .putLong(agreement.getPreDiscountChargeCents())
+                    .putLong(agreement.getDiscountAmountCents())
+                    .putLong(agreement.getFinalChargeCents())
+                    .put((byte) agreement.getDiscountPercent());
+            putBinaryString(out, agreement.getToolCode());
+            putBinaryString(out, agreement.getToolType());
+            putBinaryString(out, agreement.getToolBrand());
+        } catch (BufferOverflowException | IllegalArgumentException e) {
+            out.position(start);
+            throw e;
+        } finally {
+            out.order(order);
+        }
+        return out.position() - start;
+    }
+
+    /**
+     * Returns the size of an agreement's binary record, without encoding it.
+     *
+     * @param agreement the agreement
+     * @return the record size in bytes
+     */
+    public static int binarySize(RentalAgreement agreement) {
+        return MIN_BINARY_SIZE + utf8Length(agreement.getToolCode()) + utf8Length(agreement.getToolType())
+                + utf8Length(agreement.getToolBrand());
+    }
+
+    /**
+     * Streams agreements to a channel as JSON lines, one object per line.
+     *
+     * @param agreements the agreements
+     * @param channel    the channel to write to
+     * @return the number of agreements written
+     * @throws IOException if the channel fails
+     */
+    public static long writeJsonLines(Iterable<RentalAgreement> agreements, WritableByteChannel channel)
+            throws IOException {
+        return writeAll(agreements, channel, (agreement, out) -> {
+            int start = out.position();
+            encodeJson(agreement, out);
+            if (!out.hasRemaining()) {
+                out.position(start);
+                throw new BufferOverflowException();
+            }
+            out.put((byte) '\n');
+        });
+    }
+
+    /**
+     * Streams agreements to a channel as consecutive binary records.
+     *
+     * @param agreements the agreements
+     * @param channel    the channel to write to
+     * @return the number of agreements written
+     * @throws IOException if the channel fails
+     */
+    public static long writeBinary(Iterable<RentalAgreement> agreements, WritableByteChannel channel)
+            throws IOException {
+        return writeAll(agreements, channel, AgreementEncoder::encodeBinary);
+    }
+
+    private static long writeAll(Iterable<RentalAgreement> agreements, WritableByteChannel channel, Encoding encoding)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(STREAM_BUFFER_SIZE);
+        long written = 0;
+        for (RentalAgreement agreement : agreements) {
+            try {
+                encoding.encode(agreement, buffer);
+            } catch (BufferOverflowException e) {
+                drain(buffer, channel);
+                int size = buffer.capacity();
+                ByteBuffer target = buffer;
+                while (true) {
+                    try {
+                        encoding.encode(agreement, target);
+                        break;
+                    } catch (BufferOverflowException tooLarge) {
+                        // Larger than the whole stream buffer: encode it on its own
+                        size *= 2;
+                        target = ByteBuffer.allocate(size);
+                    }
+                }
+                if (target != buffer) {
+                    drain(target, channel);
+                }
+            }
+            written++;
+        }
+        drain(buffer, channel);
+        return written;
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void putJsonString(ByteBuffer out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    out.put((byte) '\\');
+                }
+                out.put((byte) c);
+            } else if (c < 0x20) {
+                putEscape(out, c);
+            } else {
+                i = putNonAscii(out, value, i);
+            }
+        }
+    }
+
+    private static void putEscape(ByteBuffer out, char c) {
+        out.put((byte) '\\');
+        switch (c) {
+            case '\b':
+                out.put((byte) 'b');
+                break;
+            case '\t':
+                out.put((byte) 't');
+                break;
+            case '\n':
+                out.put((byte) 'n');
+                break;
+            case '\f':
+                out.put((byte) 'f');
+                break;
+            case '\r':
+                out.put((byte) 'r');
+                break;
+            default:
+                out.put((byte) 'u').put((byte) '0').put((byte) '0').put(HEX[c >> 4]).put(HEX[c & 0xF]);
+        }
+    }
+
+    private static void putBinaryString(ByteBuffer out, String value) {
+        int lengthPosition = out.position();
+        out.putShort((short) 0);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else {
+                i = putNonAscii(out, value, i);
+            }
+        }
+        int length = out.position() - lengthPosition - 2;
+        if (length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Agreement string is too long to encode: " + value);
+        }
+        out.putShort(lengthPosition, (short) length);
+    }
+
+    /**
+     * Writes the UTF-8 bytes of the non-ASCII character at an index, or of the surrogate pair starting there.
+     * An unpaired surrogate is written as {@code ?}, as {@link String#getBytes} does.
+     *
+     * @return the index of the last character consumed
+     */
+    private static int putNonAscii(ByteBuffer out, String value, int i) {
+        char c = value.charAt(i);
+        if (c < 0x800) {
+            out.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+        } else if (!Character.isSurrogate(c)) {
+            out.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(i + 1));
+            out.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                    .put((byte) (0x80 | codePoint >> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+            return i + 1;
+        } else {
+            out.put((byte) '?');
+        }
+        return i;
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += Character.isSurrogate(c) ? 1 : 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Writes an amount in cents as a decimal number with two fraction digits.
+     */
+    private static void putCents(ByteBuffer out, long cents) {
+        if (cents < 0) {
+            out.put((byte) '-');
+        }
+        long fraction = Math.abs(cents % 100);
+        putLong(out, Math.abs(cents / 100));
+        out.put((byte) '.').put((byte) ('0' + fraction / 10)).put((byte) ('0' + fraction % 10));
+    }
+
+    /**
+     * Writes a date as {@code yyyy-MM-dd}, or as {@link LocalDate#toString()} for years outside 0 to 9999.
+     */
+    private static void putDate(ByteBuffer out, LocalDate date) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            out.put(ascii(date.toString()));
+            return;
+        }
+        out.put((byte) ('0' + year / 1000)).put((byte) ('0' + year / 100 % 10))
+                .put((byte) ('0' + year / 10 % 10)).put((byte) ('0' + year % 10)).put((byte) '-');
+        putTwoDigits(out, date.getMonthValue());
+        out.put((byte) '-');
+        putTwoDigits(out, date.getDayOfMonth());
+    }
+
+    private static void putTwoDigits(ByteBuffer out, int value) {
+        out.put((byte) ('0' + value / 10)).put((byte) ('0' + value % 10));
+    }
+
+    private static void putLong(ByteBuffer out, long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                out.put(ascii(Long.toString(value)));
+                return;
+            }
+            out.put((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int position = out.position();
+        if (out.remaining() < digits) {
+            throw new BufferOverflowException();
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            out.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        out.position(position + digits);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Encodes one agreement into a buffer.
+     */
+    @FunctionalInterface
+    private interface Encoding {
+        void encode(RentalAgreement agreement, ByteBuffer out);
+    }
+
+}
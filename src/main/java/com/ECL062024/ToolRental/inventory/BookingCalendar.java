@@ -0,0 +1,190 @@
+package com.ECL062024.ToolRental.inventory;
+
+import java.util.Arrays;
+
+/**
+ * Number of booked units of one tool per epoch day of a range, kept in a sparse segment tree.
+ * Each node holds the units booked across its whole range plus the minimum and maximum booked units of any day
+ * below it, so booking, cancelling, checking a window and finding the first full or free day all walk a single
+ * root-to-leaf path per range end, O(log D) for the D days of the range. Nodes are only created along the edges
+ * of booked intervals, so a range with B bookings holds O(B log D) nodes; nodes are not reclaimed when bookings
+ * are cancelled. Instances are not thread-safe; {@link StripedCalendar} guards each one with its own lock.
+ */
+final class BookingCalendar {
+
+    /**
+     * First bookable epoch day, 2<sup>23</sup> days before 1970-01-01.
+     */
+    static final long MIN_DAY = -(1L << 23);
+
+    /**
+     * Epoch day after the last bookable day, 2<sup>23</sup> days after 1970-01-01.
+     */
+    static final long MAX_DAY = 1L << 23;
+
+    /**
+     * Returned by searches that find no matching day.
+     */
+    static final long NONE = Long.MIN_VALUE;
+
+    private static final int ROOT = 1;
+
+    private final long lo;
+    private final long hi;
+    // Node 0 is the absent child: no units booked anywhere in its range
+    private int[] left = new int[64];
+    private int[] right = new int[64];
+    private int[] booked = new int[64];
+    private int[] min = new int[64];
+    private int[] max = new int[64];
+    private int nodes = 2;
+
+    /**
+     * Constructs an empty calendar of a range of days, whose length is a power of two.
+     *
+     * @param lo the first day of the range, inclusive
+     * @param hi the last day of the range, exclusive
+     */
+    BookingCalendar(long lo, long hi) {
+        this.lo = lo;
+        this.hi = hi;
+    }
+
+    /**
+     * Adds units to every day of an interval within the range; a negative count cancels them.
+     *
+     * @param from  the first day, inclusive
+     * @param to    the last day, exclusive
+     * @param units the units to add
+     */
+    void add(long from, long to, int units) {
+        add(ROOT, lo, hi, from, to, units);
+    }
+
+    /**
+     * @param from the first day, inclusive
+     * @param to   the last day, exclusive
+     * @return the most units booked on any day of the interval.
+     */
+    int maxBooked(long from, long to) {
+        return maxBooked(ROOT, lo, hi, from, to);
+    }
+
+    /**
+     * Finds the first day of an interval with at least the given number of units booked.
+     *
+     * @param from  the first day, inclusive
+     * @param to    the last day, exclusive
+     * @param units the number of booked units to look for, 1 or greater
+     * @return the first such day, or {@link #NONE} if there is none
+     */
+    long firstAtLeast(long from, long to, int units) {
+        return firstAtLeast(ROOT, lo, hi, from, to, units);
+    }
+
+    /**
+     * Finds the first day of an interval with fewer than the given number of units booked.
+     *
+     * @param from  the first day, inclusive
+     * @param to    the last day, exclusive
+     * @param units the number of booked units to stay below, 1 or greater
+     * @return the first such day, or {@link #NONE} if there is none
+     */
+    long firstBelow(long from, long to, int units) {
+        return firstBelow(ROOT, lo, hi, from, to, units);
+    }
+
+    private void add(int node, long lo, long hi, long from, long to, int units) {
+        if (from <= lo && hi <= to) {
+            booked[node] += units;
+            min[node] += units;
+            max[node] += units;
+            return;
+        }
+        long mid = lo + (hi - lo) / 2;
+        if (from < mid) {
+            if (left[node] == 0) {
+                // Allocate before indexing: growing the tree replaces the arrays
+                int child = newNode();
+                left[node] = child;
+            }
+            add(left[node], lo, mid, from, to, units);
+        }
+        if (to > mid) {
+            if (right[node] == 0) {
+                int child = newNode();
+                right[node] = child;
+            }
+            add(right[node], mid, hi, from, to, units);
+        }
+        min[node] = booked[node] + Math.min(min[left[node]], min[right[node]]);
+        max[node] = booked[node] + Math.max(max[left[node]], max[right[node]]);
+    }
+
+    private int maxBooked(int node, long lo, long hi, long from, long to) {
+        if (node == 0) {
+            return 0;
+        }
+        if (from <= lo && hi <= to) {
+            return max[node];
+        }
+        long mid = lo + (hi - lo) / 2;
+        int most = 0;
+        if (from < mid) {
+            most = maxBooked(left[node], lo, mid, from, to);
+        }
+        if (to > mid) {
+            most = Math.max(most, maxBooked(right[node], mid, hi, from, to));
+        }
+        return booked[node] + most;
+    }
+
+    private long firstAtLeast(int node, long lo, long hi, long from, long to, int units) {
+        if (max[node] < units) {
+            return NONE;
+        }
+        if (min[node] >= units) {
+            return Math.max(lo, from);
+        }
+        long mid = lo + (hi - lo) / 2;
+        long day = NONE;
+        if (from < mid) {
+            day = firstAtLeast(left[node], lo, mid, from, to, units - booked[node]);
+        }
+        if (day == NONE && to > mid) {
+            day = firstAtLeast(right[node], mid, hi, from, to, units - booked[node]);
+        }
+        return day;
+    }
+
+    private long firstBelow(int node, long lo, long hi, long from, long to, int units) {
+        if (min[node] >= units) {
+            return NONE;
+        }
+        if (max[node] < units) {
+            return Math.max(lo, from);
+        }
+        long mid = lo + (hi - lo) / 2;
+        long day = NONE;
+        if (from < mid) {
+            day = firstBelow(left[node], lo, mid, from, to, units - booked[node]);
+        }
+        if (day == NONE && to > mid) {
+            day = firstBelow(right[node], mid, hi, from, to, units - booked[node]);
+        }
+        return day;
+    }
+
+    private int newNode() {
+        if (nodes == booked.length) {
+            int capacity = nodes * 2;
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            booked = Arrays.copyOf(booked, capacity);
+            min = Arrays.copyOf(min, capacity);
+            max = Arrays.copyOf(max, capacity);
+        }
+        return nodes++;
+    }
+
+}
@@ -0,0 +1,225 @@
+package com.ECL062024.ToolRental.inventory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Booked units of one tool per epoch day over [{@value BookingCalendar#MIN_DAY}, {@value BookingCalendar#MAX_DAY}),
+ * split into stripes of {@value #STRIPE_DAYS} consecutive days, each a {@link BookingCalendar} under a lock of its
+ * own.
+ * <p>
+ * A booking locks only the stripes its period touches, in ascending order, so checkouts of a popular tool over
+ * different weeks proceed in parallel and only rentals sharing a stripe take turns; checking and booking cost
+ * O(log {@value #STRIPE_DAYS}) per stripe touched. Stripes are created on their first booking and never
+ * reclaimed. Reads lock one stripe at a time, so an answer spanning stripes is not a snapshot of one instant,
+ * which is all an availability answer can be once it is returned.
+ */
+final class StripedCalendar {
+
+    /**
+     * Days per stripe, a power of two.
+     */
+    static final int STRIPE_DAYS = 1 << 6;
+
+    private static final int STRIPE_SHIFT = Integer.numberOfTrailingZeros(STRIPE_DAYS);
+
+    private final ConcurrentMap<Long, Stripe> stripes = new ConcurrentHashMap<>();
+
+    /**
+     * @param from the first day, inclusive
+     * @param to   the last day, exclusive
+     * @return the most units booked on any day of the interval.
+     */
+    int maxBooked(long from, long to) {
+        int most = 0;
+        for (long index = stripeIndex(from); index <= stripeIndex(to - 1); index++) {
+            Stripe stripe = stripes.get(index);
+            if (stripe != null) {
+                stripe.lock.lock();
+                try {
+                    most = Math.max(most, stripe.maxBooked(from, to));
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+        }
+        return most;
+    }
+
+    /**
+     * Books a unit for every day of an interval if fewer than the given units are booked on each of them.
+     *
+     * @param from  the first day, inclusive
+     * @param to    the last day, exclusive
+     * @param units the number of units of the tool
+     * @return true if the interval was booked, false if a day of it is booked out
+     */
+    boolean book(long from, long to, int units) {
+        Stripe[] locked = lock(from, to, true);
+        try {
+            for (Stripe stripe : locked) {
+                if (stripe.maxBooked(from, to) >= units) {
+                    return false;
+                }
+            }
+            for (Stripe stripe : locked) {
+                stripe.add(from, to, 1);
+            }
+            return true;
+        } finally {
+            unlock(locked);
+        }
+    }
+
+    /**
+     * Cancels a booked unit on every day of an interval.
+     *
+     * @param from the first day, inclusive
+     * @param to   the last day, exclusive
+     * @return true if the unit was cancelled, false if a day of the interval has no booked unit
+     */
+    boolean cancel(long from, long to) {
+        Stripe[] locked = lock(from, to, false);
+        try {
+            for (Stripe stripe : locked) {
+                if (stripe == null || stripe.firstBelow(from, to, 1) != BookingCalendar.NONE) {
+                    return false;
+                }
+            }
+            for (Stripe stripe : locked) {
+                stripe.add(from, to, -1);
+            }
+            return true;
+        } finally {
+            unlock(locked);
+        }
+    }
+
+    /**
+     * Finds the first day of an interval with at least the given number of units booked.
+     *
+     * @param from  the first day, inclusive
+     * @param to    the last day, exclusive
+     * @param units the number of booked units to look for, 1 or greater
+     * @return the first such day, or {@link BookingCalendar#NONE} if there is none
+     */
+    long firstAtLeast(long from, long to, int units) {
+        for (long index = stripeIndex(from); index <= stripeIndex(to - 1); index++) {
+            Stripe stripe = stripes.get(index);
+            if (stripe == null) {
+                continue;
+            }
+            long day;
+            stripe.lock.lock();
+            try {
+                day = stripe.firstAtLeast(from, to, units);
+            } finally {
+                stripe.lock.unlock();
+            }
+            if (day != BookingCalendar.NONE) {
+                return day;
+            }
+        }
+        return BookingCalendar.NONE;
+    }
+
+    /**
+     * Finds the first day of an interval with fewer than the given number of units booked.
+     * Days of stripes never booked have no units booked, so the search stops at the first such stripe.
+     *
+     * @param from  the first day, inclusive
+     * @param to    the last day, exclusive
+     * @param units the number of booked units to stay below, 1 or greater
+     * @return the first such day, or {@link BookingCalendar#NONE} if there is none
+     */
+    long firstBelow(long from, long to, int units) {
+        for (long index = stripeIndex(from); index <= stripeIndex(to - 1); index++) {
+            Stripe stripe = stripes.get(index);
+            if (stripe == null) {
+                return Math.max(from, index << STRIPE_SHIFT);
+            }
+            long day;
+            stripe.lock.lock();
+            try {
+                day = stripe.firstBelow(from, to, units);
+            } finally {
+                stripe.lock.unlock();
+            }
+            if (day != BookingCalendar.NONE) {
+                return day;
+            }
+        }
+        return BookingCalendar.NONE;
+    }
+
+    /**
+     * Locks the stripes an interval touches in ascending order.
+     *
+     * @param from   the first day, inclusive
+     * @param to     the last day, exclusive
+     * @param create whether to create missing stripes; otherwise they are left null and not locked
+     * @return the stripes, in ascending order
+     */
+    private Stripe[] lock(long from, long to, boolean create) {
+        long first = stripeIndex(from);
+        Stripe[] locked = new Stripe[Math.toIntExact(stripeIndex(to - 1) - first + 1)];
+        try {
+            for (int i = 0; i < locked.length; i++) {
+                locked[i] = create ? stripes.computeIfAbsent(first + i, Stripe::new) : stripes.get(first + i);
+                if (locked[i] != null) {
+                    locked[i].lock.lock();
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            unlock(locked);
+            throw e;
+        }
+        return locked;
+    }
+
+    private static void unlock(Stripe[] locked) {
+        for (Stripe stripe : locked) {
+            if (stripe != null && stripe.lock.isHeldByCurrentThread()) {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    private static long stripeIndex(long day) {
+        return day >> STRIPE_SHIFT;
+    }
+
+    /**
+     * The calendar of one stripe of days and the lock guarding it. Its methods clip intervals to the stripe.
+     */
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long lo;
+        private final long hi;
+        private final BookingCalendar calendar;
+
+        private Stripe(long index) {
+            this.lo = index << STRIPE_SHIFT;
+            this.hi = lo + STRIPE_DAYS;
+            this.calendar = new BookingCalendar(lo, hi);
+        }
+
+        private int maxBooked(long from, long to) {
+            return calendar.maxBooked(Math.max(from, lo), Math.min(to, hi));
+        }
+
+        private void add(long from, long to, int units) {
+            calendar.add(Math.max(from, lo), Math.min(to, hi), units);
+        }
+
+        private long firstAtLeast(long from, long to, int units) {
+            return calendar.firstAtLeast(Math.max(from, lo), Math.min(to, hi), units);
+        }
+
+        private long firstBelow(long from, long to, int units) {
+            return calendar.firstBelow(Math.max(from, lo), Math.min(to, hi), units);
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.ECL062024.ToolRental.inventory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Booked rental periods per tool code, answering whether a tool is free for a period and when it is next free.
+ * A rental of N days from checkout day D books the days [D, D + N), so the tool is free again on its due date.
+ * <p>
+ * A tool can be booked by as many overlapping rentals as it has units in {@link ToolInventory}; tools whose units
+ * are not tracked are always free and their bookings are not recorded. Each tool's days are kept in a
+ * {@link StripedCalendar}, whose stripes of {@value StripedCalendar#STRIPE_DAYS} days are locked separately:
+ * bookings of different tools never contend, and bookings of one tool contend only when their periods share a
+ * stripe. Checking and booking a period take O(log {@value StripedCalendar#STRIPE_DAYS}) time per stripe it
+ * touches. Finding the next free window takes that per booked-out stretch it has to skip.
+ */
+@Component
+public class ToolAvailability {
+    private static final Logger logger = LoggerFactory.getLogger(ToolAvailability.class);
+
+    private final ToolInventory toolInventory;
+    private final ConcurrentMap<String, StripedCalendar> calendars = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor to initialize ToolAvailability with the inventory that limits concurrent bookings.
+     *
+     * @param toolInventory the units per tool
+     */
+    @Autowired
+    public ToolAvailability(ToolInventory toolInventory) {
+        this.toolInventory = toolInventory;
+    }
+
+    /**
+     * Checks if a tool has a unit free on every day of a rental period.
+     *
+     * @param toolCode the tool code
+     * @param startDay the first day of the period as an epoch day
+     * @param days     the number of days, 1 or greater
+     * @return true if the period can be booked, false otherwise
+     */
+    public boolean isFree(String toolCode, long startDay, int days) {
+        int units = toolInventory.units(toolCode);
+        if (units < 0) {
+            return true;
+        }
+        long endDay = endDay(startDay, days);
+        if (units == 0) {
+            return false;
+        }
+        StripedCalendar calendar = calendars.get(toolCode);
+        return calendar == null || calendar.maxBooked(startDay, endDay) < units;
+    }
+
+    /**
+     * Finds the first day on or after the given day from which a tool is free for a whole rental period.
+     *
+     * @param toolCode the tool code
+     * @param fromDay  the earliest first day of the period as an epoch day
+     * @param days     the number of days, 1 or greater
+     * @return the first day of the earliest free period, or empty if the tool has no units or no such period
+     *         fits in the bookable range
+     */
+    public OptionalLong nextFreeDay(String toolCode, long fromDay, int days) {
+        int units = toolInventory.units(toolCode);
+        if (units < 0) {
+            return OptionalLong.of(fromDay);
+        }
+        endDay(fromDay, days);
+        if (units == 0) {
+            return OptionalLong.empty();
+        }
+        StripedCalendar calendar = calendars.get(toolCode);
+        if (calendar == null) {
+            return OptionalLong.of(fromDay);
+        }
+        long startDay = fromDay;
+        while (startDay <= BookingCalendar.MAX_DAY - days) {
+            long fullDay = calendar.firstAtLeast(startDay, startDay + days, units);
+            if (fullDay == BookingCalendar.NONE) {
+                return OptionalLong.of(startDay);
+            }
+            // No window containing the full day can be free, so resume at the end of its booked-out stretch
+            startDay = calendar.firstBelow(fullDay, BookingCalendar.MAX_DAY, units);
+            if (startDay == BookingCalendar.NONE) {
+                break;
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Books a unit of a tool for a rental period if one is free on every day of it.
+     *
+     * @param toolCode the tool code
+     * @param startDay the first day of the period as an epoch day
+     * @param days     the number of days, 1 or greater
+     * @return true if the period was booked or the tool is not tracked, false if it conflicts with other bookings
+     */
+    public boolean book(String toolCode, long startDay, int days) {
+        int units = toolInventory.units(toolCode);
+        if (units < 0) {
+            return true;
+        }
+        long endDay = endDay(startDay, days);
+        if (units == 0) {
+            return false;
+        }
+        StripedCalendar calendar = calendars.computeIfAbsent(toolCode, code -> new StripedCalendar());
+        if (!calendar.book(startDay, endDay, units)) {
+            logger.debug("Tool {} is booked out between epoch days {} and {}", toolCode, startDay, endDay);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Cancels a booking made by {@link #book}.
+     *
+     * @param toolCode the tool code
+     * @param startDay the first day of the booked period as an epoch day
+     * @param days     the number of booked days
+     */
+    public void cancel(String toolCode, long startDay, int days) {
+        long endDay = endDay(startDay, days);
+        StripedCalendar calendar = calendars.get(toolCode);
+        if (calendar == null) {
+            return;
+        }
+        if (!calendar.cancel(startDay, endDay)) {
+            throw new IllegalStateException("Tool with code " + toolCode
+                    + " has no booking to cancel from epoch day " + startDay + " for " + days + " days.");
+        }
+    }
+
+    private static long endDay(long startDay, int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("Rental days must be 1 or greater.");
+        }
+        if (startDay < BookingCalendar.MIN_DAY || startDay > BookingCalendar.MAX_DAY - days) {
+            throw new IllegalArgumentException("Rental period is outside the bookable range.");
+        }
+        return startDay + days;
+    }
+
+}
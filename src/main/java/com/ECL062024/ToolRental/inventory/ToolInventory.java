@@ -0,0 +1,98 @@
+package com.ECL062024.ToolRental.inventory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Rental units per tool code.
+ * Tools without a configured unit count are not tracked and can always be booked. How many units of a tracked
+ * tool are rented out on a day is kept by {@link ToolAvailability}, which books rental periods against these
+ * counts.
+ */
+@Component
+public class ToolInventory {
+    private static final Logger logger = LoggerFactory.getLogger(ToolInventory.class);
+
+    private final ConcurrentMap<String, Integer> unitCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor to initialize ToolInventory from the application properties.
+     *
+     * @param units the unit counts as comma-separated {@code CODE:units} entries, e.g. {@code JAKR:2,JAKD:3}
+     */
+    @Autowired
+    public ToolInventory(@Value("${toolrental.inventory.units:}") String units) {
+        for (String entry : units.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid inventory entry: " + entry.trim());
+            }
+            try {
+                setUnits(entry.substring(0, separator).trim(),
+                        Integer.parseInt(entry.substring(separator + 1).trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid inventory entry: " + entry.trim(), e);
+            }
+        }
+    }
+
+    /**
+     * Creates an inventory that tracks no tools, so every booking succeeds.
+     *
+     * @return an untracked inventory
+     */
+    public static ToolInventory unlimited() {
+        return new ToolInventory("");
+    }
+
+    /**
+     * Starts tracking a tool with the given number of units, or changes the number of units of a tracked tool.
+     * Rentals booked before the change keep their units; later bookings are checked against the new count.
+     *
+     * @param toolCode the tool code
+     * @param units    the number of units
+     */
+    public void setUnits(String toolCode, int units) {
+        if (units < 0) {
+            throw new IllegalArgumentException("Inventory units must be 0 or greater.");
+        }
+        unitCounts.put(toolCode, units);
+        logger.info("Inventory for tool {} set to {} units", toolCode, units);
+    }
+
+    /**
+     * Stops tracking a tool, so it can always be booked.
+     *
+     * @param toolCode the tool code
+     */
+    public void untrack(String toolCode) {
+        unitCounts.remove(toolCode);
+    }
+
+    /**
+     * @param toolCode the tool code
+     * @return true if the tool's units are tracked, false otherwise.
+     */
+    public boolean isTracked(String toolCode) {
+        return unitCounts.containsKey(toolCode);
+    }
+
+    /**
+     * @param toolCode the tool code
+     * @return the total number of units, rented or not, or -1 if the tool is not tracked.
+     */
+    public int units(String toolCode) {
+        Integer count = unitCounts.get(toolCode);
+        return count == null ? -1 : count;
+    }
+
+}
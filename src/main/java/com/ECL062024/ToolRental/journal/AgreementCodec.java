@@ -0,0 +1,214 @@
+package com.ECL062024.ToolRental.journal;
+
+import com.ECL062024.ToolRental.export.AgreementEncoder;
+import com.ECL062024.ToolRental.model.RentalAgreement;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary encoding of journal records.
+ * <p>
+ * A record is a little-endian length and CRC-32C of its payload, followed by the payload, which starts with the
+ * kind of the record and the store it was made at, as a length-prefixed UTF-8 string. A checkout record holds the
+ * number of agreements issued and, for each, its id, its charge mask and its binary record of
+ * {@link AgreementEncoder}; the agreements of a record, such as the lines of a cart, pass the checksum together and
+ * are therefore recovered all or none. A check-in record holds the id of the agreement whose rental was closed.
+ */
+final class AgreementCodec {
+
+    /**
+     * Size of the length and checksum in front of every payload.
+     */
+    static final int RECORD_HEADER_SIZE = 8;
+
+    /**
+     * Kind of a record of issued agreements.
+     */
+    static final byte CHECKOUT = 1;
+
+    /**
+     * Kind of a record of a closed rental.
+     */
+    static final byte CHECK_IN = 2;
+
+    /**
+     * Size of the id and charge mask in front of each agreement's binary record.
+     */
+    private static final int AGREEMENT_PREFIX_SIZE = 8 + 1;
+
+    /**
+     * Size of the smallest payload, that of a check-in record at the default store.
+     */
+    static final int MIN_PAYLOAD_SIZE = 1 + 2 + 8;
+
+    /**
+     * Largest payload of a record, which bounds the number of agreements written as one.
+     */
+    static final int MAX_PAYLOAD_SIZE = (1 << 20) - RECORD_HEADER_SIZE;
+
+    private AgreementCodec() {}
+
+    /**
+     * Encodes agreements issued at a store as one complete checkout record, header included.
+     *
+     * @param storeId    the store identifier
+     * @param agreements the agreements, at least one
+     * @return the record bytes
+     * @throws IllegalArgumentException if the store identifier or a string of an agreement is too long to encode, or
+     *                                  the agreements are too many for one record
+     */
+    static byte[] encodeCheckout(String storeId, List<RentalAgreement> agreements) {
+        if (agreements.isEmpty()) {
+            throw new IllegalArgumentException("A journal record must hold at least one agreement.");
+        }
+        byte[] store = encodeStoreId(storeId);
+        long size = 1 + 2 + store.length + 4;
+        for (RentalAgreement agreement : agreements) {
+            size += AGREEMENT_PREFIX_SIZE + AgreementEncoder.binarySize(agreement);
+        }
+        if (size > MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("Too many agreements for one journal record: " + agreements.size());
+        }
+        ByteBuffer buffer = allocate((int) size);
+        buffer.put(CHECKOUT).putShort((short) store.length).put(store).putInt(agreements.size());
+        for (RentalAgreement agreement : agreements) {
+            buffer.putLong(agreement.getId()).put((byte) agreement.getChargeMask());
+            AgreementEncoder.encodeBinary(agreement, buffer);
+        }
+        return seal(buffer);
+    }
+
+    /**
+     * Encodes the check-in of an agreement at a store as a complete record, header included.
+     *
+     * @param storeId     the store identifier
+     * @param agreementId the id of the checked-in agreement
+     * @return the record bytes
+     * @throws IllegalArgumentException if the store identifier is too long to encode
+     */
+    static byte[] encodeCheckIn(String storeId, long agreementId) {
+        byte[] store = encodeStoreId(storeId);
+        ByteBuffer buffer = allocate(MIN_PAYLOAD_SIZE + store.length);
+        buffer.put(CHECK_IN).putShort((short) store.length).put(store).putLong(agreementId);
+        return seal(buffer);
+    }
+
+    private static byte[] encodeStoreId(String storeId) {
+        byte[] encoded = storeId.getBytes(StandardCharsets.UTF_8);
+        if (encoded.length > 0xFFFF) {
+            throw new IllegalArgumentException("Store identifier too long to journal: " + encoded.length + " bytes");
+        }
+        return encoded;
+    }
+
+    private static ByteBuffer allocate(int payloadSize) {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[RECORD_HEADER_SIZE + payloadSize])
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(RECORD_HEADER_SIZE);
+        return buffer;
+    }
+
+    /**
+     * Fills in the length and checksum of an encoded payload.
+     *
+     * @param buffer the record, with the payload written up to its position
+     * @return the record bytes
+     */
+    private static byte[] seal(ByteBuffer buffer) {
+        int payloadSize = buffer.position() - RECORD_HEADER_SIZE;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), RECORD_HEADER_SIZE, payloadSize);
+        buffer.putInt(0, payloadSize).putInt(4, (int) crc.getValue());
+        return buffer.array();
+    }
+
+    /**
+     * Checks a payload against the checksum from its record header.
+     *
+     * @param payload  the payload, from its position to its limit
+     * @param checksum the checksum from the record header
+     * @return true if the payload is intact, false otherwise
+     */
+    static boolean isIntact(ByteBuffer payload, int checksum) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue() == checksum;
+    }
+
+    /**
+     * Decodes a payload checked by {@link #isIntact} and passes its agreements or check-in, with the store they were
+     * made at, to a consumer.
+     *
+     * @param payload   the payload, from its position to its limit, in little-endian order; its position is
+     *                  advanced
+     * @param checkouts the consumer of the store identifier and each issued agreement
+     * @param checkIns  the consumer of the store identifier and the id of the checked-in agreement
+     * @throws IllegalArgumentException if the record is of an unknown kind
+     */
+    static void decode(ByteBuffer payload, BiConsumer<String, RentalAgreement> checkouts,
+                       ObjLongConsumer<String> checkIns) {
+        byte kind = payload.get();
+        String storeId = getString(payload);
+        switch (kind) {
+            case CHECKOUT:
+                int count = payload.getInt();
+                List<RentalAgreement> agreements = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    agreements.add(decodeAgreement(payload));
+                }
+                for (RentalAgreement agreement : agreements) {
+                    checkouts.accept(storeId, agreement);
+                }
+                break;
+            case CHECK_IN:
+                checkIns.accept(storeId, payload.getLong());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown rental agreement journal record kind " + kind + ".");
+        }
+    }
+
+    private static RentalAgreement decodeAgreement(ByteBuffer payload) {
+        long id = payload.getLong();
+        int chargeMask = payload.get() & 0xFF;
+        long checkoutDay = payload.getLong();
+        int rentalDays = payload.getInt();
+        int chargeDays = payload.getInt();
+        long dailyChargeCents = payload.getLong();
+        long preDiscountChargeCents = payload.getLong();
+        long discountAmountCents = payload.getLong();
+        long finalChargeCents = payload.getLong();
+        int discountPercent = payload.get();
+        String toolCode = getString(payload);
+        String toolType = getString(payload);
+        String toolBrand = getString(payload);
+        return new RentalAgreement.Builder(toolCode, toolType, toolBrand)
+                .id(id)
+                .rentalDays(rentalDays)
+                .checkoutDate(LocalDate.ofEpochDay(checkoutDay))
+                .dueDate(LocalDate.ofEpochDay(checkoutDay + rentalDays))
+                .dailyChargeCents(dailyChargeCents)
+                .preDiscountChargeCents(preDiscountChargeCents)
+                .discountPercent(discountPercent)
+                .discountAmountCents(discountAmountCents)
+                .finalChargeCents(finalChargeCents)
+                .chargeDays(chargeDays)
+                .chargeMask(chargeMask)
+                .build();
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] encoded = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+}
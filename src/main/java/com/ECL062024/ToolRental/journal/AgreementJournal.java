@@ -0,0 +1,559 @@
+package com.ECL062024.ToolRental.journal;
+
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Durable append-only journal of issued rental agreements and of their check-ins, enabled with
+ * {@code toolrental.journal.enabled=true}.
+ * <p>
+ * Checkout threads encode their agreements with {@link AgreementCodec} and queue them as one record, so a cart is
+ * journaled and recovered as a whole; a single writer thread drains
+ * the queue, writes up to {@code batch-size} records with one gathering write and makes them durable with one
+ * {@link FileChannel#force} call. Records queued while a sync is in flight go out together in the next one, so
+ * concurrent checkouts share an fsync instead of queueing behind one each. The writer can also hold a batch open
+ * for up to {@code max-delay} to collect more records, trading checkout latency for fewer syncs.
+ * <p>
+ * The file starts with a magic number and version. On startup the journal is scanned record by record; a record
+ * that is cut short or fails its checksum marks the end of a write torn by a crash, and the file is truncated there.
+ * The records that survive are available to {@link #replay}, from which the rentals still open can be rebuilt.
+ * <p>
+ * If a batch cannot be written or synced, the file is truncated back to the end of the last durable batch, since
+ * the callers of the failed batch roll their checkouts back and a record left behind would be replayed on the next
+ * startup. The journal then refuses further records: after a failed sync the state of the file on disk is unknown.
+ */
+@Component
+public class AgreementJournal implements InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(AgreementJournal.class);
+
+    static final int MAGIC = 0x4A414752;
+    static final int VERSION = 3;
+    static final int HEADER_SIZE = 8;
+
+    private static final int READ_BUFFER_SIZE = AgreementCodec.RECORD_HEADER_SIZE + AgreementCodec.MAX_PAYLOAD_SIZE;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final boolean enabled;
+    private final Path path;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final boolean fsync;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition queued = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    private final ArrayDeque<byte[]> pending = new ArrayDeque<>();
+    private long appendedSequence;
+    private long durableSequence;
+    private long syncCount;
+    private IOException failure;
+    private boolean closed;
+
+    private FileChannel channel;
+    private Thread writer;
+    private long recoveredEnd;
+    private long recoveredRecords;
+
+    /**
+     * Constructor to initialize AgreementJournal from the application properties.
+     * Nothing is opened until {@link #afterPropertiesSet()} is called.
+     *
+     * @param enabled   whether agreements are journaled
+     * @param path      the journal file
+     * @param batchSize the maximum number of records written per sync
+     * @param maxDelay  how long the writer waits for a batch to fill before syncing it
+     * @param fsync     whether to force each batch to disk; without it batches only reach the OS page cache
+     */
+    @Autowired
+    public AgreementJournal(@Value("${toolrental.journal.enabled:false}") boolean enabled,
+                            @Value("${toolrental.journal.path:agreements.journal}") Path path,
+                            @Value("${toolrental.journal.batch-size:256}") int batchSize,
+                            @Value("${toolrental.journal.max-delay:PT0S}") Duration maxDelay,
+                            @Value("${toolrental.journal.fsync:true}") boolean fsync) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Journal batch size must be 1 or greater.");
+        }
+        if (maxDelay.isNegative()) {
+            throw new IllegalArgumentException("Journal max delay must not be negative.");
+        }
+        this.enabled = enabled;
+        this.path = path.toAbsolutePath();
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.fsync = fsync;
+    }
+
+    /**
+     * Creates a journal that records nothing.
+     *
+     * @return a disabled journal
+     */
+    public static AgreementJournal disabled() {
+        return new AgreementJournal(false, Path.of("agreements.journal"), 1, Duration.ZERO, false);
+    }
+
+    /**
+     * @return true if agreements are journaled, false otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opens the journal, truncates any torn tail and starts the writer thread.
+     *
+     * @throws IOException              if the journal cannot be opened or recovered
+     * @throws IllegalArgumentException if the file is not a rental agreement journal
+     */
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        channel = openChannel();
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        writer = new Thread(this::writeLoop, "agreement-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Writes out every queued record, stops the writer thread and closes the journal.
+     *
+     * @throws IOException if the journal cannot be closed
+     */
+    @Override
+    public void destroy() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            closed = true;
+            queued.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    /**
+     * Queues an agreement issued at a store without waiting for it to become durable.
+     *
+     * @param storeId   the store identifier
+     * @param agreement the agreement
+     * @return the sequence number to pass to {@link #sync}, or 0 if the journal is disabled
+     * @throws UncheckedIOException  if the journal has failed
+     * @throws IllegalStateException if the journal is not open
+     */
+    public long write(String storeId, RentalAgreement agreement) {
+        return write(storeId, List.of(agreement));
+    }
+
+    /**
+     * Queues agreements issued at a store as one record without waiting for it to become durable.
+     * The agreements are recovered all or none.
+     *
+     * @param storeId    the store identifier
+     * @param agreements the agreements, at least one
+     * @return the sequence number to pass to {@link #sync}, or 0 if the journal is disabled
+     * @throws UncheckedIOException     if the journal has failed
+     * @throws IllegalStateException    if the journal is not open
+     * @throws IllegalArgumentException if the agreements do not fit in one record
+     */
+    public long write(String storeId, List<RentalAgreement> agreements) {
+        if (!enabled) {
+            return 0;
+        }
+        return enqueue(AgreementCodec.encodeCheckout(storeId, agreements));
+    }
+
+    /**
+     * Queues the check-in of an agreement at a store without waiting for it to become durable.
+     *
+     * @param storeId     the store identifier
+     * @param agreementId the id of the checked-in agreement
+     * @return the sequence number to pass to {@link #sync}, or 0 if the journal is disabled
+     * @throws UncheckedIOException  if the journal has failed
+     * @throws IllegalStateException if the journal is not open
+     */
+    public long writeCheckIn(String storeId, long agreementId) {
+        if (!enabled) {
+            return 0;
+        }
+        return enqueue(AgreementCodec.encodeCheckIn(storeId, agreementId));
+    }
+
+    private long enqueue(byte[] record) {
+        lock.lock();
+        try {
+            checkWritable();
+            pending.add(record);
+            queued.signal();
+            return ++appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every record up to a sequence number is durable.
+     *
+     * @param sequence the sequence number returned by {@link #write}
+     * @throws UncheckedIOException if the journal failed before the record became durable
+     */
+    public void sync(long sequence) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Rental agreement journal " + path + " has failed.", failure);
+                }
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every record queued so far is durable.
+     *
+     * @throws UncheckedIOException if the journal failed before the records became durable
+     */
+    public void syncAll() {
+        if (!enabled) {
+            return;
+        }
+        long sequence;
+        lock.lock();
+        try {
+            sequence = appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+        sync(sequence);
+    }
+
+    /**
+     * Journals an agreement issued at a store and waits until it is durable.
+     *
+     * @param storeId   the store identifier
+     * @param agreement the agreement
+     * @throws UncheckedIOException if the agreement could not be made durable
+     */
+    public void append(String storeId, RentalAgreement agreement) {
+        sync(write(storeId, agreement));
+    }
+
+    /**
+     * Journals agreements issued at a store as one record and waits until it is durable.
+     *
+     * @param storeId    the store identifier
+     * @param agreements the agreements, at least one
+     * @throws UncheckedIOException if the agreements could not be made durable
+     */
+    public void append(String storeId, List<RentalAgreement> agreements) {
+        sync(write(storeId, agreements));
+    }
+
+    /**
+     * Passes every record recovered when the journal was opened to the consumer of its kind, in the order they were
+     * written: the issued agreements of checkouts and the agreement ids of check-ins, each with the store it was
+     * made at.
+     *
+     * @param checkouts the consumer of the store identifier and each issued agreement
+     * @param checkIns  the consumer of the store identifier and the id of each checked-in agreement
+     * @return the number of records replayed
+     * @throws IOException              if the journal cannot be read
+     * @throws IllegalArgumentException if a record is of an unknown kind
+     */
+    public long replay(BiConsumer<String, RentalAgreement> checkouts, ObjLongConsumer<String> checkIns)
+            throws IOException {
+        if (channel == null) {
+            return 0;
+        }
+        return scan(recoveredEnd, payload -> AgreementCodec.decode(payload, checkouts, checkIns))[1];
+    }
+
+    /**
+     * @return the number of records recovered when the journal was opened.
+     */
+    public long recoveredRecords() {
+        return recoveredRecords;
+    }
+
+    /**
+     * @return the number of batches written and synced so far.
+     */
+    public long syncCount() {
+        lock.lock();
+        try {
+            return syncCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens the journal file for reading and writing, creating it if needed.
+     *
+     * @return the channel
+     * @throws IOException if the file cannot be opened
+     */
+    FileChannel openChannel() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void checkWritable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Rental agreement journal " + path + " has failed.", failure);
+        }
+        if (channel == null || closed) {
+            throw new IllegalStateException("Rental agreement journal " + path + " is not open.");
+        }
+    }
+
+    private void recover() throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            if (size > 0) {
+                logger.warn("Rental agreement journal {} has a torn header, starting it over", path);
+                channel.truncate(0);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            writeFully(header, 0);
+            channel.force(true);
+            size = HEADER_SIZE;
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw new IllegalArgumentException("Not a rental agreement journal: " + path);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IllegalArgumentException("Unsupported rental agreement journal version "
+                        + header.getInt(4) + ".");
+            }
+        }
+
+        long[] scanned = scan(size, null);
+        recoveredEnd = scanned[0];
+        recoveredRecords = scanned[1];
+        if (recoveredEnd < size) {
+            logger.warn("Truncating torn tail of rental agreement journal {} from {} to {} bytes", path, size,
+                    recoveredEnd);
+            channel.truncate(recoveredEnd);
+            channel.force(true);
+        }
+        channel.position(recoveredEnd);
+        logger.info("Opened rental agreement journal {} with {} records", path, recoveredRecords);
+    }
+
+    /**
+     * Reads records up to a file offset, stopping at the first incomplete or corrupt record.
+     *
+     * @param end      the file offset to stop at
+     * @param consumer the consumer of intact payloads, or null to only validate them
+     * @return the file offset after the last intact record and the number of intact records
+     */
+    private long[] scan(long end, Consumer<ByteBuffer> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        long position = HEADER_SIZE;
+        long readPosition = HEADER_SIZE;
+        long records = 0;
+        while (true) {
+            if (buffer.remaining() >= AgreementCodec.RECORD_HEADER_SIZE) {
+                int length = buffer.getInt(buffer.position());
+                if (length < AgreementCodec.MIN_PAYLOAD_SIZE || length > AgreementCodec.MAX_PAYLOAD_SIZE) {
+                    break;
+                }
+                if (buffer.remaining() >= AgreementCodec.RECORD_HEADER_SIZE + length) {
+                    int checksum = buffer.getInt(buffer.position() + 4);
+                    ByteBuffer payload = buffer.slice(buffer.position() + AgreementCodec.RECORD_HEADER_SIZE, length)
+                            .order(ByteOrder.LITTLE_ENDIAN);
+                    if (!AgreementCodec.isIntact(payload, checksum)) {
+                        break;
+                    }
+                    if (consumer != null) {
+                        consumer.accept(payload);
+                    }
+                    buffer.position(buffer.position() + AgreementCodec.RECORD_HEADER_SIZE + length);
+                    position += AgreementCodec.RECORD_HEADER_SIZE + length;
+                    records++;
+                    continue;
+                }
+            }
+            if (readPosition >= end) {
+                break;
+            }
+            buffer.compact();
+            if (end - readPosition < buffer.remaining()) {
+                buffer.limit(buffer.position() + (int) (end - readPosition));
+            }
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, readPosition);
+                if (read < 0) {
+                    break;
+                }
+                readPosition += read;
+            }
+            buffer.flip();
+            if (readPosition < end && buffer.remaining() == 0) {
+                break;
+            }
+        }
+        return new long[]{position, records};
+    }
+
+    private void writeLoop() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        List<byte[]> batch = new ArrayList<>(batchSize);
+        long durableEnd = recoveredEnd;
+        while (true) {
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed) {
+                    queued.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                long remaining = maxDelayNanos;
+                while (pending.size() < batchSize && remaining > 0 && !closed) {
+                    try {
+                        remaining = queued.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                while (!pending.isEmpty() && batch.size() < batchSize) {
+                    batch.add(pending.poll());
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            int size = 0;
+            for (byte[] record : batch) {
+                size += record.length;
+            }
+            if (size > buffer.capacity()) {
+                buffer = ByteBuffer.allocateDirect(Integer.highestOneBit(size - 1) << 1);
+            }
+            buffer.clear();
+            for (byte[] record : batch) {
+                buffer.put(record);
+            }
+            buffer.flip();
+
+            IOException error = null;
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (fsync) {
+                    channel.force(false);
+                }
+                durableEnd += size;
+            } catch (IOException e) {
+                logger.error("Could not write to rental agreement journal {}", path, e);
+                error = e;
+                truncate(durableEnd, e);
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                    pending.clear();
+                } else {
+                    durableSequence += batch.size();
+                    syncCount++;
+                }
+                synced.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Removes the records of a failed batch, which their callers roll back, so they are not replayed.
+     *
+     * @param durableEnd the file offset after the last durable batch
+     * @param failure    the failure of the batch, to which a failure to truncate is added
+     */
+    private void truncate(long durableEnd, IOException failure) {
+        try {
+            channel.truncate(durableEnd);
+            channel.position(durableEnd);
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            logger.error("Could not truncate rental agreement journal {} to {} bytes, records of the failed batch"
+                    + " may be replayed", path, durableEnd, e);
+            failure.addSuppressed(e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of rental agreement journal " + path + ".");
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+}
@@ -0,0 +1,218 @@
+package com.ECL062024.ToolRental.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage Micrometer timers for the checkout hot path.
+ * Timers are tagged by stage, tool type and outcome and are registered once per tool type on first use;
+ * afterwards a recording is a map lookup on the tool type plus an array index, with no tag or meter
+ * allocation per call. Timers publish a percentile histogram and client-side p50/p95/p99.
+ */
+@Component
+public class CheckoutMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutMetrics.class);
+
+    /**
+     * Validation of rental days and discount percent.
+     */
+    public static final int VALIDATE = 0;
+
+    /**
+     * Tool lookup in the catalog.
+     */
+    public static final int LOOKUP = 1;
+
+    /**
+     * Parsing of the checkout date.
+     */
+    public static final int PARSE = 2;
+
+    /**
+     * Chargeable-day counting.
+     */
+    public static final int CHARGEABLE_DAYS = 3;
+
+    /**
+     * Charge, discount and final charge math.
+     */
+    public static final int CHARGE_MATH = 4;
+
+    /**
+     * Construction of the rental agreement.
+     */
+    public static final int BUILD = 5;
+
+    /**
+     * The whole checkout.
+     */
+    public static final int TOTAL = 6;
+
+    /**
+     * Tool type tag used when the checkout fails before the tool is known.
+     */
+    public static final String UNKNOWN_TOOL_TYPE = "unknown";
+
+    static final String STAGE_TIMER = "rental.checkout.stage";
+    static final String CHECKOUT_TIMER = "rental.checkout";
+    private static final String[] STAGE_NAMES =
+            {"validate", "lookup", "parse", "chargeable_days", "charge_math", "build", "total"};
+    private static final String[] OUTCOMES = {"success", "failure"};
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer[]> timersByToolType = new ConcurrentHashMap<>();
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Constructor to initialize CheckoutMetrics with the application's MeterRegistry, if there is one.
+     *
+     * @param meterRegistry the registry to publish timers to
+     */
+    @Autowired
+    public CheckoutMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this(meterRegistry.getIfAvailable());
+    }
+
+    /**
+     * Constructor to initialize CheckoutMetrics with the given MeterRegistry.
+     *
+     * @param meterRegistry the registry to publish timers to, or null to record nothing
+     */
+    public CheckoutMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates metrics that record nothing.
+     *
+     * @return disabled checkout metrics
+     */
+    public static CheckoutMetrics disabled() {
+        return new CheckoutMetrics((MeterRegistry) null);
+    }
+
+    /**
+     * @return true if recordings are published, false otherwise.
+     */
+    public boolean isEnabled() {
+        return meterRegistry != null;
+    }
+
+    /**
+     * Returns a timestamp for stage timing, or 0 when metrics are disabled.
+     *
+     * @return the current monotonic time in nanoseconds
+     */
+    public long now() {
+        return meterRegistry == null ? 0L : System.nanoTime();
+    }
+
+    /**
+     * Records the duration of a stage.
+     *
+     * @param toolType the tool type, or null if the tool is not known
+     * @param stage    the stage, one of the stage constants
+     * @param success  whether the stage succeeded
+     * @param nanos    the duration in nanoseconds
+     */
+    public void record(String toolType, int stage, boolean success, long nanos) {
+        if (meterRegistry == null) {
+            return;
+        }
+        timers(toolType == null ? UNKNOWN_TOOL_TYPE : toolType)[stage * 2 + (success ? 0 : 1)]
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Summarizes latency percentiles and throughput of every recorded stage.
+     *
+     * @return the summary, keyed by stage, tool type and outcome
+     */
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        double uptimeSeconds = (System.nanoTime() - startNanos) / 1e9;
+        summary.put("uptimeSeconds", uptimeSeconds);
+
+        long checkouts = 0;
+        Map<String, Object> stages = new LinkedHashMap<>();
+        for (int stage = 0; stage < STAGE_NAMES.length; stage++) {
+            Map<String, Object> byToolType = new LinkedHashMap<>();
+            for (Map.Entry<String, Timer[]> entry : timersByToolType.entrySet()) {
+                Map<String, Object> byOutcome = new LinkedHashMap<>();
+                for (int outcome = 0; outcome < OUTCOMES.length; outcome++) {
+                    Timer timer = entry.getValue()[stage * 2 + outcome];
+                    if (timer.count() > 0) {
+                        byOutcome.put(OUTCOMES[outcome], describe(timer));
+                        if (stage == TOTAL) {
+                            checkouts += timer.count();
+                        }
+                    }
+                }
+                if (!byOutcome.isEmpty()) {
+                    byToolType.put(entry.getKey(), byOutcome);
+                }
+            }
+            stages.put(STAGE_NAMES[stage], byToolType);
+        }
+
+        summary.put("checkouts", checkouts);
+        summary.put("throughputPerSecond", uptimeSeconds > 0 ? checkouts / uptimeSeconds : 0.0);
+        summary.put("stages", stages);
+        return summary;
+    }
+
+    private Timer[] timers(String toolType) {
+        Timer[] timers = timersByToolType.get(toolType);
+        if (timers == null) {
+            timers = timersByToolType.computeIfAbsent(toolType, this::registerTimers);
+        }
+        return timers;
+    }
+
+    private Timer[] registerTimers(String toolType) {
+        logger.debug("Registering checkout timers for tool type {}", toolType);
+        Timer[] timers = new Timer[STAGE_NAMES.length * 2];
+        for (int stage = 0; stage < STAGE_NAMES.length; stage++) {
+            for (int outcome = 0; outcome < OUTCOMES.length; outcome++) {
+                Timer.Builder builder = stage == TOTAL
+                        ? Timer.builder(CHECKOUT_TIMER).description("Checkout latency")
+                        : Timer.builder(STAGE_TIMER).description("Checkout stage latency")
+                        .tag("stage", STAGE_NAMES[stage]);
+                timers[stage * 2 + outcome] = builder
+                        .tag("toolType", toolType)
+                        .tag("outcome", OUTCOMES[outcome])
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+            }
+        }
+        return timers;
+    }
+
+    private static Map<String, Object> describe(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("count", snapshot.count());
+        description.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            description.put("p" + Math.round(percentile.percentile() * 100) + "Ms",
+                    percentile.value(TimeUnit.MILLISECONDS));
+        }
+        description.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+        return description;
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.ECL062024.ToolRental.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint summarizing checkout hot-path latency percentiles and throughput.
+ * Available at {@code /actuator/checkout} when exposed.
+ */
+@Component
+@Endpoint(id = "checkout")
+public class CheckoutMetricsEndpoint {
+    private final CheckoutMetrics checkoutMetrics;
+
+    /**
+     * Constructor to initialize CheckoutMetricsEndpoint with the given CheckoutMetrics.
+     *
+     * @param checkoutMetrics the checkout metrics
+     */
+    @Autowired
+    public CheckoutMetricsEndpoint(CheckoutMetrics checkoutMetrics) {
+        this.checkoutMetrics = checkoutMetrics;
+    }
+
+    /**
+     * @return the latency and throughput summary.
+     */
+    @ReadOperation
+    public Map<String, Object> summary() {
+        return checkoutMetrics.summary();
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.ECL062024.ToolRental.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Represents the rental agreement of a cart: one line item per rented tool over a shared rental period, and the
+ * totals of the lines.
+ */
+public class CartAgreement {
+    private final List<RentalAgreement> lines;
+    private final long preDiscountChargeCents;
+    private final long discountAmountCents;
+    private final long finalChargeCents;
+
+    /**
+     * Constructs a cart agreement from its line items and totals their charges.
+     *
+     * @param lines the line items, in cart order, all over the same rental period
+     * @throws IllegalArgumentException if there are no line items
+     */
+    public CartAgreement(List<RentalAgreement> lines) {
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("Cart agreement must have at least one line item.");
+        }
+        this.lines = List.copyOf(lines);
+        long preDiscountCharge = 0;
+        long discountAmount = 0;
+        long finalCharge = 0;
+        for (RentalAgreement line : this.lines) {
+            preDiscountCharge = Math.addExact(preDiscountCharge, line.getPreDiscountChargeCents());
+            discountAmount = Math.addExact(discountAmount, line.getDiscountAmountCents());
+            finalCharge = Math.addExact(finalCharge, line.getFinalChargeCents());
+        }
+        this.preDiscountChargeCents = preDiscountCharge;
+        this.discountAmountCents = discountAmount;
+        this.finalChargeCents = finalCharge;
+    }
+
+    /**
+     * @return the line items, in cart order.
+     */
+    public List<RentalAgreement> getLines() {
+        return lines;
+    }
+
+    /**
+     * @return the number of rental days.
+     */
+    public int getRentalDays() {
+        return lines.get(0).getRentalDays();
+    }
+
+    /**
+     * @return the checkout date.
+     */
+    public LocalDate getCheckoutLocalDate() {
+        return lines.get(0).getCheckoutLocalDate();
+    }
+
+    /**
+     * @return the due date.
+     */
+    public LocalDate getDueLocalDate() {
+        return lines.get(0).getDueLocalDate();
+    }
+
+    /**
+     * @return the total pre-discount charge.
+     */
+    public BigDecimal getPreDiscountCharge() {
+        return Money.toBigDecimal(preDiscountChargeCents);
+    }
+
+    /**
+     * @return the total pre-discount charge in cents.
+     */
+    public long getPreDiscountChargeCents() {
+        return preDiscountChargeCents;
+    }
+
+    /**
+     * @return the total discount amount.
+     */
+    public BigDecimal getDiscountAmount() {
+        return Money.toBigDecimal(discountAmountCents);
+    }
+
+    /**
+     * @return the total discount amount in cents.
+     */
+    public long getDiscountAmountCents() {
+        return discountAmountCents;
+    }
+
+    /**
+     * @return the total final charge.
+     */
+    public BigDecimal getFinalCharge() {
+        return Money.toBigDecimal(finalChargeCents);
+    }
+
+    /**
+     * @return the total final charge in cents.
+     */
+    public long getFinalChargeCents() {
+        return finalChargeCents;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.ECL062024.ToolRental.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.List;
+
+/**
+ * Represents a cart of tools rented together.
+ * Every tool of the cart shares the rental period, discount and coupon code.
+ */
+public class CartRequest {
+    private final List<String> toolCodes;
+    private final int rentalDays;
+    private final int discountPercent;
+    private final String checkoutDate;
+    private final String couponCode;
+
+    /**
+     * Constructs a new CartRequest with the specified attributes.
+     *
+     * @param toolCodes       the tool codes, one per rented unit
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the discount percent
+     * @param checkoutDate    the checkout date as a string
+     */
+    public CartRequest(List<String> toolCodes, int rentalDays, int discountPercent, String checkoutDate) {
+        this(toolCodes, rentalDays, discountPercent, checkoutDate, null);
+    }
+
+    /**
+     * Constructs a new CartRequest with the specified attributes and a coupon code.
+     *
+     * @param toolCodes       the tool codes, one per rented unit
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the discount percent
+     * @param checkoutDate    the checkout date as a string
+     * @param couponCode      the presented coupon code, or null
+     */
+    @JsonCreator
+    public CartRequest(List<String> toolCodes, int rentalDays, int discountPercent, String checkoutDate,
+                       String couponCode) {
+        this.toolCodes = toolCodes == null ? List.of() : List.copyOf(toolCodes);
+        this.rentalDays = rentalDays;
+        this.discountPercent = discountPercent;
+        this.checkoutDate = checkoutDate;
+        this.couponCode = couponCode;
+    }
+
+    /**
+     * @return the tool codes, one per rented unit.
+     */
+    public List<String> getToolCodes() {
+        return toolCodes;
+    }
+
+    /**
+     * @return the number of rental days.
+     */
+    public int getRentalDays() {
+        return rentalDays;
+    }
+
+    /**
+     * @return the discount percent.
+     */
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+
+    /**
+     * @return the checkout date as a string.
+     */
+    public String getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    /**
+     * @return the presented coupon code, or null.
+     */
+    public String getCouponCode() {
+        return couponCode;
+    }
+
+    @Override
+    public String toString() {
+        return "CartRequest{toolCodes=" + toolCodes + ", rentalDays=" + rentalDays + ", discountPercent="
+                + discountPercent + ", checkoutDate='" + checkoutDate + "'"
+                + (couponCode == null ? "" : ", couponCode='" + couponCode + "'") + "}";
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.ECL062024.ToolRental.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+/**
+ * Represents a single checkout request in a batch.
+ * Holds the same inputs as a single checkout call.
+ */
+public class CheckoutRequest {
+    private final String toolCode;
+    private final int rentalDays;
+    private final int discountPercent;
+    private final String checkoutDate;
+    private final String couponCode;
+
+    /**
+     * Constructs a new CheckoutRequest with the specified attributes.
+     *
+     * @param toolCode        the tool code
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the discount percent
+     * @param checkoutDate    the checkout date as a string
+     */
+    public CheckoutRequest(String toolCode, int rentalDays, int discountPercent, String checkoutDate) {
+        this(toolCode, rentalDays, discountPercent, checkoutDate, null);
+    }
+
+    /**
+     * Constructs a new CheckoutRequest with the specified attributes and a coupon code.
+     *
+     * @param toolCode        the tool code
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the discount percent
+     * @param checkoutDate    the checkout date as a string
+     * @param couponCode      the presented coupon code, or null
+     */
+    @JsonCreator
+    public CheckoutRequest(String toolCode, int rentalDays, int discountPercent, String checkoutDate,
+                           String couponCode) {
+        this.toolCode = toolCode;
+        this.rentalDays = rentalDays;
+        this.discountPercent = discountPercent;
+        this.checkoutDate = checkoutDate;
+        this.couponCode = couponCode;
+    }
+
+    /**
+     * @return the tool code.
+     */
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    /**
+     * @return the number of rental days.
+     */
+    public int getRentalDays() {
+        return rentalDays;
+    }
+
+    /**
+     * @return the discount percent.
+     */
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+
+    /**
+     * @return the checkout date as a string.
+     */
+    public String getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    /**
+     * @return the presented coupon code, or null.
+     */
+    public String getCouponCode() {
+        return couponCode;
+    }
+
+    @Override
+    public String toString() {
+        return "CheckoutRequest{toolCode='" + toolCode + "', rentalDays=" + rentalDays + ", discountPercent="
+                + discountPercent + ", checkoutDate='" + checkoutDate + "'"
+                + (couponCode == null ? "" : ", couponCode='" + couponCode + "'") + "}";
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.ECL062024.ToolRental.model;
+
+/**
+ * Outcome of a single checkout request in a batch.
+ * Holds either the rental agreement or the error that prevented it.
+ */
+public class CheckoutResult {
+    private final CheckoutRequest request;
+    private final RentalAgreement agreement;
+    private final String error;
+
+    private CheckoutResult(CheckoutRequest request, RentalAgreement agreement, String error) {
+        this.request = request;
+        this.agreement = agreement;
+        this.error = error;
+    }
+
+    /**
+     * Creates a successful result.
+     *
+     * @param request   the checkout request
+     * @param agreement the rental agreement
+     * @return the result
+     */
+    public static CheckoutResult success(CheckoutRequest request, RentalAgreement agreement) {
+        return new CheckoutResult(request, agreement, null);
+    }
+
+    /**
+     * Creates a failed result.
+     *
+     * @param request the checkout request
+     * @param error   the error message
+     * @return the result
+     */
+    public static CheckoutResult failure(CheckoutRequest request, String error) {
+        return new CheckoutResult(request, null, error);
+    }
+
+    /**
+     * @return the checkout request.
+     */
+    public CheckoutRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return the rental agreement, or null if the checkout failed.
+     */
+    public RentalAgreement getAgreement() {
+        return agreement;
+    }
+
+    /**
+     * @return the error message, or null if the checkout succeeded.
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return true if the checkout succeeded, false otherwise.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+}
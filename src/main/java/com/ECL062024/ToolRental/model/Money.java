@@ -0,0 +1,174 @@
+package com.ECL062024.ToolRental.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money held as a whole number of cents.
+ * The static methods work on raw {@code long} cents so pricing code can do its arithmetic without
+ * creating any objects; rounding is HALF_UP to the cent, as with {@code BigDecimal.setScale(2, HALF_UP)}.
+ */
+public final class Money implements Comparable<Money> {
+
+    /**
+     * Zero cents.
+     */
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * Creates an amount from a number of cents.
+     *
+     * @param cents the amount in cents
+     * @return the amount
+     */
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Creates an amount from a decimal value, rounded HALF_UP to the cent.
+     *
+     * @param amount the amount
+     * @return the amount
+     */
+    public static Money of(BigDecimal amount) {
+        return ofCents(toCents(amount));
+    }
+
+    /**
+     * Converts a decimal value to cents, rounded HALF_UP to the cent.
+     *
+     * @param amount the amount
+     * @return the amount in cents
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts a price given as a double to cents, rounded HALF_UP to the cent.
+     * Uses the shortest decimal representation of the double, so {@code 1.49} becomes 149 cents.
+     *
+     * @param amount the amount
+     * @return the amount in cents
+     */
+    public static long toCents(double amount) {
+        return toCents(BigDecimal.valueOf(amount));
+    }
+
+    /**
+     * Converts cents to a decimal value with a scale of 2.
+     *
+     * @param cents the amount in cents
+     * @return the decimal amount
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Multiplies an amount by a whole quantity.
+     *
+     * @param cents    the amount in cents
+     * @param quantity the quantity
+     * @return the product in cents
+     * @throws ArithmeticException if the result overflows a long
+     */
+    public static long multiply(long cents, long quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    /**
+     * Calculates a whole percentage of an amount, rounded HALF_UP to the cent.
+     *
+     * @param cents   the amount in cents
+     * @param percent the percentage
+     * @return the percentage of the amount in cents
+     * @throws ArithmeticException if the result overflows a long
+     */
+    public static long percentOf(long cents, int percent) {
+        long product = Math.multiplyExact(cents, percent);
+        return product >= 0 ? (product + 50) / 100 : -((-product + 50) / 100);
+    }
+
+    /**
+     * @return the amount in cents.
+     */
+    public long getCents() {
+        return cents;
+    }
+
+    /**
+     * @return the amount as a decimal with a scale of 2.
+     */
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(cents);
+    }
+
+    /**
+     * Adds another amount.
+     *
+     * @param other the amount to add
+     * @return the sum
+     */
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    /**
+     * Subtracts another amount.
+     *
+     * @param other the amount to subtract
+     * @return the difference
+     */
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    /**
+     * Multiplies the amount by a whole quantity.
+     *
+     * @param quantity the quantity
+     * @return the product
+     */
+    public Money times(long quantity) {
+        return ofCents(multiply(cents, quantity));
+    }
+
+    /**
+     * Calculates a whole percentage of the amount, rounded HALF_UP to the cent.
+     *
+     * @param percent the percentage
+     * @return the percentage of the amount
+     */
+    public Money percent(int percent) {
+        return ofCents(percentOf(cents, percent));
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money && ((Money) o).cents == cents);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.ECL062024.ToolRental.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Quotes of one tool over a range of rental periods, either every rental length from one checkout date or one
+ * rental length from a range of checkout dates.
+ * <p>
+ * Each cell holds what a checkout of its period would charge. Cells are kept in parallel arrays rather than as
+ * {@link RentalAgreement}s, since a matrix is read once to render a price grid.
+ */
+public final class QuoteMatrix {
+    private final String toolCode;
+    private final String toolType;
+    private final String toolBrand;
+    private final long dailyChargeCents;
+    private final long[] checkoutDays;
+    private final int[] rentalDays;
+    private final int[] chargeDays;
+    private final long[] preDiscountChargeCents;
+    private final int[] discountPercents;
+    private final long[] discountAmountCents;
+    private final long[] finalChargeCents;
+
+    /**
+     * Constructs an empty matrix of the given size, to be filled with {@link #set}.
+     *
+     * @param tool the quoted tool
+     * @param size the number of cells
+     */
+    public QuoteMatrix(Tool tool, int size) {
+        this.toolCode = tool.getToolCode();
+        this.toolType = tool.getToolType();
+        this.toolBrand = tool.getToolBrand();
+        this.dailyChargeCents = tool.getDailyChargeCents();
+        this.checkoutDays = new long[size];
+        this.rentalDays = new int[size];
+        this.chargeDays = new int[size];
+        this.preDiscountChargeCents = new long[size];
+        this.discountPercents = new int[size];
+        this.discountAmountCents = new long[size];
+        this.finalChargeCents = new long[size];
+    }
+
+    /**
+     * Fills a cell.
+     *
+     * @param cell                   the cell index
+     * @param checkoutDay            the checkout date as an epoch day
+     * @param rentalDays             the number of rental days
+     * @param chargeDays             the number of chargeable days
+     * @param preDiscountChargeCents the pre-discount charge in cents
+     * @param discountPercent        the applied discount percent
+     * @param discountAmountCents    the discount amount in cents
+     * @param finalChargeCents       the final charge in cents
+     */
+    public void set(int cell, long checkoutDay, int rentalDays, int chargeDays, long preDiscountChargeCents,
+                    int discountPercent, long discountAmountCents, long finalChargeCents) {
+        this.checkoutDays[cell] = checkoutDay;
+        this.rentalDays[cell] = rentalDays;
+        this.chargeDays[cell] = chargeDays;
+        this.preDiscountChargeCents[cell] = preDiscountChargeCents;
+        this.discountPercents[cell] = discountPercent;
+        this.discountAmountCents[cell] = discountAmountCents;
+        this.finalChargeCents[cell] = finalChargeCents;
+    }
+
+    /**
+     * @return the number of cells.
+     */
+    public int size() {
+        return checkoutDays.length;
+    }
+
+    /**
+     * @return the tool code.
+     */
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    /**
+     * @return the tool type.
+     */
+    public String getToolType() {
+        return toolType;
+    }
+
+    /**
+     * @return the tool brand.
+     */
+    public String getToolBrand() {
+        return toolBrand;
+    }
+
+    /**
+     * @return the daily charge.
+     */
+    public BigDecimal getDailyCharge() {
+        return Money.toBigDecimal(dailyChargeCents);
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the checkout date of the cell.
+     */
+    public LocalDate getCheckoutDate(int cell) {
+        return LocalDate.ofEpochDay(checkoutDays[cell]);
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the due date of the cell.
+     */
+    public LocalDate getDueDate(int cell) {
+        return LocalDate.ofEpochDay(checkoutDays[cell] + rentalDays[cell]);
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the number of rental days of the cell.
+     */
+    public int getRentalDays(int cell) {
+        return rentalDays[cell];
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the number of chargeable days of the cell.
+     */
+    public int getChargeDays(int cell) {
+        return chargeDays[cell];
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the pre-discount charge of the cell in cents.
+     */
+    public long getPreDiscountChargeCents(int cell) {
+        return preDiscountChargeCents[cell];
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the applied discount percent of the cell.
+     */
+    public int getDiscountPercent(int cell) {
+        return discountPercents[cell];
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the discount amount of the cell in cents.
+     */
+    public long getDiscountAmountCents(int cell) {
+        return discountAmountCents[cell];
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the final charge of the cell in cents.
+     */
+    public long getFinalChargeCents(int cell) {
+        return finalChargeCents[cell];
+    }
+
+}
@@ -4,60 +4,87 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Date;
 
 /**
  * Represents a rental agreement for a tool.
  * Contains details about the tool, rental period, charges, and discounts.
+ * <p>
+ * An agreement issued by a checkout carries the id the tool is checked in by, and the day classes the tool is
+ * charged for, so a late return is settled on the terms of the checkout. A quote has no id.
  */
 public class RentalAgreement {
     private static final Logger logger = LoggerFactory.getLogger(RentalAgreement.class);
+    private final long id;
     private final String toolCode;
     private final String toolType;
     private final String toolBrand;
     private final int rentalDays;
-    private final Date checkoutDate;
-    private final Date dueDate;
-    private final BigDecimal dailyCharge;
+    private final LocalDate checkoutDate;
+    private final LocalDate dueDate;
+    private final long dailyChargeCents;
     private final int chargeDays;
-    private final BigDecimal preDiscountCharge;
+    private final long preDiscountChargeCents;
     private final int discountPercent;
-    private final BigDecimal discountAmount;
-    private final BigDecimal finalCharge;
+    private final long discountAmountCents;
+    private final long finalChargeCents;
+    private final int chargeMask;
 
     /**
      * Represents a rental agreement for a tool.
      * Contains details about the tool, rental period, charges, and discounts.
      */
-    private RentalAgreement(String toolCode,
+    private RentalAgreement(long id,
+                            String toolCode,
                             String toolType,
                             String toolBrand,
                             int rentalDays,
-                            Date checkoutDate,
-                            Date dueDate,
-                            BigDecimal dailyCharge,
+                            LocalDate checkoutDate,
+                            LocalDate dueDate,
+                            long dailyChargeCents,
                             int chargeDays,
-                            BigDecimal preDiscountCharge,
+                            long preDiscountChargeCents,
                             int discountPercent,
-                            BigDecimal discountAmount,
-                            BigDecimal finalCharge) {
+                            long discountAmountCents,
+                            long finalChargeCents,
+                            int chargeMask) {
+        this.id = id;
         this.toolCode = toolCode;
         this.toolType = toolType;
         this.toolBrand = toolBrand;
         this.rentalDays = rentalDays;
         this.checkoutDate = checkoutDate;
         this.dueDate = dueDate;
-        this.dailyCharge = dailyCharge;
+        this.dailyChargeCents = dailyChargeCents;
         this.chargeDays = chargeDays;
-        this.preDiscountCharge = preDiscountCharge;
+        this.preDiscountChargeCents = preDiscountChargeCents;
         this.discountPercent = discountPercent;
-        this.discountAmount = discountAmount;
-        this.finalCharge = finalCharge;
+        this.discountAmountCents = discountAmountCents;
+        this.finalChargeCents = finalChargeCents;
+        this.chargeMask = chargeMask;
 
-        logger.info("RentalAgreement created: {}", this);
+        logger.debug("RentalAgreement created: {}", this);
+    }
+
+    /**
+     * Returns a copy of this agreement issued under an id.
+     *
+     * @param id the agreement id
+     * @return the issued agreement
+     */
+    public RentalAgreement withId(long id) {
+        return new RentalAgreement(id, toolCode, toolType, toolBrand, rentalDays, checkoutDate, dueDate,
+                dailyChargeCents, chargeDays, preDiscountChargeCents, discountPercent, discountAmountCents,
+                finalChargeCents, chargeMask);
+    }
+
+    /**
+     * @return the agreement id, or 0 if the agreement was not issued by a checkout.
+     */
+    public long getId() {
+        return id;
     }
 
     /**
@@ -91,22 +118,47 @@ public class RentalAgreement {
     /**
      * @return the checkout date.
      */
-    public Date getCheckoutDate() {
+    public LocalDate getCheckoutLocalDate() {
         return checkoutDate;
     }
 
     /**
      * @return the due date.
      */
-    public Date getDueDate() {
+    public LocalDate getDueLocalDate() {
         return dueDate;
     }
 
+    /**
+     * Compatibility view of the checkout date as midnight in the default time zone.
+     *
+     * @return the checkout date.
+     */
+    public Date getCheckoutDate() {
+        return toDate(checkoutDate);
+    }
+
+    /**
+     * Compatibility view of the due date as midnight in the default time zone.
+     *
+     * @return the due date.
+     */
+    public Date getDueDate() {
+        return toDate(dueDate);
+    }
+
     /**
      * @return the daily charge.
      */
     public BigDecimal getDailyCharge() {
-        return dailyCharge;
+        return Money.toBigDecimal(dailyChargeCents);
+    }
+
+    /**
+     * @return the daily charge in cents.
+     */
+    public long getDailyChargeCents() {
+        return dailyChargeCents;
     }
 
     /**
@@ -120,7 +172,14 @@ public class RentalAgreement {
      * @return the pre-discount charge.
      */
     public BigDecimal getPreDiscountCharge() {
-        return preDiscountCharge;
+        return Money.toBigDecimal(preDiscountChargeCents);
+    }
+
+    /**
+     * @return the pre-discount charge in cents.
+     */
+    public long getPreDiscountChargeCents() {
+        return preDiscountChargeCents;
     }
 
     /**
@@ -134,55 +193,72 @@ public class RentalAgreement {
      * @return the discount amount.
      */
     public BigDecimal getDiscountAmount() {
-        return discountAmount;
+        return Money.toBigDecimal(discountAmountCents);
+    }
+
+    /**
+     * @return the discount amount in cents.
+     */
+    public long getDiscountAmountCents() {
+        return discountAmountCents;
     }
 
     /**
      * @return the final charge.
      */
     public BigDecimal getFinalCharge() {
-        return finalCharge;
+        return Money.toBigDecimal(finalChargeCents);
+    }
+
+    /**
+     * @return the final charge in cents.
+     */
+    public long getFinalChargeCents() {
+        return finalChargeCents;
+    }
+
+    /**
+     * @return the class mask of the days the tool is charged for, as built by
+     * {@code ChargeCalendar.chargeMask}.
+     */
+    public int getChargeMask() {
+        return chargeMask;
+    }
+
+    private static Date toDate(LocalDate date) {
+        return date == null ? null : Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
     }
 
     /**
-     * Prints the rental agreement details to the console.
+     * Prints the rental agreement details to the console, formatted by {@link RentalAgreementRenderer}.
      */
     public void printRentalAgreement() {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yy");
-        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance();
-        DecimalFormat percentFormat = new DecimalFormat("#");
         logger.debug("Printing rental agreement for tool code: {}", toolCode);
-
-        System.out.println("Tool code: " + toolCode);
-        System.out.println("Tool type: " + toolType);
-        System.out.println("Tool brand: " + toolBrand);
-        System.out.println("Rental days: " + rentalDays);
-        System.out.println("Checkout date: " + dateFormat.format(checkoutDate));
-        System.out.println("Due date: " + dateFormat.format(dueDate));
-        System.out.println("Daily rental charge: " + currencyFormat.format(dailyCharge));
-        System.out.println("Charge days: " + chargeDays);
-        System.out.println("Pre-discount charge: " + currencyFormat.format(preDiscountCharge));
-        System.out.println("Discount percent: " + percentFormat.format(discountPercent) + "%");
-        System.out.println("Discount amount: " + currencyFormat.format(discountAmount));
-        System.out.println("Final charge: " + currencyFormat.format(finalCharge));
+        System.out.print(RentalAgreementRenderer.getDefault().render(this));
     }
 
     /**
      * Builder class to construct RentalAgreement instances.
      */
     public static class Builder {
+        private long id;
         private final String toolCode;
         private final String toolType;
         private final String toolBrand;
         private int rentalDays;
-        private Date checkoutDate;
-        private Date dueDate;
-        private BigDecimal dailyCharge;
+        private LocalDate checkoutDate;
+        private LocalDate dueDate;
+        private long dailyChargeCents;
         private int chargeDays;
-        private BigDecimal preDiscountCharge;
+        private long preDiscountChargeCents;
         private int discountPercent;
-        private BigDecimal discountAmount;
-        private BigDecimal finalCharge;
+        private long discountAmountCents;
+        private long finalChargeCents;
+        private int chargeMask;
 
         /**
          * Constructor for the Builder.
@@ -197,6 +273,17 @@ public class RentalAgreement {
             this.toolBrand = toolBrand;
         }
 
+        /**
+         * Sets the agreement id.
+         *
+         * @param id the agreement id.
+         * @return the Builder instance.
+         */
+        public Builder id(long id) {
+            this.id = id;
+            return this;
+        }
+
         /**
          * Sets the rental days.
          *
@@ -214,22 +301,42 @@ public class RentalAgreement {
          * @param checkoutDate the checkout date.
          * @return the Builder instance.
          */
-        public Builder checkoutDate(Date checkoutDate) {
+        public Builder checkoutDate(LocalDate checkoutDate) {
             this.checkoutDate = checkoutDate;
             return this;
         }
 
+        /**
+         * Sets the checkout date from a date in the default time zone.
+         *
+         * @param checkoutDate the checkout date.
+         * @return the Builder instance.
+         */
+        public Builder checkoutDate(Date checkoutDate) {
+            return checkoutDate(toLocalDate(checkoutDate));
+        }
+
         /**
          * Sets the due date.
          *
          * @param dueDate the due date.
          * @return the Builder instance.
          */
-        public Builder dueDate(Date dueDate) {
+        public Builder dueDate(LocalDate dueDate) {
             this.dueDate = dueDate;
             return this;
         }
 
+        /**
+         * Sets the due date from a date in the default time zone.
+         *
+         * @param dueDate the due date.
+         * @return the Builder instance.
+         */
+        public Builder dueDate(Date dueDate) {
+            return dueDate(toLocalDate(dueDate));
+        }
+
         /**
          * Sets the daily charge.
          *
@@ -237,7 +344,17 @@ public class RentalAgreement {
          * @return the Builder instance.
          */
         public Builder dailyCharge(BigDecimal dailyCharge) {
-            this.dailyCharge = dailyCharge;
+            return dailyChargeCents(Money.toCents(dailyCharge));
+        }
+
+        /**
+         * Sets the daily charge in cents.
+         *
+         * @param dailyChargeCents the daily charge in cents.
+         * @return the Builder instance.
+         */
+        public Builder dailyChargeCents(long dailyChargeCents) {
+            this.dailyChargeCents = dailyChargeCents;
             return this;
         }
 
@@ -259,7 +376,17 @@ public class RentalAgreement {
          * @return the Builder instance.
          */
         public Builder preDiscountCharge(BigDecimal preDiscountCharge) {
-            this.preDiscountCharge = preDiscountCharge;
+            return preDiscountChargeCents(Money.toCents(preDiscountCharge));
+        }
+
+        /**
+         * Sets the pre-discount charge in cents.
+         *
+         * @param preDiscountChargeCents the pre-discount charge in cents.
+         * @return the Builder instance.
+         */
+        public Builder preDiscountChargeCents(long preDiscountChargeCents) {
+            this.preDiscountChargeCents = preDiscountChargeCents;
             return this;
         }
 
@@ -281,7 +408,17 @@ public class RentalAgreement {
          * @return the Builder instance.
          */
         public Builder discountAmount(BigDecimal discountAmount) {
-            this.discountAmount = discountAmount;
+            return discountAmountCents(Money.toCents(discountAmount));
+        }
+
+        /**
+         * Sets the discount amount in cents.
+         *
+         * @param discountAmountCents the discount amount in cents.
+         * @return the Builder instance.
+         */
+        public Builder discountAmountCents(long discountAmountCents) {
+            this.discountAmountCents = discountAmountCents;
             return this;
         }
 
@@ -292,7 +429,28 @@ public class RentalAgreement {
          * @return the Builder instance.
          */
         public Builder finalCharge(BigDecimal finalCharge) {
-            this.finalCharge = finalCharge;
+            return finalChargeCents(Money.toCents(finalCharge));
+        }
+
+        /**
+         * Sets the final charge in cents.
+         *
+         * @param finalChargeCents the final charge in cents.
+         * @return the Builder instance.
+         */
+        public Builder finalChargeCents(long finalChargeCents) {
+            this.finalChargeCents = finalChargeCents;
+            return this;
+        }
+
+        /**
+         * Sets the class mask of the days the tool is charged for.
+         *
+         * @param chargeMask the charge mask.
+         * @return the Builder instance.
+         */
+        public Builder chargeMask(int chargeMask) {
+            this.chargeMask = chargeMask;
             return this;
         }
 
@@ -304,18 +462,20 @@ public class RentalAgreement {
         public RentalAgreement build() {
             logger.debug("Building RentalAgreement for tool code: {}", toolCode);
             return new RentalAgreement(
+                    id,
                     toolCode,
                     toolType,
                     toolBrand,
                     rentalDays,
                     checkoutDate,
                     dueDate,
-                    dailyCharge,
+                    dailyChargeCents,
                     chargeDays,
-                    preDiscountCharge,
+                    preDiscountChargeCents,
                     discountPercent,
-                    discountAmount,
-                    finalCharge);
+                    discountAmountCents,
+                    finalChargeCents,
+                    chargeMask);
         }
     }
 
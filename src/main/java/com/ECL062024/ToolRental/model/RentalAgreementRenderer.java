@@ -0,0 +1,314 @@
+package com.ECL062024.ToolRental.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Renders rental agreements as the text receipt printed at checkout, one {@code Label: value} line per field.
+ * <p>
+ * A renderer is immutable and thread-safe, and one is cached per locale. Dates are always written as
+ * {@code MM/dd/yy}; amounts use the locale's currency format. For the usual two-decimal currency formats the
+ * renderer captures the locale's symbols, affixes and grouping once and writes the digits of the cent amount
+ * directly, with output identical to {@link NumberFormat#getCurrencyInstance(Locale)}. Other formats go through a
+ * per-thread copy of the locale's {@link NumberFormat}.
+ */
+public final class RentalAgreementRenderer {
+
+    private static final ConcurrentMap<Locale, RentalAgreementRenderer> RENDERERS = new ConcurrentHashMap<>();
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private static final ThreadLocal<StringBuilder> BUFFERS = ThreadLocal.withInitial(() -> new StringBuilder(512));
+    private static final ThreadLocal<CharsetEncoder> ENCODERS =
+            ThreadLocal.withInitial(StandardCharsets.UTF_8::newEncoder);
+
+    private final Locale locale;
+    private final boolean direct;
+    private final String positivePrefix;
+    private final String positiveSuffix;
+    private final String negativePrefix;
+    private final String negativeSuffix;
+    private final char decimalSeparator;
+    private final char groupingSeparator;
+    private final int groupingSize;
+    private final char zeroDigit;
+    private final ThreadLocal<NumberFormat> currencyFormats;
+
+    private RentalAgreementRenderer(Locale locale) {
+        this.locale = locale;
+        NumberFormat format = NumberFormat.getCurrencyInstance(locale);
+        this.currencyFormats = ThreadLocal.withInitial(() -> (NumberFormat) format.clone());
+        if (format instanceof DecimalFormat && format.getMinimumFractionDigits() == 2
+                && format.getMaximumFractionDigits() == 2 && ((DecimalFormat) format).getMultiplier() == 1) {
+            DecimalFormat decimalFormat = (DecimalFormat) format;
+            DecimalFormatSymbols symbols = decimalFormat.getDecimalFormatSymbols();
+            this.direct = true;
+            this.positivePrefix = decimalFormat.getPositivePrefix();
+            this.positiveSuffix = decimalFormat.getPositiveSuffix();
+            this.negativePrefix = decimalFormat.getNegativePrefix();
+            this.negativeSuffix = decimalFormat.getNegativeSuffix();
+            this.decimalSeparator = symbols.getMonetaryDecimalSeparator();
+            this.groupingSeparator = symbols.getMonetaryGroupingSeparator();
+            this.groupingSize = decimalFormat.isGroupingUsed() ? decimalFormat.getGroupingSize() : 0;
+            this.zeroDigit = symbols.getZeroDigit();
+        } else {
+            this.direct = false;
+            this.positivePrefix = null;
+            this.positiveSuffix = null;
+            this.negativePrefix = null;
+            this.negativeSuffix = null;
+            this.decimalSeparator = 0;
+            this.groupingSeparator = 0;
+            this.groupingSize = 0;
+            this.zeroDigit = '0';
+        }
+    }
+
+    /**
+     * Returns the renderer for a locale's currency format.
+     *
+     * @param locale the locale
+     * @return the renderer
+     */
+    public static RentalAgreementRenderer forLocale(Locale locale) {
+        return RENDERERS.computeIfAbsent(locale, RentalAgreementRenderer::new);
+    }
+
+    /**
+     * Returns the renderer for the default formatting locale.
+     *
+     * @return the renderer
+     */
+    public static RentalAgreementRenderer getDefault() {
+        return forLocale(Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    /**
+     * @return the locale whose currency format this renderer uses.
+     */
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * Renders an agreement to a string.
+     *
+     * @param agreement the agreement
+     * @return the rendered agreement, one line per field
+     */
+    public String render(RentalAgreement agreement) {
+        StringBuilder out = buffer();
+        render(agreement, out);
+        return out.toString();
+    }
+
+    /**
+     * Appends a rendered agreement to a string builder.
+     *
+     * @param agreement the agreement
+     * @param out       the builder to append to
+     * @return the builder
+     */
+    public StringBuilder render(RentalAgreement agreement, StringBuilder out) {
+        out.append("Tool code: ").append(agreement.getToolCode()).append(LINE_SEPARATOR);
+        out.append("Tool type: ").append(agreement.getToolType()).append(LINE_SEPARATOR);
+        out.append("Tool brand: ").append(agreement.getToolBrand()).append(LINE_SEPARATOR);
+        out.append("Rental days: ").append(agreement.getRentalDays()).append(LINE_SEPARATOR);
+        appendDate(out.append("Checkout date: "), agreement.getCheckoutLocalDate()).append(LINE_SEPARATOR);
+        appendDate(out.append("Due date: "), agreement.getDueLocalDate()).append(LINE_SEPARATOR);
+        appendCurrency(out.append("Daily rental charge: "), agreement.getDailyChargeCents()).append(LINE_SEPARATOR);
+        out.append("Charge days: ").append(agreement.getChargeDays()).append(LINE_SEPARATOR);
+        appendCurrency(out.append("Pre-discount charge: "), agreement.getPreDiscountChargeCents())
+                .append(LINE_SEPARATOR);
+        out.append("Discount percent: ").append(agreement.getDiscountPercent()).append('%').append(LINE_SEPARATOR);
+        appendCurrency(out.append("Discount amount: "), agreement.getDiscountAmountCents()).append(LINE_SEPARATOR);
+        appendCurrency(out.append("Final charge: "), agreement.getFinalChargeCents()).append(LINE_SEPARATOR);
+        return out;
+    }
+
+    /**
+     * Appends a rendered agreement to any appendable, such as a writer or print stream.
+     *
+     * @param agreement the agreement
+     * @param out       the appendable
+     * @param <A>       the type of the appendable
+     * @return the appendable
+     * @throws IOException if the appendable fails
+     */
+    public <A extends Appendable> A render(RentalAgreement agreement, A out) throws IOException {
+        if (out instanceof StringBuilder) {
+            render(agreement, (StringBuilder) out);
+            return out;
+        }
+        StringBuilder buffer = buffer();
+        render(agreement, buffer);
+        out.append(buffer);
+        return out;
+    }
+
+    /**
+     * Writes a rendered agreement into a byte buffer as UTF-8.
+     *
+     * @param agreement the agreement
+     * @param out       the byte buffer
+     * @return the number of bytes written
+     * @throws BufferOverflowException if the agreement does not fit; the buffer's position is left unchanged
+     */
+    public int render(RentalAgreement agreement, ByteBuffer out) {
+        StringBuilder buffer = buffer();
+        render(agreement, buffer);
+        return encode(buffer, out);
+    }
+
+    /**
+     * Renders many agreements, separated by blank lines, for receipt runs.
+     * Agreements are appended in blocks of several kilobytes, so a writer or stream sees few large appends.
+     *
+     * @param agreements the agreements
+     * @param out        the appendable
+     * @param <A>        the type of the appendable
+     * @return the appendable
+     * @throws IOException if the appendable fails
+     */
+    public <A extends Appendable> A renderAll(Iterable<RentalAgreement> agreements, A out) throws IOException {
+        StringBuilder buffer = out instanceof StringBuilder ? (StringBuilder) out : buffer();
+        boolean first = true;
+        for (RentalAgreement agreement : agreements) {
+            if (!first) {
+                buffer.append(LINE_SEPARATOR);
+            }
+            first = false;
+            render(agreement, buffer);
+            if (buffer != out && buffer.length() >= FLUSH_THRESHOLD) {
+                out.append(buffer);
+                buffer.setLength(0);
+            }
+        }
+        if (buffer != out && buffer.length() > 0) {
+            out.append(buffer);
+        }
+        return out;
+    }
+
+    /**
+     * Writes many agreements, separated by blank lines, into a byte buffer as UTF-8.
+     * Writing stops before the first agreement that does not fit.
+     *
+     * @param agreements the agreements
+     * @param out        the byte buffer
+     * @return the number of agreements written
+     */
+    public int renderAll(Iterable<RentalAgreement> agreements, ByteBuffer out) {
+        StringBuilder buffer = buffer();
+        int written = 0;
+        for (RentalAgreement agreement : agreements) {
+            buffer.setLength(0);
+            if (written > 0) {
+                buffer.append(LINE_SEPARATOR);
+            }
+            render(agreement, buffer);
+            try {
+                encode(buffer, out);
+            } catch (BufferOverflowException e) {
+                break;
+            }
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Appends an amount in cents in this renderer's currency format.
+     *
+     * @param out   the builder to append to
+     * @param cents the amount in cents
+     * @return the builder
+     */
+    public StringBuilder appendCurrency(StringBuilder out, long cents) {
+        if (!direct) {
+            return out.append(currencyFormats.get().format(Money.toBigDecimal(cents)));
+        }
+        boolean negative = cents < 0;
+        out.append(negative ? negativePrefix : positivePrefix);
+        appendDigits(out, negative ? -(cents / 100) : cents / 100);
+        out.append(decimalSeparator);
+        long fraction = Math.abs(cents % 100);
+        out.append((char) (zeroDigit + fraction / 10)).append((char) (zeroDigit + fraction % 10));
+        return out.append(negative ? negativeSuffix : positiveSuffix);
+    }
+
+    private void appendDigits(StringBuilder out, long value) {
+        int start = out.length();
+        int digits = 0;
+        do {
+            if (groupingSize > 0 && digits > 0 && digits % groupingSize == 0) {
+                out.append(groupingSeparator);
+            }
+            out.append((char) (zeroDigit + value % 10));
+            value /= 10;
+            digits++;
+        } while (value > 0);
+        reverse(out, start, out.length() - 1);
+    }
+
+    private static StringBuilder appendDate(StringBuilder out, LocalDate date) {
+        appendTwoDigits(out, date.getMonthValue()).append('/');
+        appendTwoDigits(out, date.getDayOfMonth()).append('/');
+        return appendTwoDigits(out, Math.floorMod(date.getYear(), 100));
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder out, int value) {
+        return out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private static void reverse(StringBuilder out, int from, int to) {
+        while (from < to) {
+            char c = out.charAt(from);
+            out.setCharAt(from++, out.charAt(to));
+            out.setCharAt(to--, c);
+        }
+    }
+
+    private static StringBuilder buffer() {
+        StringBuilder buffer = BUFFERS.get();
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    private static int encode(CharSequence text, ByteBuffer out) {
+        int start = out.position();
+        CharsetEncoder encoder = ENCODERS.get().reset();
+        CoderResult result = encoder.encode(CharBuffer.wrap(text), out, true);
+        if (result.isUnderflow()) {
+            result = encoder.flush(out);
+        }
+        if (result.isOverflow()) {
+            out.position(start);
+            throw new BufferOverflowException();
+        }
+        if (result.isError()) {
+            out.position(start);
+            try {
+                result.throwException();
+            } catch (CharacterCodingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return out.position() - start;
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.ECL062024.ToolRental.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.time.LocalDate;
+
+/**
+ * Represents the return of a rented tool.
+ * Identifies the rental by the id of the agreement its checkout issued and holds the date the tool came back.
+ */
+public class ReturnRequest {
+    private final long agreementId;
+    private final LocalDate returnDate;
+
+    /**
+     * Constructs a new ReturnRequest with the specified attributes.
+     *
+     * @param agreementId the id of the rental agreement
+     * @param returnDate  the date the tool was returned
+     */
+    @JsonCreator
+    public ReturnRequest(long agreementId, LocalDate returnDate) {
+        this.agreementId = agreementId;
+        this.returnDate = returnDate;
+    }
+
+    /**
+     * Creates the return of the tool of a rental agreement.
+     *
+     * @param agreement  the rental agreement
+     * @param returnDate the date the tool was returned
+     * @return the return request
+     */
+    public static ReturnRequest of(RentalAgreement agreement, LocalDate returnDate) {
+        return new ReturnRequest(agreement.getId(), returnDate);
+    }
+
+    /**
+     * @return the id of the rental agreement.
+     */
+    public long getAgreementId() {
+        return agreementId;
+    }
+
+    /**
+     * @return the date the tool was returned.
+     */
+    public LocalDate getReturnDate() {
+        return returnDate;
+    }
+
+    @Override
+    public String toString() {
+        return "ReturnRequest{agreementId=" + agreementId + ", returnDate=" + returnDate + "}";
+    }
+
+}
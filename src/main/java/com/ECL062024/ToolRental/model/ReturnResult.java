@@ -0,0 +1,68 @@
+package com.ECL062024.ToolRental.model;
+
+/**
+ * Outcome of a single return in a bulk check-in.
+ * Holds either the settlement or the error that prevented it.
+ */
+public class ReturnResult {
+    private final ReturnRequest request;
+    private final ReturnSettlement settlement;
+    private final String error;
+
+    private ReturnResult(ReturnRequest request, ReturnSettlement settlement, String error) {
+        this.request = request;
+        this.settlement = settlement;
+        this.error = error;
+    }
+
+    /**
+     * Creates a successful result.
+     *
+     * @param request    the return request
+     * @param settlement the settlement
+     * @return the result
+     */
+    public static ReturnResult success(ReturnRequest request, ReturnSettlement settlement) {
+        return new ReturnResult(request, settlement, null);
+    }
+
+    /**
+     * Creates a failed result.
+     *
+     * @param request the return request
+     * @param error   the error message
+     * @return the result
+     */
+    public static ReturnResult failure(ReturnRequest request, String error) {
+        return new ReturnResult(request, null, error);
+    }
+
+    /**
+     * @return the return request.
+     */
+    public ReturnRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return the settlement, or null if the return failed.
+     */
+    public ReturnSettlement getSettlement() {
+        return settlement;
+    }
+
+    /**
+     * @return the error message, or null if the return succeeded.
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return true if the return succeeded, false otherwise.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.ECL062024.ToolRental.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Represents the settlement of a returned tool: the agreed charge of the rental plus a late fee for every
+ * chargeable day the tool was kept past its due date. Late days are classified under the same weekday, weekend
+ * and holiday rules as the rental period, and charged at the undiscounted daily charge of the agreement. Tools
+ * returned early are not refunded.
+ */
+public class ReturnSettlement {
+    private final long agreementId;
+    private final String toolCode;
+    private final String toolType;
+    private final String toolBrand;
+    private final LocalDate checkoutDate;
+    private final LocalDate dueDate;
+    private final LocalDate returnDate;
+    private final int rentalDays;
+    private final int lateChargeDays;
+    private final long dailyChargeCents;
+    private final long rentalChargeCents;
+    private final long lateFeeCents;
+    private final long totalChargeCents;
+
+    /**
+     * Settles a return.
+     *
+     * @param agreement      the rental agreement of the returned tool
+     * @param returnDate     the date the tool was returned
+     * @param lateChargeDays the number of chargeable days between the due date and the return date
+     * @throws ArithmeticException if a charge overflows a long
+     */
+    public ReturnSettlement(RentalAgreement agreement, LocalDate returnDate, int lateChargeDays) {
+        this.agreementId = agreement.getId();
+        this.toolCode = agreement.getToolCode();
+        this.toolType = agreement.getToolType();
+        this.toolBrand = agreement.getToolBrand();
+        this.checkoutDate = agreement.getCheckoutLocalDate();
+        this.dueDate = agreement.getDueLocalDate();
+        this.returnDate = returnDate;
+        this.rentalDays = agreement.getRentalDays();
+        this.lateChargeDays = lateChargeDays;
+        this.dailyChargeCents = agreement.getDailyChargeCents();
+        this.rentalChargeCents = agreement.getFinalChargeCents();
+        this.lateFeeCents = Money.multiply(dailyChargeCents, lateChargeDays);
+        this.totalChargeCents = Math.addExact(rentalChargeCents, lateFeeCents);
+    }
+
+    /**
+     * @return the id of the rental agreement.
+     */
+    public long getAgreementId() {
+        return agreementId;
+    }
+
+    /**
+     * @return the tool code.
+     */
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    /**
+     * @return the tool type.
+     */
+    public String getToolType() {
+        return toolType;
+    }
+
+    /**
+     * @return the tool brand.
+     */
+    public String getToolBrand() {
+        return toolBrand;
+    }
+
+    /**
+     * @return the checkout date.
+     */
+    public LocalDate getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    /**
+     * @return the due date.
+     */
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    /**
+     * @return the return date.
+     */
+    public LocalDate getReturnDate() {
+        return returnDate;
+    }
+
+    /**
+     * @return the number of rental days of the agreement.
+     */
+    public int getRentalDays() {
+        return rentalDays;
+    }
+
+    /**
+     * @return the number of days from checkout to return.
+     */
+    public int getActualDays() {
+        return (int) (returnDate.toEpochDay() - checkoutDate.toEpochDay());
+    }
+
+    /**
+     * @return the number of days the tool was kept past its due date, or 0 if it was returned on time.
+     */
+    public int getLateDays() {
+        return (int) Math.max(0, returnDate.toEpochDay() - dueDate.toEpochDay());
+    }
+
+    /**
+     * @return the number of chargeable late days.
+     */
+    public int getLateChargeDays() {
+        return lateChargeDays;
+    }
+
+    /**
+     * @return true if the tool was returned after its due date, false otherwise.
+     */
+    public boolean isLate() {
+        return returnDate.isAfter(dueDate);
+    }
+
+    /**
+     * @return the daily charge.
+     */
+    public BigDecimal getDailyCharge() {
+        return Money.toBigDecimal(dailyChargeCents);
+    }
+
+    /**
+     * @return the daily charge in cents.
+     */
+    public long getDailyChargeCents() {
+        return dailyChargeCents;
+    }
+
+    /**
+     * @return the agreed charge of the rental.
+     */
+    public BigDecimal getRentalCharge() {
+        return Money.toBigDecimal(rentalChargeCents);
+    }
+
+    /**
+     * @return the agreed charge of the rental in cents.
+     */
+    public long getRentalChargeCents() {
+        return rentalChargeCents;
+    }
+
+    /**
+     * @return the late fee.
+     */
+    public BigDecimal getLateFee() {
+        return Money.toBigDecimal(lateFeeCents);
+    }
+
+    /**
+     * @return the late fee in cents.
+     */
+    public long getLateFeeCents() {
+        return lateFeeCents;
+    }
+
+    /**
+     * @return the total charge of the rental and the late fee.
+     */
+    public BigDecimal getTotalCharge() {
+        return Money.toBigDecimal(totalChargeCents);
+    }
+
+    /**
+     * @return the total charge of the rental and the late fee in cents.
+     */
+    public long getTotalChargeCents() {
+        return totalChargeCents;
+    }
+
+}
@@ -11,7 +11,7 @@ public class Tool {
     private final String toolCode;
     private final String toolType;
     private final String toolBrand;
-    private final double dailyCharge;
+    private final long dailyChargeCents;
     private final boolean weekdayCharge;
     private final boolean weekendCharge;
     private final boolean holidayCharge;
@@ -22,24 +22,47 @@ public class Tool {
      * @param toolCode       the code identifying the tool
      * @param toolType       the type of the tool
      * @param toolBrand      the brand of the tool
-     * @param dailyCharge    the daily rental charge for the tool
+     * @param dailyCharge    the daily rental charge for the tool, rounded HALF_UP to the cent
      * @param weekdayCharge  indicates if the tool has a weekday charge
      * @param weekendCharge  indicates if the tool has a weekend charge
      * @param holidayCharge  indicates if the tool has a holiday charge
      */
     public Tool(String toolCode, String toolType, String toolBrand, double dailyCharge,
                 boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
+        this(toolCode, toolType, toolBrand, Money.toCents(dailyCharge), weekdayCharge, weekendCharge, holidayCharge);
+    }
+
+    private Tool(String toolCode, String toolType, String toolBrand, long dailyChargeCents,
+                 boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
         this.toolCode = toolCode;
         this.toolType = toolType;
         this.toolBrand = toolBrand;
-        this.dailyCharge = dailyCharge;
+        this.dailyChargeCents = dailyChargeCents;
         this.weekdayCharge = weekdayCharge;
         this.weekendCharge = weekendCharge;
         this.holidayCharge = holidayCharge;
 
         logger.info("Tool created: {} - {} (Brand: {}, Daily Charge: {}, Weekday Charge: {}, Weekend Charge: {}, " +
-                        "Holiday Charge: {})", toolCode, toolType, toolBrand, dailyCharge, weekdayCharge,
-                weekendCharge, holidayCharge);
+                        "Holiday Charge: {})", toolCode, toolType, toolBrand, Money.toBigDecimal(dailyChargeCents),
+                weekdayCharge, weekendCharge, holidayCharge);
+    }
+
+    /**
+     * Creates a tool whose daily charge is given in cents.
+     *
+     * @param toolCode         the code identifying the tool
+     * @param toolType         the type of the tool
+     * @param toolBrand        the brand of the tool
+     * @param dailyChargeCents the daily rental charge for the tool in cents
+     * @param weekdayCharge    indicates if the tool has a weekday charge
+     * @param weekendCharge    indicates if the tool has a weekend charge
+     * @param holidayCharge    indicates if the tool has a holiday charge
+     * @return the tool
+     */
+    public static Tool ofCents(String toolCode, String toolType, String toolBrand, long dailyChargeCents,
+                               boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
+        return new Tool(toolCode, toolType, toolBrand, dailyChargeCents, weekdayCharge, weekendCharge,
+                holidayCharge);
     }
 
     /**
@@ -78,8 +101,17 @@ public class Tool {
      * @return the daily charge
      */
     public double getDailyCharge() {
-        logger.debug("Getting daily charge: {}", dailyCharge);
-        return dailyCharge;
+        logger.debug("Getting daily charge: {}", dailyChargeCents);
+        return dailyChargeCents / 100.0;
+    }
+
+    /**
+     * Gets the daily charge for the tool in cents.
+     *
+     * @return the daily charge in cents
+     */
+    public long getDailyChargeCents() {
+        return dailyChargeCents;
     }
 
     /**
@@ -0,0 +1,120 @@
+package com.ECL062024.ToolRental.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Persistent form of a {@link Tool}.
+ */
+@Entity
+@Table(name = "tools")
+public class ToolEntity {
+    @Id
+    @Column(name = "tool_code", length = 16)
+    private String toolCode;
+
+    @Column(name = "tool_type", nullable = false)
+    private String toolType;
+
+    @Column(name = "tool_brand", nullable = false)
+    private String toolBrand;
+
+    @Column(name = "daily_charge_cents", nullable = false)
+    private long dailyChargeCents;
+
+    @Column(name = "weekday_charge", nullable = false)
+    private boolean weekdayCharge;
+
+    @Column(name = "weekend_charge", nullable = false)
+    private boolean weekendCharge;
+
+    @Column(name = "holiday_charge", nullable = false)
+    private boolean holidayCharge;
+
+    /**
+     * Constructor required by JPA.
+     */
+    protected ToolEntity() {}
+
+    private ToolEntity(Tool tool) {
+        this.toolCode = tool.getToolCode();
+        this.toolType = tool.getToolType();
+        this.toolBrand = tool.getToolBrand();
+        this.dailyChargeCents = tool.getDailyChargeCents();
+        this.weekdayCharge = tool.isWeekdayCharge();
+        this.weekendCharge = tool.isWeekendCharge();
+        this.holidayCharge = tool.isHolidayCharge();
+    }
+
+    /**
+     * Creates the persistent form of a tool.
+     *
+     * @param tool the tool
+     * @return the entity
+     */
+    public static ToolEntity from(Tool tool) {
+        return new ToolEntity(tool);
+    }
+
+    /**
+     * Creates the tool this entity stores.
+     *
+     * @return the tool
+     */
+    public Tool toTool() {
+        return Tool.ofCents(toolCode, toolType, toolBrand, dailyChargeCents, weekdayCharge, weekendCharge,
+                holidayCharge);
+    }
+
+    /**
+     * @return the tool code.
+     */
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    /**
+     * @return the tool type.
+     */
+    public String getToolType() {
+        return toolType;
+    }
+
+    /**
+     * @return the tool brand.
+     */
+    public String getToolBrand() {
+        return toolBrand;
+    }
+
+    /**
+     * @return the daily charge in cents.
+     */
+    public long getDailyChargeCents() {
+        return dailyChargeCents;
+    }
+
+    /**
+     * @return true if weekdays are charged, false otherwise.
+     */
+    public boolean isWeekdayCharge() {
+        return weekdayCharge;
+    }
+
+    /**
+     * @return true if weekend days are charged, false otherwise.
+     */
+    public boolean isWeekendCharge() {
+        return weekendCharge;
+    }
+
+    /**
+     * @return true if holidays are charged, false otherwise.
+     */
+    public boolean isHolidayCharge() {
+        return holidayCharge;
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.ECL062024.ToolRental.pricing;
+
+import com.ECL062024.ToolRental.model.Money;
+import com.ECL062024.ToolRental.model.Tool;
+
+/**
+ * The pricing rules of one tool, compiled into a decision table.
+ * <p>
+ * The table holds the charge of every number of chargeable days up to the point where the tiers stop changing,
+ * with tiered rates and weekly and monthly caps already applied; past that point each further month of chargeable
+ * days costs the same, so longer rentals are priced from the table plus whole months. Season surcharges are held
+ * by day of the year. Pricing a rental is therefore a few array reads and no rule matching, and allocates nothing.
+ */
+public final class PriceTable {
+    private final Tool tool;
+    private final long[] charges;
+    private final int periodEnd;
+    private final long periodCharge;
+    private final short[] surcharges;
+
+    private PriceTable(Tool tool, long[] charges, long periodCharge, short[] surcharges) {
+        this.tool = tool;
+        this.charges = charges;
+        this.periodEnd = charges.length - 1;
+        this.periodCharge = periodCharge;
+        this.surcharges = surcharges;
+    }
+
+    /**
+     * Compiles the table of a tool.
+     *
+     * @param tool         the tool
+     * @param tierStarts   the first chargeable day of each tier, ascending
+     * @param tierPercents the rate of each tier as a percent of the daily charge
+     * @param weekCap      the cap on each week of chargeable days in cents, or {@link Long#MAX_VALUE}
+     * @param monthCap     the cap on each four weeks of chargeable days in cents, or {@link Long#MAX_VALUE}
+     * @param surcharges   the surcharge percent by day index of the checkout date, or null if there are none
+     * @return the table
+     */
+    static PriceTable compile(Tool tool, int[] tierStarts, int[] tierPercents, long weekCap, long monthCap,
+                              short[] surcharges) {
+        int lastTierStart = tierStarts.length == 0 ? 1 : tierStarts[tierStarts.length - 1];
+        int month = PricingRule.DAYS_PER_MONTH;
+        // Months starting on or after the last tier start all cost the same, so one of them is enough
+        int periodStart = (lastTierStart - 1 + month - 1) / month * month;
+        long[] charges = new long[periodStart + month + 1];
+
+        long dailyCharge = tool.getDailyChargeCents();
+        long completedMonths = 0;
+        long completedWeeks = 0;
+        long weekCharge = 0;
+        int tier = -1;
+        long rate = dailyCharge;
+        for (int day = 1; day < charges.length; day++) {
+            while (tier + 1 < tierStarts.length && tierStarts[tier + 1] <= day) {
+                tier++;
+                rate = Money.percentOf(dailyCharge, tierPercents[tier]);
+            }
+            weekCharge += rate;
+            long week = Math.min(weekCharge, weekCap);
+            long monthCharge = Math.min(completedWeeks + week, monthCap);
+            charges[day] = completedMonths + monthCharge;
+            if (day % PricingRule.DAYS_PER_WEEK == 0) {
+                completedWeeks += week;
+                weekCharge = 0;
+            }
+            if (day % month == 0) {
+                completedMonths += monthCharge;
+                completedWeeks = 0;
+            }
+        }
+        return new PriceTable(tool, charges, charges[charges.length - 1] - charges[periodStart], surcharges);
+    }
+
+    /**
+     * @return the tool the table was compiled for.
+     */
+    public Tool getTool() {
+        return tool;
+    }
+
+    /**
+     * Returns the charge for a number of chargeable days, before any surcharge or discount.
+     *
+     * @param chargeableDays the number of chargeable days
+     * @return the charge in cents
+     */
+    public long charge(int chargeableDays) {
+        if (chargeableDays <= periodEnd) {
+            return charges[chargeableDays];
+        }
+        int months = (chargeableDays - periodEnd + PricingRule.DAYS_PER_MONTH - 1) / PricingRule.DAYS_PER_MONTH;
+        return charges[chargeableDays - months * PricingRule.DAYS_PER_MONTH] + Money.multiply(periodCharge, months);
+    }
+
+    /**
+     * Returns the season surcharge of rentals checked out on a day.
+     *
+     * @param checkoutDay the checkout date as an epoch day
+     * @return the surcharge as a percent
+     */
+    public int surchargePercent(long checkoutDay) {
+        return surcharges == null ? 0 : surcharges[PricingRule.dayIndex(checkoutDay)];
+    }
+
+    /**
+     * Returns the charge of a rental before discount, including its season surcharge.
+     *
+     * @param checkoutDay    the checkout date as an epoch day
+     * @param chargeableDays the number of chargeable days
+     * @return the pre-discount charge in cents, with the surcharge rounded HALF_UP
+     */
+    public long preDiscountCharge(long checkoutDay, int chargeableDays) {
+        long charge = charge(chargeableDays);
+        int surcharge = surchargePercent(checkoutDay);
+        return surcharge == 0 ? charge : charge + Money.percentOf(charge, surcharge);
+    }
+
+}
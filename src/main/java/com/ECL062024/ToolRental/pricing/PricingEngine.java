@@ -0,0 +1,283 @@
+package com.ECL062024.ToolRental.pricing;
+
+import com.ECL062024.ToolRental.model.Money;
+import com.ECL062024.ToolRental.model.Tool;
+import com.ECL062024.ToolRental.repository.ToolRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Prices rentals with the configured {@link PricingRule}s.
+ * <p>
+ * At startup the rules are grouped by tool type, with rules for every type ({@code *}) merged in where a type has
+ * no rule of the same kind: a type's tiers replace the common tiers and its caps replace the common caps, while
+ * seasons of both apply, the highest surcharge winning where they overlap. Each tool is then compiled into a
+ * {@link PriceTable} per store the first time the store prices it, so stores holding different catalog entries for
+ * the same code keep a table each. A store's tables are compiled again as soon as {@link ToolRepository} reports
+ * that an entry changed or the catalog was reloaded, so pricing after a catalog change does not pay for the
+ * compile. Tools without any rule cost their daily charge per chargeable day, as before.
+ * <p>
+ * Weekly and monthly caps apply per 7 and 28 chargeable days, not per calendar week or month of the rental, since
+ * a table is indexed by chargeable days alone. A tool charged on weekdays only thus reaches its weekly cap after
+ * seven charged weekdays, which span more than one calendar week.
+ */
+@Component
+public class PricingEngine implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(PricingEngine.class);
+
+    private final Map<String, TypeRules> rulesByType;
+    private final TypeRules anyTypeRules;
+    private final Map<String, Map<String, PriceTable>> tables = new ConcurrentHashMap<>();
+    private final Consumer<String> changeListener = this::recompile;
+    private final Runnable reloadListener = this::recompileAll;
+
+    /**
+     * Constructor to initialize PricingEngine from the application properties.
+     *
+     * @param rules the pricing rules, comma-separated in the format of {@link PricingRule#parse}
+     */
+    @Autowired
+    public PricingEngine(@Value("${toolrental.pricing.rules:}") String rules) {
+        this(Arrays.stream(rules.split(","))
+                .filter(rule -> !rule.isBlank())
+                .map(PricingRule::parse)
+                .toList());
+    }
+
+    /**
+     * Constructs an engine applying the given rules.
+     *
+     * @param rules the pricing rules
+     */
+    public PricingEngine(Collection<PricingRule> rules) {
+        Map<String, List<PricingRule>> byScope = new HashMap<>();
+        for (PricingRule rule : rules) {
+            byScope.computeIfAbsent(rule.getScope(), scope -> new ArrayList<>()).add(rule);
+        }
+        List<PricingRule> anyType = byScope.getOrDefault(PricingRule.ANY_TYPE, List.of());
+        Map<String, TypeRules> rulesByType = new HashMap<>();
+        for (Map.Entry<String, List<PricingRule>> entry : byScope.entrySet()) {
+            if (!entry.getKey().equals(PricingRule.ANY_TYPE)) {
+                rulesByType.put(entry.getKey(), new TypeRules(entry.getValue(), anyType));
+            }
+        }
+        this.rulesByType = rulesByType;
+        this.anyTypeRules = anyType.isEmpty() ? null : new TypeRules(List.of(), anyType);
+        if (!rules.isEmpty()) {
+            ToolRepository.addChangeListener(changeListener);
+            ToolRepository.addReloadListener(reloadListener);
+            logger.info("Pricing with rules {}", rules);
+        }
+    }
+
+    /**
+     * Creates an engine without rules, which charges the daily charge per chargeable day.
+     *
+     * @return an engine without rules
+     */
+    public static PricingEngine none() {
+        return new PricingEngine(List.of());
+    }
+
+    /**
+     * @return true if no tool has pricing rules, false otherwise.
+     */
+    public boolean isEmpty() {
+        return anyTypeRules == null && rulesByType.isEmpty();
+    }
+
+    /**
+     * Returns the compiled price table of a tool at a store, compiling it if the store has not priced the tool
+     * before.
+     *
+     * @param storeId the store
+     * @param tool    the tool, as held by the store's catalog
+     * @return the price table, or null if no rule applies to the tool
+     */
+    public PriceTable table(String storeId, Tool tool) {
+        TypeRules rules = rules(tool);
+        if (rules == null) {
+            return null;
+        }
+        Map<String, PriceTable> storeTables = tables.computeIfAbsent(storeId, id -> new ConcurrentHashMap<>());
+        PriceTable table = storeTables.get(tool.getToolCode());
+        if (table != null && table.getTool() == tool) {
+            return table;
+        }
+        // A table compiled from a previous catalog entry of the tool is compiled again, once
+        return storeTables.compute(tool.getToolCode(),
+                (toolCode, current) -> current != null && current.getTool() == tool ? current : rules.compile(tool));
+    }
+
+    /**
+     * @param storeId  the store
+     * @param toolCode the tool code
+     * @return the table compiled for a tool code at a store, or null if none is compiled.
+     */
+    PriceTable compiledTable(String storeId, String toolCode) {
+        Map<String, PriceTable> storeTables = tables.get(storeId);
+        return storeTables == null ? null : storeTables.get(toolCode);
+    }
+
+    /**
+     * Compiles the tables of a tool from its current catalog entry at every store that has priced it, or drops
+     * them if the tool is gone.
+     *
+     * @param toolCode the tool code
+     */
+    private void recompile(String toolCode) {
+        Tool tool = ToolRepository.findByCode(toolCode);
+        for (Map.Entry<String, Map<String, PriceTable>> storeTables : tables.entrySet()) {
+            if (storeTables.getValue().containsKey(toolCode)) {
+                compile(storeTables.getKey(), toolCode, tool);
+            }
+        }
+    }
+
+    /**
+     * Compiles the tables of every tool priced so far from the current catalog.
+     */
+    private void recompileAll() {
+        Set<String> toolCodes = new HashSet<>();
+        for (Map<String, PriceTable> storeTables : tables.values()) {
+            toolCodes.addAll(storeTables.keySet());
+        }
+        Map<String, Tool> tools = ToolRepository.findAllByCodes(toolCodes);
+        for (Map.Entry<String, Map<String, PriceTable>> storeTables : tables.entrySet()) {
+            for (String toolCode : List.copyOf(storeTables.getValue().keySet())) {
+                compile(storeTables.getKey(), toolCode, tools.get(toolCode));
+            }
+        }
+        logger.debug("Recompiled {} price tables after a catalog reload", tools.size());
+    }
+
+    /**
+     * Compiles the table of a tool at a store, or drops it if the tool is gone or no rule applies to it any more.
+     *
+     * @param storeId  the store
+     * @param toolCode the tool code
+     * @param tool     the tool, or null if it was deleted
+     */
+    private void compile(String storeId, String toolCode, Tool tool) {
+        if (tool == null || rules(tool) == null) {
+            tables.get(storeId).remove(toolCode);
+        } else {
+            table(storeId, tool);
+        }
+    }
+
+    /**
+     * @param tool the tool
+     * @return the rules of the tool's type, or null if no rule applies to it.
+     */
+    private TypeRules rules(Tool tool) {
+        return rulesByType.getOrDefault(tool.getToolType(), anyTypeRules);
+    }
+
+    /**
+     * Returns the charge of a rental at a store before discount.
+     *
+     * @param storeId        the store
+     * @param tool           the tool
+     * @param checkoutDay    the checkout date as an epoch day
+     * @param chargeableDays the number of chargeable days
+     * @return the pre-discount charge in cents
+     */
+    public long preDiscountCharge(String storeId, Tool tool, long checkoutDay, int chargeableDays) {
+        PriceTable table = table(storeId, tool);
+        if (table == null) {
+            return Money.multiply(tool.getDailyChargeCents(), chargeableDays);
+        }
+        return table.preDiscountCharge(checkoutDay, chargeableDays);
+    }
+
+    /**
+     * Unregisters the catalog listeners.
+     */
+    @Override
+    public void destroy() {
+        ToolRepository.removeChangeListener(changeListener);
+        ToolRepository.removeReloadListener(reloadListener);
+    }
+
+    /**
+     * The rules of one tool type, merged with the rules for every type and ready to compile.
+     */
+    private static final class TypeRules {
+        private final int[] tierStarts;
+        private final int[] tierPercents;
+        private final long weekCap;
+        private final long monthCap;
+        private final short[] surcharges;
+
+        private TypeRules(List<PricingRule> typeRules, List<PricingRule> anyTypeRules) {
+            TreeMap<Integer, Integer> tiers = tiers(typeRules);
+            if (tiers.isEmpty()) {
+                tiers = tiers(anyTypeRules);
+            }
+            this.tierStarts = tiers.keySet().stream().mapToInt(Integer::intValue).toArray();
+            this.tierPercents = tiers.values().stream().mapToInt(Integer::intValue).toArray();
+            this.weekCap = cap(typeRules, anyTypeRules, PricingRule.Kind.WEEKLY_CAP);
+            this.monthCap = cap(typeRules, anyTypeRules, PricingRule.Kind.MONTHLY_CAP);
+            short[] surcharges = new short[366];
+            boolean seasonal = false;
+            for (List<PricingRule> rules : List.of(typeRules, anyTypeRules)) {
+                for (PricingRule rule : rules) {
+                    for (int day = 0; day < surcharges.length; day++) {
+                        if (rule.inSeason(day) && rule.getPercent() > surcharges[day]) {
+                            surcharges[day] = (short) rule.getPercent();
+                            seasonal = true;
+                        }
+                    }
+                }
+            }
+            this.surcharges = seasonal ? surcharges : null;
+        }
+
+        private static TreeMap<Integer, Integer> tiers(List<PricingRule> rules) {
+            TreeMap<Integer, Integer> tiers = new TreeMap<>();
+            for (PricingRule rule : rules) {
+                if (rule.getKind() == PricingRule.Kind.TIER) {
+                    tiers.put(rule.getFromDay(), rule.getPercent());
+                }
+            }
+            return tiers;
+        }
+
+        private static long cap(List<PricingRule> typeRules, List<PricingRule> anyTypeRules, PricingRule.Kind kind) {
+            for (List<PricingRule> rules : List.of(typeRules, anyTypeRules)) {
+                long cap = Long.MAX_VALUE;
+                for (PricingRule rule : rules) {
+                    if (rule.getKind() == kind) {
+                        cap = Math.min(cap, rule.getCapCents());
+                    }
+                }
+                if (cap != Long.MAX_VALUE) {
+                    return cap;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        private PriceTable compile(Tool tool) {
+            return PriceTable.compile(tool, tierStarts, tierPercents, weekCap, monthCap, surcharges);
+        }
+    }
+
+}
@@ -0,0 +1,289 @@
+package com.ECL062024.ToolRental.pricing;
+
+import com.ECL062024.ToolRental.calendar.EpochDays;
+import com.ECL062024.ToolRental.model.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Locale;
+
+/**
+ * A pricing rule for the tools of one tool type, or of every type.
+ * <p>
+ * Rules are written as {@code SCOPE: RULE}, where the scope is a tool type or {@code *} for every type, and the
+ * rule is one of:
+ * <pre>
+ * day N+ at P%                 from the Nth chargeable day on, each day costs P% of the daily charge,
+ *                              e.g. Chainsaw: day 4+ at 80%
+ * weekly cap AMOUNT            each run of 7 chargeable days costs at most AMOUNT, e.g. Ladder: weekly cap 9.99
+ * monthly cap AMOUNT           each run of 28 chargeable days costs at most AMOUNT, e.g. *: monthly cap 99.00
+ * MM-dd to MM-dd surcharge P%  rentals checked out between the two dates, inclusive, cost P% more,
+ *                              e.g. Jackhammer: 06-01 to 08-31 surcharge 15%
+ * </pre>
+ * Words are case-insensitive; tool types are not.
+ */
+public final class PricingRule {
+
+    /**
+     * Scope of rules that apply to every tool type.
+     */
+    public static final String ANY_TYPE = "*";
+
+    /**
+     * Number of chargeable days a monthly cap covers.
+     */
+    public static final int DAYS_PER_MONTH = 28;
+
+    /**
+     * Number of chargeable days a weekly cap covers.
+     */
+    public static final int DAYS_PER_WEEK = 7;
+
+    /**
+     * The kinds of pricing rules.
+     */
+    public enum Kind {
+        /** A reduced or increased daily rate from a given chargeable day on. */
+        TIER,
+        /** A cap on the charge of each week of chargeable days. */
+        WEEKLY_CAP,
+        /** A cap on the charge of each four weeks of chargeable days. */
+        MONTHLY_CAP,
+        /** A surcharge on rentals checked out in a season. */
+        SEASON
+    }
+
+    private static final long LEAP_YEAR_START = EpochDays.of(2000, 1, 1);
+
+    private final String scope;
+    private final Kind kind;
+    private final int fromDay;
+    private final int percent;
+    private final long capCents;
+    private final int seasonStart;
+    private final int seasonEnd;
+
+    private PricingRule(String scope, Kind kind, int fromDay, int percent, long capCents, int seasonStart,
+                        int seasonEnd) {
+        if (scope.isEmpty()) {
+            throw new IllegalArgumentException("Pricing rule scope must be a tool type or *.");
+        }
+        if (percent < 0 || percent > 1000) {
+            throw new IllegalArgumentException("Pricing rule percent must be between 0 and 1000.");
+        }
+        this.scope = scope;
+        this.kind = kind;
+        this.fromDay = fromDay;
+        this.percent = percent;
+        this.capCents = capCents;
+        this.seasonStart = seasonStart;
+        this.seasonEnd = seasonEnd;
+    }
+
+    /**
+     * Creates a tiered daily rate.
+     *
+     * @param scope   the tool type, or {@link #ANY_TYPE}
+     * @param fromDay the first chargeable day the rate applies to, from 1
+     * @param percent the rate as a percent of the daily charge
+     * @return the rule
+     */
+    public static PricingRule tier(String scope, int fromDay, int percent) {
+        if (fromDay < 1) {
+            throw new IllegalArgumentException("Pricing tier must start on day 1 or later.");
+        }
+        return new PricingRule(scope, Kind.TIER, fromDay, percent, 0, 0, 0);
+    }
+
+    /**
+     * Creates a cap on the charge of each week of chargeable days.
+     *
+     * @param scope    the tool type, or {@link #ANY_TYPE}
+     * @param capCents the cap in cents
+     * @return the rule
+     */
+    public static PricingRule weeklyCap(String scope, long capCents) {
+        return cap(scope, Kind.WEEKLY_CAP, capCents);
+    }
+
+    /**
+     * Creates a cap on the charge of each four weeks of chargeable days.
+     *
+     * @param scope    the tool type, or {@link #ANY_TYPE}
+     * @param capCents the cap in cents
+     * @return the rule
+     */
+    public static PricingRule monthlyCap(String scope, long capCents) {
+        return cap(scope, Kind.MONTHLY_CAP, capCents);
+    }
+
+    private static PricingRule cap(String scope, Kind kind, long capCents) {
+        if (capCents < 0) {
+            throw new IllegalArgumentException("Pricing cap must not be negative.");
+        }
+        return new PricingRule(scope, kind, 0, 0, capCents, 0, 0);
+    }
+
+    /**
+     * Creates a surcharge on rentals checked out in a season. A season may run across the end of the year.
+     *
+     * @param scope      the tool type, or {@link #ANY_TYPE}
+     * @param startMonth the month of the first day of the season
+     * @param startDay   the first day of the season
+     * @param endMonth   the month of the last day of the season
+     * @param endDay     the last day of the season
+     * @param percent    the surcharge as a percent of the charge
+     * @return the rule
+     */
+    public static PricingRule season(String scope, int startMonth, int startDay, int endMonth, int endDay,
+                                     int percent) {
+        return new PricingRule(scope, Kind.SEASON, 0, percent, 0, dayIndex(startMonth, startDay),
+                dayIndex(endMonth, endDay));
+    }
+
+    /**
+     * Parses a rule in the format described above.
+     *
+     * @param rule the rule
+     * @return the parsed rule
+     * @throws IllegalArgumentException if the rule cannot be parsed
+     */
+    public static PricingRule parse(String rule) {
+        int colon = rule.indexOf(':');
+        if (colon >= 0) {
+            String scope = rule.substring(0, colon).trim();
+            String[] words = rule.substring(colon + 1).trim().toLowerCase(Locale.ROOT).split("\\s+");
+            try {
+                if (words.length == 4 && words[0].equals("day") && words[1].endsWith("+")
+                        && words[2].equals("at")) {
+                    return tier(scope, Integer.parseInt(words[1].substring(0, words[1].length() - 1)),
+                            parsePercent(words[3]));
+                }
+                if (words.length == 3 && words[1].equals("cap")) {
+                    long capCents = Money.toCents(new BigDecimal(words[2]));
+                    if (words[0].equals("weekly")) {
+                        return weeklyCap(scope, capCents);
+                    }
+                    if (words[0].equals("monthly")) {
+                        return monthlyCap(scope, capCents);
+                    }
+                }
+                if (words.length == 5 && words[1].equals("to") && words[3].equals("surcharge")
+                        && isMonthDay(words[0]) && isMonthDay(words[2])) {
+                    return season(scope, Integer.parseInt(words[0].substring(0, 2)),
+                            Integer.parseInt(words[0].substring(3)), Integer.parseInt(words[2].substring(0, 2)),
+                            Integer.parseInt(words[2].substring(3)), parsePercent(words[4]));
+                }
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                throw new IllegalArgumentException("Invalid pricing rule: " + rule.trim(), e);
+            }
+        }
+        throw new IllegalArgumentException("Invalid pricing rule: " + rule.trim());
+    }
+
+    private static boolean isMonthDay(String word) {
+        return word.length() == 5 && word.charAt(2) == '-';
+    }
+
+    private static int parsePercent(String word) {
+        if (!word.endsWith("%")) {
+            throw new IllegalArgumentException("Invalid pricing rule percent: " + word);
+        }
+        return Integer.parseInt(word.substring(0, word.length() - 1));
+    }
+
+    /**
+     * Returns the index of a date in a leap year, so that each month and day has the same index in every year.
+     */
+    private static int dayIndex(int month, int dayOfMonth) {
+        if (month < 1 || month > 12 || dayOfMonth < 1 || dayOfMonth > Month.of(month).maxLength()) {
+            throw new IllegalArgumentException("Invalid pricing season date: " + month + "-" + dayOfMonth);
+        }
+        return (int) (EpochDays.of(2000, month, dayOfMonth) - LEAP_YEAR_START);
+    }
+
+    /**
+     * Returns the index of an epoch day in its year, counted as if the year were a leap year.
+     *
+     * @param epochDay the epoch day
+     * @return the index, from 0 for January 1st to 365 for December 31st
+     */
+    static int dayIndex(long epochDay) {
+        int year = EpochDays.yearOf(epochDay);
+        int index = (int) (epochDay - EpochDays.startOfYear(year));
+        // Skip February 29th in common years
+        return index >= 59 && !EpochDays.isLeapYear(year) ? index + 1 : index;
+    }
+
+    /**
+     * @return the tool type the rule applies to, or {@link #ANY_TYPE}.
+     */
+    public String getScope() {
+        return scope;
+    }
+
+    /**
+     * @return the kind of rule.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the first chargeable day of a tier, from 1.
+     */
+    public int getFromDay() {
+        return fromDay;
+    }
+
+    /**
+     * @return the rate of a tier or the surcharge of a season, as a percent.
+     */
+    public int getPercent() {
+        return percent;
+    }
+
+    /**
+     * @return the cap of a weekly or monthly cap, in cents.
+     */
+    public long getCapCents() {
+        return capCents;
+    }
+
+    /**
+     * Tells whether a season contains a day.
+     *
+     * @param dayIndex the day's index in a leap year, from 0 to 365
+     * @return true if the rule is a season containing the day
+     */
+    boolean inSeason(int dayIndex) {
+        if (kind != Kind.SEASON) {
+            return false;
+        }
+        return seasonStart <= seasonEnd
+                ? dayIndex >= seasonStart && dayIndex <= seasonEnd
+                : dayIndex >= seasonStart || dayIndex <= seasonEnd;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case TIER:
+                return scope + ": day " + fromDay + "+ at " + percent + "%";
+            case WEEKLY_CAP:
+                return scope + ": weekly cap " + Money.toBigDecimal(capCents);
+            case MONTHLY_CAP:
+                return scope + ": monthly cap " + Money.toBigDecimal(capCents);
+            default:
+                return scope + ": " + monthDay(seasonStart) + " to " + monthDay(seasonEnd) + " surcharge "
+                        + percent + "%";
+        }
+    }
+
+    private static String monthDay(int dayIndex) {
+        LocalDate date = LocalDate.ofEpochDay(LEAP_YEAR_START + dayIndex);
+        return String.format("%02d-%02d", date.getMonthValue(), date.getDayOfMonth());
+    }
+
+}
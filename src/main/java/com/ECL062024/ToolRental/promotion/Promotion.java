@@ -0,0 +1,301 @@
+package com.ECL062024.ToolRental.promotion;
+
+import com.ECL062024.ToolRental.model.Tool;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * A server-side discount campaign.
+ * <p>
+ * A promotion takes a percentage off the charge of rentals that match all of its targets: a tool type, a tool
+ * brand, a window of checkout dates and a coupon code the customer has to present. Targets left unset match every
+ * rental. A stackable promotion adds to the caller's discount and to other stackable promotions; any other
+ * promotion applies on its own.
+ * <p>
+ * Promotions are written as {@code ID: P%} followed by any of the options
+ * <pre>
+ * stackable                    the promotion adds to other discounts
+ * type TYPE                    only tools of the type, e.g. type Ladder
+ * brand BRAND                  only tools of the brand, e.g. brand DeWalt
+ * coupon CODE                  only when the coupon code is presented, e.g. coupon SPRING10
+ * from yyyy-MM-dd              only rentals checked out on or after the date
+ * until yyyy-MM-dd             only rentals checked out on or before the date
+ * </pre>
+ * e.g. {@code summer-ladders: 15% type Ladder from 2024-06-01 until 2024-08-31}. Option names are
+ * case-insensitive; their values are not.
+ */
+public final class Promotion {
+    private final String id;
+    private final int percent;
+    private final boolean stackable;
+    private final String toolType;
+    private final String toolBrand;
+    private final String couponCode;
+    private final long startDay;
+    private final long endDay;
+
+    private Promotion(Builder builder) {
+        this.id = builder.id;
+        this.percent = builder.percent;
+        this.stackable = builder.stackable;
+        this.toolType = builder.toolType;
+        this.toolBrand = builder.toolBrand;
+        this.couponCode = builder.couponCode;
+        this.startDay = builder.startDay;
+        this.endDay = builder.endDay;
+    }
+
+    /**
+     * Parses a promotion in the format described above.
+     *
+     * @param promotion the promotion
+     * @return the parsed promotion
+     * @throws IllegalArgumentException if the promotion cannot be parsed
+     */
+    public static Promotion parse(String promotion) {
+        int colon = promotion.indexOf(':');
+        String[] words = promotion.substring(colon + 1).trim().split("\\s+");
+        if (colon < 0 || !words[0].endsWith("%")) {
+            throw new IllegalArgumentException("Invalid promotion: " + promotion.trim());
+        }
+        try {
+            Builder builder = new Builder(promotion.substring(0, colon).trim(),
+                    Integer.parseInt(words[0].substring(0, words[0].length() - 1)));
+            for (int i = 1; i < words.length; i++) {
+                String option = words[i].toLowerCase(Locale.ROOT);
+                if (option.equals("stackable")) {
+                    builder.stackable(true);
+                    continue;
+                }
+                if (++i == words.length) {
+                    throw new IllegalArgumentException("Missing value of promotion option " + option);
+                }
+                switch (option) {
+                    case "type":
+                        builder.toolType(words[i]);
+                        break;
+                    case "brand":
+                        builder.toolBrand(words[i]);
+                        break;
+                    case "coupon":
+                        builder.couponCode(words[i]);
+                        break;
+                    case "from":
+                        builder.from(LocalDate.parse(words[i]));
+                        break;
+                    case "until":
+                        builder.until(LocalDate.parse(words[i]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown promotion option " + option);
+                }
+            }
+            return builder.build();
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid promotion: " + promotion.trim(), e);
+        }
+    }
+
+    /**
+     * @return the promotion identifier.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return the discount percent.
+     */
+    public int getPercent() {
+        return percent;
+    }
+
+    /**
+     * @return true if the promotion adds to other discounts, false if it applies on its own.
+     */
+    public boolean isStackable() {
+        return stackable;
+    }
+
+    /**
+     * @return the targeted tool type, or null for every type.
+     */
+    public String getToolType() {
+        return toolType;
+    }
+
+    /**
+     * @return the targeted tool brand, or null for every brand.
+     */
+    public String getToolBrand() {
+        return toolBrand;
+    }
+
+    /**
+     * @return the coupon code the customer has to present, or null if none is needed.
+     */
+    public String getCouponCode() {
+        return couponCode;
+    }
+
+    /**
+     * @return the first checkout date as an epoch day, or {@link Long#MIN_VALUE} if unbounded.
+     */
+    public long getStartDay() {
+        return startDay;
+    }
+
+    /**
+     * @return the last checkout date as an epoch day, or {@link Long#MAX_VALUE} if unbounded.
+     */
+    public long getEndDay() {
+        return endDay;
+    }
+
+    /**
+     * Tells whether the promotion targets a tool, ignoring the dates and coupon code.
+     *
+     * @param tool the tool
+     * @return true if the tool's type and brand match
+     */
+    boolean targets(Tool tool) {
+        return (toolType == null || toolType.equals(tool.getToolType()))
+                && (toolBrand == null || toolBrand.equals(tool.getToolBrand()));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(id).append(": ").append(percent).append('%');
+        if (stackable) {
+            sb.append(" stackable");
+        }
+        if (toolType != null) {
+            sb.append(" type ").append(toolType);
+        }
+        if (toolBrand != null) {
+            sb.append(" brand ").append(toolBrand);
+        }
+        if (couponCode != null) {
+            sb.append(" coupon ").append(couponCode);
+        }
+        if (startDay != Long.MIN_VALUE) {
+            sb.append(" from ").append(LocalDate.ofEpochDay(startDay));
+        }
+        if (endDay != Long.MAX_VALUE) {
+            sb.append(" until ").append(LocalDate.ofEpochDay(endDay));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builder for {@link Promotion}. Unset targets match every rental.
+     */
+    public static class Builder {
+        private final String id;
+        private final int percent;
+        private boolean stackable;
+        private String toolType;
+        private String toolBrand;
+        private String couponCode;
+        private long startDay = Long.MIN_VALUE;
+        private long endDay = Long.MAX_VALUE;
+
+        /**
+         * Constructs a builder for a promotion.
+         *
+         * @param id      the promotion identifier
+         * @param percent the discount percent, from 0 to 100
+         */
+        public Builder(String id, int percent) {
+            if (id.isEmpty()) {
+                throw new IllegalArgumentException("Promotion id must not be empty.");
+            }
+            if (percent < 0 || percent > 100) {
+                throw new IllegalArgumentException("Promotion percent must be between 0 and 100 inclusive.");
+            }
+            this.id = id;
+            this.percent = percent;
+        }
+
+        /**
+         * Sets whether the promotion adds to other discounts.
+         *
+         * @param stackable true to stack, false to apply on its own.
+         * @return the Builder instance.
+         */
+        public Builder stackable(boolean stackable) {
+            this.stackable = stackable;
+            return this;
+        }
+
+        /**
+         * Targets a tool type.
+         *
+         * @param toolType the tool type.
+         * @return the Builder instance.
+         */
+        public Builder toolType(String toolType) {
+            this.toolType = toolType;
+            return this;
+        }
+
+        /**
+         * Targets a tool brand.
+         *
+         * @param toolBrand the tool brand.
+         * @return the Builder instance.
+         */
+        public Builder toolBrand(String toolBrand) {
+            this.toolBrand = toolBrand;
+            return this;
+        }
+
+        /**
+         * Requires a coupon code.
+         *
+         * @param couponCode the coupon code.
+         * @return the Builder instance.
+         */
+        public Builder couponCode(String couponCode) {
+            this.couponCode = couponCode;
+            return this;
+        }
+
+        /**
+         * Sets the first checkout date.
+         *
+         * @param startDate the first checkout date.
+         * @return the Builder instance.
+         */
+        public Builder from(LocalDate startDate) {
+            this.startDay = startDate.toEpochDay();
+            return this;
+        }
+
+        /**
+         * Sets the last checkout date.
+         *
+         * @param endDate the last checkout date.
+         * @return the Builder instance.
+         */
+        public Builder until(LocalDate endDate) {
+            this.endDay = endDate.toEpochDay();
+            return this;
+        }
+
+        /**
+         * Builds the promotion.
+         *
+         * @return the promotion.
+         */
+        public Promotion build() {
+            if (startDay > endDay) {
+                throw new IllegalArgumentException("Promotion " + id + " ends before it starts.");
+            }
+            return new Promotion(this);
+        }
+    }
+
+}
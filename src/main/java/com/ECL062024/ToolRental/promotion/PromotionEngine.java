@@ -0,0 +1,163 @@
+package com.ECL062024.ToolRental.promotion;
+
+import com.ECL062024.ToolRental.model.Tool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The active {@link Promotion}s and the discounts they give.
+ * <p>
+ * Checkouts match against an immutable {@link PromotionIndex} read from a volatile field, so matching takes no
+ * lock and allocates nothing. Adding or removing promotions rebuilds the index and publishes it in one write;
+ * campaigns loaded together should be added with {@link #putAll} so the index is built once.
+ */
+@Component
+public class PromotionEngine {
+    private static final Logger logger = LoggerFactory.getLogger(PromotionEngine.class);
+
+    private final Map<String, Promotion> promotions = new LinkedHashMap<>();
+    private volatile PromotionIndex index = PromotionIndex.EMPTY;
+
+    /**
+     * Constructor to initialize PromotionEngine from the application properties.
+     *
+     * @param promotions the promotions, comma-separated in the format of {@link Promotion#parse}
+     */
+    @Autowired
+    public PromotionEngine(@Value("${toolrental.promotions:}") String promotions) {
+        this(Arrays.stream(promotions.split(","))
+                .filter(promotion -> !promotion.isBlank())
+                .map(Promotion::parse)
+                .toList());
+    }
+
+    /**
+     * Constructs an engine with the given promotions.
+     *
+     * @param promotions the promotions
+     */
+    public PromotionEngine(Collection<Promotion> promotions) {
+        putAll(promotions);
+    }
+
+    /**
+     * Creates an engine without promotions, which gives the caller's discount unchanged.
+     *
+     * @return an engine without promotions
+     */
+    public static PromotionEngine none() {
+        return new PromotionEngine(List.of());
+    }
+
+    /**
+     * Adds a promotion, replacing any promotion with the same id.
+     *
+     * @param promotion the promotion
+     */
+    public void put(Promotion promotion) {
+        putAll(List.of(promotion));
+    }
+
+    /**
+     * Adds promotions, replacing any promotions with the same ids, and rebuilds the index once.
+     *
+     * @param newPromotions the promotions
+     */
+    public synchronized void putAll(Collection<Promotion> newPromotions) {
+        if (newPromotions.isEmpty()) {
+            return;
+        }
+        for (Promotion promotion : newPromotions) {
+            promotions.put(promotion.getId(), promotion);
+        }
+        reindex();
+    }
+
+    /**
+     * Removes a promotion.
+     *
+     * @param id the promotion identifier
+     * @return the removed promotion, or null if there was none
+     */
+    public synchronized Promotion remove(String id) {
+        Promotion removed = promotions.remove(id);
+        if (removed != null) {
+            reindex();
+        }
+        return removed;
+    }
+
+    private void reindex() {
+        index = new PromotionIndex(promotions.values());
+        logger.info("Indexed {} promotions", promotions.size());
+    }
+
+    /**
+     * @return a snapshot of the promotions, in the order they were first added.
+     */
+    public synchronized List<Promotion> promotions() {
+        return new ArrayList<>(promotions.values());
+    }
+
+    /**
+     * @return the number of promotions.
+     */
+    public synchronized int size() {
+        return promotions.size();
+    }
+
+    /**
+     * Returns the discount of a rental: the caller's discount plus every matching stackable promotion, or the best
+     * matching promotion that does not stack, whichever is larger, and at most 100.
+     *
+     * @param tool             the tool
+     * @param checkoutDay      the checkout date as an epoch day
+     * @param couponCode       the presented coupon code, or null or empty for none
+     * @param requestedPercent the caller's discount percent
+     * @return the discount percent
+     * @throws IllegalArgumentException if no promotion takes the coupon code
+     */
+    public int discountPercent(Tool tool, long checkoutDay, String couponCode, int requestedPercent) {
+        PromotionIndex current = index;
+        String coupon = validCoupon(current, couponCode);
+        if (current.isEmpty()) {
+            return requestedPercent;
+        }
+        return current.discountPercent(tool, checkoutDay, coupon, requestedPercent);
+    }
+
+    /**
+     * Returns every promotion matching a rental.
+     *
+     * @param tool        the tool
+     * @param checkoutDay the checkout date as an epoch day
+     * @param couponCode  the presented coupon code, or null or empty for none
+     * @return the matching promotions
+     * @throws IllegalArgumentException if no promotion takes the coupon code
+     */
+    public List<Promotion> matching(Tool tool, long checkoutDay, String couponCode) {
+        PromotionIndex current = index;
+        return current.matching(tool, checkoutDay, validCoupon(current, couponCode));
+    }
+
+    private static String validCoupon(PromotionIndex index, String couponCode) {
+        if (couponCode == null || couponCode.isEmpty()) {
+            return null;
+        }
+        if (!index.hasCoupon(couponCode)) {
+            throw new IllegalArgumentException("Coupon " + couponCode + " is not valid.");
+        }
+        return couponCode;
+    }
+
+}
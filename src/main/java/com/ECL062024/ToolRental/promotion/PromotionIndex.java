@@ -0,0 +1,295 @@
+package com.ECL062024.ToolRental.promotion;
+
+import com.ECL062024.ToolRental.model.Tool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable index of promotions by tool type, brand, coupon code and checkout date.
+ * <p>
+ * Promotions without a coupon code are filed under their type and brand, either of which may be "any", so a
+ * rental looks in at most four buckets. Promotions with a coupon code are filed under the code alone and are only
+ * looked at when the code is presented. Within a bucket, promotions are held in an interval tree of their date
+ * ranges, so a long-running or open-ended promotion costs the lookups of other dates nothing. Matching therefore
+ * reads only the buckets of the rental and, within them, the promotions running on its date plus one tree path.
+ */
+final class PromotionIndex {
+
+    /**
+     * The index of no promotions.
+     */
+    static final PromotionIndex EMPTY = new PromotionIndex(List.of());
+
+    private static final String ANY = "";
+
+    private final Map<String, Map<String, Bucket>> byTypeAndBrand;
+    private final Map<String, Bucket> byCoupon;
+
+    /**
+     * Indexes the given promotions.
+     *
+     * @param promotions the promotions
+     */
+    PromotionIndex(Collection<Promotion> promotions) {
+        Map<String, Map<String, List<Promotion>>> byTypeAndBrand = new HashMap<>();
+        Map<String, List<Promotion>> byCoupon = new HashMap<>();
+        for (Promotion promotion : promotions) {
+            if (promotion.getCouponCode() != null) {
+                byCoupon.computeIfAbsent(promotion.getCouponCode(), code -> new ArrayList<>()).add(promotion);
+            } else {
+                byTypeAndBrand
+                        .computeIfAbsent(orAny(promotion.getToolType()), type -> new HashMap<>())
+                        .computeIfAbsent(orAny(promotion.getToolBrand()), brand -> new ArrayList<>())
+                        .add(promotion);
+            }
+        }
+        this.byTypeAndBrand = new HashMap<>();
+        byTypeAndBrand.forEach((type, byBrand) -> {
+            Map<String, Bucket> buckets = new HashMap<>();
+            byBrand.forEach((brand, list) -> buckets.put(brand, new Bucket(list, false)));
+            this.byTypeAndBrand.put(type, buckets);
+        });
+        this.byCoupon = new HashMap<>();
+        byCoupon.forEach((code, list) -> this.byCoupon.put(code, new Bucket(list, true)));
+    }
+
+    private static String orAny(String target) {
+        return target == null ? ANY : target;
+    }
+
+    /**
+     * @return true if there are no promotions, false otherwise.
+     */
+    boolean isEmpty() {
+        return byTypeAndBrand.isEmpty() && byCoupon.isEmpty();
+    }
+
+    /**
+     * Tells whether any promotion takes a coupon code.
+     *
+     * @param couponCode the coupon code
+     * @return true if some promotion, running or not, takes the code
+     */
+    boolean hasCoupon(String couponCode) {
+        return byCoupon.containsKey(couponCode);
+    }
+
+    /**
+     * Returns the discount of a rental: the caller's discount plus every matching stackable promotion, or the best
+     * matching promotion that does not stack, whichever is larger, and at most 100.
+     *
+     * @param tool             the tool
+     * @param checkoutDay      the checkout date as an epoch day
+     * @param couponCode       the presented coupon code, or null
+     * @param requestedPercent the caller's discount percent
+     * @return the discount percent
+     */
+    int discountPercent(Tool tool, long checkoutDay, String couponCode, int requestedPercent) {
+        long stacked = requestedPercent;
+        int exclusive = 0;
+        for (int i = 0; i < 5; i++) {
+            Bucket bucket = bucket(i, tool, couponCode);
+            if (bucket != null) {
+                long match = bucket.match(tool, checkoutDay);
+                stacked += match >>> 32;
+                exclusive = Math.max(exclusive, (int) match);
+            }
+        }
+        return (int) Math.min(100, Math.max(stacked, exclusive));
+    }
+
+    /**
+     * Returns every promotion matching a rental.
+     *
+     * @param tool        the tool
+     * @param checkoutDay the checkout date as an epoch day
+     * @param couponCode  the presented coupon code, or null
+     * @return the matching promotions
+     */
+    List<Promotion> matching(Tool tool, long checkoutDay, String couponCode) {
+        List<Promotion> matching = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Bucket bucket = bucket(i, tool, couponCode);
+            if (bucket != null) {
+                bucket.collect(tool, checkoutDay, matching);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Returns one of the buckets a rental may match: type and brand, type and any brand, any type and brand,
+     * any type and any brand, and the presented coupon code.
+     */
+    private Bucket bucket(int i, Tool tool, String couponCode) {
+        if (i == 4) {
+            return couponCode == null ? null : byCoupon.get(couponCode);
+        }
+        Map<String, Bucket> byBrand = byTypeAndBrand.get(i < 2 ? tool.getToolType() : ANY);
+        if (byBrand == null) {
+            return null;
+        }
+        return byBrand.get(i % 2 == 0 ? tool.getToolBrand() : ANY);
+    }
+
+    /**
+     * The promotions of one index key, held in a centered interval tree of their date ranges.
+     * <p>
+     * Each node keeps the promotions running on its center day, once sorted by start date and once by end date
+     * descending; earlier promotions go to the left subtree and later ones to the right. A day before a node's
+     * center reads that node's promotions by start date up to the first that starts after the day and goes left, a
+     * day after the center reads them by end date down to the first that ended before the day and goes right. A
+     * lookup therefore reads one path of the tree plus at most one promotion per node that does not match.
+     */
+    private static final class Bucket {
+        private final Node root;
+        private final boolean checkTargets;
+
+        private Bucket(List<Promotion> list, boolean checkTargets) {
+            this.root = Node.build(list);
+            this.checkTargets = checkTargets;
+        }
+
+        /**
+         * Matches a rental against the bucket.
+         *
+         * @return the sum of the matching stackable percents in the high 32 bits and the best matching percent
+         * that does not stack in the low 32 bits
+         */
+        private long match(Tool tool, long day) {
+            return scan(tool, day, null);
+        }
+
+        private void collect(Tool tool, long day, List<Promotion> matching) {
+            scan(tool, day, matching);
+        }
+
+        /**
+         * Visits the promotions running on a day that target the tool.
+         *
+         * @param matching the list to add each matching promotion to, or null
+         * @return the matched percents, as returned by {@link #match}
+         */
+        private long scan(Tool tool, long day, List<Promotion> matching) {
+            long stacked = 0;
+            int exclusive = 0;
+            Node node = root;
+            while (node != null) {
+                Promotion[] running;
+                int count;
+                if (day < node.center) {
+                    running = node.byStart;
+                    count = node.startedBy(day);
+                    node = node.left;
+                } else if (day > node.center) {
+                    running = node.byEnd;
+                    count = node.endingFrom(day);
+                    node = node.right;
+                } else {
+                    running = node.byStart;
+                    count = running.length;
+                    node = null;
+                }
+                for (int i = 0; i < count; i++) {
+                    Promotion promotion = running[i];
+                    if (checkTargets && !promotion.targets(tool)) {
+                        continue;
+                    }
+                    if (matching != null) {
+                        matching.add(promotion);
+                    } else if (promotion.isStackable()) {
+                        stacked += promotion.getPercent();
+                    } else {
+                        exclusive = Math.max(exclusive, promotion.getPercent());
+                    }
+                }
+            }
+            return Math.min(stacked, Integer.MAX_VALUE) << 32 | exclusive;
+        }
+    }
+
+    /**
+     * A node of a bucket's interval tree: the promotions running on its center day.
+     */
+    private static final class Node {
+        private final long center;
+        private final Promotion[] byStart;
+        private final Promotion[] byEnd;
+        private final Node left;
+        private final Node right;
+
+        private Node(long center, Promotion[] byStart, Promotion[] byEnd, Node left, Node right) {
+            this.center = center;
+            this.byStart = byStart;
+            this.byEnd = byEnd;
+            this.left = left;
+            this.right = right;
+        }
+
+        /**
+         * Builds the tree of some promotions around the median of their start and end days, which is a day some
+         * promotion runs on, so every subtree holds fewer promotions than its parent.
+         *
+         * @param promotions the promotions
+         * @return the root, or null if there are no promotions
+         */
+        private static Node build(List<Promotion> promotions) {
+            if (promotions.isEmpty()) {
+                return null;
+            }
+            long[] days = new long[promotions.size() * 2];
+            for (int i = 0; i < promotions.size(); i++) {
+                days[2 * i] = promotions.get(i).getStartDay();
+                days[2 * i + 1] = promotions.get(i).getEndDay();
+            }
+            Arrays.sort(days);
+            long center = days[promotions.size()];
+            List<Promotion> earlier = new ArrayList<>();
+            List<Promotion> later = new ArrayList<>();
+            List<Promotion> running = new ArrayList<>();
+            for (Promotion promotion : promotions) {
+                if (promotion.getEndDay() < center) {
+                    earlier.add(promotion);
+                } else if (promotion.getStartDay() > center) {
+                    later.add(promotion);
+                } else {
+                    running.add(promotion);
+                }
+            }
+            Promotion[] byStart = running.toArray(new Promotion[0]);
+            Arrays.sort(byStart, Comparator.comparingLong(Promotion::getStartDay));
+            Promotion[] byEnd = running.toArray(new Promotion[0]);
+            Arrays.sort(byEnd, Comparator.comparingLong(Promotion::getEndDay).reversed());
+            return new Node(center, byStart, byEnd, build(earlier), build(later));
+        }
+
+        /**
+         * Returns the number of leading promotions by start date that start on or before a day.
+         */
+        private int startedBy(long day) {
+            int count = 0;
+            while (count < byStart.length && byStart[count].getStartDay() <= day) {
+                count++;
+            }
+            return count;
+        }
+
+        /**
+         * Returns the number of leading promotions by end date that end on or after a day.
+         */
+        private int endingFrom(long day) {
+            int count = 0;
+            while (count < byEnd.length && byEnd[count].getEndDay() >= day) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+}
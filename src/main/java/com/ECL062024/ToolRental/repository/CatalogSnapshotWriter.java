@@ -0,0 +1,148 @@
+package com.ECL062024.ToolRental.repository;
+
+import com.ECL062024.ToolRental.model.Tool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes binary catalog snapshots served by {@link MappedToolCatalog}.
+ * <p>
+ * A snapshot is a little-endian file made of a fixed header, an open-addressing slot table laid out like the one
+ * in {@link PackedToolCatalog}, and a string table holding every distinct type and brand once:
+ * <pre>
+ * header   magic, version, capacity, tool count, string count, reserved, string table offset
+ * slots    capacity x (packed code, daily charge cents, type id, brand id, charge flags, padding)
+ * strings  string count x offset, then each string as a 2-byte length and its UTF-8 bytes
+ * </pre>
+ * The file is written next to its destination and moved into place atomically, so a reader never sees a
+ * partially written snapshot.
+ */
+public final class CatalogSnapshotWriter {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotWriter.class);
+
+    static final int MAGIC = 0x53435254;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int SLOT_SIZE = 32;
+    static final int CHARGE_OFFSET = 8;
+    static final int TYPE_OFFSET = 16;
+    static final int BRAND_OFFSET = 20;
+    static final int FLAGS_OFFSET = 24;
+
+    private CatalogSnapshotWriter() {}
+
+    /**
+     * Writes a snapshot of the given tools, replacing any existing file atomically.
+     * A later tool replaces an earlier one with the same code.
+     *
+     * @param path  the snapshot file to write
+     * @param tools the tools to store
+     * @throws IOException              if the file cannot be written
+     * @throws IllegalArgumentException if a tool code cannot be packed or the snapshot would be too large
+     */
+    public static void write(Path path, Collection<Tool> tools) throws IOException {
+        int capacity = PackedToolCatalog.capacityFor(tools.size());
+        long[] keys = new long[capacity];
+        Tool[] slots = new Tool[capacity];
+        Map<String, Integer> stringIds = new LinkedHashMap<>();
+
+        int toolCount = 0;
+        for (Tool tool : tools) {
+            long key = PackedToolCatalog.pack(tool.getToolCode());
+            if (key == PackedToolCatalog.EMPTY) {
+                throw new IllegalArgumentException(
+                        "Tool code " + tool.getToolCode() + " cannot be stored in a snapshot.");
+            }
+            int mask = capacity - 1;
+            int slot = PackedToolCatalog.mix(key) & mask;
+            while (keys[slot] != PackedToolCatalog.EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == PackedToolCatalog.EMPTY) {
+                toolCount++;
+            }
+            keys[slot] = key;
+            slots[slot] = tool;
+            stringIds.putIfAbsent(tool.getToolType(), stringIds.size());
+            stringIds.putIfAbsent(tool.getToolBrand(), stringIds.size());
+        }
+
+        List<byte[]> strings = new ArrayList<>(stringIds.size());
+        long stringBytes = 0;
+        for (String value : stringIds.keySet()) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            if (encoded.length > 0xFFFF) {
+                throw new IllegalArgumentException("Catalog string is too long for a snapshot: " + value);
+            }
+            strings.add(encoded);
+            stringBytes += 2 + encoded.length;
+        }
+
+        long stringTableOffset = HEADER_SIZE + (long) capacity * SLOT_SIZE;
+        long fileSize = stringTableOffset + 4L * strings.size() + stringBytes;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Catalog of " + toolCount + " tools is too large for a snapshot.");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) fileSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(capacity).putInt(toolCount).putInt(strings.size()).putInt(0)
+                .putLong(stringTableOffset);
+        for (int slot = 0; slot < capacity; slot++) {
+            int base = HEADER_SIZE + slot * SLOT_SIZE;
+            Tool tool = slots[slot];
+            if (tool == null) {
+                continue;
+            }
+            buffer.putLong(base, keys[slot]);
+            buffer.putLong(base + CHARGE_OFFSET, tool.getDailyChargeCents());
+            buffer.putInt(base + TYPE_OFFSET, stringIds.get(tool.getToolType()));
+            buffer.putInt(base + BRAND_OFFSET, stringIds.get(tool.getToolBrand()));
+            buffer.put(base + FLAGS_OFFSET, (byte) ((tool.isWeekdayCharge() ? PackedToolCatalog.WEEKDAY_CHARGE : 0)
+                    | (tool.isWeekendCharge() ? PackedToolCatalog.WEEKEND_CHARGE : 0)
+                    | (tool.isHolidayCharge() ? PackedToolCatalog.HOLIDAY_CHARGE : 0)));
+        }
+
+        // String offsets are relative to the start of the string data, which follows the offset array
+        buffer.position((int) stringTableOffset);
+        int offset = 0;
+        for (byte[] encoded : strings) {
+            buffer.putInt(offset);
+            offset += 2 + encoded.length;
+        }
+        for (byte[] encoded : strings) {
+            buffer.putShort((short) encoded.length).put(encoded);
+        }
+        buffer.flip();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.info("Wrote catalog snapshot {} with {} tools and {} strings", path, toolCount, strings.size());
+    }
+
+}
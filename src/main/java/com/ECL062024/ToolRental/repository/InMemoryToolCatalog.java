@@ -0,0 +1,75 @@
+package com.ECL062024.ToolRental.repository;
+
+import com.ECL062024.ToolRental.model.Tool;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tool catalog held in a concurrent map, seeded with the sample tools.
+ */
+public class InMemoryToolCatalog implements ToolCatalog {
+    private final Map<String, Tool> tools = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new InMemoryToolCatalog containing the sample tools.
+     */
+    public InMemoryToolCatalog() {
+        this(sampleTools());
+    }
+
+    /**
+     * Constructs a new InMemoryToolCatalog containing the given tools.
+     *
+     * @param tools the tools
+     */
+    public InMemoryToolCatalog(Collection<Tool> tools) {
+        for (Tool tool : tools) {
+            this.tools.put(tool.getToolCode(), tool);
+        }
+    }
+
+    /**
+     * Creates the sample tools every new catalog starts with.
+     *
+     * @return the sample tools
+     */
+    public static List<Tool> sampleTools() {
+        return List.of(
+                new Tool("CHNS", "Chainsaw", "Stihl", 1.49, true, false, true),
+                new Tool("LADW", "Ladder", "Werner", 1.99, true, true, false),
+                new Tool("JAKD", "Jackhammer", "DeWalt", 2.99, true, false, false),
+                new Tool("JAKR", "Jackhammer", "Ridgid", 2.99, true, false, false));
+    }
+
+    @Override
+    public Tool findByCode(String toolCode) {
+        return tools.get(toolCode);
+    }
+
+    @Override
+    public Map<String, Tool> findAllByCodes(Collection<String> toolCodes) {
+        Map<String, Tool> found = new HashMap<>();
+        for (String toolCode : toolCodes) {
+            Tool tool = tools.get(toolCode);
+            if (tool != null) {
+                found.put(toolCode, tool);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void save(Tool tool) {
+        tools.put(tool.getToolCode(), tool);
+    }
+
+    @Override
+    public Tool delete(String toolCode) {
+        return tools.remove(toolCode);
+    }
+
+}
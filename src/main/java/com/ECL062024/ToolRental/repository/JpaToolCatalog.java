@@ -0,0 +1,219 @@
+package com.ECL062024.ToolRental.repository;
+
+import com.ECL062024.ToolRental.model.Tool;
+import com.ECL062024.ToolRental.model.ToolEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tool catalog persisted through JPA, enabled with {@code toolrental.catalog.type=jpa}.
+ * Reads go through a bounded in-process read-through cache so checkouts of popular tools never reach the
+ * database; the cache is split into independently locked LRU segments. Writes go to the database and then
+ * replace the cached entry, so a cached tool is always the instance that was last saved or loaded.
+ * On startup an empty table is seeded with the sample tools and the catalog is installed in
+ * {@link ToolRepository}; the previous catalog is restored on shutdown.
+ */
+@Component
+@ConditionalOnProperty(name = "toolrental.catalog.type", havingValue = "jpa")
+public class JpaToolCatalog implements ToolCatalog, InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(JpaToolCatalog.class);
+    private static final int SEGMENT_COUNT = 16;
+
+    private final ToolJpaRepository toolJpaRepository;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private ToolCatalog previousCatalog;
+
+    /**
+     * Constructor to initialize JpaToolCatalog with the given repository and cache size.
+     *
+     * @param toolJpaRepository the Spring Data repository of persisted tools
+     * @param cacheSize         the maximum number of cached tools
+     */
+    @Autowired
+    public JpaToolCatalog(ToolJpaRepository toolJpaRepository,
+                          @Value("${toolrental.catalog.cache-size:10000}") int cacheSize) {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Catalog cache size must be 1 or greater.");
+        }
+        this.toolJpaRepository = toolJpaRepository;
+        this.segments = new Segment[SEGMENT_COUNT];
+        int segmentSize = Math.max(1, (cacheSize + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * Seeds an empty table with the sample tools and installs this catalog in {@link ToolRepository}.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (toolJpaRepository.count() == 0) {
+            List<ToolEntity> entities = new ArrayList<>();
+            for (Tool tool : InMemoryToolCatalog.sampleTools()) {
+                entities.add(ToolEntity.from(tool));
+            }
+            toolJpaRepository.saveAll(entities);
+            logger.info("Seeded tool catalog with {} sample tools", entities.size());
+        }
+        previousCatalog = ToolRepository.setCatalog(this);
+    }
+
+    /**
+     * Restores the catalog that was installed before this one.
+     */
+    @Override
+    public void destroy() {
+        if (previousCatalog != null) {
+            ToolRepository.setCatalog(previousCatalog);
+        }
+    }
+
+    @Override
+    public Tool findByCode(String toolCode) {
+        Segment segment = segmentFor(toolCode);
+        Tool tool = segment.get(toolCode);
+        if (tool != null) {
+            hits.increment();
+            return tool;
+        }
+        misses.increment();
+        tool = toolJpaRepository.findById(toolCode).map(ToolEntity::toTool).orElse(null);
+        if (tool != null) {
+            tool = segment.putIfAbsent(toolCode, tool);
+        }
+        return tool;
+    }
+
+    @Override
+    public Map<String, Tool> findAllByCodes(Collection<String> toolCodes) {
+        Map<String, Tool> found = new HashMap<>();
+        Set<String> uncached = new LinkedHashSet<>();
+        for (String toolCode : toolCodes) {
+            Tool tool = segmentFor(toolCode).get(toolCode);
+            if (tool != null) {
+                found.put(toolCode, tool);
+            } else {
+                uncached.add(toolCode);
+            }
+        }
+        hits.add(found.size());
+        misses.add(uncached.size());
+
+        // Load every uncached tool in one query
+        if (!uncached.isEmpty()) {
+            for (ToolEntity entity : toolJpaRepository.findAllByToolCodeIn(uncached)) {
+                String toolCode = entity.getToolCode();
+                found.put(toolCode, segmentFor(toolCode).putIfAbsent(toolCode, entity.toTool()));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void save(Tool tool) {
+        toolJpaRepository.save(ToolEntity.from(tool));
+        segmentFor(tool.getToolCode()).put(tool.getToolCode(), tool);
+    }
+
+    @Override
+    public Tool delete(String toolCode) {
+        Tool removed = toolJpaRepository.findById(toolCode).map(ToolEntity::toTool).orElse(null);
+        if (removed != null) {
+            toolJpaRepository.deleteById(toolCode);
+        }
+        segmentFor(toolCode).remove(toolCode);
+        return removed;
+    }
+
+    /**
+     * @return the number of lookups answered from the cache.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of lookups that went to the database.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of cached tools.
+     */
+    public int cacheSize() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(String toolCode) {
+        int hash = toolCode.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENT_COUNT - 1)];
+    }
+
+    /**
+     * Access-ordered LRU map guarded by its own lock.
+     */
+    private static final class Segment {
+        private final LinkedHashMap<String, Tool> tools;
+
+        private Segment(int maxSize) {
+            this.tools = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Tool> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        private synchronized Tool get(String toolCode) {
+            return tools.get(toolCode);
+        }
+
+        /**
+         * Caches a loaded tool unless a concurrent load or save got there first.
+         *
+         * @return the cached tool
+         */
+        private synchronized Tool putIfAbsent(String toolCode, Tool tool) {
+            Tool cached = tools.putIfAbsent(toolCode, tool);
+            return cached == null ? tool : cached;
+        }
+
+        private synchronized void put(String toolCode, Tool tool) {
+            tools.put(toolCode, tool);
+        }
+
+        private synchronized void remove(String toolCode) {
+            tools.remove(toolCode);
+        }
+
+        private synchronized int size() {
+            return tools.size();
+        }
+    }
+
+}
@@ -0,0 +1,299 @@
+package com.ECL062024.ToolRental.repository;
+
+import com.ECL062024.ToolRental.model.Tool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.ECL062024.ToolRental.repository.CatalogSnapshotWriter.BRAND_OFFSET;
+import static com.ECL062024.ToolRental.repository.CatalogSnapshotWriter.CHARGE_OFFSET;
+import static com.ECL062024.ToolRental.repository.CatalogSnapshotWriter.FLAGS_OFFSET;
+import static com.ECL062024.ToolRental.repository.CatalogSnapshotWriter.HEADER_SIZE;
+import static com.ECL062024.ToolRental.repository.CatalogSnapshotWriter.SLOT_SIZE;
+import static com.ECL062024.ToolRental.repository.CatalogSnapshotWriter.TYPE_OFFSET;
+
+/**
+ * Read-only tool catalog served straight from a memory-mapped snapshot written by {@link CatalogSnapshotWriter},
+ * enabled with {@code toolrental.catalog.type=snapshot}.
+ * Lookups probe the mapped slot table in place, so startup costs one mapping rather than loading every tool, and
+ * the catalog occupies page cache instead of heap. Types and brands are decoded once per string on first use and
+ * a {@link Tool} is created once per slot on first lookup.
+ * <p>
+ * When a new snapshot is moved into place the file is remapped and readers switch to it with a single volatile
+ * write; lookups already in flight finish against the previous mapping. A snapshot must be replaced by moving a
+ * new file over it, as {@link CatalogSnapshotWriter} does, never by rewriting the mapped file in place.
+ * Snapshots are read-only, so {@link #save} and {@link #delete} are not supported.
+ */
+@Component
+@ConditionalOnProperty(name = "toolrental.catalog.type", havingValue = "snapshot")
+public class MappedToolCatalog implements ToolCatalog, InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(MappedToolCatalog.class);
+
+    private final Path path;
+    private final boolean watch;
+    private volatile Snapshot snapshot;
+    private WatchService watchService;
+    private ToolCatalog previousCatalog;
+
+    /**
+     * Constructor to initialize MappedToolCatalog for the given snapshot file.
+     * Nothing is mapped until {@link #reload()} or {@link #afterPropertiesSet()} is called.
+     *
+     * @param path  the snapshot file
+     * @param watch whether to reload automatically when the file is replaced
+     */
+    @Autowired
+    public MappedToolCatalog(@Value("${toolrental.catalog.snapshot-path:catalog.bin}") Path path,
+                             @Value("${toolrental.catalog.snapshot-watch:true}") boolean watch) {
+        this.path = path.toAbsolutePath();
+        this.watch = watch;
+    }
+
+    /**
+     * Writes a snapshot of the sample tools if the file does not exist, maps it, starts watching it and
+     * installs this catalog in {@link ToolRepository}.
+     *
+     * @throws IOException if the snapshot cannot be written, mapped or watched
+     */
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (!Files.exists(path)) {
+            CatalogSnapshotWriter.write(path, InMemoryToolCatalog.sampleTools());
+        }
+        reload();
+        if (watch) {
+            startWatching();
+        }
+        previousCatalog = ToolRepository.setCatalog(this);
+    }
+
+    /**
+     * Stops watching the snapshot file and restores the catalog that was installed before this one.
+     *
+     * @throws IOException if the watch service cannot be closed
+     */
+    @Override
+    public void destroy() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (previousCatalog != null) {
+            ToolRepository.setCatalog(previousCatalog);
+        }
+    }
+
+    /**
+     * Maps the snapshot file and switches readers to it. If this catalog is installed in {@link ToolRepository},
+     * its reload listeners are notified. If the file is invalid the current snapshot stays in place.
+     *
+     * @throws IOException              if the file cannot be mapped
+     * @throws IllegalArgumentException if the file is not a valid snapshot
+     */
+    public void reload() throws IOException {
+        Snapshot loaded = Snapshot.map(path);
+        snapshot = loaded;
+        logger.info("Loaded catalog snapshot {} with {} tools", path, loaded.toolCount);
+        ToolRepository.catalogReloaded(this);
+    }
+
+    @Override
+    public Tool findByCode(String toolCode) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        long key = PackedToolCatalog.pack(toolCode);
+        if (key == PackedToolCatalog.EMPTY) {
+            return null;
+        }
+        int slot = current.slotOf(key);
+        return slot < 0 ? null : current.toolAt(slot);
+    }
+
+    @Override
+    public Map<String, Tool> findAllByCodes(Collection<String> toolCodes) {
+        Map<String, Tool> found = new HashMap<>();
+        for (String toolCode : toolCodes) {
+            Tool tool = findByCode(toolCode);
+            if (tool != null) {
+                found.put(toolCode, tool);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void save(Tool tool) {
+        throw new UnsupportedOperationException("Catalog snapshot is read-only.");
+    }
+
+    @Override
+    public Tool delete(String toolCode) {
+        throw new UnsupportedOperationException("Catalog snapshot is read-only.");
+    }
+
+    /**
+     * @return the number of tools in the current snapshot.
+     */
+    public int size() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.toolCount;
+    }
+
+    private void startWatching() throws IOException {
+        watchService = path.getFileSystem().newWatchService();
+        path.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread watcher = new Thread(this::watchLoop, "catalog-snapshot-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey watchKey = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    changed |= path.getFileName().equals(event.context());
+                }
+                watchKey.reset();
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (IOException | IllegalArgumentException e) {
+                        logger.error("Could not reload catalog snapshot {}, keeping the current one", path, e);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            logger.debug("Stopped watching catalog snapshot {}", path);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One mapped snapshot file together with the strings and tools decoded from it so far.
+     */
+    private static final class Snapshot {
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final int toolCount;
+        private final int stringCount;
+        private final int stringOffsets;
+        private final int stringData;
+        private final AtomicReferenceArray<String> strings;
+        private final AtomicReferenceArray<Tool> tools;
+
+        private Snapshot(MappedByteBuffer buffer) {
+            int size = buffer.capacity();
+            if (size < HEADER_SIZE || buffer.getInt(0) != CatalogSnapshotWriter.MAGIC) {
+                throw new IllegalArgumentException("Not a catalog snapshot.");
+            }
+            if (buffer.getInt(4) != CatalogSnapshotWriter.VERSION) {
+                throw new IllegalArgumentException("Unsupported catalog snapshot version " + buffer.getInt(4) + ".");
+            }
+            this.buffer = buffer;
+            this.capacity = buffer.getInt(8);
+            this.toolCount = buffer.getInt(12);
+            this.stringCount = buffer.getInt(16);
+            long stringTableOffset = buffer.getLong(24);
+            if (capacity <= 0 || Integer.bitCount(capacity) != 1 || toolCount < 0 || toolCount >= capacity
+                    || stringCount < 0 || stringTableOffset != HEADER_SIZE + (long) capacity * SLOT_SIZE
+                    || stringTableOffset + 4L * stringCount > size) {
+                throw new IllegalArgumentException("Corrupt catalog snapshot header.");
+            }
+            this.stringOffsets = (int) stringTableOffset;
+            this.stringData = stringOffsets + 4 * stringCount;
+            this.strings = new AtomicReferenceArray<>(stringCount);
+            this.tools = new AtomicReferenceArray<>(capacity);
+        }
+
+        private static Snapshot map(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Catalog snapshot is too large.");
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                return new Snapshot(buffer);
+            }
+        }
+
+        private int slotOf(long key) {
+            int mask = capacity - 1;
+            int slot = PackedToolCatalog.mix(key) & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long candidate = buffer.getLong(HEADER_SIZE + slot * SLOT_SIZE);
+                if (candidate == key) {
+                    return slot;
+                }
+                if (candidate == PackedToolCatalog.EMPTY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private Tool toolAt(int slot) {
+            Tool tool = tools.get(slot);
+            if (tool == null) {
+                int base = HEADER_SIZE + slot * SLOT_SIZE;
+                int flags = buffer.get(base + FLAGS_OFFSET);
+                tool = Tool.ofCents(PackedToolCatalog.unpack(buffer.getLong(base)),
+                        string(buffer.getInt(base + TYPE_OFFSET)), string(buffer.getInt(base + BRAND_OFFSET)),
+                        buffer.getLong(base + CHARGE_OFFSET), (flags & PackedToolCatalog.WEEKDAY_CHARGE) != 0,
+                        (flags & PackedToolCatalog.WEEKEND_CHARGE) != 0,
+                        (flags & PackedToolCatalog.HOLIDAY_CHARGE) != 0);
+                if (!tools.compareAndSet(slot, null, tool)) {
+                    tool = tools.get(slot);
+                }
+            }
+            return tool;
+        }
+
+        private String string(int id) {
+            if (id < 0 || id >= stringCount) {
+                throw new IllegalStateException("Corrupt catalog snapshot string id " + id + ".");
+            }
+            String value = strings.get(id);
+            if (value == null) {
+                int position = stringData + buffer.getInt(stringOffsets + 4 * id);
+                byte[] encoded = new byte[buffer.getShort(position) & 0xFFFF];
+                buffer.get(position + 2, encoded);
+                value = new String(encoded, StandardCharsets.UTF_8);
+                if (!strings.compareAndSet(id, null, value)) {
+                    value = strings.get(id);
+                }
+            }
+            return value;
+        }
+    }
+
+}
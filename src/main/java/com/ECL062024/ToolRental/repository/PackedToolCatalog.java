@@ -0,0 +1,458 @@
+package com.ECL062024.ToolRental.repository;
+
+import com.ECL062024.ToolRental.model.Tool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Compact tool catalog for very large fleets, enabled with {@code toolrental.catalog.type=packed}.
+ * Tool codes of up to eight ASCII characters are packed into a {@code long} key and stored in a linear-probing
+ * open-addressing table; the attributes of each tool sit in parallel primitive arrays beside the key, and types
+ * and brands are stored once each in a shared string table. A stored tool therefore costs a few dozen bytes
+ * instead of a {@link Tool}, its strings and a map entry.
+ * <p>
+ * Lookups pack the code without allocating and read the table under an optimistic {@link StampedLock} stamp,
+ * so concurrent readers never block each other. The {@link Tool} returned by {@link #findByCode} is created on
+ * the first lookup of a slot and then reused until the tool is saved again, so only tools that are actually
+ * rented are ever materialized. Codes that cannot be packed are kept in a small overflow map.
+ */
+@Component
+@ConditionalOnProperty(name = "toolrental.catalog.type", havingValue = "packed")
+public class PackedToolCatalog implements ToolCatalog, InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(PackedToolCatalog.class);
+
+    /**
+     * Flag bit set when weekdays are charged.
+     */
+    public static final int WEEKDAY_CHARGE = 1;
+
+    /**
+     * Flag bit set when weekend days are charged.
+     */
+    public static final int WEEKEND_CHARGE = 2;
+
+    /**
+     * Flag bit set when holidays are charged.
+     */
+    public static final int HOLIDAY_CHARGE = 4;
+
+    /**
+     * Key of an empty slot; no packable code packs to zero.
+     */
+    static final long EMPTY = 0L;
+
+    private static final int MAX_PACKED_LENGTH = 8;
+    private static final int MIN_CAPACITY = 16;
+    private static final double MAX_LOAD_FACTOR = 0.6;
+
+    private final StampedLock lock = new StampedLock();
+    private final Map<String, Tool> overflow = new ConcurrentHashMap<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private String[] stringTable = new String[MIN_CAPACITY];
+    private volatile Table table;
+    private int size;
+    private ToolCatalog previousCatalog;
+
+    /**
+     * Constructor to initialize an empty PackedToolCatalog sized for the given number of tools.
+     *
+     * @param expectedSize the number of tools the catalog should hold without growing
+     */
+    @Autowired
+    public PackedToolCatalog(@Value("${toolrental.catalog.expected-size:1024}") int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected catalog size must be 0 or greater.");
+        }
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    /**
+     * Seeds an empty catalog with the sample tools and installs it in {@link ToolRepository}.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (size() == 0) {
+            for (Tool tool : InMemoryToolCatalog.sampleTools()) {
+                save(tool);
+            }
+        }
+        previousCatalog = ToolRepository.setCatalog(this);
+    }
+
+    /**
+     * Restores the catalog that was installed before this one.
+     */
+    @Override
+    public void destroy() {
+        if (previousCatalog != null) {
+            ToolRepository.setCatalog(previousCatalog);
+        }
+    }
+
+    /**
+     * Packs a tool code of one to eight ASCII characters into a {@code long}, one byte per character.
+     *
+     * @param toolCode the tool code
+     * @return the packed code, or {@link #EMPTY} if the code cannot be packed
+     */
+    public static long pack(CharSequence toolCode) {
+        int length = toolCode.length();
+        if (length == 0 || length > MAX_PACKED_LENGTH) {
+            return EMPTY;
+        }
+        long key = 0;
+        for (int i = 0; i < length; i++) {
+            char c = toolCode.charAt(i);
+            if (c == 0 || c > 0x7F) {
+                return EMPTY;
+            }
+            key = (key << 8) | c;
+        }
+        return key;
+    }
+
+    /**
+     * Unpacks a tool code packed by {@link #pack}.
+     *
+     * @param key the packed code
+     * @return the tool code
+     */
+    public static String unpack(long key) {
+        int length = (Long.SIZE - Long.numberOfLeadingZeros(key) + 7) / 8;
+        char[] chars = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            chars[i] = (char) (key & 0x7F);
+            key >>>= 8;
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public Tool findByCode(String toolCode) {
+        long key = pack(toolCode);
+        if (key == EMPTY) {
+            return overflow.get(toolCode);
+        }
+
+        // Read the slot optimistically and fall back to a read lock if a writer got in the way
+        long stamp = lock.tryOptimisticRead();
+        Table current = table;
+        int slot = current.slotOf(key);
+        Tool view = slot < 0 ? null : current.views[slot];
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                current = table;
+                slot = current.slotOf(key);
+                view = slot < 0 ? null : current.views[slot];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        if (slot < 0) {
+            return null;
+        }
+        return view != null ? view : materialize(key);
+    }
+
+    @Override
+    public Map<String, Tool> findAllByCodes(Collection<String> toolCodes) {
+        Map<String, Tool> found = new HashMap<>();
+        for (String toolCode : toolCodes) {
+            Tool tool = findByCode(toolCode);
+            if (tool != null) {
+                found.put(toolCode, tool);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds the slot holding a tool, without allocating.
+     * The slot stays valid until the catalog is next written to.
+     *
+     * @param toolCode the tool code
+     * @return the slot, or -1 if the code is unknown or cannot be packed
+     */
+    public int slotOf(CharSequence toolCode) {
+        long key = pack(toolCode);
+        if (key == EMPTY) {
+            return -1;
+        }
+        long stamp = lock.readLock();
+        try {
+            return table.slotOf(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @param slot a slot returned by {@link #slotOf}
+     * @return the daily charge in cents of the tool in the slot.
+     */
+    public long dailyChargeCents(int slot) {
+        return table.dailyChargeCents[slot];
+    }
+
+    /**
+     * @param slot a slot returned by {@link #slotOf}
+     * @return the charge flag bits of the tool in the slot.
+     */
+    public int chargeFlags(int slot) {
+        return table.flags[slot];
+    }
+
+    @Override
+    public void save(Tool tool) {
+        if (pack(tool.getToolCode()) == EMPTY) {
+            overflow.put(tool.getToolCode(), tool);
+            return;
+        }
+        save(tool.getToolCode(), tool.getToolType(), tool.getToolBrand(), tool.getDailyChargeCents(),
+                tool.isWeekdayCharge(), tool.isWeekendCharge(), tool.isHolidayCharge());
+    }
+
+    /**
+     * Adds or replaces a tool from its attributes, without creating a {@link Tool}.
+     *
+     * @param toolCode         the code identifying the tool
+     * @param toolType         the type of the tool
+     * @param toolBrand        the brand of the tool
+     * @param dailyChargeCents the daily rental charge for the tool in cents
+     * @param weekdayCharge    indicates if the tool has a weekday charge
+     * @param weekendCharge    indicates if the tool has a weekend charge
+     * @param holidayCharge    indicates if the tool has a holiday charge
+     */
+    public void save(String toolCode, String toolType, String toolBrand, long dailyChargeCents,
+                     boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
+        long key = pack(toolCode);
+        if (key == EMPTY) {
+            overflow.put(toolCode, Tool.ofCents(toolCode, toolType, toolBrand, dailyChargeCents, weekdayCharge,
+                    weekendCharge, holidayCharge));
+            return;
+        }
+        byte flags = (byte) ((weekdayCharge ? WEEKDAY_CHARGE : 0) | (weekendCharge ? WEEKEND_CHARGE : 0)
+                | (holidayCharge ? HOLIDAY_CHARGE : 0));
+
+        long stamp = lock.writeLock();
+        try {
+            int typeId = intern(toolType);
+            int brandId = intern(toolBrand);
+            int slot = table.slotOf(key);
+            if (slot < 0) {
+                if (size + 1 > table.keys.length * MAX_LOAD_FACTOR) {
+                    table = table.resize(table.keys.length * 2);
+                }
+                slot = table.insertionSlotOf(key);
+                size++;
+            }
+            Table current = table;
+            current.dailyChargeCents[slot] = dailyChargeCents;
+            current.typeIds[slot] = typeId;
+            current.brandIds[slot] = brandId;
+            current.flags[slot] = flags;
+            current.views[slot] = null;
+            current.keys[slot] = key;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Tool delete(String toolCode) {
+        long key = pack(toolCode);
+        if (key == EMPTY) {
+            return overflow.remove(toolCode);
+        }
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            int slot = current.slotOf(key);
+            if (slot < 0) {
+                return null;
+            }
+            Tool removed = current.views[slot] != null ? current.views[slot] : current.toTool(slot, stringTable);
+            current.remove(slot);
+            size--;
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the number of tools in the catalog.
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size + overflow.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return the number of distinct type and brand strings stored.
+     */
+    public int distinctStrings() {
+        long stamp = lock.readLock();
+        try {
+            return stringIds.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Tool materialize(long key) {
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            int slot = current.slotOf(key);
+            if (slot < 0) {
+                return null;
+            }
+            if (current.views[slot] == null) {
+                current.views[slot] = current.toTool(slot, stringTable);
+            }
+            return current.views[slot];
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private int intern(String value) {
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = stringIds.size();
+            if (id == stringTable.length) {
+                stringTable = Arrays.copyOf(stringTable, id * 2);
+            }
+            stringTable[id] = value;
+            stringIds.put(value, id);
+            logger.debug("Interned catalog string {} as {}", value, id);
+        }
+        return id;
+    }
+
+    static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Open-addressing table with attributes in parallel arrays indexed by slot.
+     */
+    private static final class Table {
+        private final long[] keys;
+        private final long[] dailyChargeCents;
+        private final int[] typeIds;
+        private final int[] brandIds;
+        private final byte[] flags;
+        private final Tool[] views;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.dailyChargeCents = new long[capacity];
+            this.typeIds = new int[capacity];
+            this.brandIds = new int[capacity];
+            this.flags = new byte[capacity];
+            this.views = new Tool[capacity];
+        }
+
+        private int slotOf(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long candidate = keys[slot];
+                if (candidate == key) {
+                    return slot;
+                }
+                if (candidate == EMPTY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int insertionSlotOf(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private Table resize(int capacity) {
+            Table resized = new Table(capacity);
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != EMPTY) {
+                    resized.copyFrom(this, slot, resized.insertionSlotOf(keys[slot]));
+                }
+            }
+            return resized;
+        }
+
+        private void copyFrom(Table source, int from, int to) {
+            dailyChargeCents[to] = source.dailyChargeCents[from];
+            typeIds[to] = source.typeIds[from];
+            brandIds[to] = source.brandIds[from];
+            flags[to] = source.flags[from];
+            views[to] = source.views[from];
+            keys[to] = source.keys[from];
+        }
+
+        /**
+         * Empties a slot and shifts later entries of its probe run back, so no tombstones are needed.
+         */
+        private void remove(int slot) {
+            int mask = keys.length - 1;
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (keys[next] != EMPTY) {
+                int home = mix(keys[next]) & mask;
+                // Move the entry into the hole unless its home slot lies cyclically in (hole, next]
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    copyFrom(this, next, hole);
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[hole] = EMPTY;
+            views[hole] = null;
+        }
+
+        private Tool toTool(int slot, String[] strings) {
+            int slotFlags = flags[slot];
+            return Tool.ofCents(unpack(keys[slot]), strings[typeIds[slot]], strings[brandIds[slot]],
+                    dailyChargeCents[slot], (slotFlags & WEEKDAY_CHARGE) != 0, (slotFlags & WEEKEND_CHARGE) != 0,
+                    (slotFlags & HOLIDAY_CHARGE) != 0);
+        }
+    }
+
+}
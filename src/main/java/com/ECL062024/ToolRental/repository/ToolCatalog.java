@@ -0,0 +1,44 @@
+package com.ECL062024.ToolRental.repository;
+
+import com.ECL062024.ToolRental.model.Tool;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Storage backing the tool catalog served by {@link ToolRepository}.
+ */
+public interface ToolCatalog {
+
+    /**
+     * Finds a tool by its code.
+     *
+     * @param toolCode the code of the tool to find
+     * @return the tool with the specified code, or null if no such tool exists
+     */
+    Tool findByCode(String toolCode);
+
+    /**
+     * Finds every tool with one of the given codes.
+     *
+     * @param toolCodes the codes of the tools to find
+     * @return the tools found, keyed by tool code; codes without a tool are absent
+     */
+    Map<String, Tool> findAllByCodes(Collection<String> toolCodes);
+
+    /**
+     * Adds or replaces a tool.
+     *
+     * @param tool the tool to store
+     */
+    void save(Tool tool);
+
+    /**
+     * Removes a tool.
+     *
+     * @param toolCode the code of the tool to remove
+     * @return the removed tool, or null if no such tool existed
+     */
+    Tool delete(String toolCode);
+
+}
@@ -0,0 +1,22 @@
+package com.ECL062024.ToolRental.repository;
+
+import com.ECL062024.ToolRental.model.ToolEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data repository for persisted tools.
+ */
+public interface ToolJpaRepository extends JpaRepository<ToolEntity, String> {
+
+    /**
+     * Loads every tool with one of the given codes in a single query.
+     *
+     * @param toolCodes the codes of the tools to load
+     * @return the tools found
+     */
+    List<ToolEntity> findAllByToolCodeIn(Collection<String> toolCodes);
+
+}
@@ -5,62 +5,34 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * Repository for managing tools.
- * Provides methods to interact with tool data storage.
+ * Provides methods to interact with tool data storage. Lookups and writes are delegated to the installed
+ * {@link ToolCatalog}, which is an {@link InMemoryToolCatalog} of sample tools unless another catalog,
+ * such as {@link JpaToolCatalog}, replaces it.
  */
 @Repository
 public class ToolRepository {
     private static final Logger logger = LoggerFactory.getLogger(ToolRepository.class);
-    private static final Map<String, Tool> tools = new HashMap<>();
+    private static final List<Consumer<String>> changeListeners = new CopyOnWriteArrayList<>();
+    private static final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    private static volatile ToolCatalog catalog = new InMemoryToolCatalog();
 
     static {
-        tools.put("CHNS", new Tool(
-                "CHNS",
-                "Chainsaw",
-                "Stihl",
-                1.49,
-                true,
-                false,
-                true));
-
-        tools.put("LADW", new Tool(
-                "LADW",
-                "Ladder",
-                "Werner",
-                1.99,
-                true,
-                true,
-                false));
-
-        tools.put("JAKD", new Tool(
-                "JAKD",
-                "Jackhammer",
-                "DeWalt",
-                2.99,
-                true,
-                false,
-                false));
-
-        tools.put("JAKR", new Tool(
-                "JAKR",
-                "Jackhammer",
-                "Ridgid",
-                2.99,
-                true,
-                false,
-                false));
-
         logger.info("ToolRepository initialized with sample tools");
     }
 
     /**
-     * Private constructor to prevent instantiation.
+     * Protected constructor to prevent instantiation outside Spring, which proxies the repository for
+     * persistence exception translation.
      */
-    private ToolRepository() {}
+    protected ToolRepository() {}
 
     /**
      * Finds a tool by its code.
@@ -70,7 +42,125 @@ public class ToolRepository {
      */
     public static Tool findByCode(String toolCode) {
         logger.debug("Searching for tool with code: {}", toolCode);
-        return tools.get(toolCode);
+        return toolCode == null ? null : catalog.findByCode(toolCode);
+    }
+
+    /**
+     * Finds every tool with one of the given codes in a single catalog lookup.
+     *
+     * @param toolCodes The codes of the tools to find.
+     * @return The tools found, keyed by tool code; codes without a tool are absent.
+     */
+    public static Map<String, Tool> findAllByCodes(Collection<String> toolCodes) {
+        logger.debug("Searching for {} tools", toolCodes.size());
+        return catalog.findAllByCodes(toolCodes);
+    }
+
+    /**
+     * Adds or replaces a tool in the catalog and notifies the change listeners.
+     *
+     * @param tool The tool to store.
+     */
+    public static void save(Tool tool) {
+        logger.info("Saving tool with code: {}", tool.getToolCode());
+        catalog.save(tool);
+        notifyChanged(tool.getToolCode());
+    }
+
+    /**
+     * Removes a tool from the catalog and notifies the change listeners.
+     *
+     * @param toolCode The code of the tool to remove.
+     * @return The removed tool, or null if no such tool existed.
+     */
+    public static Tool delete(String toolCode) {
+        logger.info("Deleting tool with code: {}", toolCode);
+        Tool removed = catalog.delete(toolCode);
+        if (removed != null) {
+            notifyChanged(toolCode);
+        }
+        return removed;
+    }
+
+    /**
+     * @return The catalog lookups and writes are delegated to.
+     */
+    public static ToolCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Replaces the catalog lookups and writes are delegated to and notifies the reload listeners.
+     *
+     * @param newCatalog The catalog to install.
+     * @return The previously installed catalog.
+     */
+    public static ToolCatalog setCatalog(ToolCatalog newCatalog) {
+        logger.info("Installing tool catalog {}", newCatalog.getClass().getSimpleName());
+        ToolCatalog previous = catalog;
+        catalog = newCatalog;
+        notifyReloaded();
+        return previous;
+    }
+
+    /**
+     * Notifies the reload listeners that a catalog has reloaded all of its entries, if it is the installed one.
+     *
+     * @param reloaded The catalog that reloaded.
+     */
+    static void catalogReloaded(ToolCatalog reloaded) {
+        if (catalog == reloaded) {
+            notifyReloaded();
+        }
+    }
+
+    /**
+     * Registers a listener that is called with the tool code whenever a catalog entry changes.
+     *
+     * @param listener The listener to register.
+     */
+    public static void addChangeListener(Consumer<String> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a change listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public static void removeChangeListener(Consumer<String> listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * Registers a listener that is called whenever any catalog entry may have changed, because a catalog was
+     * installed or the installed catalog reloaded all of its entries.
+     *
+     * @param listener The listener to register.
+     */
+    public static void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a reload listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public static void removeReloadListener(Runnable listener) {
+        reloadListeners.remove(listener);
+    }
+
+    private static void notifyReloaded() {
+        for (Runnable listener : reloadListeners) {
+            listener.run();
+        }
+    }
+
+    private static void notifyChanged(String toolCode) {
+        for (Consumer<String> listener : changeListeners) {
+            listener.accept(toolCode);
+        }
     }
 
 }
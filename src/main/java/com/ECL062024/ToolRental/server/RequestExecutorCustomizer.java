@@ -0,0 +1,126 @@
+package com.ECL062024.ToolRental.server;
+
+import org.apache.coyote.ProtocolHandler;
+import org.apache.tomcat.util.threads.TaskQueue;
+import org.apache.tomcat.util.threads.TaskThreadFactory;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Installs the executor Tomcat runs requests on.
+ * <p>
+ * With {@code toolrental.server.virtual-threads} set, every request runs on a virtual thread of its own where the
+ * runtime has them (Java 21 or later), so a request blocked on the journal or the catalog holds no platform thread
+ * and the {@code server.tomcat.max-connections} connections are not throttled by a thread pool. With the property
+ * off, requests run on a pool of {@code toolrental.server.max-threads} platform threads, which grows from
+ * {@code toolrental.server.min-spare-threads} like Tomcat's own pool.
+ * <p>
+ * The build targets Java 17, which has no virtual threads. Run there, the property has no effect: requests fall
+ * back to the platform pool, bounded by {@code toolrental.server.max-threads} rather than by the connection limit,
+ * and a warning says so at startup. Running the same build on Java 21 or later enables virtual threads.
+ */
+@Component
+public class RequestExecutorCustomizer implements TomcatProtocolHandlerCustomizer<ProtocolHandler>, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(RequestExecutorCustomizer.class);
+
+    private final boolean virtualThreads;
+    private final int maxThreads;
+    private final int minSpareThreads;
+    private final List<ExecutorService> executors = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor to initialize RequestExecutorCustomizer from the application properties.
+     *
+     * @param virtualThreads  whether to run requests on virtual threads where the runtime has them
+     * @param maxThreads      the maximum number of platform threads
+     * @param minSpareThreads the number of platform threads kept alive when idle
+     */
+    @Autowired
+    public RequestExecutorCustomizer(@Value("${toolrental.server.virtual-threads:true}") boolean virtualThreads,
+                                     @Value("${toolrental.server.max-threads:200}") int maxThreads,
+                                     @Value("${toolrental.server.min-spare-threads:10}") int minSpareThreads) {
+        if (maxThreads < 1 || minSpareThreads < 0 || minSpareThreads > maxThreads) {
+            throw new IllegalArgumentException("Server threads must satisfy 0 <= min-spare-threads <= max-threads"
+                    + " and max-threads >= 1.");
+        }
+        this.virtualThreads = virtualThreads;
+        this.maxThreads = maxThreads;
+        this.minSpareThreads = minSpareThreads;
+    }
+
+    /**
+     * Creates the request executor and hands it to the connector's protocol handler.
+     *
+     * @param protocolHandler the protocol handler of a connector
+     */
+    @Override
+    public void customize(ProtocolHandler protocolHandler) {
+        ExecutorService executor = virtualThreads ? newVirtualThreadExecutor() : null;
+        if (executor != null) {
+            logger.info("Running requests on virtual threads");
+        } else {
+            executor = newPlatformThreadExecutor();
+            if (virtualThreads) {
+                logger.warn("toolrental.server.virtual-threads is set but Java {} has no virtual threads (Java 21 or"
+                        + " later); running requests on up to {} platform threads instead",
+                        Runtime.version().feature(), maxThreads);
+            } else {
+                logger.info("Running requests on up to {} platform threads", maxThreads);
+            }
+        }
+        executors.add(executor);
+        protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * Shuts down the executors once the connectors have stopped.
+     */
+    @Override
+    public void destroy() {
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per task.
+     *
+     * @return the executor, or null if the runtime has no virtual threads
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        }
+    }
+
+    /**
+     * Creates a pool of platform threads which, like Tomcat's own pool, starts new threads up to the maximum
+     * before it queues requests.
+     *
+     * @return the executor
+     */
+    ExecutorService newPlatformThreadExecutor() {
+        TaskQueue queue = new TaskQueue();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(minSpareThreads, maxThreads, 60, TimeUnit.SECONDS, queue,
+                new TaskThreadFactory("http-exec-", true, Thread.NORM_PRIORITY));
+        queue.setParent(executor);
+        return executor;
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.ECL062024.ToolRental.service;
+
+import java.time.LocalDate;
+
+/**
+ * Thrown when a checkout overlaps rentals that already book every unit of the tool.
+ */
+public class BookingConflictException extends ToolUnavailableException {
+
+    /**
+     * Constructs a new BookingConflictException for the given tool code and rental period.
+     *
+     * @param toolCode     the booked-out tool code
+     * @param checkoutDate the checkout date of the rejected rental
+     * @param rentalDays   the number of rental days of the rejected rental
+     */
+    public BookingConflictException(String toolCode, LocalDate checkoutDate, int rentalDays) {
+        super("Tool with code " + toolCode + " is already booked between " + checkoutDate + " and "
+                + checkoutDate.plusDays(rentalDays) + ".", null);
+    }
+
+}
@@ -0,0 +1,273 @@
+package com.ECL062024.ToolRental.service;
+
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import com.ECL062024.ToolRental.model.Tool;
+import com.ECL062024.ToolRental.repository.ToolRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of priced quotes keyed by tool code, checkout day, rental days and discount percent.
+ * Entries are evicted least-recently-used once the size bound is reached and expire after a fixed TTL.
+ * The cache is split into independently locked segments so concurrent lookups rarely contend.
+ * An entry is only served for the exact catalog entry it was priced from: entries for a tool are dropped
+ * when {@link ToolRepository} reports a change, and a hit priced from a different {@link Tool} instance
+ * is treated as a miss.
+ */
+@Component
+public class QuoteCache implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(QuoteCache.class);
+    private static final int SEGMENT_COUNT = 16;
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Segment[] segments;
+    private final Consumer<String> invalidationListener = this::invalidateTool;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor to initialize QuoteCache from the application properties.
+     *
+     * @param enabled whether quotes are cached at all
+     * @param maxSize the maximum number of cached quotes
+     * @param ttl     how long a cached quote stays valid
+     */
+    @Autowired
+    public QuoteCache(@Value("${toolrental.quote-cache.enabled:false}") boolean enabled,
+                      @Value("${toolrental.quote-cache.max-size:10000}") int maxSize,
+                      @Value("${toolrental.quote-cache.ttl:PT5M}") Duration ttl) {
+        this(enabled, maxSize, ttl, System::nanoTime);
+    }
+
+    /**
+     * Constructor to initialize QuoteCache with an explicit clock.
+     *
+     * @param enabled   whether quotes are cached at all
+     * @param maxSize   the maximum number of cached quotes
+     * @param ttl       how long a cached quote stays valid
+     * @param nanoClock the source of monotonic time in nanoseconds
+     */
+    QuoteCache(boolean enabled, int maxSize, Duration ttl, LongSupplier nanoClock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Quote cache size must be 1 or greater.");
+        }
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.segments = new Segment[SEGMENT_COUNT];
+        int segmentSize = Math.max(1, (maxSize + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+        if (enabled) {
+            ToolRepository.addChangeListener(invalidationListener);
+            logger.info("Quote cache enabled with max size {} and TTL {}", maxSize, ttl);
+        }
+    }
+
+    /**
+     * Creates a cache that never stores anything.
+     *
+     * @return a disabled cache
+     */
+    public static QuoteCache disabled() {
+        return new QuoteCache(false, 1, Duration.ZERO, System::nanoTime);
+    }
+
+    /**
+     * @return true if quotes are cached, false otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Looks up a quote priced from the given catalog entry.
+     *
+     * @param key  the quote inputs
+     * @param tool the current catalog entry for the key's tool code
+     * @return the cached agreement, or null on a miss
+     */
+    public RentalAgreement get(QuoteKey key, Tool tool) {
+        if (!enabled) {
+            return null;
+        }
+        RentalAgreement agreement = segmentFor(key).get(key, tool, nanoClock.getAsLong());
+        if (agreement == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return agreement;
+    }
+
+    /**
+     * Stores a quote priced from the given catalog entry.
+     *
+     * @param key       the quote inputs
+     * @param tool      the catalog entry the quote was priced from
+     * @param agreement the priced agreement
+     */
+    public void put(QuoteKey key, Tool tool, RentalAgreement agreement) {
+        if (enabled) {
+            segmentFor(key).put(key, new Entry(tool, agreement, nanoClock.getAsLong() + ttlNanos));
+        }
+    }
+
+    /**
+     * Drops every cached quote for a tool.
+     *
+     * @param toolCode the tool code
+     */
+    public void invalidateTool(String toolCode) {
+        int removed = 0;
+        for (Segment segment : segments) {
+            removed += segment.removeTool(toolCode);
+        }
+        evictions.add(removed);
+        logger.debug("Invalidated {} cached quotes for tool {}", removed, toolCode);
+    }
+
+    /**
+     * Drops every cached quote.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            evictions.add(segment.clear());
+        }
+    }
+
+    /**
+     * @return the number of lookups answered from the cache.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of lookups that had to be priced.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of entries removed for size, expiry or invalidation.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the number of cached quotes.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Unregisters the catalog change listener.
+     */
+    @Override
+    public void destroy() {
+        ToolRepository.removeChangeListener(invalidationListener);
+    }
+
+    private Segment segmentFor(QuoteKey key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENT_COUNT - 1)];
+    }
+
+    /**
+     * Cached quote together with the catalog entry it was priced from.
+     */
+    private static final class Entry {
+        private final Tool tool;
+        private final RentalAgreement agreement;
+        private final long expiresAtNanos;
+
+        private Entry(Tool tool, RentalAgreement agreement, long expiresAtNanos) {
+            this.tool = tool;
+            this.agreement = agreement;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    /**
+     * Access-ordered LRU map guarded by its own lock.
+     */
+    private final class Segment {
+        private final LinkedHashMap<QuoteKey, Entry> entries;
+
+        private Segment(int maxSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<QuoteKey, Entry> eldest) {
+                    if (size() > maxSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private synchronized RentalAgreement get(QuoteKey key, Tool tool, long now) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.tool != tool || now - entry.expiresAtNanos >= 0) {
+                entries.remove(key);
+                evictions.increment();
+                return null;
+            }
+            return entry.agreement;
+        }
+
+        private synchronized void put(QuoteKey key, Entry entry) {
+            entries.put(key, entry);
+        }
+
+        private synchronized int removeTool(String toolCode) {
+            int removed = 0;
+            for (Iterator<QuoteKey> it = entries.keySet().iterator(); it.hasNext(); ) {
+                if (it.next().getToolCode().equals(toolCode)) {
+                    it.remove();
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
+        private synchronized int clear() {
+            int removed = entries.size();
+            entries.clear();
+            return removed;
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.ECL062024.ToolRental.service;
+
+import com.ECL062024.ToolRental.store.StoreShard;
+
+/**
+ * The inputs that fully determine a priced quote. The store is part of the key because stores observe different
+ * holidays.
+ */
+public final class QuoteKey {
+    private final String storeId;
+    private final String toolCode;
+    private final long checkoutDay;
+    private final int rentalDays;
+    private final int discountPercent;
+
+    /**
+     * Constructs a new QuoteKey for the default store.
+     *
+     * @param toolCode        the tool code
+     * @param checkoutDay     the checkout date as an epoch day
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the discount percent
+     */
+    public QuoteKey(String toolCode, long checkoutDay, int rentalDays, int discountPercent) {
+        this(StoreShard.DEFAULT_STORE, toolCode, checkoutDay, rentalDays, discountPercent);
+    }
+
+    /**
+     * Constructs a new QuoteKey.
+     *
+     * @param storeId         the store identifier
+     * @param toolCode        the tool code
+     * @param checkoutDay     the checkout date as an epoch day
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the discount percent
+     */
+    public QuoteKey(String storeId, String toolCode, long checkoutDay, int rentalDays, int discountPercent) {
+        this.storeId = storeId;
+        this.toolCode = toolCode;
+        this.checkoutDay = checkoutDay;
+        this.rentalDays = rentalDays;
+        this.discountPercent = discountPercent;
+    }
+
+    /**
+     * @return the store identifier.
+     */
+    public String getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * @return the tool code.
+     */
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    /**
+     * @return the checkout date as an epoch day.
+     */
+    public long getCheckoutDay() {
+        return checkoutDay;
+    }
+
+    /**
+     * @return the number of rental days.
+     */
+    public int getRentalDays() {
+        return rentalDays;
+    }
+
+    /**
+     * @return the discount percent.
+     */
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QuoteKey)) {
+            return false;
+        }
+        QuoteKey other = (QuoteKey) o;
+        return checkoutDay == other.checkoutDay
+                && rentalDays == other.rentalDays
+                && discountPercent == other.discountPercent
+                && toolCode.equals(other.toolCode)
+                && storeId.equals(other.storeId);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = storeId.hashCode();
+        result = 31 * result + toolCode.hashCode();
+        result = 31 * result + Long.hashCode(checkoutDay);
+        result = 31 * result + rentalDays;
+        result = 31 * result + discountPercent;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "QuoteKey{storeId='" + storeId + "', toolCode='" + toolCode + "', checkoutDay=" + checkoutDay
+                + ", rentalDays=" + rentalDays + ", discountPercent=" + discountPercent + '}';
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.ECL062024.ToolRental.service;
+
+/**
+ * Thrown when a checkout refers to a tool code that is not in the catalog.
+ */
+public class ToolNotFoundException extends IllegalArgumentException {
+
+    /**
+     * Constructs a new ToolNotFoundException for the given tool code.
+     *
+     * @param toolCode the unknown tool code
+     */
+    public ToolNotFoundException(String toolCode) {
+        super("Tool with code " + toolCode + " does not exist.");
+    }
+
+}
@@ -1,232 +1,1517 @@
 package com.ECL062024.ToolRental.service;
 
+import com.ECL062024.ToolRental.calendar.ChargeCalendar;
+import com.ECL062024.ToolRental.calendar.CheckoutDateParser;
+import com.ECL062024.ToolRental.calendar.DayCounts;
+import com.ECL062024.ToolRental.inventory.ToolAvailability;
+import com.ECL062024.ToolRental.inventory.ToolInventory;
+import com.ECL062024.ToolRental.journal.AgreementJournal;
+import com.ECL062024.ToolRental.metrics.CheckoutMetrics;
+import com.ECL062024.ToolRental.model.CartAgreement;
+import com.ECL062024.ToolRental.model.CartRequest;
+import com.ECL062024.ToolRental.model.CheckoutRequest;
+import com.ECL062024.ToolRental.model.CheckoutResult;
+import com.ECL062024.ToolRental.model.Money;
+import com.ECL062024.ToolRental.model.QuoteMatrix;
 import com.ECL062024.ToolRental.model.RentalAgreement;
+import com.ECL062024.ToolRental.model.ReturnRequest;
+import com.ECL062024.ToolRental.model.ReturnResult;
+import com.ECL062024.ToolRental.model.ReturnSettlement;
 import com.ECL062024.ToolRental.model.Tool;
+import com.ECL062024.ToolRental.pricing.PricingEngine;
+import com.ECL062024.ToolRental.promotion.PromotionEngine;
 import com.ECL062024.ToolRental.repository.ToolRepository;
+import com.ECL062024.ToolRental.store.StoreDirectory;
+import com.ECL062024.ToolRental.store.StoreNotFoundException;
+import com.ECL062024.ToolRental.store.StoreShard;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
  * Service for managing tool rentals.
  * Provides methods to check out tools and calculate rental charges.
+ * <p>
+ * Every operation runs against one store: the default store, served by {@link ToolRepository} and the application's
+ * charge calendar, or a store of the {@link StoreDirectory} with its own catalog partition and holidays. The store
+ * is resolved once when a request enters the service and passed down from there. Each store books its own units,
+ * so a rental at one store never holds a unit of another.
+ * <p>
+ * Every checkout issues its agreements under ids of their own. With returns enabled, it keeps them as open rentals
+ * of its store until the tools are checked in there by those ids, so a return is settled against the recorded
+ * agreement rather than terms sent by the client. Open rentals and the last agreement id are rebuilt from the
+ * {@link AgreementJournal} on startup, so the application refuses to start with returns enabled and the journal
+ * disabled. Without returns, nothing is kept per rental and agreement ids restart at 1 with every run unless the
+ * journal is enabled.
  */
 @Service
-public class ToolRentalService {
+public class ToolRentalService implements InitializingBean {
     private static final Logger logger = LoggerFactory.getLogger(ToolRentalService.class);
-    private final ToolRepository toolRepository;
 
     /**
-     * Constructor to initialize ToolRentalService with the given ToolRepository.
+     * Batches up to this size are priced on the calling thread.
+     */
+    static final int BATCH_PARALLEL_THRESHOLD = 256;
+
+    /**
+     * Number of batch requests a fork-join task prices without splitting further.
+     */
+    private static final int BATCH_SLICE_SIZE = 128;
+
+    /**
+     * Largest number of rental lengths or checkout dates a quote matrix covers.
+     */
+    public static final int MAX_QUOTE_MATRIX_SIZE = 366;
+
+    private final StoreShard defaultStore;
+    private final StoreDirectory storeDirectory;
+    private final PricingEngine pricingEngine;
+    private final PromotionEngine promotionEngine;
+    private final QuoteCache quoteCache;
+    private final CheckoutMetrics checkoutMetrics;
+    private final AgreementJournal agreementJournal;
+    private final boolean returnsEnabled;
+    private final ConcurrentMap<String, ConcurrentMap<Long, RentalAgreement>> openRentals = new ConcurrentHashMap<>();
+    private final AtomicLong lastAgreementId = new AtomicLong();
+
+    /**
+     * Constructor to initialize ToolRentalService with its collaborators, the stores it serves, its pricing rules,
+     * its promotions and whether tools can be checked in. Outside the application context, use {@link Builder}.
      *
-     * @param toolRepository the tool repository
+     * @param chargeCalendar   the calendar used to classify rental days in the default store
+     * @param quoteCache       the cache of priced quotes
+     * @param checkoutMetrics  the per-stage checkout timers
+     * @param toolAvailability the booked rental periods per tool of the default store
+     * @param agreementJournal the journal of issued agreements
+     * @param storeDirectory   the stores besides the default store
+     * @param pricingEngine    the tiered, capped and seasonal rates
+     * @param promotionEngine  the active promotions
+     * @param returnsEnabled   whether open rentals are kept for check-in; this needs an enabled journal once the
+     *                         service is started
      */
     @Autowired
-    public ToolRentalService(ToolRepository toolRepository) {
-        this.toolRepository = toolRepository;
+    public ToolRentalService(ChargeCalendar chargeCalendar, QuoteCache quoteCache, CheckoutMetrics checkoutMetrics,
+                             ToolAvailability toolAvailability, AgreementJournal agreementJournal,
+                             StoreDirectory storeDirectory, PricingEngine pricingEngine,
+                             PromotionEngine promotionEngine,
+                             @Value("${toolrental.returns.enabled:false}") boolean returnsEnabled) {
+        this.defaultStore = StoreShard.defaultStore(chargeCalendar, toolAvailability);
+        this.storeDirectory = storeDirectory;
+        this.pricingEngine = pricingEngine;
+        this.promotionEngine = promotionEngine;
+        this.quoteCache = quoteCache;
+        this.checkoutMetrics = checkoutMetrics;
+        this.agreementJournal = agreementJournal;
+        this.returnsEnabled = returnsEnabled;
+    }
+
+    /**
+     * Rebuilds the open rentals of every store from the journal and books their rental periods again.
+     * The journaled checkouts and check-ins are replayed in order first, so only rentals that were never checked in
+     * are booked. Rentals of a store that is no longer configured are dropped. Agreement ids continue after the
+     * last journaled one. Without returns the rentals stay booked but are not kept open.
+     *
+     * @throws IOException           if the journal cannot be read
+     * @throws IllegalStateException if returns are enabled but the journal is not, since open rentals and agreement
+     *                               ids would then be lost on every restart
+     */
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (returnsEnabled && !agreementJournal.isEnabled()) {
+            throw new IllegalStateException("toolrental.returns.enabled=true requires toolrental.journal.enabled=true;"
+                    + " open rentals and agreement ids are only kept across restarts by the journal.");
+        }
+        long replayed = agreementJournal.replay((storeId, agreement) -> {
+            openRentals.computeIfAbsent(storeId, id -> new ConcurrentHashMap<>()).put(agreement.getId(), agreement);
+            lastAgreementId.accumulateAndGet(agreement.getId(), Math::max);
+        }, (storeId, agreementId) -> {
+            Map<Long, RentalAgreement> rentals = openRentals.get(storeId);
+            if (rentals != null) {
+                rentals.remove(agreementId);
+            }
+        });
+        int restored = 0;
+        for (Map.Entry<String, ConcurrentMap<Long, RentalAgreement>> rentals : openRentals.entrySet()) {
+            StoreShard store;
+            try {
+                store = store(rentals.getKey());
+            } catch (StoreNotFoundException e) {
+                logger.warn("Dropping {} journaled rentals of unknown store {}", rentals.getValue().size(),
+                        rentals.getKey());
+                openRentals.remove(rentals.getKey());
+                continue;
+            }
+            for (RentalAgreement agreement : rentals.getValue().values()) {
+                long checkoutDay = agreement.getCheckoutLocalDate().toEpochDay();
+                if (!store.getToolAvailability().book(agreement.getToolCode(), checkoutDay,
+                        agreement.getRentalDays())) {
+                    logger.warn("Journaled rental of tool {} from {} for {} days exceeds its units at {}, not rebooked",
+                            agreement.getToolCode(), agreement.getCheckoutLocalDate(), agreement.getRentalDays(),
+                            store);
+                }
+            }
+            restored += rentals.getValue().size();
+        }
+        if (replayed > 0) {
+            logger.info("Restored {} open rentals from {} journal records", restored, replayed);
+        }
+        if (!returnsEnabled) {
+            openRentals.clear();
+        }
+    }
+
+    /**
+     * Prices a rental without checking the tool out.
+     * The quote applies the same validation and pricing rules as a checkout.
+     *
+     * @param toolCode        the tool code
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the discount percent
+     * @param checkoutDateStr the checkout date as a string
+     * @return the rental agreement the checkout would produce
+     * @throws ParseException if the checkout date string is invalid
+     */
+    public RentalAgreement quoteTool(String toolCode, int rentalDays, int discountPercent, String checkoutDateStr)
+            throws ParseException {
+        return quoteTool(null, toolCode, rentalDays, discountPercent, checkoutDateStr);
+    }
+
+    /**
+     * Prices a rental at a store without checking the tool out.
+     *
+     * @param storeId         the store, or null for the default store
+     * @param toolCode        the tool code
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the discount percent
+     * @param checkoutDateStr the checkout date as a string
+     * @return the rental agreement the checkout would produce
+     * @throws ParseException         if the checkout date string is invalid
+     * @throws StoreNotFoundException if the store does not exist
+     */
+    public RentalAgreement quoteTool(String storeId, String toolCode, int rentalDays, int discountPercent,
+                                     String checkoutDateStr) throws ParseException {
+        return quoteTool(storeId, toolCode, rentalDays, discountPercent, checkoutDateStr, null);
+    }
+
+    /**
+     * Prices a rental at a store, with the promotions of a coupon code, without checking the tool out.
+     *
+     * @param storeId         the store, or null for the default store
+     * @param toolCode        the tool code
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the discount percent
+     * @param checkoutDateStr the checkout date as a string
+     * @param couponCode      the presented coupon code, or null
+     * @return the rental agreement the checkout would produce
+     * @throws ParseException         if the checkout date string is invalid
+     * @throws StoreNotFoundException if the store does not exist
+     */
+    public RentalAgreement quoteTool(String storeId, String toolCode, int rentalDays, int discountPercent,
+                                     String checkoutDateStr, String couponCode) throws ParseException {
+        StoreShard store = store(storeId);
+        logger.debug("Quoting tool with code: {}, rental days: {}, discount percent: {}, checkout date: {} at {}",
+                toolCode, rentalDays, discountPercent, checkoutDateStr, store);
+        return price(store, toolCode, rentalDays, discountPercent, checkoutDateStr, couponCode, false);
     }
 
     /**
      * Checks out a tool and creates a rental agreement.
+     * The rental period is booked before it is priced, so a checkout that overlaps rentals holding every unit of
+     * the tool is rejected without pricing work. The booked periods are the only check of the tool's units: a
+     * checkout holds a unit over its rental period, not from the moment it is made.
      *
      * @param toolCode        the tool code
      * @param rentalDays      the number of rental days
      * @param discountPercent the discount percent
      * @param checkoutDateStr the checkout date as a string
      * @return the rental agreement
-     * @throws ParseException if the checkout date string is invalid
+     * @throws ParseException           if the checkout date string is invalid
+     * @throws BookingConflictException if the rental period is booked out
      */
     public RentalAgreement checkOutTool(String toolCode, int rentalDays, int discountPercent, String checkoutDateStr)
             throws ParseException {
-        logger.info("Checking out tool with code: {}, rental days: {}, discount percent: {}, checkout date: {}",
-                toolCode, rentalDays, discountPercent, checkoutDateStr);
-        // Validate rental days and discount percent
+        return checkOutTool(null, toolCode, rentalDays, discountPercent, checkoutDateStr);
+    }
+
+    /**
+     * Checks out a tool at a store and creates a rental agreement.
+     *
+     * @param storeId         the store, or null for the default store
+     * @param toolCode        the tool code
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the discount percent
+     * @param checkoutDateStr the checkout date as a string
+     * @return the rental agreement
+     * @throws ParseException           if the checkout date string is invalid
+     * @throws StoreNotFoundException   if the store does not exist
+     * @throws BookingConflictException if the rental period is booked out
+     * @see #checkOutTool(String, int, int, String)
+     */
+    public RentalAgreement checkOutTool(String storeId, String toolCode, int rentalDays, int discountPercent,
+                                        String checkoutDateStr) throws ParseException {
+        return checkOutTool(storeId, toolCode, rentalDays, discountPercent, checkoutDateStr, null);
+    }
+
+    /**
+     * Checks out a tool at a store, with the promotions of a coupon code, and creates a rental agreement.
+     *
+     * @param storeId         the store, or null for the default store
+     * @param toolCode        the tool code
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the discount percent
+     * @param checkoutDateStr the checkout date as a string
+     * @param couponCode      the presented coupon code, or null
+     * @return the rental agreement
+     * @throws ParseException           if the checkout date string is invalid
+     * @throws StoreNotFoundException   if the store does not exist
+     * @throws BookingConflictException if the rental period is booked out
+     * @see #checkOutTool(String, int, int, String)
+     */
+    public RentalAgreement checkOutTool(String storeId, String toolCode, int rentalDays, int discountPercent,
+                                        String checkoutDateStr, String couponCode) throws ParseException {
+        StoreShard store = store(storeId);
+        logger.info("Checking out tool with code: {}, rental days: {}, discount percent: {}, checkout date: {} at {}",
+                toolCode, rentalDays, discountPercent, checkoutDateStr, store);
+        RentalAgreement agreement = price(store, toolCode, rentalDays, discountPercent, checkoutDateStr, couponCode,
+                true).withId(nextAgreementId());
+        try {
+            agreementJournal.append(store.getStoreId(), agreement);
+        } catch (RuntimeException e) {
+            logger.error("Could not journal checkout of tool {}, rolling it back", toolCode, e);
+            store.getToolAvailability().cancel(toolCode, agreement.getCheckoutLocalDate().toEpochDay(), rentalDays);
+            throw e;
+        }
+        keepOpen(store, List.of(agreement));
+        return agreement;
+    }
+
+    /**
+     * Checks if a tool can be booked for a rental period.
+     *
+     * @param toolCode        the tool code
+     * @param rentalDays      the number of rental days
+     * @param checkoutDateStr the checkout date as a string
+     * @return true if the rental period is free, false if it is booked out
+     * @throws ParseException if the checkout date string is invalid
+     */
+    public boolean isAvailable(String toolCode, int rentalDays, String checkoutDateStr) throws ParseException {
+        return isAvailable(null, toolCode, rentalDays, checkoutDateStr);
+    }
+
+    /**
+     * Checks if a tool of a store can be booked for a rental period.
+     *
+     * @param storeId         the store, or null for the default store
+     * @param toolCode        the tool code
+     * @param rentalDays      the number of rental days
+     * @param checkoutDateStr the checkout date as a string
+     * @return true if the rental period is free, false if it is booked out
+     * @throws ParseException         if the checkout date string is invalid
+     * @throws StoreNotFoundException if the store does not exist
+     */
+    public boolean isAvailable(String storeId, String toolCode, int rentalDays, String checkoutDateStr)
+            throws ParseException {
         validateRentalDays(rentalDays);
+        StoreShard store = store(storeId);
+        findTool(store, toolCode);
+        return store.getToolAvailability().isFree(toolCode, parseDate(checkoutDateStr), rentalDays);
+    }
+
+    /**
+     * Finds the earliest checkout date on or after the given date for which a tool can be booked.
+     *
+     * @param toolCode    the tool code
+     * @param rentalDays  the number of rental days
+     * @param fromDateStr the earliest checkout date as a string
+     * @return the earliest free checkout date, or null if the tool cannot be booked for that long
+     * @throws ParseException if the date string is invalid
+     */
+    public LocalDate nextAvailableDate(String toolCode, int rentalDays, String fromDateStr) throws ParseException {
+        return nextAvailableDate(null, toolCode, rentalDays, fromDateStr);
+    }
+
+    /**
+     * Finds the earliest checkout date on or after the given date for which a tool of a store can be booked.
+     *
+     * @param storeId     the store, or null for the default store
+     * @param toolCode    the tool code
+     * @param rentalDays  the number of rental days
+     * @param fromDateStr the earliest checkout date as a string
+     * @return the earliest free checkout date, or null if the tool cannot be booked for that long
+     * @throws ParseException         if the date string is invalid
+     * @throws StoreNotFoundException if the store does not exist
+     */
+    public LocalDate nextAvailableDate(String storeId, String toolCode, int rentalDays, String fromDateStr)
+            throws ParseException {
+        validateRentalDays(rentalDays);
+        StoreShard store = store(storeId);
+        findTool(store, toolCode);
+        OptionalLong day = store.getToolAvailability().nextFreeDay(toolCode, parseDate(fromDateStr), rentalDays);
+        return day.isPresent() ? LocalDate.ofEpochDay(day.getAsLong()) : null;
+    }
+
+    /**
+     * Checks in a returned tool and settles its rental.
+     *
+     * @param request the return
+     * @return the settlement
+     * @see #checkInTool(String, ReturnRequest)
+     */
+    public ReturnSettlement checkInTool(ReturnRequest request) {
+        return checkInTool(null, request);
+    }
+
+    /**
+     * Checks in a tool returned to a store and settles its rental.
+     * The rental is looked up among the store's open rentals by its agreement id and charged the agreement's final
+     * charge plus a late fee of the agreement's daily charge for every chargeable day from the due date up to the
+     * return date, classified by the store's calendar and the day classes the agreement charges. The rental is
+     * closed, its check-in journaled and its booking cancelled, which frees its unit for later checkouts.
+     *
+     * @param storeId the store, or null for the default store
+     * @param request the return
+     * @return the settlement
+     * @throws UnsupportedOperationException if returns are not enabled
+     * @throws StoreNotFoundException        if the store does not exist
+     * @throws IllegalArgumentException      if the return is invalid or the store has no open rental with its
+     *                                       agreement id
+     * @throws UncheckedIOException          if the check-in could not be made durable; the rental then stays open
+     */
+    public ReturnSettlement checkInTool(String storeId, ReturnRequest request) {
+        requireReturns();
+        StoreShard store = store(storeId);
+        logger.info("Checking in {} at {}", request, store);
+        RentalAgreement agreement = openRental(store, request);
+        ReturnSettlement settlement = settle(store, request, agreement);
+        long sequence = close(store, agreement);
+        try {
+            agreementJournal.sync(sequence);
+        } catch (UncheckedIOException e) {
+            logger.error("Could not journal check-in of rental agreement {}, reopening it", agreement.getId(), e);
+            openRentals(store).put(agreement.getId(), agreement);
+            throw e;
+        }
+        cancelBooking(store, agreement);
+        return settlement;
+    }
+
+    /**
+     * Checks in a bulk of returned tools on the common fork-join pool.
+     *
+     * @param requests the returns
+     * @return one result per return, in input order
+     * @see #checkInTools(String, List, ForkJoinPool)
+     */
+    public List<ReturnResult> checkInTools(List<ReturnRequest> requests) {
+        return checkInTools(null, requests, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Checks in a bulk of tools returned to a store on the common fork-join pool.
+     *
+     * @param storeId  the store, or null for the default store
+     * @param requests the returns
+     * @return one result per return, in input order
+     * @throws StoreNotFoundException if the store does not exist
+     * @see #checkInTools(String, List, ForkJoinPool)
+     */
+    public List<ReturnResult> checkInTools(String storeId, List<ReturnRequest> requests) {
+        return checkInTools(storeId, requests, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Checks in a bulk of tools returned to a store, such as a day's returns, and settles each like
+     * {@link #checkInTool(String, ReturnRequest)}. Bulks larger than {@value #BATCH_PARALLEL_THRESHOLD} returns
+     * are settled in parallel on the given pool. Late days are counted arithmetically by the calendar, so a
+     * settlement costs about the same however late the tool is. A return that fails validation yields a failed
+     * result instead of aborting the bulk. The check-ins of the bulk are journaled together and the bookings are
+     * cancelled once all of them are durable.
+     *
+     * @param storeId  the store, or null for the default store
+     * @param requests the returns
+     * @param pool     the pool used to settle large bulks
+     * @return one result per return, in input order
+     * @throws UnsupportedOperationException if returns are not enabled
+     * @throws StoreNotFoundException        if the store does not exist
+     * @throws UncheckedIOException          if the check-ins could not be made durable; the rentals then stay open
+     */
+    public List<ReturnResult> checkInTools(String storeId, List<ReturnRequest> requests, ForkJoinPool pool) {
+        requireReturns();
+        StoreShard store = store(storeId);
+        logger.info("Checking in {} returned tools at {}", requests.size(), store);
+        ReturnRequest[] returns = requests.toArray(new ReturnRequest[0]);
+        ReturnResult[] results = new ReturnResult[returns.length];
+        RentalAgreement[] closed = new RentalAgreement[returns.length];
+        CheckInTask task = new CheckInTask(store, returns, results, closed, 0, returns.length);
+        if (returns.length > BATCH_PARALLEL_THRESHOLD) {
+            pool.invoke(task);
+        } else {
+            task.compute();
+        }
+
+        try {
+            agreementJournal.syncAll();
+        } catch (UncheckedIOException e) {
+            logger.error("Could not journal bulk check-in, reopening its rentals", e);
+            for (RentalAgreement agreement : closed) {
+                if (agreement != null) {
+                    openRentals(store).put(agreement.getId(), agreement);
+                }
+            }
+            throw e;
+        }
+        for (RentalAgreement agreement : closed) {
+            if (agreement != null) {
+                cancelBooking(store, agreement);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Settles a return against the agreement of its open rental.
+     *
+     * @param store     the store whose holidays apply
+     * @param request   the return
+     * @param agreement the agreement of the open rental
+     * @return the settlement
+     * @throws IllegalArgumentException if the return is invalid
+     */
+    private ReturnSettlement settle(StoreShard store, ReturnRequest request, RentalAgreement agreement) {
+        validateReturn(request, agreement);
+        long checkoutDay = agreement.getCheckoutLocalDate().toEpochDay();
+        long dueDay = calculateDueDate(checkoutDay, agreement.getRentalDays());
+        long returnDay = request.getReturnDate().toEpochDay();
+        int lateChargeDays = returnDay <= dueDay ? 0 : store.getChargeCalendar()
+                .countDays(dueDay, Math.toIntExact(returnDay - dueDay), agreement.getChargeMask());
+        ReturnSettlement settlement = new ReturnSettlement(agreement, request.getReturnDate(), lateChargeDays);
+        logger.debug("Return settled with {} chargeable late days: {} cents", lateChargeDays,
+                settlement.getTotalChargeCents());
+        return settlement;
+    }
+
+    /**
+     * Closes an open rental of a store and queues its check-in in the journal.
+     *
+     * @param store     the store
+     * @param agreement the agreement of the open rental
+     * @return the sequence number of the check-in record
+     * @throws IllegalArgumentException if a concurrent return has closed the rental since it was looked up
+     * @throws UncheckedIOException     if the journal has failed; the rental then stays open
+     * @throws IllegalStateException    if the journal is not open; the rental then stays open
+     */
+    private long close(StoreShard store, RentalAgreement agreement) {
+        Map<Long, RentalAgreement> rentals = openRentals(store);
+        if (!rentals.remove(agreement.getId(), agreement)) {
+            throw new IllegalArgumentException("No open rental with agreement id " + agreement.getId() + ".");
+        }
+        try {
+            return agreementJournal.writeCheckIn(store.getStoreId(), agreement.getId());
+        } catch (UncheckedIOException | IllegalStateException e) {
+            rentals.put(agreement.getId(), agreement);
+            throw e;
+        }
+    }
+
+    /**
+     * Cancels the booking of a closed rental.
+     *
+     * @param store     the store
+     * @param agreement the agreement of the rental
+     */
+    private void cancelBooking(StoreShard store, RentalAgreement agreement) {
+        try {
+            store.getToolAvailability().cancel(agreement.getToolCode(),
+                    agreement.getCheckoutLocalDate().toEpochDay(), agreement.getRentalDays());
+        } catch (IllegalStateException e) {
+            // Booked while the tool was not tracked, so its rental holds no unit
+            logger.warn("Rental agreement {} of tool {} had no booking to cancel", agreement.getId(),
+                    agreement.getToolCode());
+        }
+    }
+
+    /**
+     * Rejects check-ins when returns are not enabled, since no open rentals are kept to settle them against.
+     *
+     * @throws UnsupportedOperationException if returns are not enabled
+     */
+    private void requireReturns() {
+        if (!returnsEnabled) {
+            throw new UnsupportedOperationException("Returns are not enabled.");
+        }
+    }
+
+    /**
+     * Looks up the open rental of a return among those of a store.
+     *
+     * @param store   the store the tool is returned to
+     * @param request the return
+     * @return the rental agreement
+     * @throws IllegalArgumentException if the store has no open rental with the agreement id of the return
+     */
+    private RentalAgreement openRental(StoreShard store, ReturnRequest request) {
+        RentalAgreement agreement = openRentals(store).get(request.getAgreementId());
+        if (agreement == null) {
+            throw new IllegalArgumentException("No open rental with agreement id " + request.getAgreementId() + ".");
+        }
+        return agreement;
+    }
+
+    /**
+     * Settles and closes a single return of a bulk. Its booking is cancelled by the caller once its check-in is
+     * durable.
+     *
+     * @param store   the store
+     * @param request the return
+     * @param closed  the closed rentals of the bulk, by return
+     * @param index   the index of the return
+     * @return the result of the return
+     */
+    private ReturnResult checkInBulkItem(StoreShard store, ReturnRequest request, RentalAgreement[] closed,
+                                         int index) {
+        try {
+            RentalAgreement agreement = openRental(store, request);
+            ReturnSettlement settlement = settle(store, request, agreement);
+            try {
+                close(store, agreement);
+            } catch (UncheckedIOException | IllegalStateException e) {
+                logger.error("Could not journal check-in of {}", request, e);
+                return ReturnResult.failure(request, e.getMessage());
+            }
+            closed[index] = agreement;
+            return ReturnResult.success(request, settlement);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            logger.debug("Check-in rejected for {}: {}", request, e.getMessage());
+            return ReturnResult.failure(request, e.getMessage());
+        }
+    }
+
+    /**
+     * Fork-join task checking in a contiguous slice of a bulk of returns.
+     * Each result is written to the slot of its return, which keeps the output in input order.
+     */
+    private final class CheckInTask extends RecursiveAction {
+        private final StoreShard store;
+        private final ReturnRequest[] returns;
+        private final ReturnResult[] results;
+        private final RentalAgreement[] closed;
+        private final int from;
+        private final int to;
+
+        private CheckInTask(StoreShard store, ReturnRequest[] returns, ReturnResult[] results,
+                            RentalAgreement[] closed, int from, int to) {
+            this.store = store;
+            this.returns = returns;
+            this.results = results;
+            this.closed = closed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SLICE_SIZE) {
+                for (int i = from; i < to; i++) {
+                    results[i] = checkInBulkItem(store, returns[i], closed, i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new CheckInTask(store, returns, results, closed, from, middle),
+                    new CheckInTask(store, returns, results, closed, middle, to));
+        }
+    }
+
+    /**
+     * Resolves the shard of a store.
+     *
+     * @param storeId the store, or null or empty for the default store
+     * @return the store's shard
+     * @throws StoreNotFoundException if the store does not exist
+     */
+    private StoreShard store(String storeId) {
+        if (storeId == null || storeId.isEmpty()) {
+            return defaultStore;
+        }
+        return storeDirectory.shard(storeId);
+    }
+
+    /**
+     * Keeps newly issued agreements of a store as open rentals until they are checked in, if returns are enabled.
+     *
+     * @param store      the store
+     * @param agreements the issued agreements
+     */
+    private void keepOpen(StoreShard store, List<RentalAgreement> agreements) {
+        if (!returnsEnabled) {
+            return;
+        }
+        Map<Long, RentalAgreement> rentals = openRentals(store);
+        for (RentalAgreement agreement : agreements) {
+            rentals.put(agreement.getId(), agreement);
+        }
+    }
+
+    /**
+     * Returns the open rentals of a store.
+     *
+     * @param store the store
+     * @return the store's open rentals by agreement id
+     */
+    private ConcurrentMap<Long, RentalAgreement> openRentals(StoreShard store) {
+        return openRentals.computeIfAbsent(store.getStoreId(), storeId -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * @return a new agreement id, never 0.
+     */
+    private long nextAgreementId() {
+        return lastAgreementId.incrementAndGet();
+    }
+
+    /**
+     * Books a rental period of a tool of a store.
+     *
+     * @param store       the store
+     * @param toolCode    the tool code
+     * @param checkoutDay the checkout date as an epoch day
+     * @param rentalDays  the number of rental days
+     * @throws BookingConflictException if the rental period is booked out
+     */
+    private void book(StoreShard store, String toolCode, long checkoutDay, int rentalDays) {
+        if (!store.getToolAvailability().book(toolCode, checkoutDay, rentalDays)) {
+            logger.warn("Tool with code {} is booked out for {} days from epoch day {} at {}.", toolCode, rentalDays,
+                    checkoutDay, store);
+            throw new BookingConflictException(toolCode, LocalDate.ofEpochDay(checkoutDay), rentalDays);
+        }
+    }
+
+    /**
+     * Validates and prices a single checkout, timing each stage. Matching promotions are applied on top of the
+     * caller's discount.
+     *
+     * @param store           the store
+     * @param toolCode        the tool code
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the caller's discount percent
+     * @param checkoutDateStr the checkout date as a string
+     * @param couponCode      the presented coupon code, or null
+     * @param book            whether to book the rental period before pricing it
+     * @return the rental agreement
+     * @throws ParseException           if the checkout date string is invalid
+     * @throws BookingConflictException if the rental period is booked out
+     */
+    private RentalAgreement price(StoreShard store, String toolCode, int rentalDays, int discountPercent,
+                                  String checkoutDateStr, String couponCode, boolean book) throws ParseException {
+        long start = checkoutMetrics.now();
+        long stageStart = start;
+        int stage = CheckoutMetrics.VALIDATE;
+        String toolType = null;
+        long bookedDay = 0;
+        boolean booked = false;
+        try {
+            // Validate rental days and discount percent
+            validateRentalDays(rentalDays);
+            validateDiscountPercent(discountPercent);
+            long validated = checkoutMetrics.now();
+
+            // Get tool information from repository
+            stage = CheckoutMetrics.LOOKUP;
+            stageStart = validated;
+            Tool tool = findTool(store, toolCode);
+            toolType = tool.getToolType();
+            long lookedUp = checkoutMetrics.now();
+            checkoutMetrics.record(toolType, CheckoutMetrics.VALIDATE, true, validated - start);
+            checkoutMetrics.record(toolType, CheckoutMetrics.LOOKUP, true, lookedUp - validated);
+
+            // Parse checkout date
+            stage = CheckoutMetrics.PARSE;
+            stageStart = lookedUp;
+            long checkoutDay = parseDate(checkoutDateStr);
+            long parsed = checkoutMetrics.now();
+            checkoutMetrics.record(toolType, CheckoutMetrics.PARSE, true, parsed - lookedUp);
+            logger.debug("Parsed checkout date: epoch day {}", checkoutDay);
+
+            stage = CheckoutMetrics.TOTAL;
+            if (book) {
+                book(store, toolCode, checkoutDay, rentalDays);
+                bookedDay = checkoutDay;
+                booked = true;
+            }
+            int appliedDiscount = promotionEngine.discountPercent(tool, checkoutDay, couponCode, discountPercent);
+            RentalAgreement agreement = priceAgreement(store, toolCode, tool, checkoutDay, rentalDays,
+                    appliedDiscount);
+            checkoutMetrics.record(toolType, CheckoutMetrics.TOTAL, true, checkoutMetrics.now() - start);
+            return agreement;
+        } catch (RuntimeException | ParseException e) {
+            // Any failure after booking, expected or not, must give the rental period back
+            if (booked) {
+                store.getToolAvailability().cancel(toolCode, bookedDay, rentalDays);
+            }
+            long failed = checkoutMetrics.now();
+            if (stage != CheckoutMetrics.TOTAL) {
+                checkoutMetrics.record(toolType, stage, false, failed - stageStart);
+            }
+            checkoutMetrics.record(toolType, CheckoutMetrics.TOTAL, false, failed - start);
+            throw e;
+        }
+    }
+
+    /**
+     * Checks out a batch of tools on the common fork-join pool.
+     *
+     * @param requests the checkout requests
+     * @return one result per request, in input order
+     * @see #checkOutTools(List, ForkJoinPool)
+     */
+    public List<CheckoutResult> checkOutTools(List<CheckoutRequest> requests) {
+        return checkOutTools(requests, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Checks out a batch of tools and returns one result per request, in input order.
+     * Each distinct checkout date is parsed once and all tools are fetched in a single catalog lookup;
+     * batches larger than {@value #BATCH_PARALLEL_THRESHOLD} requests are priced in parallel on the given pool.
+     * A request that fails validation yields a failed result instead of aborting the batch.
+     * The agreements of the batch are journaled together and the call returns once all of them are durable.
+     *
+     * @param requests the checkout requests
+     * @param pool     the pool used to price large batches
+     * @return one result per request, in input order
+     * @throws UncheckedIOException if the agreements could not be made durable; the batch is then rolled back
+     */
+    public List<CheckoutResult> checkOutTools(List<CheckoutRequest> requests, ForkJoinPool pool) {
+        return checkOutTools(null, requests, pool);
+    }
+
+    /**
+     * Checks out a batch of tools at a store and returns one result per request, in input order.
+     *
+     * @param storeId  the store, or null for the default store
+     * @param requests the checkout requests
+     * @return one result per request, in input order
+     * @throws StoreNotFoundException if the store does not exist
+     * @throws UncheckedIOException   if the agreements could not be made durable; the batch is then rolled back
+     * @see #checkOutTools(List)
+     */
+    public List<CheckoutResult> checkOutTools(String storeId, List<CheckoutRequest> requests) {
+        return checkOutTools(storeId, requests, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Checks out a batch of tools at a store and returns one result per request, in input order.
+     *
+     * @param storeId  the store, or null for the default store
+     * @param requests the checkout requests
+     * @param pool     the pool used to price large batches
+     * @return one result per request, in input order
+     * @throws StoreNotFoundException if the store does not exist
+     * @throws UncheckedIOException   if the agreements could not be made durable; the batch is then rolled back
+     * @see #checkOutTools(List, ForkJoinPool)
+     */
+    public List<CheckoutResult> checkOutTools(String storeId, List<CheckoutRequest> requests, ForkJoinPool pool) {
+        StoreShard store = store(storeId);
+        logger.info("Checking out batch of {} tools at {}", requests.size(), store);
+        CheckoutResult[] results = processBatch(store, requests, pool, true);
+
+        try {
+            agreementJournal.syncAll();
+        } catch (UncheckedIOException e) {
+            logger.error("Could not journal batch checkout, rolling it back", e);
+            for (CheckoutResult result : results) {
+                if (result.isSuccess()) {
+                    RentalAgreement agreement = result.getAgreement();
+                    store.getToolAvailability().cancel(agreement.getToolCode(),
+                            agreement.getCheckoutLocalDate().toEpochDay(), agreement.getRentalDays());
+                }
+            }
+            throw e;
+        }
+        List<RentalAgreement> agreements = new ArrayList<>(results.length);
+        for (CheckoutResult result : results) {
+            if (result.isSuccess()) {
+                agreements.add(result.getAgreement());
+            }
+        }
+        keepOpen(store, agreements);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Prices a batch of rentals without checking the tools out, on the common fork-join pool.
+     *
+     * @param requests the requests to price
+     * @return one result per request, in input order
+     * @see #quoteTools(List, ForkJoinPool)
+     */
+    public List<CheckoutResult> quoteTools(List<CheckoutRequest> requests) {
+        return quoteTools(requests, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Prices a batch of rentals without checking the tools out and returns one result per request, in input order.
+     * The batch is resolved and priced like {@link #checkOutTools(List, ForkJoinPool)}, with the same rules as
+     * {@link #quoteTool}, but nothing is booked or journaled.
+     *
+     * @param requests the requests to price
+     * @param pool     the pool used to price large batches
+     * @return one result per request, in input order
+     */
+    public List<CheckoutResult> quoteTools(List<CheckoutRequest> requests, ForkJoinPool pool) {
+        return quoteTools(null, requests, pool);
+    }
+
+    /**
+     * Prices a batch of rentals at a store without checking the tools out.
+     *
+     * @param storeId  the store, or null for the default store
+     * @param requests the requests to price
+     * @param pool     the pool used to price large batches
+     * @return one result per request, in input order
+     * @throws StoreNotFoundException if the store does not exist
+     * @see #quoteTools(List, ForkJoinPool)
+     */
+    public List<CheckoutResult> quoteTools(String storeId, List<CheckoutRequest> requests, ForkJoinPool pool) {
+        StoreShard store = store(storeId);
+        logger.debug("Quoting batch of {} tools at {}", requests.size(), store);
+        return Arrays.asList(processBatch(store, requests, pool, false));
+    }
+
+    /**
+     * Prices a cart of tools without checking them out.
+     *
+     * @param request the cart to price
+     * @return the cart agreement the checkout would produce
+     * @throws ParseException if the checkout date string is invalid
+     * @see #checkOutCart(CartRequest)
+     */
+    public CartAgreement quoteCart(CartRequest request) throws ParseException {
+        return quoteCart(null, request);
+    }
+
+    /**
+     * Prices a cart of tools at a store without checking them out.
+     *
+     * @param storeId the store, or null for the default store
+     * @param request the cart to price
+     * @return the cart agreement the checkout would produce
+     * @throws ParseException         if the checkout date string is invalid
+     * @throws StoreNotFoundException if the store does not exist
+     */
+    public CartAgreement quoteCart(String storeId, CartRequest request) throws ParseException {
+        StoreShard store = store(storeId);
+        logger.debug("Quoting {} at {}", request, store);
+        return priceCart(store, request, false);
+    }
+
+    /**
+     * Checks out a cart of tools over a shared rental period and creates one agreement with a line item per tool.
+     * The checkout date is parsed once and the days of the period are classified once for every line. The cart
+     * is checked out as a whole: if the rental period of any tool is booked out, or the lines cannot be made
+     * durable, nothing of the cart stays booked. The lines are journaled as one record, so a restart restores all
+     * of them or none.
+     *
+     * @param request the cart
+     * @return the cart agreement
+     * @throws ParseException           if the checkout date string is invalid
+     * @throws BookingConflictException if the rental period of a tool is booked out
+     * @throws UncheckedIOException     if the agreement could not be made durable
+     */
+    public CartAgreement checkOutCart(CartRequest request) throws ParseException {
+        return checkOutCart(null, request);
+    }
+
+    /**
+     * Checks out a cart of tools at a store and creates one agreement with a line item per tool.
+     *
+     * @param storeId the store, or null for the default store
+     * @param request the cart
+     * @return the cart agreement
+     * @throws ParseException           if the checkout date string is invalid
+     * @throws StoreNotFoundException   if the store does not exist
+     * @throws BookingConflictException if the rental period of a tool is booked out
+     * @throws UncheckedIOException     if the agreement could not be made durable
+     * @see #checkOutCart(CartRequest)
+     */
+    public CartAgreement checkOutCart(String storeId, CartRequest request) throws ParseException {
+        StoreShard store = store(storeId);
+        logger.info("Checking out {} at {}", request, store);
+        CartAgreement cart = priceCart(store, request, true);
+        try {
+            agreementJournal.append(store.getStoreId(), cart.getLines());
+        } catch (RuntimeException e) {
+            logger.error("Could not journal cart checkout, rolling it back", e);
+            releaseCart(store, request.getToolCodes(), cart.getLines().size(), cart.getCheckoutLocalDate().toEpochDay(),
+                    cart.getRentalDays());
+            throw e;
+        }
+        keepOpen(store, cart.getLines());
+        return cart;
+    }
+
+    /**
+     * Validates and prices a cart, and optionally books every tool of it and issues its lines.
+     * Every line is priced before the first tool is booked, so an invalid cart books nothing.
+     *
+     * @param store    the store
+     * @param request  the cart
+     * @param checkOut whether to book each tool of the cart and issue each line under an agreement id
+     * @return the cart agreement
+     * @throws ParseException           if the checkout date string is invalid
+     * @throws BookingConflictException if the rental period of a tool is booked out
+     */
+    private CartAgreement priceCart(StoreShard store, CartRequest request, boolean checkOut)
+            throws ParseException {
+        int rentalDays = request.getRentalDays();
+        validateRentalDays(rentalDays);
+        validateDiscountPercent(request.getDiscountPercent());
+        List<String> toolCodes = request.getToolCodes();
+        if (toolCodes.isEmpty()) {
+            throw new IllegalArgumentException("Cart must contain at least one tool.");
+        }
+        Map<String, Tool> tools = store.findAllByCodes(new HashSet<>(toolCodes));
+        long checkoutDay = parseDate(request.getCheckoutDate());
+
+        // Classify the days of the shared period once for every line
+        DayCounts dayCounts = store.getChargeCalendar().countDays(checkoutDay, rentalDays);
+        logger.debug("Cart period from epoch day {} classified: {}", checkoutDay, dayCounts);
+
+        List<RentalAgreement> lines = new ArrayList<>(toolCodes.size());
+        for (String toolCode : toolCodes) {
+            Tool tool = tools.get(toolCode);
+            if (tool == null) {
+                logger.error("Tool with code {} does not exist.", toolCode);
+                throw new ToolNotFoundException(toolCode);
+            }
+            int discountPercent = promotionEngine.discountPercent(tool, checkoutDay, request.getCouponCode(),
+                    request.getDiscountPercent());
+            RentalAgreement line = createAgreement(store, toolCode, tool, checkoutDay, rentalDays, discountPercent,
+                    dayCounts.chargeableDays(tool));
+            lines.add(checkOut ? line.withId(nextAgreementId()) : line);
+        }
+
+        if (checkOut) {
+            int booked = 0;
+            try {
+                for (String toolCode : toolCodes) {
+                    book(store, toolCode, checkoutDay, rentalDays);
+                    booked++;
+                }
+            } catch (RuntimeException e) {
+                releaseCart(store, toolCodes, booked, checkoutDay, rentalDays);
+                throw e;
+            }
+        }
+        return new CartAgreement(lines);
+    }
+
+    /**
+     * Cancels the bookings of the first tools of a cart.
+     *
+     * @param store       the store
+     * @param toolCodes   the tool codes of the cart
+     * @param count       the number of leading tools to cancel
+     * @param checkoutDay the checkout date as an epoch day
+     * @param rentalDays  the number of rental days
+     */
+    private void releaseCart(StoreShard store, List<String> toolCodes, int count, long checkoutDay, int rentalDays) {
+        for (int i = 0; i < count; i++) {
+            store.getToolAvailability().cancel(toolCodes.get(i), checkoutDay, rentalDays);
+        }
+    }
+
+    /**
+     * Prices a tool for every rental length from one day up to a maximum, all from one checkout date.
+     * Each cell equals the quote of its rental length, but the chargeable days of the lengths are counted as one
+     * running total over the days of the longest period, so the whole matrix costs one pass over those days.
+     *
+     * @param storeId         the store, or null for the default store
+     * @param toolCode        the tool code
+     * @param maxRentalDays   the longest rental length, at most {@value #MAX_QUOTE_MATRIX_SIZE}
+     * @param discountPercent the discount percent
+     * @param checkoutDateStr the checkout date as a string
+     * @param couponCode      the presented coupon code, or null
+     * @return one cell per rental length, in increasing order
+     * @throws ParseException         if the checkout date string is invalid
+     * @throws StoreNotFoundException if the store does not exist
+     */
+    public QuoteMatrix quoteRentalLengths(String storeId, String toolCode, int maxRentalDays, int discountPercent,
+                                          String checkoutDateStr, String couponCode) throws ParseException {
+        StoreShard store = store(storeId);
+        logger.debug("Quoting tool {} for 1 to {} days from {} at {}", toolCode, maxRentalDays, checkoutDateStr,
+                store);
+        validateRentalDays(maxRentalDays);
+        validateQuoteMatrixSize(maxRentalDays);
         validateDiscountPercent(discountPercent);
+        Tool tool = findTool(store, toolCode);
+        long checkoutDay = parseDate(checkoutDateStr);
+        int appliedDiscount = promotionEngine.discountPercent(tool, checkoutDay, couponCode, discountPercent);
+
+        ChargeCalendar chargeCalendar = store.getChargeCalendar();
+        int chargeMask = ChargeCalendar.chargeMask(tool);
+        QuoteMatrix matrix = new QuoteMatrix(tool, maxRentalDays);
+        int chargeableDays = 0;
+        for (int rentalDays = 1; rentalDays <= maxRentalDays; rentalDays++) {
+            // The period of this length adds its last day to the period of the previous length
+            chargeableDays += isCharged(chargeCalendar, chargeMask, checkoutDay + rentalDays - 1);
+            priceCell(store, matrix, rentalDays - 1, tool, checkoutDay, rentalDays, chargeableDays, appliedDiscount);
+        }
+        return matrix;
+    }
+
+    /**
+     * Prices a tool for one rental length from each of a range of consecutive checkout dates, such as the days of
+     * a month. Each cell equals the quote of its checkout date, but the chargeable days are counted once for the
+     * first period and then slid forward a day at a time, so the whole matrix costs one pass over the dates and
+     * the rental length.
+     *
+     * @param storeId         the store, or null for the default store
+     * @param toolCode        the tool code
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the discount percent
+     * @param fromDateStr     the first checkout date as a string
+     * @param dates           the number of checkout dates, at most {@value #MAX_QUOTE_MATRIX_SIZE}
+     * @param couponCode      the presented coupon code, or null
+     * @return one cell per checkout date, in increasing order
+     * @throws ParseException         if the date string is invalid
+     * @throws StoreNotFoundException if the store does not exist
+     */
+    public QuoteMatrix quoteCheckoutDates(String storeId, String toolCode, int rentalDays, int discountPercent,
+                                          String fromDateStr, int dates, String couponCode) throws ParseException {
+        StoreShard store = store(storeId);
+        logger.debug("Quoting tool {} for {} days from {} consecutive dates from {} at {}", toolCode, rentalDays,
+                dates, fromDateStr, store);
+        validateRentalDays(rentalDays);
+        if (dates < 1) {
+            throw new IllegalArgumentException("Number of checkout dates must be 1 or greater.");
+        }
+        validateQuoteMatrixSize(dates);
+        validateDiscountPercent(discountPercent);
+        Tool tool = findTool(store, toolCode);
+        long fromDay = parseDate(fromDateStr);
+
+        ChargeCalendar chargeCalendar = store.getChargeCalendar();
+        int chargeMask = ChargeCalendar.chargeMask(tool);
+        QuoteMatrix matrix = new QuoteMatrix(tool, dates);
+        int chargeableDays = chargeCalendar.countDays(fromDay, rentalDays, chargeMask);
+        for (int i = 0; i < dates; i++) {
+            long checkoutDay = fromDay + i;
+            if (i > 0) {
+                // The period loses the previous checkout day and gains its new last day
+                chargeableDays += isCharged(chargeCalendar, chargeMask, checkoutDay + rentalDays - 1)
+                        - isCharged(chargeCalendar, chargeMask, checkoutDay - 1);
+            }
+            int appliedDiscount = promotionEngine.discountPercent(tool, checkoutDay, couponCode, discountPercent);
+            priceCell(store, matrix, i, tool, checkoutDay, rentalDays, chargeableDays, appliedDiscount);
+        }
+        return matrix;
+    }
+
+    /**
+     * Tells whether a tool is charged for a day.
+     *
+     * @param chargeCalendar the store's charge calendar
+     * @param chargeMask     the tool's charge mask, as built by {@link ChargeCalendar#chargeMask}
+     * @param epochDay       the day
+     * @return 1 if the day is chargeable, 0 otherwise
+     */
+    private static int isCharged(ChargeCalendar chargeCalendar, int chargeMask, long epochDay) {
+        return chargeMask >>> chargeCalendar.dayClass(epochDay) & 1;
+    }
+
+    /**
+     * Prices one cell of a quote matrix with the same charge math as a checkout.
+     *
+     * @param store           the store
+     * @param matrix          the matrix
+     * @param cell            the cell index
+     * @param tool            the tool being rented
+     * @param checkoutDay     the checkout date as an epoch day
+     * @param rentalDays      the number of rental days
+     * @param chargeableDays  the number of chargeable days
+     * @param discountPercent the applied discount percent
+     */
+    private void priceCell(StoreShard store, QuoteMatrix matrix, int cell, Tool tool, long checkoutDay,
+                           int rentalDays, int chargeableDays, int discountPercent) {
+        long preDiscountCharge = preDiscountCharge(store, tool, checkoutDay, chargeableDays);
+        long discountAmount = calculateDiscountAmount(preDiscountCharge, discountPercent);
+        matrix.set(cell, checkoutDay, rentalDays, chargeableDays, preDiscountCharge, discountPercent,
+                discountAmount, calculateFinalCharge(preDiscountCharge, discountAmount));
+    }
+
+    /**
+     * Prices, and optionally checks out, a batch of requests.
+     * Each distinct checkout date is parsed once and all tools are fetched in a single catalog lookup.
+     *
+     * @param store    the store
+     * @param requests the requests
+     * @param pool     the pool used to price large batches
+     * @param checkOut whether to book and journal each priced request
+     * @return one result per request, in input order
+     */
+    private CheckoutResult[] processBatch(StoreShard store, List<CheckoutRequest> requests, ForkJoinPool pool,
+                                          boolean checkOut) {
+        CheckoutRequest[] batch = requests.toArray(new CheckoutRequest[0]);
+
+        // Resolve the batch's tools in one catalog lookup and each distinct checkout date once
+        Set<String> toolCodes = new HashSet<>();
+        Map<String, Object> checkoutDates = new HashMap<>();
+        for (CheckoutRequest request : batch) {
+            if (request.getToolCode() != null) {
+                toolCodes.add(request.getToolCode());
+            }
+            checkoutDates.computeIfAbsent(request.getCheckoutDate(), this::parseDateOrError);
+        }
+        Map<String, Tool> tools = store.findAllByCodes(toolCodes);
 
-        // Get tool information from repository
-        Tool tool = toolRepository.findByCode(toolCode);
+        CheckoutResult[] results = new CheckoutResult[batch.length];
+        BatchCheckoutTask task = new BatchCheckoutTask(store, batch, tools, checkoutDates, checkOut, results, 0,
+                batch.length);
+        if (batch.length > BATCH_PARALLEL_THRESHOLD) {
+            pool.invoke(task);
+        } else {
+            task.compute();
+        }
+        return results;
+    }
+
+    /**
+     * Looks up a tool of a store by its code.
+     *
+     * @param store    the store
+     * @param toolCode the tool code
+     * @return the tool
+     * @throws ToolNotFoundException if the store has no tool with the given code
+     */
+    private Tool findTool(StoreShard store, String toolCode) {
+        Tool tool = store.findByCode(toolCode);
         logger.debug("Tool retrieved: {}", tool);
 
         // Check if tool exists
         if (tool == null) {
             logger.error("Tool with code {} does not exist.", toolCode);
-            throw new IllegalArgumentException("Tool with code " + toolCode + " does not exist.");
+            throw new ToolNotFoundException(toolCode);
         }
+        return tool;
+    }
 
-        // Parse checkout date
-        Date checkoutDate = parseDate(checkoutDateStr);
-        logger.debug("Parsed checkout date: {}", checkoutDate);
+    /**
+     * Returns the rental agreement for a validated checkout, from the quote cache when possible.
+     *
+     * @param store           the store
+     * @param toolCode        the tool code
+     * @param tool            the tool being rented
+     * @param checkoutDay     the checkout date as an epoch day
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the discount percent
+     * @return the rental agreement
+     */
+    private RentalAgreement priceAgreement(StoreShard store, String toolCode, Tool tool, long checkoutDay,
+                                           int rentalDays, int discountPercent) {
+        if (!quoteCache.isEnabled()) {
+            return createAgreement(store, toolCode, tool, checkoutDay, rentalDays, discountPercent);
+        }
+        QuoteKey key = new QuoteKey(store.getStoreId(), toolCode, checkoutDay, rentalDays, discountPercent);
+        RentalAgreement agreement = quoteCache.get(key, tool);
+        if (agreement == null) {
+            agreement = createAgreement(store, toolCode, tool, checkoutDay, rentalDays, discountPercent);
+            quoteCache.put(key, tool, agreement);
+        } else {
+            logger.debug("Quote cache hit for {}", key);
+        }
+        return agreement;
+    }
+
+    /**
+     * Prices a validated checkout and creates its rental agreement.
+     *
+     * @param store           the store whose holidays apply
+     * @param toolCode        the tool code
+     * @param tool            the tool being rented
+     * @param checkoutDay     the checkout date as an epoch day
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the discount percent
+     * @return the rental agreement
+     */
+    private RentalAgreement createAgreement(StoreShard store, String toolCode, Tool tool, long checkoutDay,
+                                            int rentalDays, int discountPercent) {
+        long start = checkoutMetrics.now();
 
         // Calculate chargeable days
-        int chargeableDays = calculateChargeableDays(checkoutDate, rentalDays);
+        int chargeableDays = calculateChargeableDays(store.getChargeCalendar(), tool, checkoutDay, rentalDays);
         logger.debug("Chargeable days calculated: {}", chargeableDays);
+        if (checkoutMetrics.isEnabled()) {
+            checkoutMetrics.record(tool.getToolType(), CheckoutMetrics.CHARGEABLE_DAYS, true,
+                    checkoutMetrics.now() - start);
+        }
+        return createAgreement(store, toolCode, tool, checkoutDay, rentalDays, discountPercent, chargeableDays);
+    }
+
+    /**
+     * Prices a validated checkout whose chargeable days are known and creates its rental agreement.
+     *
+     * @param store           the store
+     * @param toolCode        the tool code
+     * @param tool            the tool being rented
+     * @param checkoutDay     the checkout date as an epoch day
+     * @param rentalDays      the number of rental days
+     * @param discountPercent the discount percent
+     * @param chargeableDays  the number of chargeable days
+     * @return the rental agreement
+     */
+    private RentalAgreement createAgreement(StoreShard store, String toolCode, Tool tool, long checkoutDay,
+                                            int rentalDays, int discountPercent, int chargeableDays) {
+        long counted = checkoutMetrics.now();
 
         // Calculate due date
-        Date dueDate = calculateDueDate(checkoutDate, rentalDays);
-        logger.debug("Due date calculated: {}", dueDate);
+        long dueDay = calculateDueDate(checkoutDay, rentalDays);
+        logger.debug("Due date calculated: epoch day {}", dueDay);
 
         // Calculate pre-discount charge
-        BigDecimal dailyCharge = BigDecimal.valueOf(tool.getDailyCharge());
-        BigDecimal preDiscountCharge = calculatePreDiscountCharge(dailyCharge, chargeableDays);
-        logger.debug("Pre-discount charge calculated: {}", preDiscountCharge);
+        long dailyCharge = tool.getDailyChargeCents();
+        long preDiscountCharge = preDiscountCharge(store, tool, checkoutDay, chargeableDays);
+        logger.debug("Pre-discount charge calculated: {} cents", preDiscountCharge);
 
         // Calculate discount amount
-        BigDecimal discountAmount = calculateDiscountAmount(preDiscountCharge, discountPercent);
-        logger.debug("Discount amount calculated: {}", discountAmount);
+        long discountAmount = calculateDiscountAmount(preDiscountCharge, discountPercent);
+        logger.debug("Discount amount calculated: {} cents", discountAmount);
 
         // Calculate final charge
-        BigDecimal finalCharge = calculateFinalCharge(preDiscountCharge, discountAmount);
-        logger.debug("Final charge calculated: {}", finalCharge);
+        long finalCharge = calculateFinalCharge(preDiscountCharge, discountAmount);
+        logger.debug("Final charge calculated: {} cents", finalCharge);
+        long priced = checkoutMetrics.now();
 
         // Build rental agreement using builder pattern
-        return new RentalAgreement.Builder(toolCode, tool.getToolType(), tool.getToolBrand())
+        RentalAgreement agreement = new RentalAgreement.Builder(toolCode, tool.getToolType(), tool.getToolBrand())
                 .rentalDays(rentalDays)
-                .checkoutDate(checkoutDate)
-                .dueDate(dueDate)
-                .dailyCharge(dailyCharge)
-                .preDiscountCharge(preDiscountCharge)
+                .checkoutDate(LocalDate.ofEpochDay(checkoutDay))
+                .dueDate(LocalDate.ofEpochDay(dueDay))
+                .dailyChargeCents(dailyCharge)
+                .preDiscountChargeCents(preDiscountCharge)
                 .discountPercent(discountPercent)
-                .discountAmount(discountAmount)
-                .finalCharge(finalCharge)
+                .discountAmountCents(discountAmount)
+                .finalChargeCents(finalCharge)
                 .chargeDays(chargeableDays)
+                .chargeMask(ChargeCalendar.chargeMask(tool))
                 .build();
-    }
 
+        if (checkoutMetrics.isEnabled()) {
+            String toolType = tool.getToolType();
+            checkoutMetrics.record(toolType, CheckoutMetrics.CHARGE_MATH, true, priced - counted);
+            checkoutMetrics.record(toolType, CheckoutMetrics.BUILD, true, checkoutMetrics.now() - priced);
+        }
+        return agreement;
+    }
 
     /**
-     * Calculates the number of chargeable days for the rental period.
+     * Prices, and optionally checks out, a single request of a batch against the pre-resolved tools and dates.
      *
-     * @param checkoutDate the checkout date
-     * @param rentalDays   the number of rental days
-     * @return the number of chargeable days
+     * @param store         the store
+     * @param request       the checkout request
+     * @param tools         the tools of the batch by code
+     * @param checkoutDates the checkout epoch days of the batch, or their parse errors
+     * @param checkOut      whether to book and journal the priced request
+     * @return the result of the request
      */
-    private int calculateChargeableDays(Date checkoutDate, int rentalDays) {
-        int chargeableDays = 0;
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(checkoutDate);
+    private CheckoutResult checkOutBatchItem(StoreShard store, CheckoutRequest request, Map<String, Tool> tools,
+                                             Map<String, Object> checkoutDates, boolean checkOut) {
+        try {
+            validateRentalDays(request.getRentalDays());
+            validateDiscountPercent(request.getDiscountPercent());
 
-        for (int i = 0; i < rentalDays; i++) {
-            Date currentDate = calendar.getTime();
+            Tool tool = tools.get(request.getToolCode());
+            if (tool == null) {
+                throw new ToolNotFoundException(request.getToolCode());
+            }
 
-            // Check if the current date is chargeable (weekday and not a holiday)
-            if (isWeekday(currentDate) && !isHoliday(currentDate)) {
-                chargeableDays++;
+            Object checkoutDay = checkoutDates.get(request.getCheckoutDate());
+            if (checkoutDay instanceof ParseException) {
+                return CheckoutResult.failure(request, ((ParseException) checkoutDay).getMessage());
             }
 
-            // Move to the next day
-            calendar.add(Calendar.DAY_OF_MONTH, 1);
+            long day = (Long) checkoutDay;
+            if (checkOut) {
+                book(store, request.getToolCode(), day, request.getRentalDays());
+            }
+            boolean rollBack = checkOut;
+            try {
+                int discountPercent = promotionEngine.discountPercent(tool, day, request.getCouponCode(),
+                        request.getDiscountPercent());
+                RentalAgreement agreement = priceAgreement(store, request.getToolCode(), tool, day,
+                        request.getRentalDays(), discountPercent);
+                if (checkOut) {
+                    agreement = agreement.withId(nextAgreementId());
+                    try {
+                        agreementJournal.write(store.getStoreId(), agreement);
+                    } catch (UncheckedIOException | IllegalStateException e) {
+                        logger.error("Could not journal batch checkout of {}", request, e);
+                        return CheckoutResult.failure(request, e.getMessage());
+                    }
+                }
+                rollBack = false;
+                return CheckoutResult.success(request, agreement);
+            } finally {
+                if (rollBack) {
+                    store.getToolAvailability().cancel(request.getToolCode(), day, request.getRentalDays());
+                }
+            }
+        } catch (IllegalArgumentException | ArithmeticException | ToolUnavailableException e) {
+            logger.debug("Batch checkout rejected for {}: {}", request, e.getMessage());
+            return CheckoutResult.failure(request, e.getMessage());
         }
-
-        logger.debug("Chargeable days for checkout date {}: {}", checkoutDate, chargeableDays);
-        return chargeableDays;
     }
 
     /**
-     * Checks if a given date is a chargeable day.
+     * Parses a date, returning the parse error instead of throwing it.
      *
-     * @param date the date to check
-     * @return true if the date is chargeable, false otherwise
+     * @param dateStr the date string
+     * @return the parsed epoch day, or the ParseException if the date string is invalid
      */
-    private boolean isChargeableDay(Date date) {
-        // Check if it is a holiday first
-        if (isHoliday(date)) {
-            return false;
+    private Object parseDateOrError(String dateStr) {
+        try {
+            return parseDate(dateStr);
+        } catch (ParseException e) {
+            return e;
         }
+    }
+
+    /**
+     * Fork-join task pricing a contiguous slice of a batch.
+     * Each result is written to the slot of its request, which keeps the output in input order.
+     */
+    private final class BatchCheckoutTask extends RecursiveAction {
+        private final StoreShard store;
+        private final CheckoutRequest[] batch;
+        private final Map<String, Tool> tools;
+        private final Map<String, Object> checkoutDates;
+        private final boolean checkOut;
+        private final CheckoutResult[] results;
+        private final int from;
+        private final int to;
 
-        // Check if it is a weekday
-        return isWeekday(date);
+        private BatchCheckoutTask(StoreShard store, CheckoutRequest[] batch, Map<String, Tool> tools,
+                                  Map<String, Object> checkoutDates, boolean checkOut, CheckoutResult[] results,
+                                  int from, int to) {
+            this.store = store;
+            this.batch = batch;
+            this.tools = tools;
+            this.checkoutDates = checkoutDates;
+            this.checkOut = checkOut;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SLICE_SIZE) {
+                for (int i = from; i < to; i++) {
+                    results[i] = checkOutBatchItem(store, batch[i], tools, checkoutDates, checkOut);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchCheckoutTask(store, batch, tools, checkoutDates, checkOut, results, from, middle),
+                    new BatchCheckoutTask(store, batch, tools, checkoutDates, checkOut, results, middle, to));
+        }
     }
 
     /**
-     * Checks if a given date is a weekday.
+     * Calculates the number of chargeable days for the rental period in the default store.
      *
-     * @param date the date to check
-     * @return true if the date is a weekday, false otherwise
+     * @param tool        the tool being rented
+     * @param checkoutDay the checkout date as an epoch day
+     * @param rentalDays  the number of rental days
+     * @return the number of chargeable days
      */
-    private boolean isWeekday(Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
-        return dayOfWeek != Calendar.SATURDAY && dayOfWeek != Calendar.SUNDAY;
+    int calculateChargeableDays(Tool tool, long checkoutDay, int rentalDays) {
+        return calculateChargeableDays(defaultStore.getChargeCalendar(), tool, checkoutDay, rentalDays);
     }
 
     /**
-     * Checks if a given date is a holiday.
+     * Calculates the number of chargeable days for the rental period under a store's calendar.
      *
-     * @param date the date to check
-     * @return true if the date is a holiday, false otherwise
+     * @param chargeCalendar the store's charge calendar
+     * @param tool           the tool being rented
+     * @param checkoutDay    the checkout date as an epoch day
+     * @param rentalDays     the number of rental days
+     * @return the number of chargeable days
      */
-    private boolean isHoliday(Date date) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(date);
+    private int calculateChargeableDays(ChargeCalendar chargeCalendar, Tool tool, long checkoutDay, int rentalDays) {
+        int chargeableDays = chargeCalendar.chargeableDays(tool, checkoutDay, rentalDays);
 
-        int month = cal.get(Calendar.MONTH);
-        int dayOfMonth = cal.get(Calendar.DAY_OF_MONTH);
-        int dayOfWeek = cal.get(Calendar.DAY_OF_WEEK);
-
-        // Check for Independence Day July 4th
-        if (month == Calendar.JULY && dayOfMonth == 4) {
-            // If July 4th falls on a Saturday, observe on Friday July 3rd
-            if (dayOfWeek == Calendar.SATURDAY) {
-                return true;
-            }
-            // If July 4th falls on a Sunday, observe on Monday July 5th
-            if (dayOfWeek == Calendar.SUNDAY) {
-                return true;
-            }
-        }
-
-        // Check for Labor Day, First Monday in September
-        if (month == Calendar.SEPTEMBER && dayOfWeek == Calendar.MONDAY && dayOfMonth <= 7) {
-            // First Monday in September is a holiday - Labor Day
-            return true;
-        }
+        logger.debug("Chargeable days for checkout epoch day {}: {}", checkoutDay, chargeableDays);
+        return chargeableDays;
+    }
 
-        return false;
+    /**
+     * Calculates the pre-discount charge of a tool at a store, under the pricing rules if there are any.
+     *
+     * @param store          the store
+     * @param tool           the tool being rented
+     * @param checkoutDay    the checkout date as an epoch day
+     * @param chargeableDays the number of chargeable days
+     * @return the pre-discount charge in cents
+     */
+    private long preDiscountCharge(StoreShard store, Tool tool, long checkoutDay, int chargeableDays) {
+        return pricingEngine.isEmpty()
+                ? calculatePreDiscountCharge(tool.getDailyChargeCents(), chargeableDays)
+                : pricingEngine.preDiscountCharge(store.getStoreId(), tool, checkoutDay, chargeableDays);
     }
 
     /**
      * Calculates the pre-discount charge.
      *
-     * @param dailyCharge    the daily charge
+     * @param dailyCharge    the daily charge in cents
      * @param chargeableDays the number of chargeable days
-     * @return the pre-discount charge
+     * @return the pre-discount charge in cents
      */
-    private BigDecimal calculatePreDiscountCharge(BigDecimal dailyCharge, int chargeableDays) {
-        return dailyCharge.multiply(BigDecimal.valueOf(chargeableDays)).setScale(2, RoundingMode.HALF_UP);
+    long calculatePreDiscountCharge(long dailyCharge, int chargeableDays) {
+        return Money.multiply(dailyCharge, chargeableDays);
     }
 
     /**
      * Calculates the discount amount.
      *
-     * @param preDiscountCharge the pre-discount charge
+     * @param preDiscountCharge the pre-discount charge in cents
      * @param discountPercent   the discount percent
-     * @return the discount amount
+     * @return the discount amount in cents, rounded HALF_UP
      */
-    private BigDecimal calculateDiscountAmount(BigDecimal preDiscountCharge, int discountPercent) {
-        return preDiscountCharge.multiply(BigDecimal.valueOf(discountPercent)).divide(BigDecimal.valueOf(100),
-                        RoundingMode.HALF_UP).setScale(2, RoundingMode.HALF_UP);
+    long calculateDiscountAmount(long preDiscountCharge, int discountPercent) {
+        return Money.percentOf(preDiscountCharge, discountPercent);
     }
 
     /**
      * Calculates the final charge after discount.
      *
-     * @param preDiscountCharge the pre-discount charge
-     * @param discountAmount    the discount amount
-     * @return the final charge
+     * @param preDiscountCharge the pre-discount charge in cents
+     * @param discountAmount    the discount amount in cents
+     * @return the final charge in cents
      */
-    private BigDecimal calculateFinalCharge(BigDecimal preDiscountCharge, BigDecimal discountAmount) {
-        return preDiscountCharge.subtract(discountAmount).setScale(2, RoundingMode.HALF_UP);
+    long calculateFinalCharge(long preDiscountCharge, long discountAmount) {
+        return preDiscountCharge - discountAmount;
     }
 
     /**
@@ -252,30 +1537,191 @@ public class ToolRentalService {
         }
     }
 
+    /**
+     * Validates a return against its rental agreement.
+     *
+     * @param request   the return
+     * @param agreement the rental agreement
+     */
+    private void validateReturn(ReturnRequest request, RentalAgreement agreement) {
+        if (request.getReturnDate() == null) {
+            throw new IllegalArgumentException("Return date is required.");
+        }
+        if (request.getReturnDate().isBefore(agreement.getCheckoutLocalDate())) {
+            throw new IllegalArgumentException("Return date must not be before the checkout date.");
+        }
+    }
+
+    /**
+     * Validates the number of cells of a quote matrix.
+     *
+     * @param size the number of cells
+     */
+    private void validateQuoteMatrixSize(int size) {
+        if (size > MAX_QUOTE_MATRIX_SIZE) {
+            throw new IllegalArgumentException("Quote matrix must have at most " + MAX_QUOTE_MATRIX_SIZE + " cells.");
+        }
+    }
+
     /**
      * Parses a date from a string.
      *
      * @param dateStr the date string
-     * @return the parsed date
+     * @return the parsed date as an epoch day
      * @throws ParseException if the date string is invalid
      */
-    private Date parseDate(String dateStr) throws ParseException {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yy");
-        return dateFormat.parse(dateStr);
+    long parseDate(String dateStr) throws ParseException {
+        return CheckoutDateParser.parseEpochDay(dateStr);
     }
 
     /**
      * Calculates the due date.
      *
-     * @param checkoutDate the checkout date
-     * @param rentalDays   the number of rental days
-     * @return the due date
+     * @param checkoutDay the checkout date as an epoch day
+     * @param rentalDays  the number of rental days
+     * @return the due date as an epoch day
      */
-    private Date calculateDueDate(Date checkoutDate, int rentalDays) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(checkoutDate);
-        calendar.add(Calendar.DAY_OF_MONTH, rentalDays);
-        return calendar.getTime();
+    private long calculateDueDate(long checkoutDay, int rentalDays) {
+        return checkoutDay + rentalDays;
+    }
+
+    /**
+     * Builder class to construct ToolRentalService instances outside the application context, such as in tests and
+     * benchmarks. Every collaborator not set defaults to the one that does nothing: a default charge calendar, no
+     * quote cache, no metrics, untracked inventory, no journal, no stores besides the default one, no pricing
+     * rules, no promotions and no returns.
+     */
+    public static class Builder {
+        private ChargeCalendar chargeCalendar = new ChargeCalendar();
+        private QuoteCache quoteCache = QuoteCache.disabled();
+        private CheckoutMetrics checkoutMetrics = CheckoutMetrics.disabled();
+        private ToolAvailability toolAvailability;
+        private AgreementJournal agreementJournal = AgreementJournal.disabled();
+        private StoreDirectory storeDirectory = StoreDirectory.empty();
+        private PricingEngine pricingEngine = PricingEngine.none();
+        private PromotionEngine promotionEngine = PromotionEngine.none();
+        private boolean returnsEnabled;
+
+        /**
+         * Sets the charge calendar of the default store.
+         *
+         * @param chargeCalendar the calendar used to classify rental days
+         * @return the Builder instance.
+         */
+        public Builder chargeCalendar(ChargeCalendar chargeCalendar) {
+            this.chargeCalendar = chargeCalendar;
+            return this;
+        }
+
+        /**
+         * Sets the quote cache.
+         *
+         * @param quoteCache the cache of priced quotes
+         * @return the Builder instance.
+         */
+        public Builder quoteCache(QuoteCache quoteCache) {
+            this.quoteCache = quoteCache;
+            return this;
+        }
+
+        /**
+         * Sets the checkout metrics.
+         *
+         * @param checkoutMetrics the per-stage checkout timers
+         * @return the Builder instance.
+         */
+        public Builder checkoutMetrics(CheckoutMetrics checkoutMetrics) {
+            this.checkoutMetrics = checkoutMetrics;
+            return this;
+        }
+
+        /**
+         * Limits the bookings of the default store by an inventory.
+         *
+         * @param toolInventory the available units per tool
+         * @return the Builder instance.
+         */
+        public Builder toolInventory(ToolInventory toolInventory) {
+            return toolAvailability(new ToolAvailability(toolInventory));
+        }
+
+        /**
+         * Sets the bookings of the default store.
+         *
+         * @param toolAvailability the booked rental periods per tool
+         * @return the Builder instance.
+         */
+        public Builder toolAvailability(ToolAvailability toolAvailability) {
+            this.toolAvailability = toolAvailability;
+            return this;
+        }
+
+        /**
+         * Sets the agreement journal.
+         *
+         * @param agreementJournal the journal of issued agreements
+         * @return the Builder instance.
+         */
+        public Builder agreementJournal(AgreementJournal agreementJournal) {
+            this.agreementJournal = agreementJournal;
+            return this;
+        }
+
+        /**
+         * Sets the stores besides the default store.
+         *
+         * @param storeDirectory the store directory
+         * @return the Builder instance.
+         */
+        public Builder storeDirectory(StoreDirectory storeDirectory) {
+            this.storeDirectory = storeDirectory;
+            return this;
+        }
+
+        /**
+         * Sets the pricing rules.
+         *
+         * @param pricingEngine the tiered, capped and seasonal rates
+         * @return the Builder instance.
+         */
+        public Builder pricingEngine(PricingEngine pricingEngine) {
+            this.pricingEngine = pricingEngine;
+            return this;
+        }
+
+        /**
+         * Sets the promotions.
+         *
+         * @param promotionEngine the active promotions
+         * @return the Builder instance.
+         */
+        public Builder promotionEngine(PromotionEngine promotionEngine) {
+            this.promotionEngine = promotionEngine;
+            return this;
+        }
+
+        /**
+         * Sets whether tools can be checked in. Without a journal, open rentals are then kept in memory only,
+         * and {@link ToolRentalService#afterPropertiesSet} refuses to start the service.
+         *
+         * @param returnsEnabled whether open rentals are kept for check-in
+         * @return the Builder instance.
+         */
+        public Builder returnsEnabled(boolean returnsEnabled) {
+            this.returnsEnabled = returnsEnabled;
+            return this;
+        }
+
+        /**
+         * Builds the ToolRentalService instance.
+         *
+         * @return the ToolRentalService instance.
+         */
+        public ToolRentalService build() {
+            return new ToolRentalService(chargeCalendar, quoteCache, checkoutMetrics,
+                    toolAvailability != null ? toolAvailability : new ToolAvailability(ToolInventory.unlimited()),
+                    agreementJournal, storeDirectory, pricingEngine, promotionEngine, returnsEnabled);
+        }
     }
 
 }
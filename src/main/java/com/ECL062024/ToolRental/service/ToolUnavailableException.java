@@ -0,0 +1,27 @@
+package com.ECL062024.ToolRental.service;
+
+/**
+ * Thrown when a checkout refers to a tool with no units left to rent.
+ */
+public class ToolUnavailableException extends IllegalStateException {
+
+    /**
+     * Constructs a new ToolUnavailableException for the given tool code.
+     *
+     * @param toolCode the unavailable tool code
+     */
+    public ToolUnavailableException(String toolCode) {
+        super("Tool with code " + toolCode + " is not available.");
+    }
+
+    /**
+     * Constructs a new ToolUnavailableException with the given detail message and cause.
+     *
+     * @param message the detail message
+     * @param cause   the cause, or null
+     */
+    protected ToolUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,242 @@
+package com.ECL062024.ToolRental.store;
+
+import com.ECL062024.ToolRental.calendar.ChargeCalendar;
+import com.ECL062024.ToolRental.calendar.DefaultHolidaySchedule;
+import com.ECL062024.ToolRental.inventory.ToolAvailability;
+import com.ECL062024.ToolRental.inventory.ToolInventory;
+import com.ECL062024.ToolRental.model.Tool;
+import com.ECL062024.ToolRental.repository.InMemoryToolCatalog;
+import com.ECL062024.ToolRental.repository.ToolRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The stores the rental service serves besides the default store, each held in its own {@link StoreShard}.
+ * <p>
+ * Stores are listed in {@code toolrental.stores.ids}. For a store {@code ID}, {@code toolrental.stores.ID.tools}
+ * lists the tool codes of its fleet, {@code toolrental.stores.ID.holidays} its holiday rules, which default to
+ * {@code toolrental.holidays}, and {@code toolrental.stores.ID.inventory.units} the units it stocks, which default
+ * to {@code toolrental.inventory.units}. Once every catalog bean has installed itself, each store's fleet is
+ * copied from {@link ToolRepository} into a catalog partition of its own. From then on a saved or deleted tool is
+ * copied into the partitions whose fleet holds it, and a reloaded or replaced catalog reloads every partition.
+ * <p>
+ * The set of stores is fixed at startup, so resolving a shard is a read of an immutable map with no locking.
+ * Catalog writes lock only the shard they write to, so reloading one store's partition never holds up another's.
+ */
+@Component
+public class StoreDirectory implements SmartInitializingSingleton, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(StoreDirectory.class);
+
+    private final Map<String, StoreShard> shards;
+    private final Map<String, Set<String>> fleets;
+    private final Consumer<String> changeListener = this::refreshTool;
+    private final Runnable reloadListener = this::reloadCatalogs;
+
+    /**
+     * Constructor to initialize StoreDirectory from the application properties.
+     *
+     * @param storeIds    the store identifiers, comma-separated
+     * @param environment the environment holding the per-store properties
+     */
+    @Autowired
+    public StoreDirectory(@Value("${toolrental.stores.ids:}") String storeIds, Environment environment) {
+        Map<String, StoreShard> shards = new LinkedHashMap<>();
+        Map<String, Set<String>> fleets = new LinkedHashMap<>();
+        String defaultHolidays = environment.getProperty("toolrental.holidays", DefaultHolidaySchedule.DEFAULT_RULES);
+        String defaultUnits = environment.getProperty("toolrental.inventory.units", "");
+        for (String entry : storeIds.split(",")) {
+            String storeId = entry.trim();
+            if (storeId.isEmpty()) {
+                continue;
+            }
+            String prefix = "toolrental.stores." + storeId + ".";
+            ChargeCalendar chargeCalendar = new ChargeCalendar(new DefaultHolidaySchedule(
+                    environment.getProperty(prefix + "holidays", defaultHolidays)));
+            Set<String> fleet = new LinkedHashSet<>();
+            for (String toolCode : environment.getProperty(prefix + "tools", "").split(",")) {
+                if (!toolCode.isBlank()) {
+                    fleet.add(toolCode.trim());
+                }
+            }
+            ToolInventory toolInventory = new ToolInventory(
+                    environment.getProperty(prefix + "inventory.units", defaultUnits));
+            StoreShard shard = new StoreShard(storeId, new InMemoryToolCatalog(List.of()), chargeCalendar,
+                    new ToolAvailability(toolInventory));
+            if (shards.put(storeId, shard) != null) {
+                throw new IllegalArgumentException("Duplicate store: " + storeId);
+            }
+            fleets.put(storeId, fleet);
+        }
+        this.shards = Collections.unmodifiableMap(shards);
+        this.fleets = Collections.unmodifiableMap(fleets);
+    }
+
+    /**
+     * Constructs a directory of the given shards, whose catalogs are used as they are.
+     *
+     * @param shards the store shards
+     */
+    public StoreDirectory(Collection<StoreShard> shards) {
+        Map<String, StoreShard> byId = new LinkedHashMap<>();
+        for (StoreShard shard : shards) {
+            if (byId.put(shard.getStoreId(), shard) != null) {
+                throw new IllegalArgumentException("Duplicate store: " + shard.getStoreId());
+            }
+        }
+        this.shards = Collections.unmodifiableMap(byId);
+        this.fleets = Collections.emptyMap();
+    }
+
+    /**
+     * Creates a directory without any stores besides the default one.
+     *
+     * @return an empty directory
+     */
+    public static StoreDirectory empty() {
+        return new StoreDirectory(List.of());
+    }
+
+    /**
+     * Loads the fleet of every configured store once all catalog beans are installed and starts following the
+     * changes of {@link ToolRepository}.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (fleets.isEmpty()) {
+            return;
+        }
+        reloadCatalogs();
+        ToolRepository.addChangeListener(changeListener);
+        ToolRepository.addReloadListener(reloadListener);
+    }
+
+    /**
+     * Unregisters the catalog listeners.
+     */
+    @Override
+    public void destroy() {
+        ToolRepository.removeChangeListener(changeListener);
+        ToolRepository.removeReloadListener(reloadListener);
+    }
+
+    /**
+     * Returns the shard of a store.
+     *
+     * @param storeId the store identifier
+     * @return the shard
+     * @throws StoreNotFoundException if there is no such store
+     */
+    public StoreShard shard(String storeId) {
+        StoreShard shard = shards.get(storeId);
+        if (shard == null) {
+            throw new StoreNotFoundException(storeId);
+        }
+        return shard;
+    }
+
+    /**
+     * @return the shards of all stores, in configuration order.
+     */
+    public Collection<StoreShard> shards() {
+        return shards.values();
+    }
+
+    /**
+     * Copies a store's configured fleet from {@link ToolRepository} into a new catalog partition and installs it.
+     * Tool codes the repository does not know are left out.
+     *
+     * @param storeId the store identifier
+     * @return the number of tools in the new partition
+     * @throws StoreNotFoundException if there is no such store
+     */
+    public int reloadCatalog(String storeId) {
+        StoreShard shard = shard(storeId);
+        Set<String> fleet = fleets.getOrDefault(storeId, Set.of());
+        synchronized (shard.catalogLock()) {
+            Map<String, Tool> tools = ToolRepository.findAllByCodes(fleet);
+            if (tools.size() < fleet.size()) {
+                List<String> missing = new ArrayList<>(fleet);
+                missing.removeAll(tools.keySet());
+                logger.warn("Tools {} of {} are not in the catalog", missing, shard);
+            }
+            replaceCatalog(shard, tools.values());
+            return tools.size();
+        }
+    }
+
+    /**
+     * Replaces a store's catalog partition with the given tools.
+     *
+     * @param storeId the store identifier
+     * @param tools   the store's tools
+     * @throws StoreNotFoundException if there is no such store
+     */
+    public void replaceCatalog(String storeId, Collection<Tool> tools) {
+        replaceCatalog(shard(storeId), tools);
+    }
+
+    /**
+     * Replaces a shard's catalog partition with the given tools under the shard's catalog lock.
+     *
+     * @param shard the store shard
+     * @param tools the store's tools
+     */
+    private static void replaceCatalog(StoreShard shard, Collection<Tool> tools) {
+        InMemoryToolCatalog catalog = new InMemoryToolCatalog(tools);
+        synchronized (shard.catalogLock()) {
+            shard.replaceCatalog(catalog);
+        }
+        logger.info("Loaded catalog of {} with {} tools", shard, tools.size());
+    }
+
+    /**
+     * Reloads the partition of every configured store from {@link ToolRepository}.
+     */
+    private void reloadCatalogs() {
+        for (String storeId : fleets.keySet()) {
+            reloadCatalog(storeId);
+        }
+    }
+
+    /**
+     * Copies a changed tool from {@link ToolRepository} into the partition of every store whose fleet holds it, or
+     * removes it from them if it was deleted. The tool is looked up under each store's catalog lock, so a store
+     * never ends up with an older version than a concurrent refresh or reload installed.
+     *
+     * @param toolCode the code of the changed tool
+     */
+    private void refreshTool(String toolCode) {
+        for (Map.Entry<String, Set<String>> fleet : fleets.entrySet()) {
+            if (!fleet.getValue().contains(toolCode)) {
+                continue;
+            }
+            StoreShard shard = shards.get(fleet.getKey());
+            synchronized (shard.catalogLock()) {
+                Tool tool = ToolRepository.findByCode(toolCode);
+                if (tool == null) {
+                    shard.getCatalog().delete(toolCode);
+                } else {
+                    shard.getCatalog().save(tool);
+                }
+            }
+            logger.debug("Refreshed tool {} of {}", toolCode, shard);
+        }
+    }
+
+}
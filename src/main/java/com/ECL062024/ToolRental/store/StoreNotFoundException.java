@@ -0,0 +1,17 @@
+package com.ECL062024.ToolRental.store;
+
+/**
+ * Thrown when a request refers to a store that is not configured.
+ */
+public class StoreNotFoundException extends IllegalArgumentException {
+
+    /**
+     * Constructs a new StoreNotFoundException for the given store.
+     *
+     * @param storeId the unknown store identifier
+     */
+    public StoreNotFoundException(String storeId) {
+        super("Store " + storeId + " does not exist.");
+    }
+
+}
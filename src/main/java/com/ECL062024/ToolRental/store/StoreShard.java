@@ -0,0 +1,175 @@
+package com.ECL062024.ToolRental.store;
+
+import com.ECL062024.ToolRental.calendar.ChargeCalendar;
+import com.ECL062024.ToolRental.inventory.ToolAvailability;
+import com.ECL062024.ToolRental.inventory.ToolInventory;
+import com.ECL062024.ToolRental.model.Tool;
+import com.ECL062024.ToolRental.repository.ToolCatalog;
+import com.ECL062024.ToolRental.repository.ToolRepository;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * The catalog partition, charge calendar and bookings of one store.
+ * <p>
+ * Shards share no mutable state: each has its own catalog, whose lookups and writes never touch another store's,
+ * its own {@link ChargeCalendar}, which classifies days by the store's holidays, and its own
+ * {@link ToolAvailability} over its own {@link ToolInventory}, so a store's units are booked by its rentals alone.
+ * Replacing a store's catalog is a single volatile write that readers of other stores never see. A request
+ * resolves its shard once and then works against it alone.
+ */
+public final class StoreShard {
+
+    /**
+     * Identifier of the default store, served by {@link ToolRepository} and the application's charge calendar.
+     */
+    public static final String DEFAULT_STORE = "";
+
+    private final String storeId;
+    private final ChargeCalendar chargeCalendar;
+    private final ToolAvailability toolAvailability;
+    private final Object catalogLock = new Object();
+    private volatile ToolCatalog catalog;
+
+    /**
+     * Constructs a shard whose tools are not tracked, so every rental period can be booked.
+     *
+     * @param storeId        the store identifier
+     * @param catalog        the store's catalog partition
+     * @param chargeCalendar the calendar of the store's holidays
+     */
+    public StoreShard(String storeId, ToolCatalog catalog, ChargeCalendar chargeCalendar) {
+        this(storeId, catalog, chargeCalendar, new ToolAvailability(ToolInventory.unlimited()));
+    }
+
+    /**
+     * Constructs a shard.
+     *
+     * @param storeId          the store identifier
+     * @param catalog          the store's catalog partition
+     * @param chargeCalendar   the calendar of the store's holidays
+     * @param toolAvailability the booked rental periods of the store's units
+     */
+    public StoreShard(String storeId, ToolCatalog catalog, ChargeCalendar chargeCalendar,
+                      ToolAvailability toolAvailability) {
+        this.storeId = storeId;
+        this.catalog = catalog;
+        this.chargeCalendar = chargeCalendar;
+        this.toolAvailability = toolAvailability;
+    }
+
+    /**
+     * Creates the shard of the default store, whose lookups go through {@link ToolRepository} so they follow
+     * whichever catalog is installed there.
+     *
+     * @param chargeCalendar   the application's charge calendar
+     * @param toolAvailability the booked rental periods of the application's inventory
+     * @return the default shard
+     */
+    public static StoreShard defaultStore(ChargeCalendar chargeCalendar, ToolAvailability toolAvailability) {
+        return new StoreShard(DEFAULT_STORE, RepositoryCatalog.INSTANCE, chargeCalendar, toolAvailability);
+    }
+
+    /**
+     * @return the store identifier.
+     */
+    public String getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * @return the calendar of the store's holidays.
+     */
+    public ChargeCalendar getChargeCalendar() {
+        return chargeCalendar;
+    }
+
+    /**
+     * @return the booked rental periods of the store's units.
+     */
+    public ToolAvailability getToolAvailability() {
+        return toolAvailability;
+    }
+
+    /**
+     * @return the store's catalog partition.
+     */
+    public ToolCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * @return the lock serializing writers of the store's catalog partition, so a reload and a tool refresh of the
+     * store cannot interleave; writers of other stores and readers never take it.
+     */
+    Object catalogLock() {
+        return catalogLock;
+    }
+
+    /**
+     * Replaces the store's catalog partition. Lookups already in flight finish against the previous catalog.
+     *
+     * @param newCatalog the catalog to install
+     * @return the previous catalog
+     */
+    public ToolCatalog replaceCatalog(ToolCatalog newCatalog) {
+        ToolCatalog previous = catalog;
+        catalog = newCatalog;
+        return previous;
+    }
+
+    /**
+     * Finds a tool in the store's catalog.
+     *
+     * @param toolCode the tool code
+     * @return the tool, or null if the store has no such tool
+     */
+    public Tool findByCode(String toolCode) {
+        return toolCode == null ? null : catalog.findByCode(toolCode);
+    }
+
+    /**
+     * Finds every tool of the store with one of the given codes.
+     *
+     * @param toolCodes the tool codes
+     * @return the tools found, keyed by tool code; codes without a tool are absent
+     */
+    public Map<String, Tool> findAllByCodes(Collection<String> toolCodes) {
+        return catalog.findAllByCodes(toolCodes);
+    }
+
+    @Override
+    public String toString() {
+        return storeId.isEmpty() ? "default store" : "store " + storeId;
+    }
+
+    /**
+     * Read-through view of {@link ToolRepository}, so the default store sees catalog swaps and change
+     * notifications exactly as before stores existed.
+     */
+    private static final class RepositoryCatalog implements ToolCatalog {
+        private static final RepositoryCatalog INSTANCE = new RepositoryCatalog();
+
+        @Override
+        public Tool findByCode(String toolCode) {
+            return ToolRepository.findByCode(toolCode);
+        }
+
+        @Override
+        public Map<String, Tool> findAllByCodes(Collection<String> toolCodes) {
+            return ToolRepository.findAllByCodes(toolCodes);
+        }
+
+        @Override
+        public void save(Tool tool) {
+            ToolRepository.save(tool);
+        }
+
+        @Override
+        public Tool delete(String toolCode) {
+            return ToolRepository.delete(toolCode);
+        }
+    }
+
+}
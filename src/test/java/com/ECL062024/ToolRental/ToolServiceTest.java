@@ -8,6 +8,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -47,7 +49,10 @@ class ToolRentalApplicationTests {
         Date checkoutDate = dateFormat.parse(checkoutDateStr);
         assertEquals(checkoutDate, rentalAgreement.getCheckoutDate());
 
-        Date expectedDueDate = new Date(checkoutDate.getTime() + (1000 * 60 * 60 * 24 * rentalDays));
-        assertEquals(expectedDueDate, rentalAgreement.getDueDate());
+        // Compare calendar dates rather than adding 24-hour periods, which breaks across DST changes
+        LocalDate expectedDueDate = LocalDate.of(2015, 9, 3).plusDays(rentalDays);
+        assertEquals(expectedDueDate, rentalAgreement.getDueLocalDate());
+        assertEquals(Date.from(expectedDueDate.atStartOfDay(ZoneId.systemDefault()).toInstant()),
+                rentalAgreement.getDueDate());
     }
 }
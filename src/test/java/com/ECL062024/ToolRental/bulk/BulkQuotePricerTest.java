@@ -0,0 +1,95 @@
+package com.ECL062024.ToolRental.bulk;
+
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import com.ECL062024.ToolRental.service.ToolRentalService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BulkQuotePricerTest {
+    private static final String[] CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+
+    @TempDir
+    private Path directory;
+
+    private final ToolRentalService toolRentalService = new ToolRentalService.Builder().build();
+
+    /**
+     * Tests priced rows and error records, in input order.
+     *
+     * @throws IOException if a file cannot be read or written.
+     */
+    @Test
+    void testPrice() throws IOException {
+        Path input = Files.write(directory.resolve("rentals.csv"), List.of(
+                "toolCode,checkoutDate,rentalDays,discountPercent",
+                "LADW,07/02/20,3,10",
+                "JAKR,09/03/15,5,101",
+                "NONE,07/02/20,3,0",
+                "CHNS,\"07/02/15\",five,25",
+                "CHNS,07/02/15",
+                "JAKD, 09/03/15 , 6 , 0"), StandardCharsets.UTF_8);
+        Path output = directory.resolve("quotes.csv");
+
+        BulkPricingSummary summary = new BulkQuotePricer(toolRentalService, 2, 3).price(input, output);
+
+        assertEquals(6, summary.getRows());
+        assertEquals(2, summary.getPriced());
+        assertEquals(4, summary.getFailed());
+        assertEquals(List.of(
+                BulkQuotePricer.OUTPUT_HEADER.trim(),
+                "2,LADW,07/02/20,3,10,Ladder,Werner,2020-07-05,1.99,2,3.98,0.40,3.58,",
+                "3,JAKR,09/03/15,5,101,,,,,,,,,Discount percent must be between 0 and 100 inclusive.",
+                "4,NONE,07/02/20,3,0,,,,,,,,,Tool with code NONE does not exist.",
+                "5,CHNS,07/02/15,five,25,,,,,,,,,Invalid rental days: five",
+                "6,CHNS,07/02/15,,,,,,,,,,,"
+                        + "\"Expected 4 fields: toolCode, checkoutDate, rentalDays, discountPercent.\"",
+                "7,JAKD,09/03/15,6,0,Jackhammer,DeWalt,2015-09-09,2.99,3,8.97,0.00,8.97,"),
+                Files.readAllLines(output, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that a large input priced in parallel chunks matches single quotes row for row.
+     *
+     * @throws Exception if a file cannot be read or written.
+     */
+    @Test
+    void testPrice_largeInputKeepsOrder() throws Exception {
+        int rows = 50_000;
+        Path input = directory.resolve("rentals.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write(CODES[i % CODES.length] + "," + (1 + i % 12) + "/" + (1 + i % 28) + "/" + (10 + i % 15)
+                        + "," + (1 + i % 20) + "," + (i % 50) + "\n");
+            }
+        }
+        Path output = directory.resolve("quotes.csv");
+
+        BulkPricingSummary summary = new BulkQuotePricer(toolRentalService, 1000, 4).price(input, output);
+
+        assertEquals(rows, summary.getPriced());
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(rows + 1, lines.size());
+        for (int i = 0; i < rows; i += 997) {
+            String[] fields = BulkQuotePricer.split(lines.get(i + 1));
+            RentalAgreement quote = toolRentalService.quoteTool(fields[1], Integer.parseInt(fields[3]),
+                    Integer.parseInt(fields[4]), fields[2]);
+            StringBuilder finalCharge = new StringBuilder();
+            BulkQuotePricer.appendCents(finalCharge, quote.getFinalChargeCents());
+            assertArrayEquals(new String[]{String.valueOf(i + 1), CODES[i % CODES.length]},
+                    new String[]{fields[0], fields[1]});
+            assertEquals(quote.getDueLocalDate().toString(), fields[7]);
+            assertEquals(finalCharge.toString(), fields[12]);
+        }
+    }
+
+}
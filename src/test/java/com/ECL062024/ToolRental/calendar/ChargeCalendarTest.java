@@ -0,0 +1,162 @@
+package com.ECL062024.ToolRental.calendar;
+
+import com.ECL062024.ToolRental.model.Tool;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChargeCalendarTest {
+    private final ChargeCalendar chargeCalendar = new ChargeCalendar();
+
+    /**
+     * Tests the chargeable days of a chainsaw around Independence Day 2015.
+     */
+    @Test
+    void testChargeableDays_chainsaw() {
+        Tool chainsaw = new Tool("CHNS", "Chainsaw", "Stihl", 1.49, true, false, true);
+        long start = LocalDate.of(2015, Month.JULY, 2).toEpochDay();
+
+        assertEquals(3, chargeCalendar.chargeableDays(chainsaw, start, 5));
+    }
+
+    /**
+     * Tests the day counts around Independence Day 2015, which falls on a Saturday and is observed on Friday.
+     */
+    @Test
+    void testCountDays_independenceDayOnWeekend() {
+        DayCounts dayCounts = chargeCalendar.countDays(LocalDate.of(2015, Month.JULY, 2).toEpochDay(), 5);
+
+        assertEquals(new DayCounts(2, 2, 1, 0), dayCounts);
+        // Chainsaw: weekday and holiday charge, no weekend charge
+        assertEquals(3, dayCounts.chargeableDays(ChargeCalendar.chargeMask(true, false, true)));
+        // Ladder: weekday and weekend charge, no holiday charge
+        assertEquals(4, dayCounts.chargeableDays(ChargeCalendar.chargeMask(true, true, false)));
+    }
+
+    /**
+     * Tests the day counts of a period containing Labor Day 2015 (September 7th).
+     */
+    @Test
+    void testCountDays_laborDay() {
+        DayCounts dayCounts = chargeCalendar.countDays(LocalDate.of(2015, Month.SEPTEMBER, 3).toEpochDay(), 6);
+
+        assertEquals(new DayCounts(3, 2, 1, 0), dayCounts);
+        assertEquals(3, dayCounts.chargeableDays(ChargeCalendar.chargeMask(true, false, false)));
+        assertEquals(4, dayCounts.chargeableDays(ChargeCalendar.chargeMask(true, false, true)));
+    }
+
+    /**
+     * Tests the classification of single days.
+     */
+    @Test
+    void testDayClass() {
+        assertEquals(ChargeCalendar.WEEKDAY, chargeCalendar.dayClass(LocalDate.of(2015, Month.JULY, 2).toEpochDay()));
+        assertEquals(ChargeCalendar.WEEKEND, chargeCalendar.dayClass(LocalDate.of(2015, Month.JULY, 5).toEpochDay()));
+        assertEquals(ChargeCalendar.WEEKEND, chargeCalendar.dayClass(LocalDate.of(2015, Month.JULY, 4).toEpochDay()));
+        assertEquals(ChargeCalendar.WEEKDAY_HOLIDAY,
+                chargeCalendar.dayClass(LocalDate.of(2015, Month.JULY, 3).toEpochDay()));
+        assertEquals(ChargeCalendar.WEEKDAY_HOLIDAY,
+                chargeCalendar.dayClass(LocalDate.of(2015, Month.SEPTEMBER, 7).toEpochDay()));
+    }
+
+    /**
+     * Tests that the arithmetic counts agree with a day-by-day walk for random periods and charge flags, including
+     * multi-year ones.
+     */
+    @Test
+    void testCountDays_matchesDayWalk() {
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            long start = LocalDate.of(1990, Month.JANUARY, 1).toEpochDay() + random.nextInt(20000);
+            int rentalDays = 1 + random.nextInt(i % 10 == 0 ? 3650 : 60);
+            boolean weekdayCharge = random.nextBoolean();
+            boolean weekendCharge = random.nextBoolean();
+            boolean holidayCharge = random.nextBoolean();
+
+            DayCounts expected = walkDays(LocalDate.ofEpochDay(start), rentalDays);
+            assertEquals(expected, chargeCalendar.countDays(start, rentalDays));
+            int chargeMask = ChargeCalendar.chargeMask(weekdayCharge, weekendCharge, holidayCharge);
+            assertEquals(expected.chargeableDays(chargeMask), chargeCalendar.countDays(start, rentalDays, chargeMask));
+        }
+    }
+
+    /**
+     * Tests that concurrent first use of the same years yields consistent counts.
+     */
+    @Test
+    void testCountDays_concurrentFirstUse() throws Exception {
+        ChargeCalendar sharedCalendar = new ChargeCalendar();
+        long start = LocalDate.of(2001, Month.JANUARY, 1).toEpochDay();
+        int expected = walkDays(LocalDate.ofEpochDay(start), 3650)
+                .chargeableDays(ChargeCalendar.chargeMask(true, false, false));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                tasks.add(() -> sharedCalendar.countDays(start, 3650, ChargeCalendar.chargeMask(true, false, false)));
+            }
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Tests that years outside the supported range are rejected.
+     */
+    @Test
+    void testCountDays_outsideSupportedRange() {
+        long start = LocalDate.of(ChargeCalendar.MAX_YEAR, Month.DECEMBER, 30).toEpochDay();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> chargeCalendar.countDays(start, 5, ChargeCalendar.chargeMask(true, true, true)));
+    }
+
+    private static DayCounts walkDays(LocalDate start, int rentalDays) {
+        int weekdays = 0;
+        int weekendDays = 0;
+        int weekdayHolidays = 0;
+        int weekendHolidays = 0;
+        for (int i = 0; i < rentalDays; i++) {
+            LocalDate date = start.plusDays(i);
+            boolean weekend = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+            LocalDate independenceDay = LocalDate.of(date.getYear(), Month.JULY, 4);
+            if (independenceDay.getDayOfWeek() == DayOfWeek.SATURDAY) {
+                independenceDay = independenceDay.minusDays(1);
+            } else if (independenceDay.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                independenceDay = independenceDay.plusDays(1);
+            }
+            boolean holiday = date.equals(independenceDay)
+                    || (date.getMonth() == Month.SEPTEMBER && date.getDayOfWeek() == DayOfWeek.MONDAY
+                    && date.getDayOfMonth() <= 7);
+            if (holiday) {
+                if (weekend) {
+                    weekendHolidays++;
+                } else {
+                    weekdayHolidays++;
+                }
+            } else if (weekend) {
+                weekendDays++;
+            } else {
+                weekdays++;
+            }
+        }
+        return new DayCounts(weekdays, weekendDays, weekdayHolidays, weekendHolidays);
+    }
+
+}
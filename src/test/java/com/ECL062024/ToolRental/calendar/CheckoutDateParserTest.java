@@ -0,0 +1,42 @@
+package com.ECL062024.ToolRental.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CheckoutDateParserTest {
+
+    /**
+     * Tests that valid dates parse to the same day as SimpleDateFormat.
+     *
+     * @throws ParseException if a date string cannot be parsed.
+     */
+    @Test
+    void testParseEpochDay_matchesSimpleDateFormat() throws ParseException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yy");
+        for (String dateStr : new String[]{"09/03/15", "07/02/20", "7/2/20", "07/02/2020", "02/29/24", "12/31/99",
+                "01/01/00", "06/15/45", "06/15/46", "06/15/1900"}) {
+            LocalDate expected = dateFormat.parse(dateStr).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+
+            assertEquals(expected.toEpochDay(), CheckoutDateParser.parseEpochDay(dateStr), dateStr);
+        }
+    }
+
+    /**
+     * Tests that malformed and out-of-range dates are rejected.
+     */
+    @Test
+    void testParseEpochDay_invalid() {
+        for (String dateStr : new String[]{null, "", "not a date", "07/02", "07-02-20", "13/01/20", "00/10/20",
+                "02/30/20", "02/29/23", "07/02/20x", "/02/20", "123/02/20"}) {
+            assertThrows(ParseException.class, () -> CheckoutDateParser.parseEpochDay(dateStr), String.valueOf(dateStr));
+        }
+    }
+
+}
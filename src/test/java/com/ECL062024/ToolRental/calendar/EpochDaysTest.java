@@ -0,0 +1,28 @@
+package com.ECL062024.ToolRental.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EpochDaysTest {
+
+    /**
+     * Tests the epoch-day conversions against java.time across several centuries.
+     */
+    @Test
+    void testConversions_matchLocalDate() {
+        LocalDate date = LocalDate.of(1600, 1, 1);
+        LocalDate end = LocalDate.of(2400, 12, 31);
+        while (!date.isAfter(end)) {
+            long epochDay = date.toEpochDay();
+            assertEquals(epochDay, EpochDays.of(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+            assertEquals(date.getYear(), EpochDays.yearOf(epochDay));
+            assertEquals(date.getDayOfWeek().getValue() - 1, EpochDays.dayOfWeekIndex(epochDay));
+            assertEquals(date.lengthOfYear(), EpochDays.lengthOfYear(date.getYear()));
+            date = date.plusDays(1);
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.ECL062024.ToolRental.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HolidayRuleTest {
+
+    /**
+     * Tests that weekend dates of observed holidays move to the nearest weekday.
+     */
+    @Test
+    void testObservedDay_fixedDate() {
+        HolidayRule independenceDay = HolidayRule.parse("07-04 observed");
+        // Saturday, Sunday and Wednesday
+        assertEquals(LocalDate.of(2015, 7, 3).toEpochDay(), independenceDay.observedDay(2015));
+        assertEquals(LocalDate.of(2021, 7, 5).toEpochDay(), independenceDay.observedDay(2021));
+        assertEquals(LocalDate.of(2018, 7, 4).toEpochDay(), independenceDay.observedDay(2018));
+        assertEquals(LocalDate.of(2015, 7, 4).toEpochDay(), HolidayRule.parse("07-04").observedDay(2015));
+        assertEquals(Long.MIN_VALUE, HolidayRule.parse("02-29").observedDay(2021));
+    }
+
+    /**
+     * Tests nth and last weekday rules against java.time for every month of several years.
+     */
+    @Test
+    void testObservedDay_nthWeekday() {
+        for (int year = 1999; year <= 2030; year++) {
+            for (int month = 1; month <= 12; month++) {
+                for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+                    LocalDate first = LocalDate.of(year, month, 1);
+                    for (int ordinal = 1; ordinal <= 4; ordinal++) {
+                        assertEquals(first.with(TemporalAdjusters.dayOfWeekInMonth(ordinal, dayOfWeek)).toEpochDay(),
+                                HolidayRule.nthWeekday(month, ordinal, dayOfWeek).observedDay(year));
+                    }
+                    assertEquals(first.with(TemporalAdjusters.lastInMonth(dayOfWeek)).toEpochDay(),
+                            HolidayRule.nthWeekday(month, HolidayRule.LAST, dayOfWeek).observedDay(year));
+                }
+            }
+        }
+        assertEquals("last monday of 05", HolidayRule.parse("Last Monday of 05").toString());
+    }
+
+    /**
+     * Tests that holidays observed across a year boundary belong to the year they are observed in.
+     */
+    @Test
+    void testHolidays_acrossYearBoundary() {
+        DefaultHolidaySchedule schedule = new DefaultHolidaySchedule("01-01 observed, 12-25 observed, 12-31");
+
+        // January 1st 2022 is a Saturday, observed on Friday December 31st 2021
+        assertArrayEquals(new long[]{LocalDate.of(2021, 1, 1).toEpochDay(), LocalDate.of(2021, 12, 24).toEpochDay(),
+                LocalDate.of(2021, 12, 31).toEpochDay()}, schedule.holidays(2021));
+        assertArrayEquals(new long[]{LocalDate.of(2022, 12, 26).toEpochDay(),
+                LocalDate.of(2022, 12, 31).toEpochDay()}, schedule.holidays(2022));
+        assertEquals(0, new DefaultHolidaySchedule("").holidays(2022).length);
+    }
+
+    /**
+     * Tests that configured holidays are applied by the charge calendar.
+     */
+    @Test
+    void testChargeCalendar_configuredHolidays() {
+        ChargeCalendar calendar = new ChargeCalendar(
+                new DefaultHolidaySchedule(DefaultHolidaySchedule.DEFAULT_RULES + ", 12-25 observed"));
+
+        assertTrue(calendar.isHoliday(LocalDate.of(2021, 12, 24).toEpochDay()));
+        assertTrue(calendar.isHoliday(LocalDate.of(2021, 9, 6).toEpochDay()));
+        assertEquals(ChargeCalendar.WEEKEND, calendar.dayClass(LocalDate.of(2021, 12, 25).toEpochDay()));
+        assertEquals(ChargeCalendar.WEEKEND_HOLIDAY, new ChargeCalendar(new DefaultHolidaySchedule("12-25"))
+                .dayClass(LocalDate.of(2021, 12, 25).toEpochDay()));
+    }
+
+    /**
+     * Tests that malformed rules are rejected.
+     */
+    @Test
+    void testParse_invalidRules() {
+        for (String rule : new String[]{"13-01", "02-30", "7-4", "07-04 later", "fifth monday of 09",
+                "first funday of 09", "first monday in 09", "first monday of 13"}) {
+            assertThrows(IllegalArgumentException.class, () -> HolidayRule.parse(rule), rule);
+        }
+    }
+
+}
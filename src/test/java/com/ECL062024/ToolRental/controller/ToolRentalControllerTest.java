@@ -0,0 +1,335 @@
+package com.ECL062024.ToolRental.controller;
+
+import com.ECL062024.ToolRental.calendar.ChargeCalendar;
+import com.ECL062024.ToolRental.calendar.DefaultHolidaySchedule;
+import com.ECL062024.ToolRental.inventory.ToolAvailability;
+import com.ECL062024.ToolRental.inventory.ToolInventory;
+import com.ECL062024.ToolRental.journal.AgreementJournal;
+import com.ECL062024.ToolRental.metrics.CheckoutMetrics;
+import com.ECL062024.ToolRental.pricing.PricingEngine;
+import com.ECL062024.ToolRental.promotion.PromotionEngine;
+import com.ECL062024.ToolRental.repository.ToolRepository;
+import com.ECL062024.ToolRental.service.QuoteCache;
+import com.ECL062024.ToolRental.service.ToolRentalService;
+import com.ECL062024.ToolRental.store.StoreDirectory;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ToolRentalController.class, properties = {"toolrental.inventory.units=JAKR:0",
+        "toolrental.stores.ids=west", "toolrental.stores.west.tools=LADW", "toolrental.stores.west.holidays=",
+        "toolrental.promotions=spring: 20% coupon SPRING20 type Chainsaw", "toolrental.returns.enabled=true",
+        "toolrental.journal.enabled=true", "toolrental.journal.fsync=false"})
+@Import({ToolRentalService.class, ToolRepository.class, ChargeCalendar.class, DefaultHolidaySchedule.class,
+        QuoteCache.class,
+        CheckoutMetrics.class, ToolInventory.class, ToolAvailability.class, AgreementJournal.class,
+        StoreDirectory.class, PricingEngine.class, PromotionEngine.class})
+class ToolRentalControllerTest {
+
+    @TempDir
+    static Path journalDir;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void journalPath(DynamicPropertyRegistry registry) {
+        registry.add("toolrental.journal.path", () -> journalDir.resolve("agreements.journal").toString());
+    }
+
+    /**
+     * Tests that a checkout returns the agreement as JSON with status 201.
+     */
+    @Test
+    void testCheckOut() throws Exception {
+        mockMvc.perform(post("/api/rentals/checkouts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCode\":\"LADW\",\"rentalDays\":3,\"discountPercent\":10,"
+                                + "\"checkoutDate\":\"07/02/20\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.toolCode").value("LADW"))
+                .andExpect(jsonPath("$.toolType").value("Ladder"))
+                .andExpect(jsonPath("$.checkoutDate").value("2020-07-02"))
+                .andExpect(jsonPath("$.dueDate").value("2020-07-05"))
+                .andExpect(jsonPath("$.chargeDays").value(2))
+                .andExpect(jsonPath("$.finalCharge").value(3.58));
+    }
+
+    /**
+     * Tests that a quote returns the priced agreement with status 200.
+     */
+    @Test
+    void testQuote() throws Exception {
+        mockMvc.perform(post("/api/rentals/quotes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCode\":\"CHNS\",\"rentalDays\":5,\"discountPercent\":25,"
+                                + "\"checkoutDate\":\"07/02/15\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.discountAmount").value(1.12))
+                .andExpect(jsonPath("$.finalCharge").value(3.35));
+    }
+
+    /**
+     * Tests that a coupon code replaces a smaller discount and that unknown coupon codes are rejected.
+     */
+    @Test
+    void testQuote_coupon() throws Exception {
+        mockMvc.perform(post("/api/rentals/quotes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCode\":\"CHNS\",\"rentalDays\":5,\"discountPercent\":10,"
+                                + "\"checkoutDate\":\"07/02/15\",\"couponCode\":\"SPRING20\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.discountPercent").value(20))
+                .andExpect(jsonPath("$.finalCharge").value(3.58));
+
+        mockMvc.perform(post("/api/rentals/quotes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCode\":\"CHNS\",\"rentalDays\":5,\"discountPercent\":10,"
+                                + "\"checkoutDate\":\"07/02/15\",\"couponCode\":\"FALL20\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Coupon FALL20 is not valid."));
+    }
+
+    /**
+     * Tests that a store prices with its own holidays and only offers its own fleet.
+     */
+    @Test
+    void testQuote_store() throws Exception {
+        mockMvc.perform(post("/api/rentals/quotes")
+                        .param("store", "west")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCode\":\"LADW\",\"rentalDays\":3,\"discountPercent\":10,"
+                                + "\"checkoutDate\":\"07/02/20\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.chargeDays").value(3))
+                .andExpect(jsonPath("$.finalCharge").value(5.37));
+
+        mockMvc.perform(post("/api/rentals/quotes")
+                        .param("store", "west")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCode\":\"CHNS\",\"rentalDays\":5,\"discountPercent\":25,"
+                                + "\"checkoutDate\":\"07/02/15\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("Tool with code CHNS does not exist."));
+
+        mockMvc.perform(post("/api/rentals/quotes")
+                        .param("store", "east")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCode\":\"LADW\",\"rentalDays\":3,\"discountPercent\":10,"
+                                + "\"checkoutDate\":\"07/02/20\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("Store east does not exist."));
+    }
+
+    /**
+     * Tests the 4xx mapping of unknown tools, invalid discounts, unparseable dates and unavailable tools.
+     */
+    @Test
+    void testCheckOut_errors() throws Exception {
+        mockMvc.perform(post("/api/rentals/checkouts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCode\":\"NONE\",\"rentalDays\":3,\"discountPercent\":0,"
+                                + "\"checkoutDate\":\"07/02/20\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("Tool with code NONE does not exist."));
+
+        mockMvc.perform(post("/api/rentals/checkouts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCode\":\"JAKR\",\"rentalDays\":5,\"discountPercent\":101,"
+                                + "\"checkoutDate\":\"09/03/15\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Discount percent must be between 0 and 100 inclusive."));
+
+        mockMvc.perform(post("/api/rentals/checkouts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCode\":\"JAKR\",\"rentalDays\":5,\"discountPercent\":0,"
+                                + "\"checkoutDate\":\"not a date\"}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/rentals/checkouts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCode\":\"JAKR\",\"rentalDays\":5,\"discountPercent\":0,"
+                                + "\"checkoutDate\":\"09/03/15\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.detail")
+                        .value("Tool with code JAKR is already booked between 2015-09-03 and 2015-09-08."));
+    }
+
+    /**
+     * Tests that a batch checkout reports per-item results in input order.
+     */
+    @Test
+    void testCheckOutBatch() throws Exception {
+        mockMvc.perform(post("/api/rentals/checkouts/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"toolCode\":\"JAKD\",\"rentalDays\":6,\"discountPercent\":0,"
+                                + "\"checkoutDate\":\"09/03/15\"},"
+                                + "{\"toolCode\":\"JAKD\",\"rentalDays\":0,\"discountPercent\":0,"
+                                + "\"checkoutDate\":\"09/03/15\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[0].agreement.chargeDays").value(3))
+                .andExpect(jsonPath("$[1].success").value(false))
+                .andExpect(jsonPath("$[1].error").value("Rental days must be 1 or greater."));
+    }
+
+    /**
+     * Tests that a cart checkout returns one agreement with a line per tool and their totals, and that a cart
+     * with a tool without units is rejected as a whole.
+     */
+    @Test
+    void testCheckOutCart() throws Exception {
+        mockMvc.perform(post("/api/rentals/checkouts/cart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCodes\":[\"LADW\",\"CHNS\"],\"rentalDays\":3,\"discountPercent\":10,"
+                                + "\"checkoutDate\":\"07/02/20\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.dueDate").value("2020-07-05"))
+                .andExpect(jsonPath("$.lines[0].toolCode").value("LADW"))
+                .andExpect(jsonPath("$.lines[0].finalCharge").value(3.58))
+                .andExpect(jsonPath("$.lines[1].toolCode").value("CHNS"))
+                .andExpect(jsonPath("$.lines[1].chargeDays").value(2))
+                .andExpect(jsonPath("$.lines[1].finalCharge").value(2.68))
+                .andExpect(jsonPath("$.preDiscountCharge").value(6.96))
+                .andExpect(jsonPath("$.discountAmount").value(0.70))
+                .andExpect(jsonPath("$.finalCharge").value(6.26));
+
+        mockMvc.perform(post("/api/rentals/checkouts/cart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCodes\":[\"JAKD\",\"JAKR\"],\"rentalDays\":5,\"discountPercent\":0,"
+                                + "\"checkoutDate\":\"09/03/15\"}"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(post("/api/rentals/quotes/cart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCodes\":[],\"rentalDays\":5,\"discountPercent\":0,"
+                                + "\"checkoutDate\":\"09/03/15\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Cart must contain at least one tool."));
+    }
+
+    /**
+     * Tests that a return is settled with its late fee, that an overflowing return is rejected, and that a bulk
+     * check-in reports invalid returns in place.
+     */
+    @Test
+    void testCheckIn() throws Exception {
+        long ladder = checkOut("{\"toolCode\":\"LADW\",\"rentalDays\":3,\"discountPercent\":10,"
+                + "\"checkoutDate\":\"07/02/20\"}");
+        mockMvc.perform(post("/api/rentals/returns")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"agreementId\":" + ladder + ",\"returnDate\":\"+999999999-12-31\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Rental charge out of range: integer overflow"));
+        mockMvc.perform(post("/api/rentals/returns")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"agreementId\":" + ladder + ",\"returnDate\":\"2020-07-08\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.agreementId").value(ladder))
+                .andExpect(jsonPath("$.dueDate").value("2020-07-05"))
+                .andExpect(jsonPath("$.lateDays").value(3))
+                .andExpect(jsonPath("$.lateChargeDays").value(3))
+                .andExpect(jsonPath("$.lateFee").value(5.97))
+                .andExpect(jsonPath("$.totalCharge").value(9.55));
+
+        mockMvc.perform(post("/api/rentals/returns")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"agreementId\":" + ladder + ",\"returnDate\":\"2020-07-08\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("No open rental with agreement id " + ladder + "."));
+
+        long chainsaw = checkOut("{\"toolCode\":\"CHNS\",\"rentalDays\":5,\"discountPercent\":25,"
+                + "\"checkoutDate\":\"07/02/15\"}");
+        mockMvc.perform(post("/api/rentals/returns/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"agreementId\":" + chainsaw + ",\"returnDate\":\"2015-07-01\"},"
+                                + "{\"agreementId\":" + chainsaw + ",\"returnDate\":\"2015-07-06\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].success").value(false))
+                .andExpect(jsonPath("$[0].error").value("Return date must not be before the checkout date."))
+                .andExpect(jsonPath("$[1].success").value(true))
+                .andExpect(jsonPath("$[1].settlement.lateFee").value(0.0))
+                .andExpect(jsonPath("$[1].settlement.totalCharge").value(3.35));
+    }
+
+    private long checkOut(String request) throws Exception {
+        String response = mockMvc.perform(post("/api/rentals/checkouts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.parse(response).read("$.agreementId", Long.class);
+    }
+
+    /**
+     * Tests that quote matrices return one priced cell per rental length and per checkout date.
+     */
+    @Test
+    void testQuoteMatrix() throws Exception {
+        mockMvc.perform(get("/api/rentals/tools/LADW/quotes/lengths")
+                        .param("maxRentalDays", "3")
+                        .param("checkoutDate", "07/02/20")
+                        .param("discountPercent", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.toolType").value("Ladder"))
+                .andExpect(jsonPath("$.cells.length()").value(3))
+                .andExpect(jsonPath("$.cells[2].dueDate").value("2020-07-05"))
+                .andExpect(jsonPath("$.cells[2].chargeDays").value(2))
+                .andExpect(jsonPath("$.cells[2].finalCharge").value(3.58));
+
+        mockMvc.perform(get("/api/rentals/tools/CHNS/quotes/dates")
+                        .param("rentalDays", "5")
+                        .param("fromDate", "07/01/15")
+                        .param("dates", "31")
+                        .param("discountPercent", "25"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cells.length()").value(31))
+                .andExpect(jsonPath("$.cells[1].checkoutDate").value("2015-07-02"))
+                .andExpect(jsonPath("$.cells[1].finalCharge").value(3.35));
+
+        mockMvc.perform(get("/api/rentals/tools/LADW/quotes/lengths")
+                        .param("maxRentalDays", "367")
+                        .param("checkoutDate", "07/02/20"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests that availability reports free tools and tools without units.
+     */
+    @Test
+    void testAvailability() throws Exception {
+        mockMvc.perform(get("/api/rentals/tools/LADW/availability")
+                        .param("rentalDays", "3")
+                        .param("checkoutDate", "07/02/20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(true))
+                .andExpect(jsonPath("$.nextAvailableDate").value("2020-07-02"));
+
+        mockMvc.perform(get("/api/rentals/tools/JAKR/availability")
+                        .param("rentalDays", "3")
+                        .param("checkoutDate", "07/02/20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(false))
+                .andExpect(jsonPath("$.nextAvailableDate").doesNotExist());
+
+        mockMvc.perform(get("/api/rentals/tools/NONE/availability")
+                        .param("rentalDays", "3")
+                        .param("checkoutDate", "07/02/20"))
+                .andExpect(status().isNotFound());
+    }
+
+}
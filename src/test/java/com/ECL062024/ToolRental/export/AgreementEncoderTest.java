@@ -0,0 +1,160 @@
+package com.ECL062024.ToolRental.export;
+
+import com.ECL062024.ToolRental.controller.RentalAgreementResponse;
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AgreementEncoderTest {
+
+    /**
+     * Tests JSON output against the golden file and against Jackson's serialization of the REST response.
+     *
+     * @throws IOException if the golden file cannot be read.
+     */
+    @Test
+    void testEncodeJson_matchesGoldenFile() throws IOException {
+        // Configured as Spring Boot configures the mapper of the REST API
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        String[] golden = new String(resource("agreements.jsonl"), StandardCharsets.UTF_8).split("\n");
+        List<RentalAgreement> agreements = agreements();
+        assertEquals(golden.length, agreements.size());
+
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        for (int i = 0; i < golden.length; i++) {
+            buffer.clear();
+            int written = AgreementEncoder.encodeJson(agreements.get(i), buffer);
+            String json = new String(buffer.array(), 0, written, StandardCharsets.UTF_8);
+            assertEquals(golden[i], json);
+            assertEquals(objectMapper.writeValueAsString(RentalAgreementResponse.from(agreements.get(i))), json);
+        }
+    }
+
+    /**
+     * Tests binary output against the golden file and that the buffer's byte order is kept.
+     *
+     * @throws IOException if the golden file cannot be read.
+     */
+    @Test
+    void testEncodeBinary_matchesGoldenFile() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096).order(ByteOrder.BIG_ENDIAN);
+        for (RentalAgreement agreement : agreements()) {
+            int written = AgreementEncoder.encodeBinary(agreement, buffer);
+            assertEquals(AgreementEncoder.binarySize(agreement), written);
+        }
+        assertSame(ByteOrder.BIG_ENDIAN, buffer.order());
+        assertArrayEquals(resource("agreements.bin"), Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+    /**
+     * Tests that an agreement that does not fit leaves the buffer's position unchanged.
+     */
+    @Test
+    void testEncode_overflowLeavesBufferUnchanged() {
+        RentalAgreement agreement = agreements().get(3);
+        ByteBuffer buffer = ByteBuffer.allocate(AgreementEncoder.binarySize(agreement) - 1);
+        buffer.put((byte) 1);
+        assertThrows(BufferOverflowException.class, () -> AgreementEncoder.encodeBinary(agreement, buffer));
+        assertEquals(1, buffer.position());
+        assertThrows(BufferOverflowException.class, () -> AgreementEncoder.encodeJson(agreement, buffer));
+        assertEquals(1, buffer.position());
+
+        RentalAgreement tooLong = new RentalAgreement.Builder("LADW", "x".repeat(0x10000), "Werner")
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .dueDate(LocalDate.of(2020, 7, 3))
+                .build();
+        ByteBuffer large = ByteBuffer.allocate(0x20000);
+        assertThrows(IllegalArgumentException.class, () -> AgreementEncoder.encodeBinary(tooLong, large));
+        assertEquals(0, large.position());
+    }
+
+    /**
+     * Tests streaming many agreements through the stream buffer, including one larger than the buffer.
+     *
+     * @throws IOException if the stream fails.
+     */
+    @Test
+    void testWriteAll_streamsInOrder() throws IOException {
+        List<RentalAgreement> agreements = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            agreements.addAll(agreements());
+        }
+        agreements.add(new RentalAgreement.Builder("LADW", "x".repeat(200_000), "Werner")
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .dueDate(LocalDate.of(2020, 7, 3))
+                .build());
+        agreements.add(agreements.get(0));
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        assertEquals(agreements.size(), AgreementEncoder.writeJsonLines(agreements, Channels.newChannel(json)));
+        String[] lines = json.toString(StandardCharsets.UTF_8).split("\n");
+        String[] golden = new String(resource("agreements.jsonl"), StandardCharsets.UTF_8).split("\n");
+        assertEquals(agreements.size(), lines.length);
+        assertEquals(golden[3], lines[3999]);
+        assertTrue(lines[4000].startsWith("{\"toolCode\":\"LADW\",\"toolType\":\"xxx"));
+        assertTrue(lines[4000].endsWith("\"finalCharge\":0.00,\"agreementId\":0}"));
+        assertEquals(golden[0], lines[4001]);
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        assertEquals(4000, AgreementEncoder.writeBinary(agreements.subList(0, 4000), Channels.newChannel(binary)));
+        byte[] expected = String.join("", Collections.nCopies(1000, new String(resource("agreements.bin"),
+                StandardCharsets.ISO_8859_1))).getBytes(StandardCharsets.ISO_8859_1);
+        assertArrayEquals(expected, binary.toByteArray());
+    }
+
+    private static List<RentalAgreement> agreements() {
+        return List.of(
+                agreement("LADW", "Ladder", "Werner", 3, LocalDate.of(2020, 7, 2), 199, 2, 398, 10, 40, 358),
+                agreement("CHNS", "Chainsaw", "Stihl", 5, LocalDate.of(2015, 7, 2), 149, 3, 447, 25, 112, 335),
+                agreement("JAKR", "Jackhammer", "Ridgid", 9, LocalDate.of(2015, 7, 2), 299, 5, 1495, 0, 0, 1495),
+                agreement("TEST", "Tile \"saw\"\n\t\u0001", "Größe ✓ 🔨\\", 3650,
+                        LocalDate.of(1999, 12, 31), 123456789, 2600, 320987651400L, 100, 320987651400L, 0));
+    }
+
+    private static RentalAgreement agreement(String toolCode, String toolType, String toolBrand, int rentalDays,
+                                             LocalDate checkoutDate, long dailyChargeCents, int chargeDays,
+                                             long preDiscountChargeCents, int discountPercent,
+                                             long discountAmountCents, long finalChargeCents) {
+        return new RentalAgreement.Builder(toolCode, toolType, toolBrand)
+                .rentalDays(rentalDays)
+                .checkoutDate(checkoutDate)
+                .dueDate(checkoutDate.plusDays(rentalDays))
+                .dailyChargeCents(dailyChargeCents)
+                .chargeDays(chargeDays)
+                .preDiscountChargeCents(preDiscountChargeCents)
+                .discountPercent(discountPercent)
+                .discountAmountCents(discountAmountCents)
+                .finalChargeCents(finalChargeCents)
+                .build();
+    }
+
+    private static byte[] resource(String name) throws IOException {
+        try (InputStream in = AgreementEncoderTest.class.getResourceAsStream("/export/" + name)) {
+            return in.readAllBytes();
+        }
+    }
+
+}
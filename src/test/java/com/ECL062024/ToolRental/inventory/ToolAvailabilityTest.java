@@ -0,0 +1,178 @@
+package com.ECL062024.ToolRental.inventory;
+
+import com.ECL062024.ToolRental.calendar.EpochDays;
+import com.ECL062024.ToolRental.service.BookingConflictException;
+import com.ECL062024.ToolRental.service.ToolRentalService;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ToolAvailabilityTest {
+    private static final long JULY_1 = EpochDays.of(2020, 7, 1);
+
+    /**
+     * Tests booking, conflicts and cancellation of a single-unit tool.
+     */
+    @Test
+    void testBook_singleUnit() {
+        ToolInventory inventory = new ToolInventory("JAKR:1");
+        ToolAvailability availability = new ToolAvailability(inventory);
+
+        assertTrue(availability.book("JAKR", JULY_1, 4));
+        assertFalse(availability.isFree("JAKR", JULY_1 + 3, 2));
+        assertFalse(availability.book("JAKR", JULY_1 - 1, 2));
+        assertTrue(availability.isFree("JAKR", JULY_1 - 3, 3));
+        assertTrue(availability.book("JAKR", JULY_1 + 4, 1));
+        assertEquals(OptionalLong.of(JULY_1 + 5), availability.nextFreeDay("JAKR", JULY_1 - 1, 2));
+        assertEquals(OptionalLong.of(JULY_1 - 10), availability.nextFreeDay("JAKR", JULY_1 - 10, 10));
+
+        availability.cancel("JAKR", JULY_1, 4);
+        assertTrue(availability.isFree("JAKR", JULY_1, 4));
+        assertThrows(IllegalStateException.class, () -> availability.cancel("JAKR", JULY_1, 4));
+
+        // Untracked tools are always free and tools without units never are
+        assertTrue(availability.book("LADW", JULY_1, 4));
+        assertTrue(availability.isFree("LADW", JULY_1, 4));
+        inventory.setUnits("JAKD", 0);
+        assertFalse(availability.isFree("JAKD", JULY_1, 1));
+        assertEquals(OptionalLong.empty(), availability.nextFreeDay("JAKD", JULY_1, 1));
+        assertThrows(IllegalArgumentException.class, () -> availability.book("JAKR", JULY_1, 0));
+        assertThrows(IllegalArgumentException.class, () -> availability.book("JAKR", Long.MAX_VALUE - 1, 1));
+    }
+
+    /**
+     * Tests availability answers against a day-by-day count of random bookings of a multi-unit tool.
+     */
+    @Test
+    void testBook_matchesDailyCounts() {
+        int units = 3;
+        int horizon = 365;
+        ToolInventory inventory = new ToolInventory("JAKR:" + units);
+        ToolAvailability availability = new ToolAvailability(inventory);
+        int[] booked = new int[horizon + 60];
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2_000; i++) {
+            int start = random.nextInt(horizon);
+            int days = 1 + random.nextInt(30);
+            boolean free = maxBooked(booked, start, days) < units;
+
+            assertEquals(free, availability.isFree("JAKR", JULY_1 + start, days));
+            assertEquals(free, availability.book("JAKR", JULY_1 + start, days));
+            if (free) {
+                add(booked, start, days, 1);
+            }
+            int next = start;
+            while (maxBooked(booked, next, days) >= units) {
+                next++;
+            }
+            assertEquals(OptionalLong.of(JULY_1 + next), availability.nextFreeDay("JAKR", JULY_1 + start, days));
+
+            if (free && random.nextInt(3) == 0) {
+                availability.cancel("JAKR", JULY_1 + start, days);
+                add(booked, start, days, -1);
+            }
+        }
+    }
+
+    /**
+     * Tests that concurrent bookings never book more units than exist on any day.
+     *
+     * @throws Exception if a booking thread fails.
+     */
+    @Test
+    void testBook_concurrentNeverOverbooks() throws Exception {
+        int units = 2;
+        ToolAvailability availability = new ToolAvailability(new ToolInventory("JAKR:" + units));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<long[]>>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                List<long[]> bookings = new ArrayList<>();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 5_000; i++) {
+                    long start = JULY_1 + random.nextInt(100);
+                    int days = 1 + random.nextInt(5);
+                    if (availability.book("JAKR", start, days)) {
+                        bookings.add(new long[]{start, days});
+                    }
+                }
+                return bookings;
+            }));
+        }
+        int[] booked = new int[120];
+        try {
+            for (Future<List<long[]>> future : futures) {
+                for (long[] booking : future.get()) {
+                    add(booked, (int) (booking[0] - JULY_1), (int) booking[1], 1);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int day = 0; day < booked.length; day++) {
+            assertTrue(booked[day] <= units, "booked " + booked[day] + " of " + units + " units on day " + day);
+            assertEquals(booked[day] < units, availability.isFree("JAKR", JULY_1 + day, 1));
+        }
+    }
+
+    /**
+     * Tests that checkouts book their rental period and conflicting checkouts are rejected.
+     *
+     * @throws ParseException if a date string cannot be parsed.
+     */
+    @Test
+    void testCheckOutTool_booksRentalPeriod() throws ParseException {
+        ToolInventory inventory = new ToolInventory("JAKR:1");
+        ToolRentalService service = new ToolRentalService.Builder()
+                .toolInventory(inventory)
+                .build();
+
+        service.checkOutTool("JAKR", 4, 0, "07/02/20");
+        assertFalse(service.isAvailable("JAKR", 2, "07/05/20"));
+        assertTrue(service.isAvailable("JAKR", 2, "07/06/20"));
+        assertEquals(LocalDate.of(2020, 7, 6), service.nextAvailableDate("JAKR", 2, "07/01/20"));
+        BookingConflictException conflict = assertThrows(BookingConflictException.class,
+                () -> service.checkOutTool("JAKR", 2, 0, "07/05/20"));
+        assertEquals("Tool with code JAKR is already booked between 2020-07-05 and 2020-07-07.",
+                conflict.getMessage());
+
+        // The unit is held only over the rental period, so a later checkout finds it free
+        service.checkOutTool("JAKR", 2, 0, "07/10/20");
+        assertFalse(service.isAvailable("JAKR", 2, "07/10/20"));
+
+        inventory.setUnits("JAKD", 0);
+        assertNull(service.nextAvailableDate("JAKD", 1, "07/01/20"));
+    }
+
+    private static int maxBooked(int[] booked, int start, int days) {
+        int max = 0;
+        for (int day = start; day < start + days; day++) {
+            max = Math.max(max, booked[day]);
+        }
+        return max;
+    }
+
+    private static void add(int[] booked, int start, int days, int units) {
+        for (int day = start; day < start + days; day++) {
+            booked[day] += units;
+        }
+    }
+
+}
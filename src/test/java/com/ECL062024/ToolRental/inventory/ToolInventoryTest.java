@@ -0,0 +1,149 @@
+package com.ECL062024.ToolRental.inventory;
+
+import com.ECL062024.ToolRental.model.CheckoutRequest;
+import com.ECL062024.ToolRental.model.CheckoutResult;
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import com.ECL062024.ToolRental.service.ToolRentalService;
+import com.ECL062024.ToolRental.service.ToolUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ToolInventoryTest {
+    private static final int THREADS = 16;
+
+    /**
+     * Tests parsing of the configured unit counts.
+     */
+    @Test
+    void testConfiguredUnits() {
+        ToolInventory inventory = new ToolInventory("JAKR:2, JAKD:0");
+
+        assertTrue(inventory.isTracked("JAKR"));
+        assertEquals(2, inventory.units("JAKR"));
+        assertEquals(0, inventory.units("JAKD"));
+        assertFalse(inventory.isTracked("LADW"));
+        assertEquals(-1, inventory.units("LADW"));
+        inventory.setUnits("JAKR", 5);
+        assertEquals(5, inventory.units("JAKR"));
+        inventory.untrack("JAKR");
+        assertFalse(inventory.isTracked("JAKR"));
+        assertThrows(IllegalArgumentException.class, () -> inventory.setUnits("JAKR", -1));
+        assertThrows(IllegalArgumentException.class, () -> new ToolInventory("JAKR"));
+        assertThrows(IllegalArgumentException.class, () -> new ToolInventory("JAKR:many"));
+    }
+
+    /**
+     * Tests that concurrent checkouts of one hot tool, over periods spanning several calendar stripes, never rent
+     * out more units than exist on any day.
+     *
+     * @throws Exception if a checkout thread fails.
+     */
+    @Test
+    void testCheckOutTool_concurrentNeverOverbooks() throws Exception {
+        int units = 3;
+        int horizon = 400;
+        ToolRentalService service = new ToolRentalService.Builder()
+                .toolInventory(new ToolInventory("JAKR:" + units))
+                .build();
+        LocalDate first = LocalDate.of(2020, 7, 1);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("MM/dd/yy");
+
+        List<List<RentalAgreement>> rented = runConcurrently(() -> {
+            List<RentalAgreement> agreements = new ArrayList<>();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 500; i++) {
+                String checkoutDate = first.plusDays(random.nextInt(horizon)).format(format);
+                try {
+                    agreements.add(service.checkOutTool("JAKR", 1 + random.nextInt(90), 0, checkoutDate));
+                } catch (ToolUnavailableException e) {
+                    // Booked out by another terminal
+                }
+            }
+            return agreements;
+        });
+
+        int[] booked = new int[horizon + 90];
+        for (List<RentalAgreement> agreements : rented) {
+            for (RentalAgreement agreement : agreements) {
+                int start = (int) (agreement.getCheckoutLocalDate().toEpochDay() - first.toEpochDay());
+                for (int day = start; day < start + agreement.getRentalDays(); day++) {
+                    booked[day]++;
+                }
+            }
+        }
+        for (int day = 0; day < booked.length; day++) {
+            assertTrue(booked[day] <= units, "rented " + booked[day] + " of " + units + " units on day " + day);
+            assertEquals(booked[day] < units, service.isAvailable("JAKR", 1, first.plusDays(day).format(format)));
+        }
+    }
+
+    /**
+     * Tests that checkouts hold a unit only over their rental period, so non-overlapping future-dated checkouts of
+     * a single unit all succeed.
+     *
+     * @throws ParseException if the checkout date string cannot be parsed.
+     */
+    @Test
+    void testCheckOutTool_holdsUnitOverRentalPeriod() throws ParseException {
+        ToolInventory inventory = new ToolInventory("JAKR:1");
+        ToolRentalService service = new ToolRentalService.Builder()
+                .toolInventory(inventory)
+                .build();
+
+        service.quoteTool("JAKR", 4, 0, "07/02/20");
+        assertTrue(service.isAvailable("JAKR", 4, "07/02/20"));
+        service.checkOutTool("JAKR", 5, 0, "12/01/26");
+        assertThrows(ToolUnavailableException.class, () -> service.checkOutTool("JAKR", 4, 0, "12/03/26"));
+
+        assertTrue(service.isAvailable("JAKR", 5, "12/20/26"));
+        service.checkOutTool("JAKR", 5, 0, "12/20/26");
+
+        List<CheckoutResult> results = service.checkOutTools(List.of(
+                new CheckoutRequest("JAKR", 4, 0, "12/22/26"),
+                new CheckoutRequest("JAKR", 4, 0, "08/03/20"),
+                new CheckoutRequest("LADW", 4, 0, "07/02/20")));
+        assertEquals("Tool with code JAKR is already booked between 2026-12-22 and 2026-12-26.",
+                results.get(0).getError());
+        assertTrue(results.get(1).isSuccess());
+        assertTrue(results.get(2).isSuccess());
+    }
+
+    private static <T> List<T> runConcurrently(Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
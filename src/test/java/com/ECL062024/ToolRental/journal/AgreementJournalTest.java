@@ -0,0 +1,434 @@
+package com.ECL062024.ToolRental.journal;
+
+import com.ECL062024.ToolRental.calendar.ChargeCalendar;
+import com.ECL062024.ToolRental.inventory.ToolAvailability;
+import com.ECL062024.ToolRental.inventory.ToolInventory;
+import com.ECL062024.ToolRental.model.CheckoutRequest;
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import com.ECL062024.ToolRental.model.ReturnRequest;
+import com.ECL062024.ToolRental.repository.InMemoryToolCatalog;
+import com.ECL062024.ToolRental.service.ToolRentalService;
+import com.ECL062024.ToolRental.store.StoreDirectory;
+import com.ECL062024.ToolRental.store.StoreShard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class AgreementJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    private final List<AgreementJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (AgreementJournal journal : journals) {
+            journal.destroy();
+        }
+    }
+
+    /**
+     * Tests that journaled agreements are replayed field for field, with their stores, after reopening.
+     *
+     * @throws IOException if the journal cannot be written or read.
+     */
+    @Test
+    void testAppendAndReplay() throws IOException {
+        Path path = directory.resolve("agreements.journal");
+        AgreementJournal journal = open(path, 16, Duration.ZERO);
+        RentalAgreement agreement = agreement(0);
+        journal.append("", agreement);
+        journal.append("", agreement(1));
+        journal.append("east", List.of(agreement(2), agreement(3)));
+        journal.sync(journal.writeCheckIn("east", 3));
+        journal.destroy();
+
+        AgreementJournal reopened = open(path, 16, Duration.ZERO);
+        assertEquals(4, reopened.recoveredRecords());
+        List<RentalAgreement> replayed = new ArrayList<>();
+        List<String> stores = new ArrayList<>();
+        List<String> checkIns = new ArrayList<>();
+        assertEquals(4, reopened.replay((storeId, replayedAgreement) -> {
+            stores.add(storeId);
+            replayed.add(replayedAgreement);
+        }, (storeId, agreementId) -> checkIns.add(storeId + ":" + agreementId)));
+        assertEquals(4, replayed.size());
+        assertEquals(List.of("", "", "east", "east"), stores);
+        assertEquals(List.of("east:3"), checkIns);
+
+        RentalAgreement first = replayed.get(0);
+        assertEquals(agreement.getId(), first.getId());
+        assertEquals(agreement.getChargeMask(), first.getChargeMask());
+        assertEquals(agreement.getToolCode(), first.getToolCode());
+        assertEquals(agreement.getToolType(), first.getToolType());
+        assertEquals(agreement.getToolBrand(), first.getToolBrand());
+        assertEquals(agreement.getRentalDays(), first.getRentalDays());
+        assertEquals(agreement.getCheckoutLocalDate(), first.getCheckoutLocalDate());
+        assertEquals(agreement.getDueLocalDate(), first.getDueLocalDate());
+        assertEquals(agreement.getDailyChargeCents(), first.getDailyChargeCents());
+        assertEquals(agreement.getChargeDays(), first.getChargeDays());
+        assertEquals(agreement.getPreDiscountChargeCents(), first.getPreDiscountChargeCents());
+        assertEquals(agreement.getDiscountPercent(), first.getDiscountPercent());
+        assertEquals(agreement.getDiscountAmountCents(), first.getDiscountAmountCents());
+        assertEquals(agreement.getFinalChargeCents(), first.getFinalChargeCents());
+        assertEquals(LocalDate.of(2020, 7, 3), replayed.get(1).getCheckoutLocalDate());
+        assertEquals(4, replayed.get(3).getRentalDays());
+    }
+
+    /**
+     * Tests that concurrent appends are all durable and share syncs.
+     *
+     * @throws Exception if an appending thread fails.
+     */
+    @Test
+    void testAppend_groupCommit() throws Exception {
+        Path path = directory.resolve("agreements.journal");
+        AgreementJournal journal = open(path, 64, Duration.ofMillis(1));
+        int threads = 16;
+        int perThread = 200;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * perThread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        journal.append("", agreement(offset + i));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long syncs = journal.syncCount();
+        assertTrue(syncs < threads * perThread, syncs + " syncs for " + threads * perThread + " appends");
+        journal.destroy();
+
+        AgreementJournal reopened = open(path, 64, Duration.ZERO);
+        boolean[] seen = new boolean[threads * perThread];
+        reopened.replay((storeId, agreement) -> seen[agreement.getRentalDays() - 1] = true,
+                (storeId, agreementId) -> fail("no check-ins"));
+        for (int i = 0; i < seen.length; i++) {
+            assertTrue(seen[i], "agreement " + i + " was not replayed");
+        }
+    }
+
+    /**
+     * Tests that a torn or corrupt tail is truncated on recovery and appends continue after it.
+     *
+     * @throws IOException if the journal cannot be written or read.
+     */
+    @Test
+    void testRecover_truncatesTornTail() throws IOException {
+        Path path = directory.resolve("agreements.journal");
+        AgreementJournal journal = open(path, 16, Duration.ZERO);
+        for (int i = 0; i < 3; i++) {
+            journal.append("", agreement(i));
+        }
+        journal.destroy();
+        long intactSize = Files.size(path);
+
+        // Half of a fourth record, a cart of two agreements
+        byte[] record = AgreementCodec.encodeCheckout("", List.of(agreement(3), agreement(4)));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(record, 0, record.length / 2));
+        }
+        AgreementJournal recovered = open(path, 16, Duration.ZERO);
+        assertEquals(3, recovered.recoveredRecords());
+        assertEquals(intactSize, Files.size(path));
+        recovered.append("", agreement(4));
+        recovered.destroy();
+
+        // A flipped payload byte fails the checksum of the last record
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes);
+        assertEquals(3, open(path, 16, Duration.ZERO).recoveredRecords());
+
+        Files.write(directory.resolve("other.bin"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IllegalArgumentException.class, () -> open(directory.resolve("other.bin"), 16, Duration.ZERO));
+    }
+
+    /**
+     * Tests that a batch whose sync fails is truncated from the file, so the checkouts its callers roll back are not
+     * replayed, and that the journal refuses further records.
+     *
+     * @throws IOException if the journal cannot be written or read.
+     */
+    @Test
+    void testAppend_failedSyncTruncated() throws IOException {
+        Path path = directory.resolve("agreements.journal");
+        AtomicBoolean failSync = new AtomicBoolean();
+        AgreementJournal journal = new AgreementJournal(true, path, 16, Duration.ZERO, true) {
+            @Override
+            FileChannel openChannel() throws IOException {
+                return new FailingSyncChannel(super.openChannel(), failSync);
+            }
+        };
+        journal.afterPropertiesSet();
+        journals.add(journal);
+        journal.append("", agreement(0));
+        long durableSize = Files.size(path);
+
+        failSync.set(true);
+        assertThrows(UncheckedIOException.class, () -> journal.append("", List.of(agreement(1), agreement(2))));
+        assertEquals(durableSize, Files.size(path));
+        assertThrows(UncheckedIOException.class, () -> journal.write("", agreement(3)));
+        journal.destroy();
+
+        AgreementJournal reopened = open(path, 16, Duration.ZERO);
+        assertEquals(1, reopened.recoveredRecords());
+        assertEquals(1, reopened.replay((storeId, agreement) -> assertEquals(1, agreement.getRentalDays()),
+                (storeId, agreementId) -> fail("no check-ins")));
+    }
+
+    /**
+     * Tests that checkouts and check-ins are journaled, and that a restarted service restores the bookings of the
+     * rentals still open only.
+     *
+     * @throws Exception if the journal cannot be written or read.
+     */
+    @Test
+    void testCheckOut_journaledAndReplayed() throws Exception {
+        Path path = directory.resolve("agreements.journal");
+        AgreementJournal journal = open(path, 16, Duration.ZERO);
+        ToolRentalService service = service(journal);
+        RentalAgreement jackhammer = service.checkOutTool("JAKR", 4, 0, "07/02/20");
+        assertTrue(service.checkOutTools(List.of(new CheckoutRequest("LADW", 3, 10, "07/02/20"))).get(0)
+                .isSuccess());
+        RentalAgreement returned = service.checkOutTool("JAKR", 2, 0, "07/10/20");
+        service.checkInTool(ReturnRequest.of(returned, LocalDate.of(2020, 7, 11)));
+        journal.destroy();
+        assertThrows(IllegalStateException.class, () -> service.checkOutTool("LADW", 1, 0, "07/02/20"));
+
+        AgreementJournal reopened = open(path, 16, Duration.ZERO);
+        assertEquals(4, reopened.recoveredRecords());
+        ToolRentalService restarted = service(reopened);
+        restarted.afterPropertiesSet();
+        assertFalse(restarted.isAvailable("JAKR", 1, "07/05/20"));
+        assertTrue(restarted.isAvailable("JAKR", 1, "07/06/20"));
+        assertTrue(restarted.isAvailable("JAKR", 2, "07/10/20"));
+        assertThrows(IllegalArgumentException.class,
+                () -> restarted.checkInTool(ReturnRequest.of(returned, LocalDate.of(2020, 7, 11))));
+
+        // Replayed rentals are checked in by their ids, and new checkouts continue after them
+        restarted.checkInTool(ReturnRequest.of(jackhammer, LocalDate.of(2020, 7, 6)));
+        assertTrue(restarted.isAvailable("JAKR", 1, "07/05/20"));
+        assertEquals(4, restarted.checkOutTool("LADW", 1, 0, "07/02/20").getId());
+    }
+
+    /**
+     * Tests that rentals are restored to the store they were checked out at, whose units they book apart from the
+     * other stores', and that the rentals of a store no longer configured are dropped.
+     *
+     * @throws Exception if the journal cannot be written or read.
+     */
+    @Test
+    void testCheckOut_replayedPerStore() throws Exception {
+        Path path = directory.resolve("agreements.journal");
+        AgreementJournal journal = open(path, 16, Duration.ZERO);
+        ToolRentalService service = service(journal, eastStore());
+        RentalAgreement east = service.checkOutTool("east", "JAKR", 4, 0, "07/02/20");
+        service.checkOutTool("JAKR", 4, 0, "07/02/20");
+        journal.destroy();
+
+        AgreementJournal withoutEast = open(path, 16, Duration.ZERO);
+        ToolRentalService defaultOnly = service(withoutEast, StoreDirectory.empty());
+        defaultOnly.afterPropertiesSet();
+        assertFalse(defaultOnly.isAvailable("JAKR", 1, "07/05/20"));
+        withoutEast.destroy();
+
+        ToolRentalService restarted = service(open(path, 16, Duration.ZERO), eastStore());
+        restarted.afterPropertiesSet();
+        assertFalse(restarted.isAvailable("east", "JAKR", 1, "07/05/20"));
+        assertThrows(IllegalArgumentException.class,
+                () -> restarted.checkInTool(ReturnRequest.of(east, LocalDate.of(2020, 7, 6))));
+        restarted.checkInTool("east", ReturnRequest.of(east, LocalDate.of(2020, 7, 6)));
+        assertTrue(restarted.isAvailable("east", "JAKR", 1, "07/05/20"));
+        assertFalse(restarted.isAvailable("JAKR", 1, "07/05/20"));
+        assertEquals(3, restarted.checkOutTool("east", "LADW", 1, 0, "07/02/20").getId());
+    }
+
+    private AgreementJournal open(Path path, int batchSize, Duration maxDelay) throws IOException {
+        AgreementJournal journal = new AgreementJournal(true, path, batchSize, maxDelay, true);
+        journal.afterPropertiesSet();
+        journals.add(journal);
+        return journal;
+    }
+
+    private static ToolRentalService service(AgreementJournal journal) {
+        return service(journal, StoreDirectory.empty());
+    }
+
+    private static ToolRentalService service(AgreementJournal journal, StoreDirectory storeDirectory) {
+        ToolInventory inventory = new ToolInventory("JAKR:1");
+        return new ToolRentalService.Builder()
+                .toolInventory(inventory)
+                .agreementJournal(journal)
+                .storeDirectory(storeDirectory)
+                .returnsEnabled(true)
+                .build();
+    }
+
+    private static StoreDirectory eastStore() {
+        return new StoreDirectory(List.of(new StoreShard("east", new InMemoryToolCatalog(), new ChargeCalendar(),
+                new ToolAvailability(new ToolInventory("JAKR:1")))));
+    }
+
+    /**
+     * File channel whose syncs fail on demand, after the data has been written.
+     */
+    private static final class FailingSyncChannel extends FileChannel {
+        private final FileChannel channel;
+        private final AtomicBoolean failSync;
+
+        private FailingSyncChannel(FileChannel channel, AtomicBoolean failSync) {
+            this.channel = channel;
+            this.failSync = failSync;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (failSync.get()) {
+                throw new IOException("Simulated sync failure");
+            }
+            channel.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return channel.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return channel.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static RentalAgreement agreement(int i) {
+        return new RentalAgreement.Builder("LADW", "Ladder", "Werner")
+                .id(i + 1)
+                .rentalDays(i + 1)
+                .checkoutDate(LocalDate.of(2020, 7, 2).plusDays(i))
+                .dueDate(LocalDate.of(2020, 7, 2).plusDays(2L * i + 1))
+                .dailyChargeCents(199)
+                .chargeDays(i)
+                .preDiscountChargeCents(199L * i)
+                .discountPercent(10)
+                .discountAmountCents(20L * i)
+                .finalChargeCents(179L * i)
+                .chargeMask(ChargeCalendar.chargeMask(true, true, false))
+                .build();
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.ECL062024.ToolRental.metrics;
+
+import com.ECL062024.ToolRental.service.ToolRentalService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckoutMetricsTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CheckoutMetrics checkoutMetrics = new CheckoutMetrics(meterRegistry);
+    private final ToolRentalService toolRentalService =
+            new ToolRentalService.Builder()
+                    .checkoutMetrics(checkoutMetrics)
+                    .build();
+
+    /**
+     * Tests that a successful checkout records every stage with the tool type.
+     */
+    @Test
+    void testCheckout_recordsEveryStage() throws ParseException {
+        toolRentalService.checkOutTool("LADW", 3, 10, "07/02/20");
+
+        for (String stage : new String[]{"validate", "lookup", "parse", "chargeable_days", "charge_math", "build"}) {
+            assertEquals(1, meterRegistry.get(CheckoutMetrics.STAGE_TIMER)
+                    .tags("stage", stage, "toolType", "Ladder", "outcome", "success").timer().count(), stage);
+        }
+        assertEquals(1, meterRegistry.get(CheckoutMetrics.CHECKOUT_TIMER)
+                .tags("toolType", "Ladder", "outcome", "success").timer().count());
+    }
+
+    /**
+     * Tests that a checkout of an unknown tool is recorded as a failed lookup.
+     */
+    @Test
+    void testCheckout_unknownToolRecordsFailure() {
+        assertThrows(IllegalArgumentException.class,
+                () -> toolRentalService.checkOutTool("NOPE", 3, 10, "07/02/20"));
+
+        assertEquals(1, meterRegistry.get(CheckoutMetrics.STAGE_TIMER)
+                .tags("stage", "lookup", "toolType", CheckoutMetrics.UNKNOWN_TOOL_TYPE, "outcome", "failure")
+                .timer().count());
+        assertEquals(1, meterRegistry.get(CheckoutMetrics.CHECKOUT_TIMER)
+                .tags("toolType", CheckoutMetrics.UNKNOWN_TOOL_TYPE, "outcome", "failure").timer().count());
+        assertEquals(0, meterRegistry.get(CheckoutMetrics.STAGE_TIMER)
+                .tags("stage", "parse", "toolType", CheckoutMetrics.UNKNOWN_TOOL_TYPE).timers().stream()
+                .mapToLong(Timer::count).sum());
+    }
+
+    /**
+     * Tests that a bad checkout date is recorded against the parse stage of the tool type.
+     */
+    @Test
+    void testCheckout_badDateRecordsParseFailure() {
+        assertThrows(ParseException.class, () -> toolRentalService.checkOutTool("LADW", 3, 10, "not a date"));
+
+        assertEquals(1, meterRegistry.get(CheckoutMetrics.STAGE_TIMER)
+                .tags("stage", "parse", "toolType", "Ladder", "outcome", "failure").timer().count());
+    }
+
+    /**
+     * Tests the summary served by the actuator endpoint.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSummary() throws ParseException {
+        toolRentalService.checkOutTool("CHNS", 5, 25, "07/02/15");
+        toolRentalService.quoteTool("CHNS", 5, 25, "07/02/15");
+
+        Map<String, Object> summary = new CheckoutMetricsEndpoint(checkoutMetrics).summary();
+
+        assertEquals(2L, summary.get("checkouts"));
+        assertTrue(summary.containsKey("throughputPerSecond"));
+        Map<String, Object> stages = (Map<String, Object>) summary.get("stages");
+        Map<String, Object> total = (Map<String, Object>) ((Map<String, Object>) stages.get("total")).get("Chainsaw");
+        Map<String, Object> success = (Map<String, Object>) total.get("success");
+        assertEquals(2L, success.get("count"));
+        assertTrue(success.containsKey("p99Ms"));
+    }
+
+    /**
+     * Tests that disabled metrics record nothing.
+     */
+    @Test
+    void testDisabled() {
+        CheckoutMetrics disabled = CheckoutMetrics.disabled();
+        disabled.record("Ladder", CheckoutMetrics.TOTAL, true, 1000);
+
+        assertFalse(disabled.isEnabled());
+        assertEquals(0L, disabled.now());
+        assertEquals(0L, disabled.summary().get("checkouts"));
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.ECL062024.ToolRental.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    /**
+     * Tests that integer charge math matches the BigDecimal HALF_UP arithmetic it replaces.
+     */
+    @Test
+    void testChargeMath_matchesBigDecimal() {
+        Random random = new Random(11);
+        for (int i = 0; i < 100000; i++) {
+            long dailyChargeCents = random.nextInt(100000);
+            int chargeableDays = random.nextInt(3651);
+            int discountPercent = random.nextInt(101);
+
+            BigDecimal preDiscount = Money.toBigDecimal(dailyChargeCents).multiply(BigDecimal.valueOf(chargeableDays))
+                    .setScale(2, RoundingMode.HALF_UP);
+            BigDecimal discount = preDiscount.multiply(BigDecimal.valueOf(discountPercent))
+                    .divide(BigDecimal.valueOf(100), RoundingMode.HALF_UP).setScale(2, RoundingMode.HALF_UP);
+
+            long preDiscountCents = Money.multiply(dailyChargeCents, chargeableDays);
+            long discountCents = Money.percentOf(preDiscountCents, discountPercent);
+            assertEquals(preDiscount, Money.toBigDecimal(preDiscountCents));
+            assertEquals(discount, Money.toBigDecimal(discountCents));
+            assertEquals(preDiscount.subtract(discount), Money.toBigDecimal(preDiscountCents - discountCents));
+        }
+    }
+
+    /**
+     * Tests HALF_UP rounding of percentages on both sides of zero.
+     */
+    @Test
+    void testPercentOf_roundsHalfUp() {
+        assertEquals(112, Money.percentOf(447, 25));
+        assertEquals(1, Money.percentOf(2, 25));
+        assertEquals(-1, Money.percentOf(-2, 25));
+        assertEquals(0, Money.percentOf(1, 49));
+    }
+
+    /**
+     * Tests conversions between cents, doubles and BigDecimal.
+     */
+    @Test
+    void testConversions() {
+        assertEquals(149, Money.toCents(1.49));
+        assertEquals(299, Money.toCents(2.99));
+        assertEquals(250, Money.toCents(new BigDecimal("2.5")));
+        assertEquals(new BigDecimal("3.58"), Money.ofCents(358).toBigDecimal());
+        assertEquals(Money.ofCents(358), Money.ofCents(398).minus(Money.ofCents(398).percent(10)));
+        assertEquals("13.93", Money.ofCents(199).times(7).toString());
+    }
+
+    /**
+     * Tests that overflowing charges are reported instead of wrapping.
+     */
+    @Test
+    void testMultiply_overflow() {
+        assertThrows(ArithmeticException.class, () -> Money.multiply(Long.MAX_VALUE / 2, 3));
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.ECL062024.ToolRental.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RentalAgreementRendererTest {
+    private static final String NL = System.lineSeparator();
+
+    /**
+     * Tests that the rendered agreement matches the formatter-based output printRentalAgreement used to produce.
+     */
+    @Test
+    void testRender_matchesLegacyFormat() {
+        RentalAgreement agreement = agreement(LocalDate.of(2020, 7, 2), 3, 199, 2, 10);
+        for (Locale locale : new Locale[]{Locale.US, Locale.GERMANY, Locale.FRANCE, Locale.JAPAN}) {
+            assertEquals(legacy(agreement, locale), RentalAgreementRenderer.forLocale(locale).render(agreement),
+                    locale.toString());
+        }
+        assertEquals("Tool code: LADW" + NL
+                + "Tool type: Ladder" + NL
+                + "Tool brand: Werner" + NL
+                + "Rental days: 3" + NL
+                + "Checkout date: 07/02/20" + NL
+                + "Due date: 07/05/20" + NL
+                + "Daily rental charge: $1.99" + NL
+                + "Charge days: 2" + NL
+                + "Pre-discount charge: $3.98" + NL
+                + "Discount percent: 10%" + NL
+                + "Discount amount: $0.40" + NL
+                + "Final charge: $3.58" + NL, RentalAgreementRenderer.forLocale(Locale.US).render(agreement));
+        assertSame(RentalAgreementRenderer.forLocale(Locale.US), RentalAgreementRenderer.forLocale(Locale.US));
+    }
+
+    /**
+     * Tests currency amounts against NumberFormat, including grouping and negative amounts.
+     */
+    @Test
+    void testAppendCurrency_matchesNumberFormat() {
+        Random random = new Random(17);
+        Locale[] locales = {Locale.US, Locale.UK, Locale.GERMANY, Locale.FRANCE, Locale.JAPAN,
+                new Locale("hi", "IN"), new Locale("de", "CH"), new Locale("ar", "EG")};
+        for (Locale locale : locales) {
+            RentalAgreementRenderer renderer = RentalAgreementRenderer.forLocale(locale);
+            NumberFormat format = NumberFormat.getCurrencyInstance(locale);
+            for (int i = 0; i < 2000; i++) {
+                long cents = i < 10 ? i - 5 : random.nextLong() % (i % 2 == 0 ? 1_000_000L : 1_000_000_000_000L);
+                assertEquals(format.format(Money.toBigDecimal(cents)),
+                        renderer.appendCurrency(new StringBuilder(), cents).toString(), locale + " " + cents);
+            }
+        }
+    }
+
+    /**
+     * Tests rendering into a writer and a byte buffer, and that an overflowing buffer is left untouched.
+     *
+     * @throws IOException if the writer fails.
+     */
+    @Test
+    void testRender_appendableAndByteBuffer() throws IOException {
+        RentalAgreementRenderer renderer = RentalAgreementRenderer.forLocale(Locale.FRANCE);
+        RentalAgreement agreement = agreement(LocalDate.of(2015, 9, 3), 5, 299, 3, 25);
+        String expected = renderer.render(agreement);
+
+        assertEquals(expected, renderer.render(agreement, new StringWriter()).toString());
+
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        int written = renderer.render(agreement, buffer);
+        assertEquals(expected, new String(buffer.array(), 0, written, StandardCharsets.UTF_8));
+
+        ByteBuffer small = ByteBuffer.allocate(written - 1);
+        small.put((byte) 1);
+        assertThrows(BufferOverflowException.class, () -> renderer.render(agreement, small));
+        assertEquals(1, small.position());
+    }
+
+    /**
+     * Tests that batch rendering separates agreements with blank lines, in order.
+     *
+     * @throws IOException if the writer fails.
+     */
+    @Test
+    void testRenderAll() throws IOException {
+        RentalAgreementRenderer renderer = RentalAgreementRenderer.forLocale(Locale.US);
+        List<RentalAgreement> agreements = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            RentalAgreement agreement = agreement(LocalDate.of(2020, 1, 1).plusDays(i), 1 + i % 9, 199, i % 9, i % 50);
+            agreements.add(agreement);
+            expected.append(i == 0 ? "" : NL).append(renderer.render(agreement));
+        }
+        assertEquals(expected.toString(), renderer.renderAll(agreements, new StringWriter()).toString());
+        assertEquals(expected.toString(), renderer.renderAll(agreements, new StringBuilder()).toString());
+
+        int firstTwo = expected.indexOf(NL + NL, expected.indexOf(NL + NL) + 1) + NL.length();
+        ByteBuffer buffer = ByteBuffer.allocate(firstTwo + 10);
+        assertEquals(2, renderer.renderAll(agreements, buffer));
+        assertEquals(expected.substring(0, firstTwo),
+                new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+    }
+
+    private static String legacy(RentalAgreement agreement, Locale locale) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yy");
+        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(locale);
+        return "Tool code: " + agreement.getToolCode() + NL
+                + "Tool type: " + agreement.getToolType() + NL
+                + "Tool brand: " + agreement.getToolBrand() + NL
+                + "Rental days: " + agreement.getRentalDays() + NL
+                + "Checkout date: " + dateFormat.format(agreement.getCheckoutDate()) + NL
+                + "Due date: " + dateFormat.format(agreement.getDueDate()) + NL
+                + "Daily rental charge: " + currencyFormat.format(agreement.getDailyCharge()) + NL
+                + "Charge days: " + agreement.getChargeDays() + NL
+                + "Pre-discount charge: " + currencyFormat.format(agreement.getPreDiscountCharge()) + NL
+                + "Discount percent: " + agreement.getDiscountPercent() + "%" + NL
+                + "Discount amount: " + currencyFormat.format(agreement.getDiscountAmount()) + NL
+                + "Final charge: " + currencyFormat.format(agreement.getFinalCharge()) + NL;
+    }
+
+    private static RentalAgreement agreement(LocalDate checkoutDate, int rentalDays, long dailyChargeCents,
+                                             int chargeDays, int discountPercent) {
+        long preDiscount = Money.multiply(dailyChargeCents, chargeDays);
+        long discount = Money.percentOf(preDiscount, discountPercent);
+        return new RentalAgreement.Builder("LADW", "Ladder", "Werner")
+                .rentalDays(rentalDays)
+                .checkoutDate(checkoutDate)
+                .dueDate(checkoutDate.plusDays(rentalDays))
+                .dailyChargeCents(dailyChargeCents)
+                .chargeDays(chargeDays)
+                .preDiscountChargeCents(preDiscount)
+                .discountPercent(discountPercent)
+                .discountAmountCents(discount)
+                .finalChargeCents(preDiscount - discount)
+                .build();
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.ECL062024.ToolRental.pricing;
+
+import com.ECL062024.ToolRental.inventory.ToolInventory;
+import com.ECL062024.ToolRental.model.Money;
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import com.ECL062024.ToolRental.model.Tool;
+import com.ECL062024.ToolRental.repository.InMemoryToolCatalog;
+import com.ECL062024.ToolRental.repository.ToolCatalog;
+import com.ECL062024.ToolRental.repository.ToolRepository;
+import com.ECL062024.ToolRental.service.ToolRentalService;
+import com.ECL062024.ToolRental.store.StoreShard;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PricingEngineTest {
+    private static final String STORE = StoreShard.DEFAULT_STORE;
+    private static final Tool CHAINSAW = new Tool("CHNS", "Chainsaw", "Stihl", 1.49, true, false, true);
+    private static final Tool LADDER = new Tool("LADW", "Ladder", "Werner", 1.99, true, true, false);
+
+    /**
+     * Tests that rules print back in the syntax they are parsed from and that malformed rules are rejected.
+     */
+    @Test
+    void testParse() {
+        for (String rule : new String[]{"Chainsaw: day 4+ at 80%", "Ladder: weekly cap 9.99", "*: monthly cap 99.00",
+                "Jackhammer: 12-15 to 01-15 surcharge 15%"}) {
+            assertEquals(rule, PricingRule.parse(rule).toString());
+        }
+        assertEquals("Ladder: day 1+ at 90%", PricingRule.parse(" Ladder:DAY 1+ AT 90% ").toString());
+
+        for (String rule : new String[]{"day 4+ at 80%", ": day 4+ at 80%", "Chainsaw: day 0+ at 80%",
+                "Chainsaw: day 4 at 80%", "Chainsaw: day 4+ at 80", "Ladder: weekly cap -1", "Ladder: daily cap 9.99",
+                "Ladder: 02-30 to 03-01 surcharge 5%", "Ladder: 06-01 to 08-31 surcharge 1001%"}) {
+            assertThrows(IllegalArgumentException.class, () -> PricingRule.parse(rule), rule);
+        }
+    }
+
+    /**
+     * Tests compiled charges against day-by-day pricing, including rentals longer than the compiled table.
+     */
+    @Test
+    void testCharge_tiersAndCaps() {
+        PricingEngine engine = new PricingEngine("Chainsaw: day 3+ at 80%, Chainsaw: day 40+ at 50%,"
+                + " *: weekly cap 9.00, *: monthly cap 25.00, Ladder: day 8+ at 75%");
+        try {
+            PriceTable chainsaw = engine.table(STORE, CHAINSAW);
+            PriceTable ladder = engine.table(STORE, LADDER);
+            for (int days = 0; days <= 400; days++) {
+                assertEquals(expectedCharge(149, days, new int[]{3, 40}, new int[]{80, 50}, 900, 2500),
+                        chainsaw.charge(days), "Chainsaw for " + days + " days");
+                assertEquals(expectedCharge(199, days, new int[]{8}, new int[]{75}, 900, 2500),
+                        ladder.charge(days), "Ladder for " + days + " days");
+            }
+        } finally {
+            engine.destroy();
+        }
+    }
+
+    /**
+     * Tests season surcharges across the end of the year and on February 29th.
+     */
+    @Test
+    void testPreDiscountCharge_seasons() {
+        PricingEngine engine = new PricingEngine("*: 12-15 to 01-15 surcharge 10%, Ladder: 01-01 to 01-31 "
+                + "surcharge 25%, Ladder: 02-29 to 02-29 surcharge 50%");
+        try {
+            // 3 days of a ladder cost 5.97
+            assertEquals(657, engine.preDiscountCharge(STORE, LADDER, LocalDate.of(2020, 12, 20).toEpochDay(), 3));
+            assertEquals(746, engine.preDiscountCharge(STORE, LADDER, LocalDate.of(2021, 1, 10).toEpochDay(), 3));
+            assertEquals(746, engine.preDiscountCharge(STORE, LADDER, LocalDate.of(2021, 1, 31).toEpochDay(), 3));
+            assertEquals(896, engine.preDiscountCharge(STORE, LADDER, LocalDate.of(2020, 2, 29).toEpochDay(), 3));
+            assertEquals(597, engine.preDiscountCharge(STORE, LADDER, LocalDate.of(2021, 3, 1).toEpochDay(), 3));
+            assertEquals(447, engine.preDiscountCharge(STORE, CHAINSAW, LocalDate.of(2021, 1, 31).toEpochDay(), 3));
+            assertEquals(492, engine.preDiscountCharge(STORE, CHAINSAW, LocalDate.of(2021, 1, 15).toEpochDay(), 3));
+        } finally {
+            engine.destroy();
+        }
+    }
+
+    /**
+     * Tests that tables are compiled once per catalog entry and that tools without rules are charged per day.
+     */
+    @Test
+    void testTable_compiledPerCatalogEntry() {
+        PricingEngine engine = new PricingEngine("Chainsaw: day 3+ at 80%");
+        try {
+            PriceTable table = engine.table(STORE, CHAINSAW);
+            assertSame(table, engine.table(STORE, CHAINSAW));
+            assertNotSame(table, engine.table(STORE, new Tool("CHNS", "Chainsaw", "Stihl", 1.49, true, false, true)));
+            assertNull(engine.table(STORE, LADDER));
+            assertEquals(1393, engine.preDiscountCharge(STORE, LADDER, 0, 7));
+            assertEquals(1393, PricingEngine.none().preDiscountCharge(STORE, LADDER, 0, 7));
+        } finally {
+            engine.destroy();
+        }
+    }
+
+    /**
+     * Tests that stores holding different catalog entries for the same tool code keep a table each.
+     */
+    @Test
+    void testTable_compiledPerStore() {
+        PricingEngine engine = new PricingEngine("Chainsaw: day 3+ at 80%");
+        Tool repriced = Tool.ofCents("CHNS", "Chainsaw", "Stihl", 199, true, false, true);
+        try {
+            PriceTable table = engine.table(STORE, CHAINSAW);
+            PriceTable eastTable = engine.table("east", repriced);
+            assertNotSame(table, eastTable);
+            assertSame(table, engine.table(STORE, CHAINSAW));
+            assertSame(eastTable, engine.table("east", repriced));
+            assertEquals(1193, engine.preDiscountCharge("east", repriced, 0, 7));
+            assertEquals(893, engine.preDiscountCharge(STORE, CHAINSAW, 0, 7));
+        } finally {
+            engine.destroy();
+        }
+    }
+
+    /**
+     * Tests that tables are compiled as soon as the catalog changes or is replaced, not on the next pricing.
+     */
+    @Test
+    void testTable_compiledOnCatalogChange() {
+        PricingEngine engine = new PricingEngine("Chainsaw: day 3+ at 80%");
+        Tool chainsaw = ToolRepository.findByCode("CHNS");
+        ToolCatalog catalog = ToolRepository.getCatalog();
+        try {
+            engine.table(STORE, chainsaw);
+            Tool repriced = Tool.ofCents("CHNS", "Chainsaw", "Stihl", 199, true, false, true);
+            ToolRepository.save(repriced);
+            assertSame(repriced, engine.compiledTable(STORE, "CHNS").getTool());
+
+            Tool reloaded = Tool.ofCents("CHNS", "Chainsaw", "Stihl", 249, true, false, true);
+            ToolRepository.setCatalog(new InMemoryToolCatalog(List.of(reloaded)));
+            assertSame(reloaded, engine.compiledTable(STORE, "CHNS").getTool());
+            assertSame(engine.compiledTable(STORE, "CHNS"), engine.table(STORE, reloaded));
+
+            ToolRepository.setCatalog(new InMemoryToolCatalog(List.of(LADDER)));
+            assertNull(engine.compiledTable(STORE, "CHNS"));
+        } finally {
+            engine.destroy();
+            ToolRepository.setCatalog(catalog);
+            ToolRepository.save(chainsaw);
+        }
+    }
+
+    /**
+     * Tests that checkouts are priced with the rules before the discount is applied.
+     */
+    @Test
+    void testCheckOut_withRules() throws ParseException {
+        PricingEngine engine = new PricingEngine("Chainsaw: day 3+ at 80%, Chainsaw: 07-01 to 07-31 surcharge 10%");
+        ToolInventory toolInventory = ToolInventory.unlimited();
+        ToolRentalService service = new ToolRentalService.Builder()
+                .toolInventory(toolInventory)
+                .pricingEngine(engine)
+                .build();
+        try {
+            // Chainsaws are charged on weekdays: July 6th to 10th 2015, 1.49 twice and 1.19 three times, plus 10%
+            RentalAgreement agreement = service.checkOutTool("CHNS", 8, 10, "07/04/15");
+            assertEquals(5, agreement.getChargeDays());
+            assertEquals(149, agreement.getDailyChargeCents());
+            assertEquals(721, agreement.getPreDiscountChargeCents());
+            assertEquals(72, agreement.getDiscountAmountCents());
+            assertEquals(649, agreement.getFinalChargeCents());
+        } finally {
+            engine.destroy();
+        }
+    }
+
+    /**
+     * Prices a rental day by day: each day at its tier's rate, each week of days capped, then each four weeks.
+     */
+    private static long expectedCharge(long dailyCharge, int days, int[] tierStarts, int[] tierPercents,
+                                       long weekCap, long monthCap) {
+        long total = 0;
+        for (int monthStart = 1; monthStart <= days; monthStart += PricingRule.DAYS_PER_MONTH) {
+            long month = 0;
+            for (int weekStart = monthStart; weekStart < monthStart + PricingRule.DAYS_PER_MONTH
+                    && weekStart <= days; weekStart += PricingRule.DAYS_PER_WEEK) {
+                long week = 0;
+                for (int day = weekStart; day < weekStart + PricingRule.DAYS_PER_WEEK && day <= days; day++) {
+                    long rate = dailyCharge;
+                    for (int tier = 0; tier < tierStarts.length; tier++) {
+                        if (day >= tierStarts[tier]) {
+                            rate = Money.percentOf(dailyCharge, tierPercents[tier]);
+                        }
+                    }
+                    week += rate;
+                }
+                month += Math.min(week, weekCap);
+            }
+            total += Math.min(month, monthCap);
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.ECL062024.ToolRental.promotion;
+
+import com.ECL062024.ToolRental.model.Tool;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PromotionEngineTest {
+    private static final Tool LADDER = new Tool("LADW", "Ladder", "Werner", 1.99, true, true, false);
+    private static final Tool CHAINSAW = new Tool("CHNS", "Chainsaw", "Stihl", 1.49, true, false, true);
+    private static final long JULY_2ND = LocalDate.of(2020, 7, 2).toEpochDay();
+
+    /**
+     * Tests that promotions print back in the syntax they are parsed from and that malformed promotions are
+     * rejected.
+     */
+    @Test
+    void testParse() {
+        for (String promotion : new String[]{"summer: 15% type Ladder from 2020-06-01 until 2020-08-31",
+                "loyal: 5% stackable brand Stihl coupon LOYAL5", "all: 100%"}) {
+            assertEquals(promotion, Promotion.parse(promotion).toString());
+        }
+        assertEquals("x: 5% stackable type Ladder", Promotion.parse("x:5%  STACKABLE Type Ladder").toString());
+
+        for (String promotion : new String[]{"15% type Ladder", ": 15%", "x: 15", "x: 101%", "x: 5% type",
+                "x: 5% size XL", "x: 5% from 2020-02-30", "x: 5% from 2020-08-31 until 2020-06-01"}) {
+            assertThrows(IllegalArgumentException.class, () -> Promotion.parse(promotion), promotion);
+        }
+    }
+
+    /**
+     * Tests how promotions combine with each other and with the caller's discount.
+     */
+    @Test
+    void testDiscountPercent_stacking() {
+        PromotionEngine engine = new PromotionEngine("ladders: 15% type Ladder, werner: 5% stackable brand Werner,"
+                + " weekday: 3% stackable from 2020-07-01 until 2020-07-03, vip: 40% coupon VIP type Ladder,"
+                + " vip-all: 10% stackable coupon VIP");
+
+        // 15% alone beats 0% + 5% + 3% stacked
+        assertEquals(15, engine.discountPercent(LADDER, JULY_2ND, null, 0));
+        // 10% + 5% + 3% stacked beats 15% alone
+        assertEquals(18, engine.discountPercent(LADDER, JULY_2ND, null, 10));
+        assertEquals(15, engine.discountPercent(LADDER, JULY_2ND + 2, "", 10));
+        assertEquals(40, engine.discountPercent(LADDER, JULY_2ND, "VIP", 0));
+        assertEquals(13, engine.discountPercent(CHAINSAW, JULY_2ND, "VIP", 0));
+        assertEquals(100, engine.discountPercent(LADDER, JULY_2ND, "VIP", 95));
+        assertEquals(0, engine.discountPercent(CHAINSAW, JULY_2ND + 2, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> engine.discountPercent(LADDER, JULY_2ND, "vip", 0));
+
+        assertEquals(7, PromotionEngine.none().discountPercent(LADDER, JULY_2ND, null, 7));
+    }
+
+    /**
+     * Tests that adding, replacing and removing promotions is visible to the next match.
+     */
+    @Test
+    void testPutAndRemove() {
+        PromotionEngine engine = PromotionEngine.none();
+        engine.put(new Promotion.Builder("ladders", 15).toolType("Ladder").build());
+        assertEquals(15, engine.discountPercent(LADDER, JULY_2ND, null, 0));
+
+        Promotion replacement = new Promotion.Builder("ladders", 20).toolType("Ladder").build();
+        engine.put(replacement);
+        assertEquals(1, engine.size());
+        assertEquals(20, engine.discountPercent(LADDER, JULY_2ND, null, 0));
+
+        assertSame(replacement, engine.remove("ladders"));
+        assertNull(engine.remove("ladders"));
+        assertEquals(0, engine.discountPercent(LADDER, JULY_2ND, null, 0));
+    }
+
+    /**
+     * Tests the index against a scan of every promotion, over thousands of random campaigns, bounded and
+     * open-ended.
+     */
+    @Test
+    void testMatching_agreesWithScan() {
+        Random random = new Random(22);
+        String[] types = {null, "Ladder", "Chainsaw", "Jackhammer"};
+        String[] brands = {null, "Werner", "Stihl", "Ridgid"};
+        String[] coupons = {null, null, null, "A", "B"};
+        List<Promotion> promotions = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Promotion.Builder builder = new Promotion.Builder("p" + i, random.nextInt(30))
+                    .stackable(random.nextInt(4) == 0)
+                    .toolType(types[random.nextInt(types.length)])
+                    .toolBrand(brands[random.nextInt(brands.length)])
+                    .couponCode(coupons[random.nextInt(coupons.length)]);
+            // Bounded campaigns, and open-ended ones that run from or until a date or always
+            LocalDate start = LocalDate.ofEpochDay(JULY_2ND - 400 + random.nextInt(800));
+            switch (random.nextInt(5)) {
+                case 0:
+                case 1:
+                    builder.from(start).until(start.plusDays(random.nextInt(60)));
+                    break;
+                case 2:
+                    builder.from(start);
+                    break;
+                case 3:
+                    builder.until(start);
+                    break;
+                default:
+                    break;
+            }
+            promotions.add(builder.build());
+        }
+        PromotionEngine engine = new PromotionEngine(promotions);
+
+        Comparator<Promotion> byId = Comparator.comparing(Promotion::getId);
+        for (int i = 0; i < 2000; i++) {
+            Tool tool = random.nextBoolean() ? LADDER : CHAINSAW;
+            long day = JULY_2ND - 420 + random.nextInt(840);
+            String coupon = coupons[random.nextInt(coupons.length)];
+            int requested = random.nextInt(20);
+
+            List<Promotion> expected = new ArrayList<>();
+            long stacked = requested;
+            int exclusive = 0;
+            for (Promotion promotion : promotions) {
+                if (promotion.targets(tool) && day >= promotion.getStartDay() && day <= promotion.getEndDay()
+                        && (promotion.getCouponCode() == null || promotion.getCouponCode().equals(coupon))) {
+                    expected.add(promotion);
+                    if (promotion.isStackable()) {
+                        stacked += promotion.getPercent();
+                    } else {
+                        exclusive = Math.max(exclusive, promotion.getPercent());
+                    }
+                }
+            }
+            List<Promotion> actual = engine.matching(tool, day, coupon);
+            expected.sort(byId);
+            actual.sort(byId);
+            assertEquals(expected, actual);
+            assertEquals((int) Math.min(100, Math.max(stacked, exclusive)),
+                    engine.discountPercent(tool, day, coupon, requested));
+        }
+    }
+
+}
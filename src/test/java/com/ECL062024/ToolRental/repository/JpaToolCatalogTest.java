@@ -0,0 +1,86 @@
+package com.ECL062024.ToolRental.repository;
+
+import com.ECL062024.ToolRental.model.Tool;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "toolrental.catalog.type=jpa")
+@Import(JpaToolCatalog.class)
+@DirtiesContext
+class JpaToolCatalogTest {
+
+    @Autowired
+    private JpaToolCatalog jpaToolCatalog;
+
+    @Autowired
+    private ToolJpaRepository toolJpaRepository;
+
+    /**
+     * Tests that the catalog is seeded, installed and serves repeat lookups from the cache.
+     */
+    @Test
+    void testFindByCode_readThrough() {
+        assertSame(jpaToolCatalog, ToolRepository.getCatalog());
+
+        Tool ladder = ToolRepository.findByCode("LADW");
+        assertEquals("Ladder", ladder.getToolType());
+        assertEquals(199, ladder.getDailyChargeCents());
+        long misses = jpaToolCatalog.getMissCount();
+
+        assertSame(ladder, ToolRepository.findByCode("LADW"));
+        assertEquals(misses, jpaToolCatalog.getMissCount());
+        assertNull(ToolRepository.findByCode("NOPE"));
+    }
+
+    /**
+     * Tests that a batch lookup returns every known tool and caches them.
+     */
+    @Test
+    void testFindAllByCodes() {
+        Map<String, Tool> tools = ToolRepository.findAllByCodes(List.of("CHNS", "JAKD", "JAKD", "NOPE"));
+
+        assertEquals(2, tools.size());
+        assertEquals("Stihl", tools.get("CHNS").getToolBrand());
+        assertFalse(tools.containsKey("NOPE"));
+        assertSame(tools.get("JAKD"), jpaToolCatalog.findByCode("JAKD"));
+    }
+
+    /**
+     * Tests that writes through the repository are persisted and replace the cached tool.
+     */
+    @Test
+    void testSaveAndDelete() {
+        Tool drill = Tool.ofCents("DRLM", "Drill", "Makita", 349, true, true, false);
+        ToolRepository.save(drill);
+
+        assertTrue(toolJpaRepository.existsById("DRLM"));
+        assertSame(drill, ToolRepository.findByCode("DRLM"));
+
+        Tool removed = ToolRepository.delete("DRLM");
+        assertEquals(349, removed.getDailyChargeCents());
+        assertFalse(toolJpaRepository.existsById("DRLM"));
+        assertNull(ToolRepository.findByCode("DRLM"));
+    }
+
+    /**
+     * Tests that the cache size must be positive.
+     */
+    @Test
+    void testInvalidCacheSize() {
+        assertThrows(IllegalArgumentException.class, () -> new JpaToolCatalog(toolJpaRepository, 0));
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.ECL062024.ToolRental.repository;
+
+import com.ECL062024.ToolRental.model.Tool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedToolCatalogTest {
+
+    @TempDir
+    private Path directory;
+
+    private MappedToolCatalog catalog;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (catalog != null) {
+            catalog.destroy();
+        }
+    }
+
+    /**
+     * Tests that tools written to a snapshot are served from the mapping.
+     *
+     * @throws IOException if the snapshot cannot be written or mapped.
+     */
+    @Test
+    void testFindByCode() throws IOException {
+        Path path = directory.resolve("catalog.bin");
+        List<Tool> tools = new ArrayList<>(InMemoryToolCatalog.sampleTools());
+        for (int i = 0; i < 10_000; i++) {
+            tools.add(Tool.ofCents("T" + i, "Drill", "Brand" + (i % 7), i, true, i % 2 == 0, false));
+        }
+        CatalogSnapshotWriter.write(path, tools);
+
+        catalog = new MappedToolCatalog(path, false);
+        catalog.reload();
+
+        assertEquals(10_004, catalog.size());
+        Tool ladder = catalog.findByCode("LADW");
+        assertEquals("Ladder", ladder.getToolType());
+        assertEquals("Werner", ladder.getToolBrand());
+        assertEquals(199, ladder.getDailyChargeCents());
+        assertTrue(ladder.isWeekdayCharge() && ladder.isWeekendCharge() && !ladder.isHolidayCharge());
+        assertSame(ladder, catalog.findByCode("LADW"));
+        assertSame(catalog.findByCode("T1").getToolType(), catalog.findByCode("T2").getToolType());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, catalog.findByCode("T" + i).getDailyChargeCents());
+        }
+        assertNull(catalog.findByCode("NOPE"));
+        assertNull(catalog.findByCode("TOOLONGCODE"));
+
+        Map<String, Tool> found = catalog.findAllByCodes(List.of("CHNS", "JAKD", "NOPE"));
+        assertEquals(2, found.size());
+        assertThrows(UnsupportedOperationException.class, () -> catalog.delete("CHNS"));
+    }
+
+    /**
+     * Tests that a replaced snapshot is picked up by an explicit reload and an invalid one is rejected.
+     *
+     * @throws IOException if the snapshot cannot be written or mapped.
+     */
+    @Test
+    void testReload() throws IOException {
+        Path path = directory.resolve("catalog.bin");
+        CatalogSnapshotWriter.write(path, InMemoryToolCatalog.sampleTools());
+        catalog = new MappedToolCatalog(path, false);
+        catalog.reload();
+
+        CatalogSnapshotWriter.write(path, List.of(Tool.ofCents("LADW", "Ladder", "Werner", 249, true, true, false)));
+        assertEquals(199, catalog.findByCode("LADW").getDailyChargeCents());
+        catalog.reload();
+
+        assertEquals(249, catalog.findByCode("LADW").getDailyChargeCents());
+        assertNull(catalog.findByCode("CHNS"));
+
+        Path corrupt = Files.write(directory.resolve("corrupt.bin"), new byte[]{1, 2, 3, 4});
+        Files.move(corrupt, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        assertThrows(IllegalArgumentException.class, catalog::reload);
+        assertEquals(249, catalog.findByCode("LADW").getDailyChargeCents());
+    }
+
+    /**
+     * Tests that the installed catalog switches to a snapshot moved into place without a reload call.
+     *
+     * @throws Exception if the snapshot cannot be written or mapped.
+     */
+    @Test
+    void testWatch() throws Exception {
+        Path path = directory.resolve("catalog.bin");
+        catalog = new MappedToolCatalog(path, true);
+        catalog.afterPropertiesSet();
+        assertSame(catalog, ToolRepository.getCatalog());
+        assertEquals(149, ToolRepository.findByCode("CHNS").getDailyChargeCents());
+
+        CatalogSnapshotWriter.write(path, List.of(Tool.ofCents("CHNS", "Chainsaw", "Stihl", 175, true, false, true)));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (ToolRepository.findByCode("CHNS").getDailyChargeCents() != 175
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(175, ToolRepository.findByCode("CHNS").getDailyChargeCents());
+    }
+
+    /**
+     * Tests that codes which cannot be packed are rejected by the writer.
+     */
+    @Test
+    void testWrite_unpackableCode() {
+        Path path = directory.resolve("catalog.bin");
+        List<Tool> tools = List.of(Tool.ofCents("LONGCODE1", "Ladder", "Werner", 199, true, true, false));
+
+        assertThrows(IllegalArgumentException.class, () -> CatalogSnapshotWriter.write(path, tools));
+        assertTrue(Files.notExists(path));
+    }
+
+}
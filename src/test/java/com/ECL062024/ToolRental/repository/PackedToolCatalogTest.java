@@ -0,0 +1,122 @@
+package com.ECL062024.ToolRental.repository;
+
+import com.ECL062024.ToolRental.model.Tool;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackedToolCatalogTest {
+    private final PackedToolCatalog catalog = new PackedToolCatalog(0);
+
+    /**
+     * Tests packing and unpacking of tool codes.
+     */
+    @Test
+    void testPack() {
+        assertEquals("CHNS", PackedToolCatalog.unpack(PackedToolCatalog.pack("CHNS")));
+        assertEquals("A", PackedToolCatalog.unpack(PackedToolCatalog.pack("A")));
+        assertEquals("SKU-9999", PackedToolCatalog.unpack(PackedToolCatalog.pack("SKU-9999")));
+        assertEquals(PackedToolCatalog.EMPTY, PackedToolCatalog.pack(""));
+        assertEquals(PackedToolCatalog.EMPTY, PackedToolCatalog.pack("NINECHARS"));
+        assertEquals(PackedToolCatalog.EMPTY, PackedToolCatalog.pack("LÄDW"));
+    }
+
+    /**
+     * Tests that saved tools are returned with their attributes and a stable instance until saved again.
+     */
+    @Test
+    void testSaveAndFind() {
+        for (Tool tool : InMemoryToolCatalog.sampleTools()) {
+            catalog.save(tool);
+        }
+
+        Tool chainsaw = catalog.findByCode("CHNS");
+        assertEquals("Chainsaw", chainsaw.getToolType());
+        assertEquals("Stihl", chainsaw.getToolBrand());
+        assertEquals(149, chainsaw.getDailyChargeCents());
+        assertTrue(chainsaw.isWeekdayCharge() && !chainsaw.isWeekendCharge() && chainsaw.isHolidayCharge());
+        assertSame(chainsaw, catalog.findByCode("CHNS"));
+        assertNull(catalog.findByCode("NOPE"));
+
+        // Types and brands are stored once each
+        assertSame(catalog.findByCode("JAKD").getToolType(), catalog.findByCode("JAKR").getToolType());
+        assertEquals(7, catalog.distinctStrings());
+
+        catalog.save(Tool.ofCents("CHNS", "Chainsaw", "Stihl", 199, true, false, true));
+        Tool repriced = catalog.findByCode("CHNS");
+        assertNotSame(chainsaw, repriced);
+        assertEquals(199, repriced.getDailyChargeCents());
+        assertEquals(4, catalog.size());
+
+        int slot = catalog.slotOf("CHNS");
+        assertEquals(199, catalog.dailyChargeCents(slot));
+        assertEquals(PackedToolCatalog.WEEKDAY_CHARGE | PackedToolCatalog.HOLIDAY_CHARGE, catalog.chargeFlags(slot));
+    }
+
+    /**
+     * Tests that codes which cannot be packed are still stored.
+     */
+    @Test
+    void testOverflowCodes() {
+        Tool longCode = Tool.ofCents("LONGCODE1", "Ladder", "Werner", 199, true, true, false);
+        catalog.save(longCode);
+
+        assertEquals(199, catalog.findByCode("LONGCODE1").getDailyChargeCents());
+        assertEquals(-1, catalog.slotOf("LONGCODE1"));
+        assertSame(longCode, catalog.delete("LONGCODE1"));
+        assertNull(catalog.findByCode("LONGCODE1"));
+    }
+
+    /**
+     * Tests growth and deletion across a large catalog.
+     */
+    @Test
+    void testGrowAndDelete() {
+        int count = 100_000;
+        for (int i = 0; i < count; i++) {
+            catalog.save("T" + i, i % 2 == 0 ? "Ladder" : "Chainsaw", "Brand" + (i % 10), i, true, i % 3 == 0,
+                    false);
+        }
+        assertEquals(count, catalog.size());
+        assertEquals(12, catalog.distinctStrings());
+
+        for (int i = 0; i < count; i += 2) {
+            assertEquals(i, catalog.delete("T" + i).getDailyChargeCents());
+        }
+        assertEquals(count / 2, catalog.size());
+
+        for (int i = 0; i < count; i++) {
+            Tool tool = catalog.findByCode("T" + i);
+            if (i % 2 == 0) {
+                assertNull(tool);
+            } else {
+                assertEquals(i, tool.getDailyChargeCents());
+                assertEquals("Brand" + (i % 10), tool.getToolBrand());
+                assertEquals(i % 3 == 0, tool.isWeekendCharge());
+            }
+        }
+    }
+
+    /**
+     * Tests batch lookup.
+     */
+    @Test
+    void testFindAllByCodes() {
+        for (Tool tool : InMemoryToolCatalog.sampleTools()) {
+            catalog.save(tool);
+        }
+
+        Map<String, Tool> tools = catalog.findAllByCodes(List.of("LADW", "JAKR", "NOPE"));
+
+        assertEquals(2, tools.size());
+        assertEquals("Ridgid", tools.get("JAKR").getToolBrand());
+    }
+
+}
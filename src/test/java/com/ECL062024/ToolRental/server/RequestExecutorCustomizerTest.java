@@ -0,0 +1,60 @@
+package com.ECL062024.ToolRental.server;
+
+import org.apache.coyote.ProtocolHandler;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestExecutorCustomizerTest {
+
+    /**
+     * Tests that requests run on virtual threads where the runtime has them and on the configured platform pool
+     * otherwise.
+     */
+    @Test
+    void testCustomize_installsExecutor() {
+        RequestExecutorCustomizer virtual = new RequestExecutorCustomizer(true, 64, 4);
+        Executor executor = customize(virtual);
+        if (Runtime.version().feature() >= 21) {
+            assertNotNull(RequestExecutorCustomizer.newVirtualThreadExecutor());
+        } else {
+            assertNull(RequestExecutorCustomizer.newVirtualThreadExecutor());
+            assertPlatformPool(executor, 64, 4);
+        }
+        virtual.destroy();
+        assertTrue(((ExecutorService) executor).isShutdown());
+
+        RequestExecutorCustomizer platform = new RequestExecutorCustomizer(false, 500, 20);
+        assertPlatformPool(customize(platform), 500, 20);
+        platform.destroy();
+
+        assertThrows(IllegalArgumentException.class, () -> new RequestExecutorCustomizer(false, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RequestExecutorCustomizer(false, 8, 9));
+    }
+
+    private static Executor customize(RequestExecutorCustomizer customizer) {
+        ProtocolHandler protocolHandler = Mockito.mock(ProtocolHandler.class);
+        customizer.customize(protocolHandler);
+        ArgumentCaptor<Executor> executor = ArgumentCaptor.forClass(Executor.class);
+        Mockito.verify(protocolHandler).setExecutor(executor.capture());
+        return executor.getValue();
+    }
+
+    private static void assertPlatformPool(Executor executor, int maxThreads, int minSpareThreads) {
+        ThreadPoolExecutor pool = assertInstanceOf(ThreadPoolExecutor.class, executor);
+        assertEquals(maxThreads, pool.getMaximumPoolSize());
+        assertEquals(minSpareThreads, pool.getCorePoolSize());
+    }
+
+}
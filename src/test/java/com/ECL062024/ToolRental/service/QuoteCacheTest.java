@@ -0,0 +1,123 @@
+package com.ECL062024.ToolRental.service;
+
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import com.ECL062024.ToolRental.model.Tool;
+import com.ECL062024.ToolRental.repository.ToolRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QuoteCacheTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final QuoteCache quoteCache = new QuoteCache(true, 32, Duration.ofMinutes(5), clock::get);
+    private final Tool tool = new Tool("TEST", "Ladder", "Werner", 1.99, true, true, false);
+
+    @AfterEach
+    void tearDown() {
+        quoteCache.destroy();
+    }
+
+    /**
+     * Tests hit and miss counting.
+     */
+    @Test
+    void testGet_hitsAndMisses() {
+        QuoteKey key = new QuoteKey("TEST", 18445, 3, 10);
+        RentalAgreement agreement = agreement();
+
+        assertNull(quoteCache.get(key, tool));
+        quoteCache.put(key, tool, agreement);
+
+        assertSame(agreement, quoteCache.get(new QuoteKey("TEST", 18445, 3, 10), tool));
+        assertEquals(1, quoteCache.getHitCount());
+        assertEquals(1, quoteCache.getMissCount());
+    }
+
+    /**
+     * Tests that entries expire after the TTL.
+     */
+    @Test
+    void testGet_expired() {
+        QuoteKey key = new QuoteKey("TEST", 18445, 3, 10);
+        quoteCache.put(key, tool, agreement());
+
+        clock.addAndGet(Duration.ofMinutes(5).toNanos());
+
+        assertNull(quoteCache.get(key, tool));
+        assertEquals(1, quoteCache.getEvictionCount());
+        assertEquals(0, quoteCache.size());
+    }
+
+    /**
+     * Tests that the size bound evicts least-recently-used entries.
+     */
+    @Test
+    void testPut_sizeBound() {
+        for (int i = 0; i < 1000; i++) {
+            quoteCache.put(new QuoteKey("TEST", 18445 + i, 3, 10), tool, agreement());
+        }
+
+        assertEquals(1000 - quoteCache.size(), quoteCache.getEvictionCount());
+        assertEquals(32, quoteCache.size(), 16);
+    }
+
+    /**
+     * Tests that entries priced from a replaced catalog entry are not served.
+     */
+    @Test
+    void testGet_catalogChange() {
+        QuoteKey key = new QuoteKey("TEST", 18445, 3, 10);
+        quoteCache.put(key, tool, agreement());
+        quoteCache.put(new QuoteKey("OTHR", 18445, 3, 10), tool, agreement());
+
+        quoteCache.invalidateTool("TEST");
+
+        assertNull(quoteCache.get(key, tool));
+        assertEquals(1, quoteCache.size());
+
+        quoteCache.put(key, tool, agreement());
+        Tool repriced = new Tool("TEST", "Ladder", "Werner", 2.49, true, true, false);
+        assertNull(quoteCache.get(key, repriced));
+    }
+
+    /**
+     * Tests that a cached checkout is invalidated by a repository update and still validated on a hit.
+     *
+     * @throws ParseException if the checkout date string cannot be parsed.
+     */
+    @Test
+    void testCheckOutTool_cachedQuotes() throws ParseException {
+        ToolRentalService service = new ToolRentalService.Builder()
+                .quoteCache(quoteCache)
+                .build();
+        Tool ladder = ToolRepository.findByCode("LADW");
+        try {
+            RentalAgreement first = service.quoteTool("LADW", 3, 10, "07/02/20");
+            assertSame(first, service.quoteTool("LADW", 3, 10, "07/02/20"));
+            assertThrows(IllegalArgumentException.class, () -> service.quoteTool("LADW", 3, 101, "07/02/20"));
+            assertThrows(ParseException.class, () -> service.quoteTool("LADW", 3, 10, "07/32/20"));
+
+            ToolRepository.save(Tool.ofCents("LADW", "Ladder", "Werner", 249, true, true, false));
+            RentalAgreement repriced = service.quoteTool("LADW", 3, 10, "07/02/20");
+
+            assertNotSame(first, repriced);
+            assertEquals(498, repriced.getPreDiscountChargeCents());
+        } finally {
+            ToolRepository.save(ladder);
+        }
+    }
+
+    private RentalAgreement agreement() {
+        return new RentalAgreement.Builder("TEST", "Ladder", "Werner").rentalDays(3).build();
+    }
+
+}
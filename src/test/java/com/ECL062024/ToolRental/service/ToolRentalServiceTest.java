@@ -1,7 +1,19 @@
 package com.ECL062024.ToolRental.service;
 
+import com.ECL062024.ToolRental.calendar.ChargeCalendar;
+import com.ECL062024.ToolRental.inventory.ToolInventory;
+import com.ECL062024.ToolRental.model.CartAgreement;
+import com.ECL062024.ToolRental.model.CartRequest;
+import com.ECL062024.ToolRental.model.CheckoutRequest;
+import com.ECL062024.ToolRental.model.CheckoutResult;
+import com.ECL062024.ToolRental.model.QuoteMatrix;
 import com.ECL062024.ToolRental.model.RentalAgreement;
+import com.ECL062024.ToolRental.model.ReturnRequest;
+import com.ECL062024.ToolRental.model.ReturnResult;
+import com.ECL062024.ToolRental.model.ReturnSettlement;
 import com.ECL062024.ToolRental.model.Tool;
+import com.ECL062024.ToolRental.pricing.PricingEngine;
+import com.ECL062024.ToolRental.promotion.PromotionEngine;
 import com.ECL062024.ToolRental.repository.ToolRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +27,9 @@ import java.text.ParseException;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mockStatic;
@@ -22,12 +37,12 @@ import static org.mockito.Mockito.mockStatic;
 class ToolRentalServiceTest {
     @InjectMocks
     private ToolRentalService toolRentalService;
-    private ToolRepository toolRepository;
 
     @BeforeEach
     void setUp() {
-        toolRepository = Mockito.mock(ToolRepository.class);
-        toolRentalService = new ToolRentalService(toolRepository);
+        toolRentalService = new ToolRentalService.Builder()
+                .returnsEnabled(true)
+                .build();
     }
 
     /**
@@ -234,12 +249,13 @@ class ToolRentalServiceTest {
             assertEquals(checkoutDate.plusDays(rentalDays), rentalAgreement.getDueDate().toInstant().atZone(ZoneId.
                     systemDefault()).toLocalDate());
             assertEquals(new BigDecimal("1.99"), rentalAgreement.getDailyCharge());
-            assertEquals(7, rentalAgreement.getChargeDays());
-            assertEquals(new BigDecimal("13.93"), rentalAgreement.getPreDiscountCharge());
+            // Independence Day 2015 falls on a Saturday and is observed on Friday 7/3
+            assertEquals(6, rentalAgreement.getChargeDays());
+            assertEquals(new BigDecimal("11.94"), rentalAgreement.getPreDiscountCharge());
             assertEquals(discountPercent, rentalAgreement.getDiscountPercent());
             assertEquals(BigDecimal.ZERO.setScale(2, RoundingMode.UNNECESSARY), rentalAgreement.
                     getDiscountAmount().setScale(2, RoundingMode.UNNECESSARY));
-            BigDecimal expectedFinalCharge = new BigDecimal("13.93");
+            BigDecimal expectedFinalCharge = new BigDecimal("11.94");
             assertEquals(expectedFinalCharge, rentalAgreement.getFinalCharge());
         }
     }
@@ -277,15 +293,352 @@ class ToolRentalServiceTest {
             assertEquals("Rigid", rentalAgreement.getToolBrand());
             assertEquals(rentalDays, rentalAgreement.getRentalDays());
             assertEquals(new BigDecimal("2.99"), rentalAgreement.getDailyCharge());
-            // Expected 2 chargeable days: 7/2, 7/3
-            assertEquals(2, rentalAgreement.getChargeDays());
-            // 2.99 * 2
-            assertEquals(new BigDecimal("5.98"), rentalAgreement.getPreDiscountCharge());
+            // Expected 1 chargeable day: 7/2; Independence Day 2020 is observed on Friday 7/3
+            assertEquals(1, rentalAgreement.getChargeDays());
+            // 2.99 * 1
+            assertEquals(new BigDecimal("2.99"), rentalAgreement.getPreDiscountCharge());
             assertEquals(discountPercent, rentalAgreement.getDiscountPercent());
-            // 50% of 5.98
-            assertEquals(new BigDecimal("2.99"), rentalAgreement.getDiscountAmount());
-            // 5.98 - 2.99 (50% discount)
-            assertEquals(new BigDecimal("2.99"), rentalAgreement.getFinalCharge());
+            // 50% of 2.99, rounded half up
+            assertEquals(new BigDecimal("1.50"), rentalAgreement.getDiscountAmount());
+            // 2.99 - 1.50 (50% discount)
+            assertEquals(new BigDecimal("1.49"), rentalAgreement.getFinalCharge());
+        }
+    }
+
+    /**
+     * Tests that a batch returns agreements and per-item errors in input order.
+     */
+    @Test
+    void testCheckOutTools_mixedResults() {
+        List<CheckoutRequest> requests = List.of(
+                new CheckoutRequest("LADW", 3, 10, "07/02/20"),
+                new CheckoutRequest("NONE", 3, 10, "07/02/20"),
+                new CheckoutRequest("CHNS", 5, 101, "07/02/15"),
+                new CheckoutRequest("CHNS", 5, 25, "not a date"),
+                new CheckoutRequest("CHNS", 5, 25, "07/02/15"));
+
+        List<CheckoutResult> results = toolRentalService.checkOutTools(requests);
+
+        assertEquals(requests.size(), results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(new BigDecimal("3.58"), results.get(0).getAgreement().getFinalCharge());
+        assertEquals("Tool with code NONE does not exist.", results.get(1).getError());
+        assertEquals("Discount percent must be between 0 and 100 inclusive.", results.get(2).getError());
+        assertFalse(results.get(3).isSuccess());
+        assertNull(results.get(3).getAgreement());
+        assertTrue(results.get(4).isSuccess());
+        assertEquals(new BigDecimal("3.35"), results.get(4).getAgreement().getFinalCharge());
+        for (int i = 0; i < requests.size(); i++) {
+            assertSame(requests.get(i), results.get(i).getRequest());
+        }
+    }
+
+    /**
+     * Tests that a batch large enough to be priced in parallel matches single checkouts.
+     *
+     * @throws ParseException if a checkout date string cannot be parsed.
+     */
+    @Test
+    void testCheckOutTools_parallelMatchesSingleCheckouts() throws ParseException {
+        String[] toolCodes = {"CHNS", "LADW", "JAKD", "JAKR"};
+        List<CheckoutRequest> requests = new ArrayList<>();
+        for (int i = 0; i < ToolRentalService.BATCH_PARALLEL_THRESHOLD * 4; i++) {
+            String checkoutDate = String.format("%02d/%02d/%02d", 1 + i % 12, 1 + i % 28, 10 + i % 15);
+            requests.add(new CheckoutRequest(toolCodes[i % toolCodes.length], 1 + i % 40, i % 101, checkoutDate));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<CheckoutResult> results = toolRentalService.checkOutTools(requests, pool);
+
+            assertEquals(requests.size(), results.size());
+            for (int i = 0; i < requests.size(); i++) {
+                CheckoutRequest request = requests.get(i);
+                RentalAgreement expected = toolRentalService.checkOutTool(request.getToolCode(),
+                        request.getRentalDays(), request.getDiscountPercent(), request.getCheckoutDate());
+                RentalAgreement actual = results.get(i).getAgreement();
+                assertEquals(expected.getToolCode(), actual.getToolCode());
+                assertEquals(expected.getCheckoutDate(), actual.getCheckoutDate());
+                assertEquals(expected.getDueDate(), actual.getDueDate());
+                assertEquals(expected.getChargeDays(), actual.getChargeDays());
+                assertEquals(expected.getFinalCharge(), actual.getFinalCharge());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tests that every line of a cart is priced like a single quote over the shared period and that the totals
+     * add up the lines.
+     *
+     * @throws ParseException if the checkout date string cannot be parsed.
+     */
+    @Test
+    void testQuoteCart_matchesSingleQuotes() throws ParseException {
+        List<String> toolCodes = List.of("LADW", "CHNS", "JAKD", "JAKR", "LADW");
+        CartAgreement cart = toolRentalService.quoteCart(new CartRequest(toolCodes, 9, 15, "07/01/20"));
+
+        assertEquals(toolCodes.size(), cart.getLines().size());
+        assertEquals(LocalDate.of(2020, 7, 10), cart.getDueLocalDate());
+        long finalCharge = 0;
+        for (int i = 0; i < toolCodes.size(); i++) {
+            RentalAgreement expected = toolRentalService.quoteTool(toolCodes.get(i), 9, 15, "07/01/20");
+            RentalAgreement actual = cart.getLines().get(i);
+            assertEquals(expected.getToolCode(), actual.getToolCode());
+            assertEquals(expected.getChargeDays(), actual.getChargeDays());
+            assertEquals(expected.getFinalChargeCents(), actual.getFinalChargeCents());
+            finalCharge += actual.getFinalChargeCents();
+        }
+        assertEquals(finalCharge, cart.getFinalChargeCents());
+        assertEquals(cart.getPreDiscountChargeCents() - cart.getDiscountAmountCents(), cart.getFinalChargeCents());
+    }
+
+    /**
+     * Tests that a cart with a tool without units books none of its tools.
+     *
+     * @throws ParseException if the checkout date string cannot be parsed.
+     */
+    @Test
+    void testCheckOutCart_allOrNothing() throws ParseException {
+        ToolInventory inventory = new ToolInventory("LADW:1,CHNS:1,JAKR:0");
+        ToolRentalService service = new ToolRentalService.Builder()
+                .toolInventory(inventory)
+                .build();
+
+        assertThrows(ToolUnavailableException.class, () -> service.checkOutCart(
+                new CartRequest(List.of("LADW", "CHNS", "JAKR"), 3, 0, "07/02/20")));
+        assertThrows(ToolNotFoundException.class, () -> service.checkOutCart(
+                new CartRequest(List.of("LADW", "NONE"), 3, 0, "07/02/20")));
+        assertTrue(service.isAvailable("LADW", 3, "07/02/20"));
+        assertTrue(service.isAvailable("CHNS", 3, "07/02/20"));
+
+        CartAgreement cart = service.checkOutCart(new CartRequest(List.of("LADW", "CHNS"), 3, 0, "07/02/20"));
+        assertEquals(2, cart.getLines().size());
+        assertFalse(service.isAvailable("LADW", 3, "07/02/20"));
+        assertFalse(service.isAvailable("CHNS", 3, "07/02/20"));
+    }
+
+    /**
+     * Tests that checkouts of a booked-out rental period are rejected before promotions are looked up, singly and
+     * in batches.
+     *
+     * @throws ParseException if the checkout date string cannot be parsed.
+     */
+    @Test
+    void testCheckOutTool_bookedOutSkipsPromotions() throws ParseException {
+        ToolInventory inventory = new ToolInventory("LADW:0");
+        PromotionEngine promotionEngine = Mockito.mock(PromotionEngine.class);
+        ToolRentalService service = new ToolRentalService.Builder()
+                .toolInventory(inventory)
+                .pricingEngine(new PricingEngine(""))
+                .promotionEngine(promotionEngine)
+                .build();
+
+        assertThrows(BookingConflictException.class, () -> service.checkOutTool("LADW", 3, 0, "07/02/20"));
+        List<CheckoutResult> results = service.checkOutTools(List.of(new CheckoutRequest("LADW", 3, 0, "07/02/20")));
+        assertFalse(results.get(0).isSuccess());
+        Mockito.verifyNoInteractions(promotionEngine);
+    }
+
+    /**
+     * Tests that every cell of a quote matrix equals the quote of its rental period, with and without pricing
+     * rules and date-bound promotions, across holidays and a year end.
+     *
+     * @throws ParseException if a checkout date string cannot be parsed.
+     */
+    @Test
+    void testQuoteMatrix_matchesSingleQuotes() throws ParseException {
+        ToolInventory inventory = ToolInventory.unlimited();
+        PricingEngine pricingEngine = new PricingEngine("Chainsaw: day 3+ at 80%, *: weekly cap 9.00,"
+                + " *: 12-15 to 01-15 surcharge 10%");
+        ToolRentalService rulesService = new ToolRentalService.Builder()
+                .toolInventory(inventory)
+                .pricingEngine(pricingEngine)
+                .promotionEngine(new PromotionEngine("winter: 15% type Ladder from 2020-12-20 until 2021-01-05"))
+                .build();
+        try {
+            for (ToolRentalService service : List.of(toolRentalService, rulesService)) {
+                for (String toolCode : List.of("LADW", "CHNS", "JAKD", "JAKR")) {
+                    for (String checkoutDate : List.of("07/01/20", "08/30/15", "12/18/20")) {
+                        assertMatrixMatchesQuotes(service,
+                                service.quoteRentalLengths(null, toolCode, 60, 10, checkoutDate, null));
+                        assertMatrixMatchesQuotes(service,
+                                service.quoteCheckoutDates(null, toolCode, 9, 10, checkoutDate, 31, null));
+                    }
+                }
+            }
+        } finally {
+            pricingEngine.destroy();
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> toolRentalService.quoteRentalLengths(null, "LADW",
+                ToolRentalService.MAX_QUOTE_MATRIX_SIZE + 1, 0, "07/01/20", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> toolRentalService.quoteCheckoutDates(null, "LADW", 3, 0, "07/01/20", 0, null));
+    }
+
+    private static void assertMatrixMatchesQuotes(ToolRentalService service, QuoteMatrix matrix)
+            throws ParseException {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yy");
+        for (int i = 0; i < matrix.size(); i++) {
+            RentalAgreement expected = service.quoteTool(matrix.getToolCode(), matrix.getRentalDays(i), 10,
+                    matrix.getCheckoutDate(i).format(formatter));
+            String cell = matrix.getToolCode() + " " + matrix.getCheckoutDate(i) + " " + matrix.getRentalDays(i);
+            assertEquals(expected.getDueLocalDate(), matrix.getDueDate(i), cell);
+            assertEquals(expected.getChargeDays(), matrix.getChargeDays(i), cell);
+            assertEquals(expected.getPreDiscountChargeCents(), matrix.getPreDiscountChargeCents(i), cell);
+            assertEquals(expected.getDiscountPercent(), matrix.getDiscountPercent(i), cell);
+            assertEquals(expected.getDiscountAmountCents(), matrix.getDiscountAmountCents(i), cell);
+            assertEquals(expected.getFinalChargeCents(), matrix.getFinalChargeCents(i), cell);
+        }
+    }
+
+    /**
+     * Tests that a return is charged the agreed charge plus the agreement's daily charge for every chargeable late
+     * day, that it frees the rented unit, and that a rental is checked in only once.
+     *
+     * @throws ParseException if a checkout date string cannot be parsed.
+     */
+    @Test
+    void testCheckInTool_lateFees() throws ParseException {
+        ToolInventory inventory = new ToolInventory("LADW:1,JAKR:1");
+        ToolRentalService service = new ToolRentalService.Builder()
+                .toolInventory(inventory)
+                .returnsEnabled(true)
+                .build();
+
+        // Due on Sunday 07/05/20 and kept through Tuesday: the ladder charges all three late days, at the rate of
+        // its agreement even after the catalog is repriced
+        RentalAgreement ladder = service.checkOutTool("LADW", 3, 10, "07/02/20");
+        assertTrue(ladder.getId() > 0);
+        Tool catalogLadder = ToolRepository.findByCode("LADW");
+        ReturnSettlement late;
+        try {
+            ToolRepository.save(Tool.ofCents("LADW", "Ladder", "Werner", 999, false, false, false));
+            late = service.checkInTool(ReturnRequest.of(ladder, LocalDate.of(2020, 7, 8)));
+        } finally {
+            ToolRepository.save(catalogLadder);
+        }
+        assertEquals(ladder.getId(), late.getAgreementId());
+        assertEquals(6, late.getActualDays());
+        assertEquals(3, late.getLateDays());
+        assertEquals(3, late.getLateChargeDays());
+        assertEquals(new BigDecimal("3.58"), late.getRentalCharge());
+        assertEquals(new BigDecimal("5.97"), late.getLateFee());
+        assertEquals(new BigDecimal("9.55"), late.getTotalCharge());
+        assertTrue(service.isAvailable("LADW", 3, "07/02/20"));
+        assertEquals("No open rental with agreement id " + ladder.getId() + ".",
+                assertThrows(IllegalArgumentException.class,
+                        () -> service.checkInTool(ReturnRequest.of(ladder, LocalDate.of(2020, 7, 8))))
+                        .getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.checkInTool(new ReturnRequest(ladder.getId() + 100, LocalDate.of(2020, 7, 8))));
+
+        // Due on Tuesday 09/08/15 and kept through Sunday: the jackhammer charges only the four weekdays
+        RentalAgreement jackhammer = service.checkOutTool("JAKR", 5, 0, "09/03/15");
+        ReturnSettlement weekdays = service.checkInTool(ReturnRequest.of(jackhammer, LocalDate.of(2015, 9, 14)));
+        assertEquals(4, weekdays.getLateChargeDays());
+        assertEquals(new BigDecimal("11.96"), weekdays.getLateFee());
+
+        RentalAgreement early = service.checkOutTool("LADW", 3, 0, "07/02/20");
+        ReturnSettlement onTime = service.checkInTool(ReturnRequest.of(early, LocalDate.of(2020, 7, 3)));
+        assertFalse(onTime.isLate());
+        assertEquals(0, onTime.getLateFeeCents());
+        assertEquals(early.getFinalChargeCents(), onTime.getTotalChargeCents());
+
+        RentalAgreement returnedBeforeCheckout = service.checkOutTool("LADW", 3, 0, "07/02/20");
+        assertThrows(IllegalArgumentException.class,
+                () -> service.checkInTool(ReturnRequest.of(returnedBeforeCheckout, LocalDate.of(2020, 7, 1))));
+        assertFalse(service.isAvailable("LADW", 3, "07/02/20"));
+    }
+
+    /**
+     * Tests that a checkout failing unexpectedly after booking gives its rental period back.
+     *
+     * @throws ParseException if a checkout date string cannot be parsed.
+     */
+    @Test
+    void testCheckOutTool_unexpectedFailureReleasesBooking() throws ParseException {
+        PromotionEngine promotionEngine = Mockito.mock(PromotionEngine.class);
+        Mockito.when(promotionEngine.discountPercent(Mockito.any(), Mockito.anyLong(), Mockito.any(),
+                Mockito.anyInt())).thenThrow(new IllegalStateException("promotions unavailable"));
+        ToolRentalService service = new ToolRentalService.Builder()
+                .toolInventory(new ToolInventory("LADW:1"))
+                .promotionEngine(promotionEngine)
+                .build();
+
+        assertThrows(IllegalStateException.class, () -> service.checkOutTool("LADW", 3, 0, "07/02/20"));
+        assertTrue(service.isAvailable("LADW", 3, "07/02/20"));
+    }
+
+    /**
+     * Tests that returns are rejected while disabled, and that enabling them without the journal fails startup.
+     *
+     * @throws ParseException if a checkout date string cannot be parsed.
+     */
+    @Test
+    void testCheckInTool_returnsDisabled() throws ParseException {
+        ToolRentalService service = new ToolRentalService.Builder().build();
+        RentalAgreement ladder = service.checkOutTool("LADW", 3, 0, "07/02/20");
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> service.checkInTool(ReturnRequest.of(ladder, LocalDate.of(2020, 7, 5))));
+        assertThrows(UnsupportedOperationException.class,
+                () -> service.checkInTools(List.of(ReturnRequest.of(ladder, LocalDate.of(2020, 7, 5)))));
+        ToolRentalService unjournaled = new ToolRentalService.Builder()
+                .returnsEnabled(true)
+                .build();
+        assertThrows(IllegalStateException.class, unjournaled::afterPropertiesSet);
+    }
+
+    /**
+     * Tests that a bulk check-in large enough to be settled in parallel matches counting the late days one by one,
+     * and reports invalid returns in place.
+     */
+    @Test
+    void testCheckInTools_parallelMatchesDayByDay() {
+        ChargeCalendar chargeCalendar = new ChargeCalendar();
+        String[] toolCodes = {"CHNS", "LADW", "JAKD", "JAKR"};
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yy");
+        int count = ToolRentalService.BATCH_PARALLEL_THRESHOLD * 4;
+        List<CheckoutRequest> checkouts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LocalDate checkoutDate = LocalDate.of(2015, 1, 1).plusDays(i * 7L % 3650);
+            checkouts.add(new CheckoutRequest(toolCodes[i % toolCodes.length], 1 + i % 14, i % 50,
+                    checkoutDate.format(formatter)));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<CheckoutResult> agreements = toolRentalService.checkOutTools(checkouts, pool);
+            List<ReturnRequest> requests = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                RentalAgreement agreement = agreements.get(i).getAgreement();
+                requests.add(ReturnRequest.of(agreement, agreement.getCheckoutLocalDate().plusDays(i % 45)));
+            }
+            requests.add(new ReturnRequest(0, LocalDate.of(2020, 7, 8)));
+
+            List<ReturnResult> results = toolRentalService.checkInTools(null, requests, pool);
+
+            assertEquals(requests.size(), results.size());
+            for (int i = 0; i < count; i++) {
+                RentalAgreement agreement = agreements.get(i).getAgreement();
+                ReturnRequest request = requests.get(i);
+                int lateChargeDays = 0;
+                for (LocalDate day = agreement.getDueLocalDate(); day.isBefore(request.getReturnDate());
+                     day = day.plusDays(1)) {
+                    lateChargeDays += agreement.getChargeMask() >>> chargeCalendar.dayClass(day.toEpochDay()) & 1;
+                }
+                ReturnSettlement settlement = results.get(i).getSettlement();
+                assertSame(request, results.get(i).getRequest());
+                assertEquals(lateChargeDays, settlement.getLateChargeDays(), request.toString());
+                assertEquals(agreement.getFinalChargeCents() + agreement.getDailyChargeCents() * lateChargeDays,
+                        settlement.getTotalChargeCents());
+            }
+            assertEquals("No open rental with agreement id 0.", results.get(count).getError());
+        } finally {
+            pool.shutdown();
         }
     }
 
@@ -0,0 +1,209 @@
+package com.ECL062024.ToolRental.store;
+
+import com.ECL062024.ToolRental.calendar.ChargeCalendar;
+import com.ECL062024.ToolRental.calendar.DefaultHolidaySchedule;
+import com.ECL062024.ToolRental.inventory.ToolInventory;
+import com.ECL062024.ToolRental.model.RentalAgreement;
+import com.ECL062024.ToolRental.model.ReturnRequest;
+import com.ECL062024.ToolRental.model.Tool;
+import com.ECL062024.ToolRental.repository.InMemoryToolCatalog;
+import com.ECL062024.ToolRental.repository.ToolRepository;
+import com.ECL062024.ToolRental.service.QuoteCache;
+import com.ECL062024.ToolRental.service.ToolNotFoundException;
+import com.ECL062024.ToolRental.service.ToolRentalService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StoreDirectoryTest {
+    private static final Tool LADDER = new Tool("LADW", "Ladder", "Werner", 1.99, true, true, false);
+
+    /**
+     * Tests that stores are built from the properties with their own fleets and holidays.
+     */
+    @Test
+    void testStoreDirectory_fromProperties() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("toolrental.holidays", "07-04 observed")
+                .withProperty("toolrental.stores.east.tools", "CHNS, LADW, NONE")
+                .withProperty("toolrental.stores.west.holidays", "");
+        StoreDirectory storeDirectory = new StoreDirectory("east, west", environment);
+        storeDirectory.afterSingletonsInstantiated();
+
+        StoreShard east = storeDirectory.shard("east");
+        assertNotNull(east.findByCode("CHNS"));
+        assertNotNull(east.findByCode("LADW"));
+        assertNull(east.findByCode("JAKR"));
+        assertNull(storeDirectory.shard("west").findByCode("CHNS"));
+
+        long observedIndependenceDay = LocalDate.of(2015, 7, 3).toEpochDay();
+        assertTrue(east.getChargeCalendar().isHoliday(observedIndependenceDay));
+        assertFalse(storeDirectory.shard("west").getChargeCalendar().isHoliday(observedIndependenceDay));
+
+        assertThrows(StoreNotFoundException.class, () -> storeDirectory.shard("north"));
+        assertThrows(IllegalArgumentException.class, () -> new StoreDirectory("east,east", environment));
+    }
+
+    /**
+     * Tests that the service prices each store with its own calendar and caches quotes per store.
+     */
+    @Test
+    void testCheckOut_perStoreCalendar() throws ParseException {
+        StoreShard east = new StoreShard("east", new InMemoryToolCatalog(List.of(LADDER)),
+                new ChargeCalendar(new DefaultHolidaySchedule("07-02")));
+        StoreShard west = new StoreShard("west", new InMemoryToolCatalog(List.of(LADDER)),
+                new ChargeCalendar(new DefaultHolidaySchedule("")));
+        QuoteCache quoteCache = new QuoteCache(true, 32, Duration.ofMinutes(5));
+        ToolInventory toolInventory = ToolInventory.unlimited();
+        ToolRentalService service = new ToolRentalService.Builder()
+                .quoteCache(quoteCache)
+                .toolInventory(toolInventory)
+                .storeDirectory(new StoreDirectory(List.of(east, west)))
+                .build();
+        try {
+            // Thursday July 2nd 2020 through Saturday July 4th; ladders are not charged on holidays
+            assertEquals(2, service.quoteTool("east", "LADW", 3, 0, "07/01/20").getChargeDays());
+            assertEquals(3, service.quoteTool("west", "LADW", 3, 0, "07/01/20").getChargeDays());
+            assertEquals(2, service.quoteTool("east", "LADW", 3, 0, "07/01/20").getChargeDays());
+            assertEquals(1, quoteCache.getHitCount());
+            assertEquals(2, quoteCache.size());
+            // The default store observes Independence Day on Friday July 3rd
+            assertEquals(2, service.quoteTool("LADW", 3, 0, "07/01/20").getChargeDays());
+            assertEquals(3, quoteCache.size());
+        } finally {
+            quoteCache.destroy();
+        }
+    }
+
+    /**
+     * Tests that replacing a store's catalog leaves the other stores and the default store untouched.
+     */
+    @Test
+    void testReplaceCatalog_isolated() {
+        StoreShard east = new StoreShard("east", new InMemoryToolCatalog(List.of(LADDER)), new ChargeCalendar());
+        StoreShard west = new StoreShard("west", new InMemoryToolCatalog(List.of(LADDER)), new ChargeCalendar());
+        StoreDirectory storeDirectory = new StoreDirectory(List.of(east, west));
+        ToolInventory toolInventory = ToolInventory.unlimited();
+        ToolRentalService service = new ToolRentalService.Builder()
+                .toolInventory(toolInventory)
+                .storeDirectory(storeDirectory)
+                .build();
+
+        storeDirectory.replaceCatalog("east", List.of());
+
+        assertNull(east.findByCode("LADW"));
+        assertNotNull(west.findByCode("LADW"));
+        assertNotNull(ToolRepository.findByCode("LADW"));
+        assertThrows(ToolNotFoundException.class, () -> service.quoteTool("east", "LADW", 3, 0, "07/02/20"));
+        assertThrows(StoreNotFoundException.class, () -> service.quoteTool("north", "LADW", 3, 0, "07/02/20"));
+        assertThrows(StoreNotFoundException.class, () -> storeDirectory.replaceCatalog("north", List.of()));
+    }
+
+    /**
+     * Tests that each store books its own units, and that a rental is checked in only at its own store.
+     */
+    @Test
+    void testCheckOut_perStoreInventory() throws ParseException {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("toolrental.inventory.units", "JAKR:1")
+                .withProperty("toolrental.stores.east.tools", "JAKR")
+                .withProperty("toolrental.stores.west.tools", "JAKR")
+                .withProperty("toolrental.stores.west.inventory.units", "JAKR:2");
+        StoreDirectory storeDirectory = new StoreDirectory("east, west", environment);
+        storeDirectory.afterSingletonsInstantiated();
+        ToolInventory toolInventory = new ToolInventory("JAKR:1");
+        ToolRentalService service = new ToolRentalService.Builder()
+                .toolInventory(toolInventory)
+                .storeDirectory(storeDirectory)
+                .returnsEnabled(true)
+                .build();
+        try {
+            RentalAgreement east = service.checkOutTool("east", "JAKR", 4, 0, "07/02/20");
+            assertFalse(service.isAvailable("east", "JAKR", 1, "07/03/20"));
+            assertTrue(service.isAvailable("JAKR", 1, "07/03/20"));
+            service.checkOutTool("west", "JAKR", 4, 0, "07/02/20");
+            assertTrue(service.isAvailable("west", "JAKR", 1, "07/03/20"));
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> service.checkInTool("west", ReturnRequest.of(east, LocalDate.of(2020, 7, 6))));
+            assertThrows(IllegalArgumentException.class,
+                    () -> service.checkInTool(ReturnRequest.of(east, LocalDate.of(2020, 7, 6))));
+            service.checkInTool("east", ReturnRequest.of(east, LocalDate.of(2020, 7, 6)));
+            assertTrue(service.isAvailable("east", "JAKR", 1, "07/03/20"));
+        } finally {
+            storeDirectory.destroy();
+        }
+    }
+
+    /**
+     * Tests that a store's catalog is reloaded while another store's catalog lock is held.
+     *
+     * @throws Exception if the reload fails or does not finish in time
+     */
+    @Test
+    void testReloadCatalog_locksOnlyItsStore() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("toolrental.stores.east.tools", "CHNS")
+                .withProperty("toolrental.stores.west.tools", "LADW");
+        StoreDirectory storeDirectory = new StoreDirectory("east, west", environment);
+
+        synchronized (storeDirectory.shard("east").catalogLock()) {
+            assertEquals(1, CompletableFuture.supplyAsync(() -> storeDirectory.reloadCatalog("west"))
+                    .get(10, TimeUnit.SECONDS));
+        }
+        assertNotNull(storeDirectory.shard("west").findByCode("LADW"));
+    }
+
+    /**
+     * Tests that store partitions follow saved and deleted tools of their fleet and catalog reloads, and stop
+     * following once the directory is destroyed.
+     */
+    @Test
+    void testRefresh_followsRepository() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("toolrental.stores.east.tools", "CHNS, LADW");
+        StoreDirectory storeDirectory = new StoreDirectory("east", environment);
+        storeDirectory.afterSingletonsInstantiated();
+        StoreShard east = storeDirectory.shard("east");
+        Tool ladder = ToolRepository.findByCode("LADW");
+        Tool chainsaw = ToolRepository.findByCode("CHNS");
+        Tool jackhammer = ToolRepository.findByCode("JAKD");
+        try {
+            Tool repriced = new Tool("LADW", "Ladder", "Werner", 2.49, true, true, false);
+            ToolRepository.save(repriced);
+            assertSame(repriced, east.findByCode("LADW"));
+            ToolRepository.save(new Tool("JAKD", "Jackhammer", "DeWalt", 3.49, true, false, false));
+            assertNull(east.findByCode("JAKD"));
+
+            ToolRepository.delete("CHNS");
+            assertNull(east.findByCode("CHNS"));
+            ToolRepository.setCatalog(ToolRepository.getCatalog());
+            assertNull(east.findByCode("CHNS"));
+            assertSame(repriced, east.findByCode("LADW"));
+
+            storeDirectory.destroy();
+            ToolRepository.save(ladder);
+            assertSame(repriced, east.findByCode("LADW"));
+        } finally {
+            storeDirectory.destroy();
+            ToolRepository.save(ladder);
+            ToolRepository.save(chainsaw);
+            ToolRepository.save(jackhammer);
+        }
+    }
+
+}